@@ -4,6 +4,8 @@
  */
 package App;
 
+import Util.HashCredenciales;
+import Util.HibernateUtil;
 import Vista.LoginFrame;
 import javax.swing.UIManager;
 
@@ -23,6 +25,10 @@ public class App {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        // Hibernate arranca en segundo plano; el login no lo espera
+        HibernateUtil.iniciarAsync();
+        // Coste BCrypt ajustado a este equipo mientras se muestra el login
+        HashCredenciales.getInstancia().calibrarAsync();
         javax.swing.SwingUtilities.invokeLater(() -> {
             new LoginFrame().setVisible(true);
         });
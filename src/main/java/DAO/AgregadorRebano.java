@@ -0,0 +1,298 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+import Modelo.EstadisticasRebano;
+import Modelo.Evento;
+import Modelo.Oveja;
+import Util.Catalogo;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * KPIs del rebaño mantenidos en memoria. Se siembran una vez desde BD
+ * ({@link OvejaDAO#consultarTotales}) y después OvejaDAO y EventoDAO notifican cada cambio
+ * confirmado (tras tx.commit()), que se aplica como un delta O(1). Así
+ * "Actualizar" en EstadisticasPanel, o cualquier otro panel, obtiene la
+ * instantánea sin ir a BD.
+ *
+ * Los pesos se suman en centésimas de kg (DECIMAL(5,2)) con long: la media
+ * es exacta aunque se apliquen millones de deltas.
+ *
+ * Escrituras que no pasan por los DAO (importación CSV con StatelessSession)
+ * llaman a {@link #invalidar()} y la siguiente lectura vuelve a sembrar.
+ *
+ * Uso:
+ *
+ * EstadisticasRebano stats = AgregadorRebano.getInstancia().instantanea();
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see EstadisticasRebano
+ */
+public final class AgregadorRebano {
+
+    /**
+     * Datos de una oveja que afectan a los KPIs, copiados antes de un cambio
+     * para poder restar su aportación anterior.
+     *
+     * @param activo en el censo.
+     * @param hembra sexo 'H'.
+     * @param raza código en {@link Catalogo#RAZAS} (0 = sin raza).
+     * @param pesoCentesimas peso en centésimas de kg, -1 si no hay peso.
+     */
+    public record Huella(boolean activo, boolean hembra, int raza, long pesoCentesimas) {
+
+        /**
+         * @param o oveja (null = sin aportación).
+         * @return huella de la oveja o null.
+         */
+        public static Huella de(Oveja o) {
+            if (o == null) {
+                return null;
+            }
+            BigDecimal peso = o.getPesoActual();
+            return new Huella(o.isActivo(), "H".equals(o.getSexo()), Math.max(0, Catalogo.RAZAS.buscar(o.getRaza())),
+                    peso != null ? peso.movePointRight(2).longValue() : -1);
+        }
+    }
+
+    /**
+     * Contadores agregados del rebaño, tal como salen de BD o del estado en
+     * memoria.
+     *
+     * @param total ovejas registradas (activas + bajas).
+     * @param activas ovejas activas.
+     * @param hembras hembras activas.
+     * @param sumaPesoCentesimas suma del peso de las activas, en centésimas.
+     * @param conPeso activas con peso.
+     * @param porRaza activas por código de {@link Catalogo#RAZAS} (0 = sin
+     * raza).
+     * @param eventosMes eventos activos del mes.
+     */
+    public record Totales(long total, long activas, long hembras, long sumaPesoCentesimas,
+            long conPeso, long[] porRaza, long eventosMes) {
+
+        /**
+         * @return KPIs con las razas ordenadas de más a menos ovejas.
+         */
+        public EstadisticasRebano estadisticas() {
+            List<Integer> razas = new ArrayList<>();
+            for (int c = 0; c < porRaza.length; c++) {
+                if (porRaza[c] > 0) {
+                    razas.add(c);
+                }
+            }
+            razas.sort((a, b) -> Long.compare(porRaza[b], porRaza[a]));
+            Map<String, Long> ordenadas = new LinkedHashMap<>();
+            for (int c : razas) {
+                ordenadas.put(c != 0 ? Catalogo.RAZAS.nombre(c) : EstadisticasRebano.SIN_RAZA, porRaza[c]);
+            }
+            double pesoMedio = conPeso > 0 ? sumaPesoCentesimas / 100.0 / conPeso : 0.0;
+            return new EstadisticasRebano(total, activas, hembras, pesoMedio, ordenadas, eventosMes);
+        }
+    }
+
+    /** Reintentos de siembra si llegan cambios mientras se consulta. */
+    private static final int MAX_SIEMBRAS = 3;
+
+    private static final AgregadorRebano INSTANCIA = new AgregadorRebano();
+
+    private final OvejaDAO dao = new OvejaDAO();
+
+    // Estado protegido por this
+    private boolean sembrado;
+    private long total;
+    private long activas;
+    private long hembras;
+    private long sumaPesoCentesimas;
+    private long conPeso;
+    /** Ovejas activas por código de raza (posición 0 = sin raza). */
+    private long[] porRaza = new long[16];
+    private YearMonth mes;
+    private long eventosMes;
+
+    /** Última instantánea construida; null si hubo cambios desde entonces. */
+    private EstadisticasRebano instantanea;
+
+    /** Cambios notificados; detecta los que llegan durante una siembra. */
+    private long version;
+
+    private AgregadorRebano() {
+    }
+
+    /**
+     * @return agregador único de la aplicación.
+     */
+    public static AgregadorRebano getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * KPIs actuales. La primera llamada (o la primera tras
+     * {@link #invalidar()} o un cambio de mes) consulta la BD; el resto son
+     * O(1) salvo reordenar las razas si cambiaron.
+     *
+     * @return instantánea inmutable.
+     */
+    public EstadisticasRebano instantanea() {
+        synchronized (this) {
+            if (sembrado && YearMonth.now().equals(mes)) {
+                if (instantanea == null) {
+                    instantanea = construir();
+                }
+                return instantanea;
+            }
+        }
+        return sembrar();
+    }
+
+    /**
+     * Descarta el estado; la próxima lectura vuelve a sembrar desde BD.
+     */
+    public synchronized void invalidar() {
+        sembrado = false;
+        instantanea = null;
+        version++;
+    }
+
+    /**
+     * Oveja dada de alta (OvejaDAO.insertar/insertarLote).
+     *
+     * @param nueva huella de la oveja guardada.
+     */
+    public synchronized void ovejaInsertada(Huella nueva) {
+        version++;
+        if (!sembrado) return;
+        total++;
+        aplicar(nueva, 1);
+        instantanea = null;
+    }
+
+    /**
+     * Oveja modificada: actualizar, baja o reincorporación.
+     *
+     * @param antes huella antes del cambio (null si no existía).
+     * @param despues huella tras el cambio.
+     */
+    public synchronized void ovejaModificada(Huella antes, Huella despues) {
+        version++;
+        if (!sembrado) return;
+        if (antes == null) {
+            total++;
+        }
+        aplicar(antes, -1);
+        aplicar(despues, 1);
+        instantanea = null;
+    }
+
+    /**
+     * Evento activo registrado (EventoDAO.insertar).
+     *
+     * @param fecha fecha del evento.
+     */
+    public synchronized void eventoInsertado(LocalDate fecha) {
+        version++;
+        if (!sembrado) return;
+        if (fecha != null && YearMonth.from(fecha).equals(mes)) {
+            eventosMes++;
+            instantanea = null;
+        }
+    }
+
+    /**
+     * Evento borrado o con fecha/estado cambiados.
+     *
+     * @param antes fecha previa si estaba activo, null si no contaba.
+     * @param despues fecha nueva si sigue activo, null si ya no cuenta.
+     */
+    public synchronized void eventoModificado(LocalDate antes, LocalDate despues) {
+        version++;
+        if (!sembrado) return;
+        if (antes != null && YearMonth.from(antes).equals(mes)) {
+            eventosMes--;
+        }
+        if (despues != null && YearMonth.from(despues).equals(mes)) {
+            eventosMes++;
+        }
+        instantanea = null;
+    }
+
+    /**
+     * @param e evento.
+     * @return fecha si el evento cuenta para los KPIs (activo), si no null.
+     */
+    static LocalDate fechaSiActivo(Evento e) {
+        return e != null && e.isActivo() ? e.getFechaEvento() : null;
+    }
+
+    /** Suma (signo 1) o resta (signo -1) la aportación de una oveja. */
+    private void aplicar(Huella h, int signo) {
+        if (h == null || !h.activo()) {
+            return;
+        }
+        activas += signo;
+        if (h.hembra()) {
+            hembras += signo;
+        }
+        if (h.pesoCentesimas() >= 0) {
+            sumaPesoCentesimas += signo * h.pesoCentesimas();
+            conPeso += signo;
+        }
+        sumarRaza(h.raza(), signo);
+    }
+
+    private void sumarRaza(int codigo, long n) {
+        if (codigo >= porRaza.length) {
+            porRaza = Arrays.copyOf(porRaza, Math.max(codigo + 1, porRaza.length * 2));
+        }
+        porRaza[codigo] += n;
+    }
+
+    private EstadisticasRebano construir() {
+        return new Totales(total, activas, hembras, sumaPesoCentesimas, conPeso, porRaza, eventosMes)
+                .estadisticas();
+    }
+
+    /**
+     * Carga el estado desde BD fuera del cerrojo, con la misma consulta que
+     * {@link OvejaDAO#obtenerEstadisticas()}. Si entre tanto se notificó
+     * algún cambio, el resultado puede no incluirlo (o contarlo dos veces) y
+     * se repite la consulta.
+     */
+    private EstadisticasRebano sembrar() {
+        for (int intento = 1; ; intento++) {
+            long versionInicial;
+            synchronized (this) {
+                versionInicial = version;
+            }
+            YearMonth mesActual = YearMonth.now();
+            Totales t = dao.consultarTotales(mesActual);
+
+            synchronized (this) {
+                if (version != versionInicial && intento < MAX_SIEMBRAS) {
+                    continue;
+                }
+                total = t.total();
+                activas = t.activas();
+                hembras = t.hembras();
+                sumaPesoCentesimas = t.sumaPesoCentesimas();
+                conPeso = t.conPeso();
+                porRaza = t.porRaza().clone();
+                mes = mesActual;
+                eventosMes = t.eventosMes();
+                sembrado = true;
+                instantanea = construir();
+                return instantanea;
+            }
+        }
+    }
+}
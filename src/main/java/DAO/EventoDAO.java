@@ -4,11 +4,24 @@
  */
 package DAO;
 
+import Modelo.CambioDominio;
 import Modelo.Evento;
+import Modelo.EventoFila;
+import Modelo.Linaje;
+import Modelo.Oveja;
+import Modelo.Pesada;
+import Util.BusCambios;
+import Util.Catalogo;
 import Util.HibernateUtil;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -40,17 +53,34 @@ public class EventoDAO {
      * @param evento evento a registrar.
      */
     public void insertar(Evento evento) {
-    Transaction tx = null;
+        // Madre nueva: sus valores de catálogo deben existir antes del flush
+        if (evento.getOvejaMadre() != null && evento.getOvejaMadre().getId() == null) {
+            Catalogo.registrarValores(evento.getOvejaMadre());
+        }
+        Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
             session.persist(evento);
 
             // Persistir ovejaMadre SI es nueva
-            if (evento.getOvejaMadre() != null && evento.getOvejaMadre().getId() == null) {
+            boolean madreNueva = evento.getOvejaMadre() != null && evento.getOvejaMadre().getId() == null;
+            if (madreNueva) {
                 session.persist(evento.getOvejaMadre());
             }
 
             tx.commit();
+            AgregadorRebano agregador = AgregadorRebano.getInstancia();
+            if (madreNueva) {
+                agregador.ovejaInsertada(AgregadorRebano.Huella.de(evento.getOvejaMadre()));
+            }
+            if (evento.isActivo()) {
+                agregador.eventoInsertado(evento.getFechaEvento());
+            }
+            BusCambios bus = BusCambios.getInstancia();
+            if (madreNueva) {
+                bus.publicar(new CambioDominio.OvejaCreada(evento.getOvejaMadre().getId()));
+            }
+            bus.publicar(new CambioDominio.EventoRegistrado(evento.getId()));
         } catch (Exception e) {
             if (tx != null) {
                 tx.rollback();
@@ -59,6 +89,45 @@ public class EventoDAO {
         }
     }
 
+    /**
+     * Registra un nacimiento: la cría (con su primera pesada) y el evento
+     * Parto en una sola transacción, para que nunca quede una cría sin su
+     * parto ni un parto sin cría.
+     *
+     * @param cria oveja nueva (sin ID).
+     * @param parto evento Parto cuya oveja es la cría.
+     * @throws IllegalArgumentException si falta la cría o el evento.
+     * @throws RuntimeException si falla la inserción (se hace rollback).
+     */
+    public void insertarParto(Oveja cria, Evento parto) {
+        if (cria == null || parto == null) throw new IllegalArgumentException("Cría y parto son obligatorios");
+        Catalogo.registrarValores(cria);
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            session.persist(cria);
+            Pesada pesada = Pesada.deHoy(cria);
+            if (pesada != null) {
+                session.persist(pesada);
+            }
+            parto.setOveja(cria);
+            session.persist(parto);
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            e.printStackTrace();
+            throw new RuntimeException("Error registrando parto: " + e.getMessage(), e);
+        }
+        AgregadorRebano agregador = AgregadorRebano.getInstancia();
+        agregador.ovejaInsertada(AgregadorRebano.Huella.de(cria));
+        if (parto.isActivo()) {
+            agregador.eventoInsertado(parto.getFechaEvento());
+        }
+        BusCambios bus = BusCambios.getInstancia();
+        bus.publicar(new CambioDominio.OvejaCreada(cria.getId()));
+        bus.publicar(new CambioDominio.EventoRegistrado(parto.getId()));
+    }
+
     /**
      * Actualiza un evento existente.
      *
@@ -68,8 +137,15 @@ public class EventoDAO {
         Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
-            session.merge(evento);
+            LocalDate antes = evento.getId() != null
+                    ? AgregadorRebano.fechaSiActivo(session.get(Evento.class, evento.getId())) : null;
+            Evento guardado = session.merge(evento);
             tx.commit();
+            AgregadorRebano.getInstancia().eventoModificado(antes, AgregadorRebano.fechaSiActivo(guardado));
+            // Desactivado = deja de estar en las tablas de eventos activos
+            BusCambios.getInstancia().publicar(guardado.isActivo()
+                    ? new CambioDominio.EventoModificado(guardado.getId())
+                    : new CambioDominio.EventoEliminado(guardado.getId()));
         } catch (Exception e) {
             if (tx != null) tx.rollback();
             e.printStackTrace();
@@ -77,13 +153,93 @@ public class EventoDAO {
     }
 
     /**
-     * Lista todos los eventos registrados.
+     * Lista todos los eventos registrados con su oveja y madre ya cargadas
+     * (JOIN FETCH, una sola consulta).
      *
      * @return lista completa de eventos.
      */
     public List<Evento> listarTodos() {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return session.createQuery("FROM Evento WHERE activo = true", Evento.class).list();
+            return session.createQuery("SELECT e FROM Evento e JOIN FETCH e.oveja "
+                    + "LEFT JOIN FETCH e.ovejaMadre WHERE e.activo = true", Evento.class).list();
+        }
+    }
+
+    /**
+     * Lista eventos activos como filas planas para tablas. Proyección DTO con
+     * JOIN a oveja: una única consulta, sin entidades gestionadas.
+     *
+     * @return filas ordenadas por ID.
+     * @see EventoFila
+     */
+    public List<EventoFila> listarFilas() {
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT new Modelo.EventoFila(e.id, o.numeroIdentificacion, e.tipoEvento, "
+                    + "e.fechaEvento, e.observaciones) "
+                    + "FROM Evento e JOIN e.oveja o WHERE e.activo = true ORDER BY e.id", EventoFila.class)
+                    .list();
+        }
+    }
+
+    /**
+     * Página de eventos activos (con oveja y madre cargadas) usando
+     * paginación keyset por ID.
+     *
+     * @param despuesDeId cursor: último ID visto (null = primera página).
+     * @param tamanio filas por página (&gt; 0).
+     * @return página con cursor para la siguiente llamada.
+     * @see Pagina
+     */
+    public Pagina<Evento> listarPagina(Integer despuesDeId, int tamanio) {
+        Pagina.validarTamanio(tamanio);
+        try (Session session = getSession()) {
+            List<Evento> filas = session.createQuery("SELECT e FROM Evento e JOIN FETCH e.oveja "
+                    + "LEFT JOIN FETCH e.ovejaMadre WHERE e.activo = true AND e.id > :cursor "
+                    + "ORDER BY e.id", Evento.class)
+                    .setParameter("cursor", despuesDeId != null ? despuesDeId : 0)
+                    .setMaxResults(tamanio + 1)
+                    .list();
+            return Pagina.desde(filas, tamanio, Evento::getId);
+        }
+    }
+
+    /**
+     * IDs ordenados de los eventos activos (solo índice (activo, id)). Lo
+     * usan las tablas virtualizadas para calcular filas y cursores.
+     *
+     * @return IDs ascendentes.
+     */
+    public int[] listarIdsActivos() {
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT e.id FROM Evento e WHERE e.activo = true ORDER BY e.id", Integer.class)
+                    .getResultStream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
+    /**
+     * Página de filas planas de eventos (proyección {@link EventoFila}) con
+     * paginación keyset por ID.
+     *
+     * @param despuesDeId cursor: último ID visto (null = primera página).
+     * @param tamanio filas por página (&gt; 0).
+     * @return página con cursor para la siguiente llamada.
+     */
+    public Pagina<EventoFila> listarFilasPagina(Integer despuesDeId, int tamanio) {
+        Pagina.validarTamanio(tamanio);
+        try (Session session = getSession()) {
+            List<EventoFila> filas = session.createQuery(
+                    "SELECT new Modelo.EventoFila(e.id, o.numeroIdentificacion, e.tipoEvento, "
+                    + "e.fechaEvento, e.observaciones) "
+                    + "FROM Evento e JOIN e.oveja o WHERE e.activo = true AND e.id > :cursor "
+                    + "ORDER BY e.id", EventoFila.class)
+                    .setParameter("cursor", despuesDeId != null ? despuesDeId : 0)
+                    .setMaxResults(tamanio + 1)
+                    .list();
+            return Pagina.desde(filas, tamanio, EventoFila::id);
         }
     }
 
@@ -96,7 +252,8 @@ public class EventoDAO {
     public List<Evento> obtenerEventosPorOveja(Integer idOveja) {
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             Query<Evento> query =
-                    session.createQuery("from Evento where oveja.id = :idOveja", Evento.class);
+                    session.createQuery("SELECT e FROM Evento e JOIN FETCH e.oveja "
+                            + "LEFT JOIN FETCH e.ovejaMadre WHERE e.oveja.id = :idOveja", Evento.class);
             query.setParameter("idOveja", idOveja);
             return query.list();
         }
@@ -117,8 +274,11 @@ public class EventoDAO {
 
             if (evento != null) {
                 // Borrado físico: elimina la fila de la tabla permanentemente
+                LocalDate antes = AgregadorRebano.fechaSiActivo(evento);
                 session.remove(evento);
                 tx.commit();
+                AgregadorRebano.getInstancia().eventoModificado(antes, null);
+                BusCambios.getInstancia().publicar(new CambioDominio.EventoEliminado(id));
                 System.out.println("Evento eliminado con éxito.");
             }
         } catch (Exception e) {
@@ -128,4 +288,283 @@ public class EventoDAO {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Lista eventos activos en el intervalo [desde, hasta). El filtro se
+     * resuelve en BD usando idx_evento_fecha_tipo_activo.
+     *
+     * @param desde fecha inicial (incluida).
+     * @param hasta fecha final (excluida).
+     * @return eventos del intervalo ordenados por fecha.
+     * @throws IllegalArgumentException si alguna fecha es null.
+     */
+    public List<Evento> listarEntreFechas(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT e FROM Evento e JOIN FETCH e.oveja LEFT JOIN FETCH e.ovejaMadre "
+                    + "WHERE e.fechaEvento >= :desde AND e.fechaEvento < :hasta "
+                    + "AND e.activo = true ORDER BY e.fechaEvento", Evento.class)
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .list();
+        }
+    }
+
+    /**
+     * Cuenta eventos activos en el intervalo [desde, hasta) con COUNT SQL.
+     *
+     * @param desde fecha inicial (incluida).
+     * @param hasta fecha final (excluida).
+     * @return número de eventos (0 si error).
+     */
+    public long contarEntreFechas(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT COUNT(e.id) FROM Evento e WHERE e.fechaEvento >= :desde "
+                    + "AND e.fechaEvento < :hasta AND e.activo = true", Long.class)
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .getSingleResult();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Cuenta eventos activos del mes indicado.
+     *
+     * @param mes mes/año a consultar.
+     * @return número de eventos del mes.
+     * @see #contarEntreFechas(LocalDate, LocalDate)
+     */
+    public long contarEventosMes(YearMonth mes) {
+        return contarEntreFechas(mes.atDay(1), mes.plusMonths(1).atDay(1));
+    }
+
+    /**
+     * Lista eventos activos de un tipo ("Parto", "Vacunación"...) dentro del
+     * intervalo [desde, hasta).
+     *
+     * @param tipoEvento tipo exacto del evento.
+     * @param desde fecha inicial (incluida).
+     * @param hasta fecha final (excluida).
+     * @return eventos coincidentes ordenados por fecha.
+     */
+    public List<Evento> listarPorTipo(String tipoEvento, LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT e FROM Evento e JOIN FETCH e.oveja LEFT JOIN FETCH e.ovejaMadre "
+                    + "WHERE e.fechaEvento >= :desde AND e.fechaEvento < :hasta "
+                    + "AND e.tipoEvento = :tipo AND e.activo = true ORDER BY e.fechaEvento", Evento.class)
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .setParameter("tipo", tipoEvento)
+                    .list();
+        }
+    }
+
+    /**
+     * Lista eventos activos de una oveja dentro del intervalo [desde, hasta).
+     * Usa idx_evento_oveja_fecha.
+     *
+     * @param idOveja ID de la oveja.
+     * @param desde fecha inicial (incluida).
+     * @param hasta fecha final (excluida).
+     * @return historial de la oveja en el intervalo ordenado por fecha.
+     */
+    public List<Evento> listarPorOveja(Integer idOveja, LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT e FROM Evento e JOIN FETCH e.oveja LEFT JOIN FETCH e.ovejaMadre "
+                    + "WHERE e.oveja.id = :idOveja AND e.fechaEvento >= :desde "
+                    + "AND e.fechaEvento < :hasta AND e.activo = true ORDER BY e.fechaEvento", Evento.class)
+                    .setParameter("idOveja", idOveja)
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .list();
+        }
+    }
+
+    /**
+     * Historial de eventos activos de varias ovejas en una sola consulta
+     * (fichas del informe PDF, una página de ovejas cada vez). Usa
+     * idx_evento_oveja_fecha.
+     *
+     * @param idsOveja IDs de las ovejas (una página, no todo el censo).
+     * @return filas ordenadas por oveja y fecha; vacía si no hay IDs.
+     */
+    public List<EventoFila> listarFilasPorOvejas(Collection<Integer> idsOveja) {
+        if (idsOveja == null || idsOveja.isEmpty()) {
+            return List.of();
+        }
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT new Modelo.EventoFila(e.id, o.numeroIdentificacion, e.tipoEvento, "
+                    + "e.fechaEvento, e.observaciones) "
+                    + "FROM Evento e JOIN e.oveja o WHERE o.id IN (:ids) AND e.activo = true "
+                    + "ORDER BY o.id, e.fechaEvento, e.id", EventoFila.class)
+                    .setParameter("ids", idsOveja)
+                    .list();
+        }
+    }
+
+    // ==================== GENEALOGÍA ====================
+
+    /**
+     * Condición de parto que enlaza hija y madre. Los partos antiguos con la
+     * madre como oveja del evento (madre = oveja) no aportan linaje.
+     */
+    private static final String PARTO_CON_MADRE = "e.tipo_evento = 'Parto' AND e.activo = 1 "
+            + "AND e.id_oveja_madre IS NOT NULL AND e.id_oveja_madre <> e.id_oveja";
+
+    /**
+     * Cuenta los partos con madre distinta de la oveja (aristas del grafo
+     * genealógico).
+     *
+     * @return número de relaciones hija → madre.
+     */
+    public long contarPartos() {
+        try (Session session = getSession()) {
+            return ((Number) session.createNativeQuery(
+                    "SELECT COUNT(*) FROM evento e WHERE " + PARTO_CON_MADRE, Object.class)
+                    .getSingleResult()).longValue();
+        }
+    }
+
+    /**
+     * Lee todas las relaciones hija → madre/padre por JDBC directo: getInt()
+     * sobre un ResultSet en streaming, sin entidades ni enteros en caja.
+     *
+     * @return relaciones ordenadas por ID de evento.
+     * @see RelacionesParto
+     */
+    public RelacionesParto listarRelacionesParto() {
+        try (Session session = getSession()) {
+            return session.doReturningWork(con -> {
+                int[] hijas = new int[1024];
+                int[] madres = new int[1024];
+                int[] padres = new int[1024];
+                int n = 0;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT e.id_oveja, e.id_oveja_madre, e.id_oveja_padre FROM evento e WHERE "
+                        + PARTO_CON_MADRE + " ORDER BY e.id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    ps.setFetchSize(Integer.MIN_VALUE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == hijas.length) {
+                                hijas = Arrays.copyOf(hijas, n * 2);
+                                madres = Arrays.copyOf(madres, n * 2);
+                                padres = Arrays.copyOf(padres, n * 2);
+                            }
+                            hijas[n] = rs.getInt(1);
+                            madres[n] = rs.getInt(2);
+                            padres[n] = rs.getInt(3);  // NULL → 0
+                            n++;
+                        }
+                    }
+                }
+                return new RelacionesParto(Arrays.copyOf(hijas, n), Arrays.copyOf(madres, n),
+                        Arrays.copyOf(padres, n));
+            });
+        }
+    }
+
+    /**
+     * Descendientes de una oveja (como madre o como padre) resueltos en
+     * MySQL con una CTE recursiva (usa idx_evento_madre_tipo e
+     * idx_evento_padre_tipo). Alternativa al grafo en memoria cuando el
+     * rebaño es demasiado grande para cargarlo.
+     *
+     * @param idOveja ID de la oveja raíz.
+     * @param maxGeneraciones tope de profundidad (corta también ciclos por
+     * datos erróneos).
+     * @return hijas, nietas... con su generación mínima.
+     */
+    public Linaje descendientesSql(int idOveja, int maxGeneraciones) {
+        checkGeneraciones(maxGeneraciones);
+        return linajeSql(idOveja,
+                "WITH RECURSIVE linaje (id, generacion) AS ("
+                + " SELECT e.id_oveja, 1 FROM evento e"
+                + " WHERE (e.id_oveja_madre = ? OR e.id_oveja_padre = ?) AND " + PARTO_CON_MADRE
+                + " UNION"
+                + " SELECT e.id_oveja, l.generacion + 1 FROM linaje l"
+                + " JOIN evento e ON (e.id_oveja_madre = l.id OR e.id_oveja_padre = l.id)"
+                + " WHERE l.generacion < ? AND " + PARTO_CON_MADRE + ")"
+                + " SELECT id, MIN(generacion) g FROM linaje WHERE id <> ? GROUP BY id ORDER BY g, id",
+                idOveja, idOveja, maxGeneraciones, idOveja);
+    }
+
+    /**
+     * Ancestros (madre, padre, abuelos...) con una CTE recursiva. Cada parto
+     * se cruza con dos filas fijas para sacar madre y padre con una sola
+     * referencia recursiva, como exige MySQL.
+     *
+     * @param idOveja ID de la oveja raíz.
+     * @param maxGeneraciones tope de profundidad.
+     * @return ancestros con su generación mínima.
+     */
+    public Linaje ancestrosSql(int idOveja, int maxGeneraciones) {
+        String progenitor = "CASE lado.k WHEN 1 THEN e.id_oveja_madre ELSE e.id_oveja_padre END";
+        String lados = " CROSS JOIN (SELECT 1 AS k UNION ALL SELECT 2) lado";
+        checkGeneraciones(maxGeneraciones);
+        return linajeSql(idOveja,
+                "WITH RECURSIVE linaje (id, generacion) AS ("
+                + " SELECT " + progenitor + ", 1 FROM evento e" + lados
+                + " WHERE e.id_oveja = ? AND " + PARTO_CON_MADRE
+                + " UNION"
+                + " SELECT " + progenitor + ", l.generacion + 1 FROM linaje l"
+                + " JOIN evento e ON e.id_oveja = l.id" + lados
+                + " WHERE l.generacion < ? AND " + PARTO_CON_MADRE + ")"
+                + " SELECT id, MIN(generacion) g FROM linaje WHERE id IS NOT NULL AND id <> ?"
+                + " GROUP BY id ORDER BY g, id",
+                idOveja, maxGeneraciones, idOveja);
+    }
+
+    private static void checkGeneraciones(int maxGeneraciones) {
+        if (maxGeneraciones < 1) {
+            throw new IllegalArgumentException("maxGeneraciones debe ser >= 1: " + maxGeneraciones);
+        }
+    }
+
+    /** Ejecuta una CTE de linaje con parámetros enteros posicionales. */
+    private Linaje linajeSql(int idOveja, String sql, int... parametros) {
+        try (Session session = getSession()) {
+            return session.doReturningWork(con -> {
+                int[] ids = new int[64];
+                int[] generaciones = new int[64];
+                int n = 0;
+                try (PreparedStatement ps = con.prepareStatement(sql)) {
+                    for (int i = 0; i < parametros.length; i++) {
+                        ps.setInt(i + 1, parametros[i]);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == ids.length) {
+                                ids = Arrays.copyOf(ids, n * 2);
+                                generaciones = Arrays.copyOf(generaciones, n * 2);
+                            }
+                            ids[n] = rs.getInt(1);
+                            generaciones[n] = rs.getInt(2);
+                            n++;
+                        }
+                    }
+                }
+                return new Linaje(idOveja, Arrays.copyOf(ids, n), Arrays.copyOf(generaciones, n));
+            });
+        }
+    }
+
+    /**
+     * Valida intervalo de fechas no nulo.
+     */
+    private static void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Rango de fechas incompleto");
+        }
+    }
 }
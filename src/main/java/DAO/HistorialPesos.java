@@ -0,0 +1,165 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+import Modelo.Pesada;
+import Modelo.SeriePeso;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Series de peso en memoria y estadísticas de crecimiento del rebaño.
+ *
+ * Cada serie consultada se guarda (hasta
+ * {@value #MAX_SERIES_EN_MEMORIA}) y, como el historial solo admite altas,
+ * PesadaDAO y OvejaDAO le notifican cada pesada confirmada y se añade a la
+ * serie sin volver a BD. Los percentiles del rebaño se calculan sobre
+ * arrays de primitivos ordenados, sin BigDecimal por oveja.
+ *
+ * Uso:
+ *
+ * SeriePeso serie = HistorialPesos.getInstancia().serie(idOveja).reducir(200);
+ * double[] p = HistorialPesos.getInstancia().percentilesPeso(25, 50, 75);
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see PesadaDAO
+ * @see SeriePeso
+ */
+public final class HistorialPesos {
+
+    /** Series recordadas; al superarse se vacía la memoria. */
+    public static final int MAX_SERIES_EN_MEMORIA = 10_000;
+
+    private static final HistorialPesos INSTANCIA = new HistorialPesos(new PesadaDAO());
+
+    private final PesadaDAO pesadaDAO;
+
+    private final ConcurrentHashMap<Integer, SeriePeso> series = new ConcurrentHashMap<>();
+
+    /** Pesadas notificadas; detecta las que llegan durante una lectura. */
+    private final AtomicLong version = new AtomicLong();
+
+    private HistorialPesos(PesadaDAO pesadaDAO) {
+        this.pesadaDAO = pesadaDAO;
+    }
+
+    /**
+     * @return historial único de la aplicación.
+     */
+    public static HistorialPesos getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return pesadas de la oveja ordenadas por fecha.
+     */
+    public SeriePeso serie(int idOveja) {
+        SeriePeso s = series.get(idOveja);
+        if (s != null) {
+            return s;
+        }
+        long versionInicial = version.get();
+        s = pesadaDAO.serie(idOveja);
+        if (series.size() >= MAX_SERIES_EN_MEMORIA) {
+            series.clear();
+        }
+        // Una pesada confirmada durante la lectura podría faltar: no se guarda
+        if (version.get() == versionInicial) {
+            SeriePeso previa = series.putIfAbsent(idOveja, s);
+            return previa != null ? previa : s;
+        }
+        return s;
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return ganancia media diaria en kg/día (NaN sin dos pesadas).
+     */
+    public double gananciaMediaDiaria(int idOveja) {
+        return serie(idOveja).gananciaMediaDiaria();
+    }
+
+    /**
+     * Percentiles del peso actual de las ovejas activas.
+     *
+     * @param percentiles valores en [0, 100].
+     * @return kg para cada percentil (NaN si no hay pesos).
+     */
+    public double[] percentilesPeso(double... percentiles) {
+        int[] pesos = pesadaDAO.pesosActivas();
+        Arrays.sort(pesos);
+        double[] resultado = new double[percentiles.length];
+        for (int k = 0; k < percentiles.length; k++) {
+            double posicion = posicion(percentiles[k], pesos.length);
+            if (Double.isNaN(posicion)) {
+                resultado[k] = Double.NaN;
+                continue;
+            }
+            int i = (int) posicion;
+            int j = Math.min(i + 1, pesos.length - 1);
+            resultado[k] = (pesos[i] + (pesos[j] - pesos[i]) * (posicion - i)) / 100.0;
+        }
+        return resultado;
+    }
+
+    /**
+     * Percentiles de la ganancia media diaria de las ovejas activas con al
+     * menos dos pesadas.
+     *
+     * @param percentiles valores en [0, 100].
+     * @return kg/día para cada percentil (NaN si no hay datos).
+     */
+    public double[] percentilesGanancia(double... percentiles) {
+        double[] ganancias = pesadaDAO.gananciasActivas();
+        Arrays.sort(ganancias);
+        double[] resultado = new double[percentiles.length];
+        for (int k = 0; k < percentiles.length; k++) {
+            double posicion = posicion(percentiles[k], ganancias.length);
+            if (Double.isNaN(posicion)) {
+                resultado[k] = Double.NaN;
+                continue;
+            }
+            int i = (int) posicion;
+            int j = Math.min(i + 1, ganancias.length - 1);
+            resultado[k] = ganancias[i] + (ganancias[j] - ganancias[i]) * (posicion - i);
+        }
+        return resultado;
+    }
+
+    /**
+     * Pesada confirmada en BD: se añade a la serie si está en memoria.
+     *
+     * @param pesada pesada guardada (con oveja con ID).
+     */
+    void pesadaRegistrada(Pesada pesada) {
+        if (pesada == null) return;
+        int dia = (int) pesada.getFecha().toEpochDay();
+        version.incrementAndGet();
+        series.computeIfPresent(pesada.getOveja().getId(),
+                (id, s) -> s.con(dia, pesada.getPesoCentesimas()));
+    }
+
+    /**
+     * Descarta las series en memoria (escrituras que no pasan por los DAO).
+     */
+    public void invalidar() {
+        version.incrementAndGet();
+        series.clear();
+    }
+
+    /**
+     * Posición fraccionaria del percentil en un array ordenado (interpolación
+     * lineal entre los dos vecinos).
+     */
+    private static double posicion(double percentil, int n) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("Percentil fuera de [0, 100]: " + percentil);
+        }
+        return n == 0 ? Double.NaN : percentil / 100.0 * (n - 1);
+    }
+}
@@ -4,9 +4,22 @@
  */
 package DAO;
 
+import Modelo.CambioDominio;
+import Modelo.CensoColumnar;
+import Modelo.EstadisticasRebano;
 import Modelo.Oveja;
+import Modelo.Pesada;
+import Util.BusCambios;
+import Util.Catalogo;
 import Util.HibernateUtil;
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import org.hibernate.CacheMode;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
@@ -56,16 +69,84 @@ public class OvejaDAO {
      */
     public void insertar(Oveja oveja) {
         if (oveja == null) throw new IllegalArgumentException("Oveja no puede ser null");
+        Catalogo.registrarValores(oveja);
         Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
             session.persist(oveja);
+            // Primera pesada del historial
+            Pesada pesada = Pesada.deHoy(oveja);
+            if (pesada != null) {
+                session.persist(pesada);
+            }
             tx.commit();
         } catch (Exception e) {
             if (tx != null) tx.rollback();
             e.printStackTrace();
             throw new RuntimeException("Error insertando oveja: " + e.getMessage(), e);
         }
+        AgregadorRebano.getInstancia().ovejaInsertada(AgregadorRebano.Huella.de(oveja));
+        BusCambios.getInstancia().publicar(new CambioDominio.OvejaCreada(oveja.getId()));
+    }
+
+    /**
+     * Filas por flush en {@link #insertarLote}; igual que
+     * hibernate.jdbc.batch_size y que el allocationSize del generador de IDs.
+     */
+    private static final int TAMANIO_LOTE = 50;
+
+    /**
+     * Inserta muchas ovejas en una sola Session y transacción (alta de un
+     * rebaño comprado). Los INSERT se envían en lotes JDBC de
+     * {@value #TAMANIO_LOTE} y la Session se vacía tras cada lote para que la
+     * memoria no crezca con el número de filas. Todo o nada: si una fila
+     * falla se deshace el lote completo.
+     *
+     * @param ovejas ovejas nuevas (sin ID), no null.
+     * @return filas insertadas y rendimiento.
+     * @throws IllegalArgumentException si la colección o algún elemento es
+     * null.
+     * @throws RuntimeException si falla la inserción (se hace rollback).
+     */
+    public ResultadoLote insertarLote(Collection<Oveja> ovejas) {
+        if (ovejas == null) throw new IllegalArgumentException("Lista de ovejas no puede ser null");
+        if (ovejas.contains(null)) throw new IllegalArgumentException("Oveja no puede ser null");
+
+        long inicio = System.nanoTime();
+        for (Oveja oveja : ovejas) {
+            Catalogo.registrarValores(oveja);
+        }
+        int insertadas = 0;
+        Transaction tx = null;
+        try (Session session = getSession()) {
+            session.setJdbcBatchSize(TAMANIO_LOTE);
+            // No llenar la caché de segundo nivel con miles de altas
+            session.setCacheMode(CacheMode.IGNORE);
+            tx = session.beginTransaction();
+            for (Oveja oveja : ovejas) {
+                session.persist(oveja);
+                Pesada pesada = Pesada.deHoy(oveja);
+                if (pesada != null) {
+                    session.persist(pesada);
+                }
+                if (++insertadas % TAMANIO_LOTE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            e.printStackTrace();
+            throw new RuntimeException("Error insertando lote de ovejas: " + e.getMessage(), e);
+        }
+        AgregadorRebano agregador = AgregadorRebano.getInstancia();
+        for (Oveja oveja : ovejas) {
+            agregador.ovejaInsertada(AgregadorRebano.Huella.de(oveja));
+        }
+        BusCambios.getInstancia().publicar(new CambioDominio.OvejasCargadas(insertadas));
+
+        return new ResultadoLote(insertadas, System.nanoTime() - inicio);
     }
 
     /**
@@ -79,12 +160,16 @@ public class OvejaDAO {
             tx = session.beginTransaction();
             Oveja oveja = session.get(Oveja.class, id);
             if (oveja != null) {
+                AgregadorRebano.Huella antes = AgregadorRebano.Huella.de(oveja);
                 oveja.setActivo(false);
                 session.merge(oveja);
                 tx.commit();
+                AgregadorRebano.getInstancia().ovejaModificada(antes, AgregadorRebano.Huella.de(oveja));
+                BusCambios.getInstancia().publicar(new CambioDominio.OvejaDadaDeBaja(id));
             }
         } catch (Exception e) {
             if (tx != null) tx.rollback();
+            HibernateUtil.evictarCache(Oveja.class, id);
             e.printStackTrace();
         }
     }
@@ -95,29 +180,46 @@ public class OvejaDAO {
      * @param oveja objeto Oveja con ID y datos actualizados.
      */
     public void actualizar(Oveja oveja) {
+        Catalogo.registrarValores(oveja);
         Transaction tx = null;
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
             tx = session.beginTransaction();
-            session.merge(oveja);
+            AgregadorRebano.Huella antes = oveja.getId() != null
+                    ? AgregadorRebano.Huella.de(session.get(Oveja.class, oveja.getId())) : null;
+            Oveja guardada = session.merge(oveja);
+            // Un peso distinto en el formulario es una pesada nueva de hoy
+            Pesada pesada = Pesada.deHoy(guardada);
+            if (pesada != null && (antes == null || antes.pesoCentesimas() != pesada.getPesoCentesimas())) {
+                session.persist(pesada);
+            } else {
+                pesada = null;
+            }
             tx.commit();
+            HistorialPesos.getInstancia().pesadaRegistrada(pesada);
+            AgregadorRebano.getInstancia().ovejaModificada(antes, AgregadorRebano.Huella.de(guardada));
+            BusCambios.getInstancia().publicar(cambioOveja(antes, guardada));
         } catch (Exception e) {
             if (tx != null) tx.rollback();
+            HibernateUtil.evictarCache(Oveja.class, oveja.getId());
             e.printStackTrace();
         }
     }
 
     /**
-     * Busca oveja activa por número de identificación único.
+     * Busca oveja activa por número de identificación único. Se resuelve por
+     * id natural: numero → id y id → Oveja salen de la caché de segundo
+     * nivel sin tocar BD cuando ya se han leído antes.
      * 
      * @param numero número como "OVE001".
      * @return Oveja encontrada o null.
      */
     public Oveja buscarPorNumero(String numero) {
+        if (numero == null) {
+            return null;
+        }
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Oveja> query = session.createQuery(
-                    "FROM Oveja WHERE numeroIdentificacion = :num AND activo = true", Oveja.class);
-            query.setParameter("num", numero);
-            return query.uniqueResult();
+            Oveja oveja = session.bySimpleNaturalId(Oveja.class).load(numero);
+            return oveja != null && oveja.isActivo() ? oveja : null;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -150,6 +252,47 @@ public class OvejaDAO {
         }
     }
 
+    /**
+     * Página de ovejas según estado con paginación keyset por ID.
+     *
+     * @param soloActivas filtro por estado activo.
+     * @param despuesDeId cursor: último ID visto (null = primera página).
+     * @param tamanio filas por página (&gt; 0).
+     * @return página con cursor para la siguiente llamada.
+     * @see Pagina
+     */
+    public Pagina<Oveja> listarPagina(boolean soloActivas, Integer despuesDeId, int tamanio) {
+        Pagina.validarTamanio(tamanio);
+        try (Session session = getSession()) {
+            List<Oveja> filas = session.createQuery(
+                    "FROM Oveja o WHERE o.activo = :estado AND o.id > :cursor ORDER BY o.id", Oveja.class)
+                    .setParameter("estado", soloActivas)
+                    .setParameter("cursor", despuesDeId != null ? despuesDeId : 0)
+                    .setMaxResults(tamanio + 1)
+                    .list();
+            return Pagina.desde(filas, tamanio, Oveja::getId);
+        }
+    }
+
+    /**
+     * IDs ordenados de las ovejas según estado. Solo lee el índice
+     * (activo, id); sirve a tablas virtualizadas para conocer el número de
+     * filas y el cursor keyset de cada bloque.
+     *
+     * @param soloActivas filtro por estado activo.
+     * @return IDs ascendentes.
+     */
+    public int[] listarIds(boolean soloActivas) {
+        try (Session session = getSession()) {
+            return session.createQuery(
+                    "SELECT o.id FROM Oveja o WHERE o.activo = :estado ORDER BY o.id", Integer.class)
+                    .setParameter("estado", soloActivas)
+                    .getResultStream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
     /**
      * Reincorpora oveja inactiva al censo (activo = true).
      * 
@@ -161,12 +304,16 @@ public class OvejaDAO {
             tx = session.beginTransaction();
             Oveja oveja = session.get(Oveja.class, id);
             if (oveja != null) {
+                AgregadorRebano.Huella antes = AgregadorRebano.Huella.de(oveja);
                 oveja.setActivo(true);
                 session.merge(oveja);
                 tx.commit();
+                AgregadorRebano.getInstancia().ovejaModificada(antes, AgregadorRebano.Huella.de(oveja));
+                BusCambios.getInstancia().publicar(new CambioDominio.OvejaReincorporada(id));
             }
         } catch (Exception e) {
             if (tx != null) tx.rollback();
+            HibernateUtil.evictarCache(Oveja.class, id);
             e.printStackTrace();
         }
     }
@@ -179,12 +326,23 @@ public class OvejaDAO {
     public long contarTotal() {
         try (Session session = getSession()) {
             Query<Long> query = session.createQuery("SELECT COUNT(id) FROM Oveja", Long.class);
+            query.setCacheable(true);
             return query.getSingleResult();
         } catch (Exception e) {
             return 0;
         }
     }
 
+    /**
+     * Número sugerido para la próxima alta (p.ej. una cría). Cuenta también
+     * las bajas para no repetir el número de una oveja dada de baja.
+     *
+     * @return total de ovejas registradas + 1.
+     */
+    public long siguienteNumero() {
+        return contarTotal() + 1;
+    }
+
     /**
      * Cuenta ovejas activas para KPIs del rebaño actual.
      * 
@@ -193,6 +351,7 @@ public class OvejaDAO {
     public long contarActivas() {
         try (Session session = getSession()) {
             Query<Long> query = session.createQuery("SELECT COUNT(id) FROM Oveja WHERE activo = true", Long.class);
+            query.setCacheable(true);
             return query.getSingleResult();
         } catch (Exception e) {
             return 0;
@@ -230,4 +389,166 @@ public class OvejaDAO {
             return null;
         }
     }
+
+    /**
+     * Carga todo el censo (activas y bajas) en columnas de primitivos con
+     * una proyección JDBC en streaming: peso en centésimas, sexo y fecha ya
+     * convertidos en SQL y leídos con getInt(). Raza y estado de salud ya son
+     * códigos de catálogo: los diccionarios salen de {@link Catalogo}.
+     *
+     * @return instantánea columnar del censo.
+     * @see CensoColumnar
+     */
+    public CensoColumnar cargarCensoColumnar() {
+        try (Session session = getSession()) {
+            return session.doReturningWork(con -> {
+                int capacidad = 1024;
+                int[] ids = new int[capacidad];
+                float[] pesos = new float[capacidad];
+                byte[] sexos = new byte[capacidad];
+                short[] razas = new short[capacidad];
+                short[] estados = new short[capacidad];
+                int[] nacimientos = new int[capacidad];
+                boolean[] activos = new boolean[capacidad];
+                int maxRaza = 0;
+                int maxEstado = 0;
+                int n = 0;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT o.id, CAST(ROUND(o.peso_actual * 100) AS SIGNED), "
+                        + "CASE o.sexo WHEN 'H' THEN " + CensoColumnar.HEMBRA
+                        + " WHEN 'M' THEN " + CensoColumnar.MACHO + " ELSE " + CensoColumnar.OTRO + " END, "
+                        + "COALESCE(o.id_raza, 0), COALESCE(o.id_estado_salud, 0), "
+                        + "DATEDIFF(o.fecha_nacimiento, '1970-01-01'), o.activo "
+                        + "FROM oveja o ORDER BY o.id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    ps.setFetchSize(Integer.MIN_VALUE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == capacidad) {
+                                capacidad *= 2;
+                                ids = Arrays.copyOf(ids, capacidad);
+                                pesos = Arrays.copyOf(pesos, capacidad);
+                                sexos = Arrays.copyOf(sexos, capacidad);
+                                razas = Arrays.copyOf(razas, capacidad);
+                                estados = Arrays.copyOf(estados, capacidad);
+                                nacimientos = Arrays.copyOf(nacimientos, capacidad);
+                                activos = Arrays.copyOf(activos, capacidad);
+                            }
+                            ids[n] = rs.getInt(1);
+                            int centesimas = rs.getInt(2);
+                            pesos[n] = rs.wasNull() ? Float.NaN : centesimas / 100f;
+                            sexos[n] = (byte) rs.getInt(3);
+                            razas[n] = rs.getShort(4);
+                            estados[n] = rs.getShort(5);
+                            maxRaza = Math.max(maxRaza, razas[n]);
+                            maxEstado = Math.max(maxEstado, estados[n]);
+                            int dia = rs.getInt(6);
+                            nacimientos[n] = rs.wasNull() ? CensoColumnar.SIN_FECHA : dia;
+                            activos[n] = rs.getBoolean(7);
+                            n++;
+                        }
+                    }
+                }
+                return new CensoColumnar(n, ids, pesos, sexos, razas, estados, nacimientos, activos,
+                        diccionario(Catalogo.RAZAS, maxRaza, EstadisticasRebano.SIN_RAZA),
+                        diccionario(Catalogo.ESTADOS_SALUD, maxEstado, null));
+            });
+        }
+    }
+
+    /**
+     * Diccionario de un catálogo que cubre hasta maxCodigo (si se dio de alta
+     * algo durante la carga se recarga del catálogo).
+     */
+    private static String[] diccionario(Catalogo catalogo, int maxCodigo, String sinValor) {
+        if (maxCodigo > 0) {
+            catalogo.nombre(maxCodigo);
+        }
+        String[] nombres = catalogo.nombres();
+        if (nombres.length <= maxCodigo) {
+            nombres = Arrays.copyOf(nombres, maxCodigo + 1);
+        }
+        nombres[0] = sinValor;
+        return nombres;
+    }
+
+    /**
+     * Calcula todos los KPIs del rebaño en BD con consultas agregadas (no se
+     * transfiere ninguna fila de oveja).
+     *
+     * Recalcula todo en cada llamada; los paneles usan
+     * {@link AgregadorRebano}, que lo mantiene en memoria.
+     *
+     * @return instantánea inmutable de estadísticas.
+     * @see EstadisticasRebano
+     */
+    public EstadisticasRebano obtenerEstadisticas() {
+        return consultarTotales(YearMonth.now()).estadisticas();
+    }
+
+    /**
+     * Contadores del rebaño: una fila con COUNT/SUM, un GROUP BY por código
+     * de raza y el recuento de eventos del mes. Es la siembra de
+     * {@link AgregadorRebano} y la base de {@link #obtenerEstadisticas()}.
+     *
+     * @param mes mes de los eventos a contar.
+     * @return contadores agregados.
+     */
+    public AgregadorRebano.Totales consultarTotales(YearMonth mes) {
+        try (Session session = getSession()) {
+            Object[] fila = session.createQuery(
+                    "SELECT COUNT(o.id), "
+                    + "SUM(CASE WHEN o.activo = true THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN o.activo = true AND o.sexo = 'H' THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN o.activo = true THEN o.pesoActual END), "
+                    + "SUM(CASE WHEN o.activo = true AND o.pesoActual IS NOT NULL THEN 1 ELSE 0 END) "
+                    + "FROM Oveja o", Object[].class)
+                    .getSingleResult();
+            // Códigos directamente, sin pasar por el conversor a nombre
+            long[] porRaza = new long[16];
+            for (Object[] r : session.createNativeQuery(
+                    "SELECT COALESCE(o.id_raza, 0), COUNT(*) FROM oveja o WHERE o.activo = 1 "
+                    + "GROUP BY o.id_raza", Object[].class)
+                    .list()) {
+                int codigo = (int) aLong(r[0]);
+                if (codigo >= porRaza.length) {
+                    porRaza = Arrays.copyOf(porRaza, Math.max(codigo + 1, porRaza.length * 2));
+                }
+                porRaza[codigo] += aLong(r[1]);
+            }
+            long eventos = session.createQuery(
+                    "SELECT COUNT(e.id) FROM Evento e WHERE e.activo = true "
+                    + "AND e.fechaEvento >= :desde AND e.fechaEvento < :hasta", Long.class)
+                    .setParameter("desde", mes.atDay(1))
+                    .setParameter("hasta", mes.plusMonths(1).atDay(1))
+                    .getSingleResult();
+
+            return new AgregadorRebano.Totales(aLong(fila[0]), aLong(fila[1]), aLong(fila[2]),
+                    fila[3] != null ? new BigDecimal(fila[3].toString()).movePointRight(2).longValue() : 0,
+                    aLong(fila[4]), porRaza, eventos);
+        }
+    }
+
+    /**
+     * Cambio a publicar tras {@link #actualizar}: el formulario también
+     * puede cambiar el estado activo.
+     */
+    private static CambioDominio cambioOveja(AgregadorRebano.Huella antes, Oveja despues) {
+        int id = despues.getId();
+        if (antes == null) {
+            return new CambioDominio.OvejaCreada(id);
+        }
+        if (antes.activo() != despues.isActivo()) {
+            return despues.isActivo()
+                    ? new CambioDominio.OvejaReincorporada(id) : new CambioDominio.OvejaDadaDeBaja(id);
+        }
+        return new CambioDominio.OvejaModificada(id);
+    }
+
+    /**
+     * Convierte resultado agregado SQL (SUM sobre tabla vacía = null) a long.
+     */
+    private static long aLong(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0L;
+    }
 }
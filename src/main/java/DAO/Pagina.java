@@ -0,0 +1,64 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados para paginación keyset (seek). En lugar de OFFSET, la
+ * siguiente página se pide con el ID de la última fila vista
+ * ({@code WHERE id > :cursor ORDER BY id}), que MySQL resuelve por índice sin
+ * recorrer las filas anteriores.
+ *
+ * @param <T> tipo de fila (entidad o proyección).
+ * @param elementos filas de la página (inmutable).
+ * @param siguienteCursor ID a pasar en la próxima llamada, null si no hay
+ * más.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+public record Pagina<T>(List<T> elementos, Integer siguienteCursor) {
+
+    public Pagina {
+        elementos = List.copyOf(elementos);
+    }
+
+    /**
+     * @return true si existe otra página tras esta.
+     */
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+
+    /**
+     * Construye la página a partir de una consulta que pidió
+     * {@code tamanio + 1} filas: la fila extra solo indica que hay más.
+     *
+     * @param filas resultado de la consulta (hasta tamanio + 1).
+     * @param tamanio tamaño de página solicitado.
+     * @param clave extrae el ID (clave de ordenación) de una fila.
+     * @return página con cursor de continuación.
+     */
+    static <T> Pagina<T> desde(List<T> filas, int tamanio, Function<T, Integer> clave) {
+        if (filas.size() <= tamanio) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> pagina = filas.subList(0, tamanio);
+        return new Pagina<>(pagina, clave.apply(pagina.get(tamanio - 1)));
+    }
+
+    /**
+     * Valida tamaño de página.
+     *
+     * @throws IllegalArgumentException si tamanio &lt; 1.
+     */
+    static void validarTamanio(int tamanio) {
+        if (tamanio < 1) {
+            throw new IllegalArgumentException("Tamaño de página debe ser > 0");
+        }
+    }
+}
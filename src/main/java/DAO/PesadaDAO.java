@@ -0,0 +1,218 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+import Modelo.CambioDominio;
+import Modelo.Oveja;
+import Modelo.Pesada;
+import Modelo.SeriePeso;
+import Util.BusCambios;
+import Util.HibernateUtil;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * DAO del historial de pesadas (tabla "pesada", solo altas). Las lecturas
+ * van por JDBC directo con getInt(): días como DATEDIFF desde 1970-01-01
+ * (epoch day) y pesos en centésimas, sin LocalDate ni BigDecimal por fila.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HistorialPesos
+ */
+public class PesadaDAO {
+
+    /** Peso máximo que admite Oveja.pesoActual (DECIMAL(5,2)). */
+    private static final BigDecimal PESO_MAXIMO = new BigDecimal("999.99");
+
+    /** Días desde 1970-01-01, igual que LocalDate.toEpochDay(). */
+    private static final String DIA = "DATEDIFF(p.fecha, '1970-01-01')";
+
+    /**
+     * Obtiene Session Hibernate lazy (maneja Hibernate no inicializado).
+     *
+     * @return Session activa.
+     * @throws IllegalStateException si HibernateUtil falló.
+     */
+    protected Session getSession() {
+        try {
+            return HibernateUtil.getSessionFactory().openSession();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Hibernate no disponible: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Registra una pesada. Si es la más reciente de la oveja también pasa a
+     * ser su pesoActual, en la misma transacción.
+     *
+     * @param idOveja ID de la oveja.
+     * @param fecha día de la pesada (no futura).
+     * @param kg peso en kg (0 &lt; kg &lt;= 999.99).
+     * @throws IllegalArgumentException si faltan datos o están fuera de
+     * rango.
+     * @throws RuntimeException si falla la inserción (se hace rollback).
+     */
+    public void registrar(int idOveja, LocalDate fecha, BigDecimal kg) {
+        if (fecha == null) throw new IllegalArgumentException("Fecha no puede ser null");
+        if (fecha.isAfter(LocalDate.now())) throw new IllegalArgumentException("Fecha futura: " + fecha);
+        if (kg == null || kg.signum() <= 0 || kg.compareTo(PESO_MAXIMO) > 0) {
+            throw new IllegalArgumentException("Peso fuera de rango: " + kg);
+        }
+        Pesada pesada;
+        AgregadorRebano.Huella antes;
+        AgregadorRebano.Huella despues = null;
+        Transaction tx = null;
+        try (Session session = getSession()) {
+            tx = session.beginTransaction();
+            Oveja oveja = session.get(Oveja.class, idOveja);
+            if (oveja == null) throw new IllegalArgumentException("No existe oveja con ID " + idOveja);
+            antes = AgregadorRebano.Huella.de(oveja);
+            pesada = new Pesada(oveja, fecha, Pesada.aCentesimas(kg));
+            LocalDate ultima = session.createQuery(
+                    "SELECT MAX(p.fecha) FROM Pesada p WHERE p.oveja.id = :id", LocalDate.class)
+                    .setParameter("id", idOveja)
+                    .getSingleResult();
+            session.persist(pesada);
+            if (ultima == null || !fecha.isBefore(ultima)) {
+                oveja.setPesoActual(kg);
+                despues = AgregadorRebano.Huella.de(oveja);
+            }
+            tx.commit();
+        } catch (IllegalArgumentException e) {
+            if (tx != null) tx.rollback();
+            throw e;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            HibernateUtil.evictarCache(Oveja.class, idOveja);
+            e.printStackTrace();
+            throw new RuntimeException("Error registrando pesada: " + e.getMessage(), e);
+        }
+        HistorialPesos.getInstancia().pesadaRegistrada(pesada);
+        if (despues != null) {
+            AgregadorRebano.getInstancia().ovejaModificada(antes, despues);
+            BusCambios.getInstancia().publicar(new CambioDominio.OvejaModificada(idOveja));
+        }
+    }
+
+    /**
+     * Serie completa de una oveja.
+     *
+     * @param idOveja ID de la oveja.
+     * @return pesadas ordenadas por fecha (vacía si no tiene).
+     */
+    public SeriePeso serie(int idOveja) {
+        try (Session session = getSession()) {
+            return session.doReturningWork(con -> {
+                int[] dias = new int[16];
+                int[] centesimas = new int[16];
+                int n = 0;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT " + DIA + ", p.peso_centesimas FROM pesada p "
+                        + "WHERE p.id_oveja = ? ORDER BY p.fecha, p.id")) {
+                    ps.setInt(1, idOveja);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == dias.length) {
+                                dias = Arrays.copyOf(dias, n * 2);
+                                centesimas = Arrays.copyOf(centesimas, n * 2);
+                            }
+                            dias[n] = rs.getInt(1);
+                            centesimas[n++] = rs.getInt(2);
+                        }
+                    }
+                }
+                return new SeriePeso(idOveja, Arrays.copyOf(dias, n), Arrays.copyOf(centesimas, n));
+            });
+        }
+    }
+
+    /**
+     * Peso actual de las ovejas activas que lo tienen informado.
+     *
+     * @return pesos en centésimas de kg, sin orden.
+     */
+    public int[] pesosActivas() {
+        try (Session session = getSession()) {
+            return session.doReturningWork(con -> {
+                int[] pesos = new int[1024];
+                int n = 0;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT CAST(ROUND(o.peso_actual * 100) AS SIGNED) FROM oveja o "
+                        + "WHERE o.activo = 1 AND o.peso_actual IS NOT NULL",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    ps.setFetchSize(Integer.MIN_VALUE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == pesos.length) {
+                                pesos = Arrays.copyOf(pesos, n * 2);
+                            }
+                            pesos[n++] = rs.getInt(1);
+                        }
+                    }
+                }
+                return Arrays.copyOf(pesos, n);
+            });
+        }
+    }
+
+    /**
+     * Ganancia media diaria de cada oveja activa con al menos dos pesadas
+     * en días distintos, en una sola pasada por la tabla ordenada por
+     * (id_oveja, fecha): de cada oveja solo se guardan la primera y la
+     * última pesada.
+     *
+     * @return ganancias en kg/día, sin orden.
+     */
+    public double[] gananciasActivas() {
+        try (Session session = getSession()) {
+            return session.doReturningWork(con -> {
+                double[] ganancias = new double[1024];
+                int n = 0;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "SELECT p.id_oveja, " + DIA + ", p.peso_centesimas FROM pesada p "
+                        + "JOIN oveja o ON o.id = p.id_oveja AND o.activo = 1 "
+                        + "ORDER BY p.id_oveja, p.fecha, p.id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    ps.setFetchSize(Integer.MIN_VALUE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        int oveja = -1;
+                        int primerDia = 0;
+                        int primerPeso = 0;
+                        int ultimoDia = 0;
+                        int ultimoPeso = 0;
+                        boolean hay = rs.next();
+                        while (hay) {
+                            int id = rs.getInt(1);
+                            int dia = rs.getInt(2);
+                            int peso = rs.getInt(3);
+                            if (id != oveja) {
+                                oveja = id;
+                                primerDia = dia;
+                                primerPeso = peso;
+                            }
+                            ultimoDia = dia;
+                            ultimoPeso = peso;
+                            hay = rs.next();
+                            // Fin de la oveja: cerrar su ganancia
+                            if ((!hay || rs.getInt(1) != oveja) && ultimoDia > primerDia) {
+                                if (n == ganancias.length) {
+                                    ganancias = Arrays.copyOf(ganancias, n * 2);
+                                }
+                                ganancias[n++] = (ultimoPeso - primerPeso) / 100.0 / (ultimoDia - primerDia);
+                            }
+                        }
+                    }
+                }
+                return Arrays.copyOf(ganancias, n);
+            });
+        }
+    }
+}
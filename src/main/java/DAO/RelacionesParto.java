@@ -0,0 +1,27 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+/**
+ * Relaciones hija → madre (y padre, si consta) de los partos activos, en
+ * arrays paralelos de int (sin un objeto por fila). Ordenados por ID de
+ * evento: si una hija tiene varios partos registrados, el primero es el más
+ * antiguo.
+ *
+ * @param hijas ID de la oveja nacida (evento.id_oveja).
+ * @param madres ID de la madre (evento.id_oveja_madre).
+ * @param padres ID del padre (evento.id_oveja_padre), 0 si no consta.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see EventoDAO#listarRelacionesParto()
+ */
+public record RelacionesParto(int[] hijas, int[] madres, int[] padres) {
+
+    /** @return número de pares. */
+    public int size() {
+        return hijas.length;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+/**
+ * Resultado de una inserción masiva: filas escritas y tiempo empleado, para
+ * informar del rendimiento (filas/segundo) al usuario o en consola.
+ *
+ * @param insertadas filas persistidas.
+ * @param duracionNanos tiempo total de la operación (incluye commit).
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see OvejaDAO#insertarLote(java.util.Collection)
+ */
+public record ResultadoLote(int insertadas, long duracionNanos) {
+
+    /**
+     * @return duración en milisegundos.
+     */
+    public double duracionMs() {
+        return duracionNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return filas insertadas por segundo (0 si no hubo filas).
+     */
+    public double porSegundo() {
+        return duracionNanos <= 0 ? 0.0 : insertadas * 1_000_000_000.0 / duracionNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Lote[%d filas en %.1f ms, %.0f filas/s]",
+                insertadas, duracionMs(), porSegundo());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+import Modelo.Usuario;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Usuarios autenticados en memoria, para no releerlos de BD en cada uso
+ * (PerfilPanel, UsuarioService.findById). Cada entrada caduca a los
+ * {@value #TTL_MS} ms de su último registro; UsuarioDAO la descarta al
+ * actualizar o dar de baja al usuario, así que un perfil editado nunca se
+ * sirve desfasado.
+ *
+ * Guarda como mucho {@value #MAX_SESIONES} usuarios; al llenarse se purgan
+ * los caducados y, si no basta, se vacía.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Servicio.UsuarioService
+ */
+public final class SesionesUsuario {
+
+    /** Vida de una entrada sin renovar (30 minutos). */
+    public static final long TTL_MS = 30 * 60_000L;
+
+    public static final int MAX_SESIONES = 1_000;
+
+    private record Sesion(Usuario usuario, long caducaNanos) {
+    }
+
+    private static final SesionesUsuario INSTANCIA = new SesionesUsuario();
+
+    private final ConcurrentHashMap<Integer, Sesion> sesiones = new ConcurrentHashMap<>();
+
+    private SesionesUsuario() {
+    }
+
+    /**
+     * @return caché única de la aplicación.
+     */
+    public static SesionesUsuario getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Guarda (o renueva) un usuario recién autenticado o leído de BD.
+     *
+     * @param usuario usuario con ID.
+     */
+    public void registrar(Usuario usuario) {
+        if (usuario == null || usuario.getId() == null) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        if (sesiones.size() >= MAX_SESIONES) {
+            sesiones.values().removeIf(s -> s.caducaNanos() - ahora <= 0);
+            if (sesiones.size() >= MAX_SESIONES) {
+                sesiones.clear();
+            }
+        }
+        sesiones.put(usuario.getId(), new Sesion(usuario, ahora + TTL_MS * 1_000_000));
+    }
+
+    /**
+     * @param id ID del usuario.
+     * @return usuario en memoria o null si no está o caducó.
+     */
+    public Usuario get(int id) {
+        Sesion s = sesiones.get(id);
+        if (s == null) {
+            return null;
+        }
+        if (s.caducaNanos() - System.nanoTime() <= 0) {
+            sesiones.remove(id, s);
+            return null;
+        }
+        return s.usuario();
+    }
+
+    /**
+     * Descarta un usuario (perfil modificado o baja).
+     *
+     * @param id ID del usuario.
+     */
+    public void invalidar(Integer id) {
+        if (id != null) {
+            sesiones.remove(id);
+        }
+    }
+
+    /**
+     * Descarta todas las entradas.
+     */
+    public void invalidarTodo() {
+        sesiones.clear();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package DAO;
+
+import Modelo.Usuario;
+import Util.HibernateUtil;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * Escritura diferida de usuario.ultima_conexion. Un login solo anota la
+ * hora en memoria (la última por usuario: varios logins seguidos se funden
+ * en uno) y cada {@value #INTERVALO_S} s un hilo vuelca todo lo pendiente en
+ * un único UPDATE ... CASE, en lugar de un merge de la entidad completa por
+ * login. Lo pendiente también se vuelca al cerrar Hibernate.
+ *
+ * Si el volcado falla, las horas vuelven a la cola (salvo que entre tanto
+ * haya llegado una más reciente) y se reintenta en el siguiente ciclo.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Servicio.UsuarioService#loginAsync(String, String)
+ */
+public final class UltimasConexiones {
+
+    /** Segundos entre volcados. */
+    public static final long INTERVALO_S = 30;
+
+    /** Usuarios por UPDATE (límite de parámetros razonable). */
+    private static final int MAX_POR_UPDATE = 500;
+
+    private static final UltimasConexiones INSTANCIA = new UltimasConexiones();
+
+    private final ConcurrentHashMap<Integer, LocalDateTime> pendientes = new ConcurrentHashMap<>();
+
+    private UltimasConexiones() {
+        ScheduledExecutorService volcador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ultimas-conexiones");
+            t.setDaemon(true);
+            return t;
+        });
+        volcador.scheduleWithFixedDelay(this::volcar, INTERVALO_S, INTERVALO_S, TimeUnit.SECONDS);
+        HibernateUtil.alCerrar(this::volcar);
+    }
+
+    /**
+     * @return escritor único de la aplicación.
+     */
+    public static UltimasConexiones getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Anota la conexión (también en el objeto, para que la vea quien lo
+     * tenga en memoria).
+     *
+     * @param usuario usuario autenticado con ID.
+     * @param momento hora de la conexión.
+     */
+    public void registrar(Usuario usuario, LocalDateTime momento) {
+        usuario.setUltimaConexion(momento);
+        pendientes.merge(usuario.getId(), momento, (a, b) -> b.isAfter(a) ? b : a);
+    }
+
+    /**
+     * @return usuarios con hora pendiente de volcar.
+     */
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * Vuelca lo pendiente ahora (lo llama el temporizador y el cierre).
+     */
+    public synchronized void volcar() {
+        if (pendientes.isEmpty() || !HibernateUtil.isAvailable()) {
+            return;
+        }
+        // Sacar de la cola solo lo que se va a escribir
+        List<Map.Entry<Integer, LocalDateTime>> lote = new ArrayList<>();
+        for (Integer id : new ArrayList<>(pendientes.keySet())) {
+            LocalDateTime momento = pendientes.remove(id);
+            if (momento != null) {
+                lote.add(Map.entry(id, momento));
+            }
+        }
+        for (int desde = 0; desde < lote.size(); desde += MAX_POR_UPDATE) {
+            List<Map.Entry<Integer, LocalDateTime>> trozo =
+                    lote.subList(desde, Math.min(desde + MAX_POR_UPDATE, lote.size()));
+            try {
+                escribir(trozo);
+            } catch (Exception e) {
+                System.err.println("No se pudieron guardar " + trozo.size() + " últimas conexiones: " + e.getMessage());
+                for (Map.Entry<Integer, LocalDateTime> p : trozo) {
+                    pendientes.merge(p.getKey(), p.getValue(), (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+        }
+    }
+
+    private void escribir(List<Map.Entry<Integer, LocalDateTime>> trozo) {
+        StringBuilder sql = new StringBuilder("UPDATE usuario SET ultima_conexion = CASE id");
+        for (int i = 0; i < trozo.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" END WHERE id IN (");
+        for (int i = 0; i < trozo.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Transaction tx = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            tx = session.beginTransaction();
+            session.doWork(con -> {
+                try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
+                    int p = 1;
+                    for (Map.Entry<Integer, LocalDateTime> e : trozo) {
+                        ps.setInt(p++, e.getKey());
+                        ps.setTimestamp(p++, Timestamp.valueOf(e.getValue()));
+                    }
+                    for (Map.Entry<Integer, LocalDateTime> e : trozo) {
+                        ps.setInt(p++, e.getKey());
+                    }
+                    ps.executeUpdate();
+                }
+            });
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            throw e;
+        }
+        // El UPDATE no pasa por Hibernate: la caché L2 tendría la hora vieja
+        for (Map.Entry<Integer, LocalDateTime> e : trozo) {
+            HibernateUtil.evictarCache(Usuario.class, e.getKey());
+        }
+    }
+}
@@ -11,7 +11,6 @@ import org.hibernate.Session;
 import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 import java.util.List;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 
 /**
  * DAO para operaciones CRUD de usuarios con Hibernate, soft-delete y validación de login.
@@ -49,17 +48,19 @@ public class UsuarioDAO {
     }
 
     /**
-     * Registra nuevo usuario con contraseña hasheada BCrypt (12 rondas).
+     * Registra nuevo usuario con contraseña hasheada BCrypt (coste de
+     * {@link Util.HashCredenciales}).
      * 
-     * @param usuario Usuario con contraseña en texto plano
-     * (se hashea automáticamente)
+     * @param usuario Usuario con contraseña en texto plano (se hashea
+     * automáticamente) o ya hasheada por UsuarioService (se guarda tal cual)
      * @throws IllegalArgumentException si usuario==null o password vacío
-     * @see BCrypt#hashpw(String, String)
      * @see #checkPassword(String, String)
      */
     public void insertar(Usuario usuario) {
-        String hashed = BCrypt.hashpw(usuario.getPassword(), BCrypt.gensalt(12));
-        usuario.setPassword(hashed);
+        PasswordEncoderUtil encoder = new PasswordEncoderUtil();
+        if (!encoder.isValidHash(usuario.getPassword())) {
+            usuario.setPassword(encoder.encode(usuario.getPassword()));
+        }
 
         Session session = HibernateUtil.getSessionFactory().openSession();
         Transaction tx = null;
@@ -83,12 +84,11 @@ public class UsuarioDAO {
      * @param plainPassword password ingresada por usuario (texto plano)
      * @param hashedPassword hash BCrypt almacenado en BD (60 chars)
      * @return "true" si credenciales válidas
-     * @throws NullPointerException si alguno parámetro es null
-     * @see BCrypt#checkpw(String, String)
-     * @see #insertarUsuario(Usuario)
+     * @throws IllegalArgumentException si alguno parámetro es null
+     * @see #insertar(Usuario)
      */
     public boolean checkPassword(String plainPassword, String hashedPassword) {
-        return BCrypt.checkpw(plainPassword, hashedPassword);
+        return new PasswordEncoderUtil().matches(plainPassword, hashedPassword);
     }
 
 
@@ -105,8 +105,10 @@ public class UsuarioDAO {
             tx.commit();
         } catch (Exception e) {
             if (tx != null) tx.rollback();
+            HibernateUtil.evictarCache(Usuario.class, usuario.getId());
             e.printStackTrace();
         }
+        SesionesUsuario.getInstancia().invalidar(usuario.getId());
     }
 
     /**
@@ -126,8 +128,10 @@ public class UsuarioDAO {
             }
         } catch (Exception e) {
             if (tx != null) tx.rollback();
+            HibernateUtil.evictarCache(Usuario.class, id);
             e.printStackTrace();
         }
+        SesionesUsuario.getInstancia().invalidar(id);
     }
 
     /**
@@ -147,22 +151,26 @@ public class UsuarioDAO {
             }
         } catch (Exception e) {
             if (tx != null) tx.rollback();
+            HibernateUtil.evictarCache(Usuario.class, id);
             e.printStackTrace();
         }
+        SesionesUsuario.getInstancia().invalidar(id);
     }
 
     /**
-     * Busca usuario por username (solo activos).
+     * Busca usuario por username (solo activos). Se resuelve por id natural,
+     * así que los logins repetidos salen de la caché de segundo nivel.
      * 
      * @param username nombre de usuario.
      * @return Usuario o null.
      */
     public Usuario findByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
         try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Usuario> query = session.createQuery(
-                    "FROM Usuario WHERE username = :u AND activo = true", Usuario.class);
-            query.setParameter("u", username);
-            return query.uniqueResult();
+            Usuario usuario = session.bySimpleNaturalId(Usuario.class).load(username);
+            return usuario != null && usuario.isActivo() ? usuario : null;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
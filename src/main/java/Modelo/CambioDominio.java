@@ -0,0 +1,53 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+/**
+ * Cambio confirmado en BD que los DAO publican en {@link Util.BusCambios}
+ * tras tx.commit(). Son records con igualdad por valor: dos cambios
+ * iguales dentro de la misma ráfaga se entregan una sola vez.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Util.BusCambios
+ */
+public sealed interface CambioDominio {
+
+    /** @param id ID de la oveja dada de alta. */
+    record OvejaCreada(int id) implements CambioDominio {
+    }
+
+    /** @param id ID de la oveja con datos modificados. */
+    record OvejaModificada(int id) implements CambioDominio {
+    }
+
+    /** @param id ID de la oveja dada de baja (activo = false). */
+    record OvejaDadaDeBaja(int id) implements CambioDominio {
+    }
+
+    /** @param id ID de la oveja reincorporada al censo. */
+    record OvejaReincorporada(int id) implements CambioDominio {
+    }
+
+    /** @param cantidad ovejas dadas de alta en bloque (lote o CSV). */
+    record OvejasCargadas(int cantidad) implements CambioDominio {
+    }
+
+    /** @param id ID del evento registrado. */
+    record EventoRegistrado(int id) implements CambioDominio {
+    }
+
+    /** @param id ID del evento modificado. */
+    record EventoModificado(int id) implements CambioDominio {
+    }
+
+    /** @param id ID del evento borrado o desactivado. */
+    record EventoEliminado(int id) implements CambioDominio {
+    }
+
+    /** @param cantidad eventos dados de alta en bloque (CSV). */
+    record EventosCargados(int cantidad) implements CambioDominio {
+    }
+}
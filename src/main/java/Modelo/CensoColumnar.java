@@ -0,0 +1,278 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Instantánea del censo en columnas de primitivos, para análisis sobre
+ * todo el rebaño sin una Oveja, BigDecimal ni String por fila. La fila i es
+ * la misma posición en todas las columnas:
+ *
+ * - id: int.
+ * - peso: float en kg, NaN si no hay peso.
+ * - sexo: byte {@link #HEMBRA}, {@link #MACHO} u {@link #OTRO}.
+ * - raza: código short del catálogo de razas, 0 sin raza.
+ * - estado de salud: código short del catálogo de estados, 0 sin estado.
+ * - nacimiento: día (LocalDate.toEpochDay), {@link #SIN_FECHA} si falta.
+ * - activo: boolean.
+ *
+ * Los códigos son los mismos que guarda oveja.id_raza / id_estado_salud
+ * (Util.Catalogo), así que la carga no lee ningún texto; los diccionarios
+ * ({@link #getRazas()}, {@link #getEstadosSalud()}) traducen código a
+ * nombre.
+ *
+ * Unos 18 bytes por oveja: 1M de ovejas caben en unos 18 MB. Los filtros
+ * son {@link IntPredicate} sobre el número de fila, así que contar, sumar o
+ * agrupar no reserva memoria por fila.
+ *
+ * Uso:
+ *
+ * CensoColumnar censo = ovejaDAO.cargarCensoColumnar();
+ * int merina = censo.codigoRaza("Merina");
+ * long n = censo.contar(i -&gt; censo.activo(i) &amp;&amp; censo.raza(i) == merina);
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see DAO.OvejaDAO#cargarCensoColumnar()
+ */
+public final class CensoColumnar {
+
+    public static final byte HEMBRA = 0;
+    public static final byte MACHO = 1;
+    public static final byte OTRO = 2;
+
+    /** Nacimiento desconocido. */
+    public static final int SIN_FECHA = Integer.MIN_VALUE;
+
+    /** Filtro que acepta todas las filas. */
+    public static final IntPredicate TODAS = i -> true;
+
+    private final int size;
+    private final int[] ids;
+    private final float[] pesos;
+    private final byte[] sexos;
+    private final short[] razas;
+    private final int[] nacimientos;
+    private final boolean[] activos;
+    private final short[] estadosSalud;
+    private final String[] diccionarioRazas;
+    private final String[] diccionarioEstadosSalud;
+
+    /**
+     * Las columnas pueden ser más largas que size (búfer de carga): solo se
+     * usan las primeras size posiciones. Los diccionarios deben cubrir
+     * todos los códigos usados; su posición 0 es la etiqueta de "sin valor".
+     */
+    public CensoColumnar(int size, int[] ids, float[] pesos, byte[] sexos, short[] razas,
+            short[] estadosSalud, int[] nacimientos, boolean[] activos,
+            String[] diccionarioRazas, String[] diccionarioEstadosSalud) {
+        this.size = size;
+        this.ids = ids;
+        this.pesos = pesos;
+        this.sexos = sexos;
+        this.razas = razas;
+        this.estadosSalud = estadosSalud;
+        this.nacimientos = nacimientos;
+        this.activos = activos;
+        this.diccionarioRazas = diccionarioRazas;
+        this.diccionarioEstadosSalud = diccionarioEstadosSalud;
+    }
+
+    /** @return número de ovejas. */
+    public int size() {
+        return size;
+    }
+
+    public int id(int i) {
+        return ids[i];
+    }
+
+    /** @return peso en kg o NaN. */
+    public float peso(int i) {
+        return pesos[i];
+    }
+
+    public byte sexo(int i) {
+        return sexos[i];
+    }
+
+    /** @return código de raza (0 = sin raza). */
+    public int raza(int i) {
+        return razas[i];
+    }
+
+    /** @return código de estado de salud (0 = sin estado). */
+    public int estadoSalud(int i) {
+        return estadosSalud[i];
+    }
+
+    /** @return epoch day o {@link #SIN_FECHA}. */
+    public int nacimiento(int i) {
+        return nacimientos[i];
+    }
+
+    public boolean activo(int i) {
+        return activos[i];
+    }
+
+    /**
+     * @return nombres de raza indexados por código, 0 =
+     * {@link EstadisticasRebano#SIN_RAZA} (no modificar; puede haber huecos
+     * null de razas dadas de alta después).
+     */
+    public String[] getRazas() {
+        return diccionarioRazas;
+    }
+
+    /**
+     * @return nombres de estado de salud indexados por código, 0 = null (no
+     * modificar).
+     */
+    public String[] getEstadosSalud() {
+        return diccionarioEstadosSalud;
+    }
+
+    /**
+     * @param raza nombre de la raza.
+     * @return código o -1 si la raza no está en el catálogo.
+     */
+    public int codigoRaza(String raza) {
+        return codigo(diccionarioRazas, raza);
+    }
+
+    /**
+     * @param codigo código de raza.
+     * @return nombre ({@link EstadisticasRebano#SIN_RAZA} si es 0).
+     */
+    public String nombreRaza(int codigo) {
+        return diccionarioRazas[codigo];
+    }
+
+    /**
+     * @param estado nombre del estado de salud.
+     * @return código o -1 si no está en el catálogo.
+     */
+    public int codigoEstadoSalud(String estado) {
+        return codigo(diccionarioEstadosSalud, estado);
+    }
+
+    /**
+     * @param codigo código de estado de salud.
+     * @return nombre (null si es 0).
+     */
+    public String nombreEstadoSalud(int codigo) {
+        return diccionarioEstadosSalud[codigo];
+    }
+
+    /**
+     * @param filtro filas a contar.
+     * @return filas que cumplen el filtro.
+     */
+    public long contar(IntPredicate filtro) {
+        long n = 0;
+        for (int i = 0; i < size; i++) {
+            if (filtro.test(i)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @param filtro filas a considerar.
+     * @return peso medio en kg de las que tienen peso (0 si ninguna).
+     */
+    public double pesoMedio(IntPredicate filtro) {
+        double suma = 0;
+        long n = 0;
+        for (int i = 0; i < size; i++) {
+            float p = pesos[i];
+            if (p == p && filtro.test(i)) {  // p == p descarta NaN
+                suma += p;
+                n++;
+            }
+        }
+        return n > 0 ? suma / n : 0.0;
+    }
+
+    /**
+     * @param filtro filas a contar.
+     * @return ovejas por código de raza (posición 0 = sin raza).
+     */
+    public long[] contarPorRaza(IntPredicate filtro) {
+        return contarPorCodigo(razas, diccionarioRazas.length, filtro);
+    }
+
+    /**
+     * @param filtro filas a contar.
+     * @return ovejas por código de estado de salud (posición 0 = sin estado).
+     */
+    public long[] contarPorEstadoSalud(IntPredicate filtro) {
+        return contarPorCodigo(estadosSalud, diccionarioEstadosSalud.length, filtro);
+    }
+
+    private long[] contarPorCodigo(short[] codigos, int tamanio, IntPredicate filtro) {
+        long[] porCodigo = new long[tamanio];
+        for (int i = 0; i < size; i++) {
+            if (filtro.test(i)) {
+                porCodigo[codigos[i]]++;
+            }
+        }
+        return porCodigo;
+    }
+
+    private static int codigo(String[] diccionario, String nombre) {
+        for (int c = 1; c < diccionario.length; c++) {
+            if (diccionario[c] != null && diccionario[c].equalsIgnoreCase(nombre)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Histograma de pesos en cubetas de ancho fijo desde 0 kg; los pesos
+     * por encima de la última cubeta cuentan en ella.
+     *
+     * @param ancho kg por cubeta (&gt; 0).
+     * @param cubetas número de cubetas (&gt; 0).
+     * @param filtro filas a considerar (las que no tienen peso se ignoran).
+     * @return ovejas por cubeta.
+     */
+    public long[] histogramaPeso(float ancho, int cubetas, IntPredicate filtro) {
+        if (ancho <= 0 || cubetas <= 0) {
+            throw new IllegalArgumentException("Ancho y cubetas deben ser > 0");
+        }
+        long[] histograma = new long[cubetas];
+        for (int i = 0; i < size; i++) {
+            float p = pesos[i];
+            if (p == p && filtro.test(i)) {
+                histograma[Math.min((int) (p / ancho), cubetas - 1)]++;
+            }
+        }
+        return histograma;
+    }
+
+    /**
+     * @param filtro filas a considerar.
+     * @return peso máximo en kg (0 si ninguna tiene peso).
+     */
+    public float pesoMaximo(IntPredicate filtro) {
+        float max = 0;
+        for (int i = 0; i < size; i++) {
+            float p = pesos[i];
+            if (p > max && filtro.test(i)) {
+                max = p;
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "CensoColumnar[ovejas=" + size + ", razas=" + diccionarioRazas.length + "]";
+    }
+}
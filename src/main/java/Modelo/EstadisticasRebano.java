@@ -0,0 +1,49 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Instantánea inmutable de los KPIs del rebaño calculada en BD con
+ * agregaciones SQL (COUNT/SUM/AVG/GROUP BY). Sustituye a cargar todas las
+ * ovejas y contarlas en memoria.
+ *
+ * @param total ovejas registradas (activas + bajas).
+ * @param activas ovejas con activo = true.
+ * @param hembras hembras activas.
+ * @param pesoMedio peso medio de las activas en kg (0 si no hay datos).
+ * @param porRaza ovejas activas por raza, de mayor a menor.
+ * @param eventosMes eventos activos con fecha en el mes en curso.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see DAO.OvejaDAO#obtenerEstadisticas()
+ */
+public record EstadisticasRebano(long total, long activas, long hembras, double pesoMedio,
+        Map<String, Long> porRaza, long eventosMes) {
+
+    /** Etiqueta usada para las ovejas sin raza informada. */
+    public static final String SIN_RAZA = "Sin raza";
+
+    /**
+     * Copia defensiva: conserva el orden del GROUP BY y no admite cambios.
+     */
+    public EstadisticasRebano {
+        porRaza = Collections.unmodifiableMap(new LinkedHashMap<>(porRaza));
+    }
+
+    /** @return machos activos. */
+    public long machos() {
+        return activas - hembras;
+    }
+
+    /** @return ovejas dadas de baja. */
+    public long inactivas() {
+        return total - activas;
+    }
+}
@@ -10,26 +10,55 @@ import java.time.LocalDate;
 /**
  * Entidad que representa un evento asociado a una oveja del rebaño.
  * Se mapea a la tabla "eventos" con relación Many-to-One a Oveja.
+ * Los índices compuestos los crea hbm2ddl al arrancar (hibernate.cfg.xml).
  * 
  * @author Elena González
  * @version 1.0
  */
 @Entity
-@Table(name = "evento")
+@Table(name = "evento", indexes = {
+    // Consultas por rango de fechas (KPI eventos del mes, filtros por tipo)
+    @Index(name = "idx_evento_fecha_tipo_activo", columnList = "fecha_evento, tipo_evento, activo"),
+    // Historial de una oveja ordenado/filtrado por fecha
+    @Index(name = "idx_evento_oveja_fecha", columnList = "id_oveja, fecha_evento"),
+    // Paginación keyset: WHERE activo = true AND id > ? ORDER BY id
+    @Index(name = "idx_evento_activo_id", columnList = "activo, id"),
+    // Genealogía: hijas de una madre / de un padre (CTE recursiva de descendientes)
+    @Index(name = "idx_evento_madre_tipo", columnList = "id_oveja_madre, tipo_evento"),
+    @Index(name = "idx_evento_padre_tipo", columnList = "id_oveja_padre, tipo_evento")
+})
 public class Evento {
 
+    /**
+     * Nombre del generador de IDs de Evento (tabla evento_id_gen).
+     */
+    public static final String GENERADOR_ID = "evento_id_gen";
+
+    /**
+     * IDs reservados de 50 en 50 (pooled-lo), igual que Oveja: permite
+     * agrupar los INSERT en lotes JDBC en las importaciones masivas.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = GENERADOR_ID)
+    @TableGenerator(name = GENERADOR_ID, table = GENERADOR_ID,
+            pkColumnName = "entidad", valueColumnName = "siguiente_id",
+            pkColumnValue = "evento", initialValue = 1, allocationSize = 50)
     private Integer id;
 
-    @ManyToOne
+    // LAZY: las consultas de listado hacen JOIN FETCH explícito (sin N+1)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_oveja", nullable = false)
     private Oveja oveja;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_oveja_madre", nullable = true)
     private Oveja ovejaMadre;
 
+    // Solo en partos: semental, si se conoce (consanguinidad)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_oveja_padre", nullable = true)
+    private Oveja ovejaPadre;
+
     @Column(name = "tipo_evento", length = 30)
     private String tipoEvento;
 
@@ -82,6 +111,14 @@ public class Evento {
         this.ovejaMadre = ovejaMadre;
     }
 
+    public Oveja getOvejaPadre() {
+        return ovejaPadre;
+    }
+
+    public void setOvejaPadre(Oveja ovejaPadre) {
+        this.ovejaPadre = ovejaPadre;
+    }
+
     public String getTipoEvento() {
         return tipoEvento;
     }
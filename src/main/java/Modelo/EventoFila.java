@@ -0,0 +1,26 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección ligera de un evento para la tabla de EventoPanel. Se construye
+ * directamente en la consulta HQL ({@code SELECT new}) con un JOIN a oveja,
+ * así no se cargan entidades ni se disparan selects por fila.
+ *
+ * @param id ID del evento.
+ * @param numeroOveja número de identificación de la oveja.
+ * @param tipoEvento tipo ("Parto", "Vacunación"...).
+ * @param fechaEvento fecha del evento.
+ * @param observaciones notas libres (puede ser null).
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see DAO.EventoDAO#listarFilas()
+ */
+public record EventoFila(Integer id, String numeroOveja, String tipoEvento,
+        LocalDate fechaEvento, String observaciones) {
+}
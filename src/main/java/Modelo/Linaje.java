@@ -0,0 +1,36 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+/**
+ * Resultado de una consulta genealógica (ancestros o descendientes de una
+ * oveja) en dos arrays paralelos de primitivos, sin un objeto por animal.
+ * Ordenado por generación y, dentro de ella, por ID.
+ *
+ * @param raiz ID de la oveja consultada.
+ * @param ids IDs de las ovejas encontradas (sin incluir la raíz).
+ * @param generaciones distancia a la raíz: 1 = madre/hijas, 2 = abuela/nietas...
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Servicio.Genealogia
+ */
+public record Linaje(int raiz, int[] ids, int[] generaciones) {
+
+    /** Linaje sin parientes conocidos. */
+    public static Linaje vacio(int raiz) {
+        return new Linaje(raiz, new int[0], new int[0]);
+    }
+
+    /** @return número de parientes. */
+    public int size() {
+        return ids.length;
+    }
+
+    /** @return generación más lejana encontrada (0 si no hay parientes). */
+    public int profundidad() {
+        return generaciones.length > 0 ? generaciones[generaciones.length - 1] : 0;
+    }
+}
@@ -4,9 +4,14 @@
  */
 package Modelo;
 
+import Util.Catalogo;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * Entidad que representa una oveja del rebaño en la base de datos.
@@ -16,17 +21,41 @@ import java.time.LocalDate;
  * @version 1.0
  */
 @Entity
-@Table(name = "oveja")
+@Table(name = "oveja", indexes = {
+    // Paginación keyset: WHERE activo = ? AND id > ? ORDER BY id
+    @Index(name = "idx_oveja_activo_id", columnList = "activo, id")
+})
+// Caché de segundo nivel (regiones configuradas en application.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oveja")
+@NaturalIdCache(region = "oveja-natural-id")
 public class Oveja {
 
+    /**
+     * Nombre del generador de IDs de Oveja (tabla oveja_id_gen).
+     */
+    public static final String GENERADOR_ID = "oveja_id_gen";
+
+    /**
+     * IDs reservados de 50 en 50 por llamada a la tabla generadora (optimizador
+     * pooled-lo). Con IDENTITY Hibernate tenía que ejecutar cada INSERT al
+     * momento para conocer el ID, lo que desactivaba el batching JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = GENERADOR_ID)
+    @TableGenerator(name = GENERADOR_ID, table = GENERADOR_ID,
+            pkColumnName = "entidad", valueColumnName = "siguiente_id",
+            pkColumnValue = "oveja", initialValue = 1, allocationSize = 50)
     private Integer id;
 
+    // Mutable: el número se puede corregir al editar la oveja
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false, length = 20)
     private String numeroIdentificacion;
 
-    @Column(length = 50)
+    // Código SMALLINT en el catálogo de razas (ver Util.Catalogo)
+    @Convert(converter = Catalogo.ConversorRaza.class)
+    @Column(name = "id_raza")
     private String raza;
 
     @Column(name = "fecha_nacimiento")
@@ -38,7 +67,8 @@ public class Oveja {
     @Column(name = "peso_actual", columnDefinition = "DECIMAL(5,2)")
     private BigDecimal pesoActual;
 
-    @Column(length = 50)
+    @Convert(converter = Catalogo.ConversorEstadoSalud.class)
+    @Column(name = "id_estado_salud")
     private String estadoSalud;
     
     @Column(nullable = false)
@@ -0,0 +1,110 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Pesada de una oveja: una fila por medición en la tabla "pesada", que solo
+ * admite altas (historial). Oveja.pesoActual sigue guardando la última para
+ * los listados; las curvas de crecimiento salen de aquí.
+ *
+ * El peso se guarda en centésimas de kg (INT) en lugar de DECIMAL(5,2): la
+ * fila es más estrecha y las series se leen con getInt() sin crear un
+ * BigDecimal por punto.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see SeriePeso
+ */
+@Entity
+@Immutable
+@Table(name = "pesada", indexes = {
+    // Serie de una oveja ordenada por fecha
+    @Index(name = "idx_pesada_oveja_fecha", columnList = "id_oveja, fecha")
+})
+public class Pesada {
+
+    /**
+     * Nombre del generador de IDs de Pesada (tabla pesada_id_gen).
+     */
+    public static final String GENERADOR_ID = "pesada_id_gen";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = GENERADOR_ID)
+    @TableGenerator(name = GENERADOR_ID, table = GENERADOR_ID,
+            pkColumnName = "entidad", valueColumnName = "siguiente_id",
+            pkColumnValue = "pesada", initialValue = 1, allocationSize = 50)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_oveja", nullable = false)
+    private Oveja oveja;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "peso_centesimas", nullable = false)
+    private int pesoCentesimas;
+
+    // Constructores
+    protected Pesada() {}
+
+    /**
+     * @param oveja oveja pesada (con ID o que se persiste en la misma
+     * transacción).
+     * @param fecha día de la pesada.
+     * @param pesoCentesimas peso en centésimas de kg.
+     */
+    public Pesada(Oveja oveja, LocalDate fecha, int pesoCentesimas) {
+        this.oveja = oveja;
+        this.fecha = fecha;
+        this.pesoCentesimas = pesoCentesimas;
+    }
+
+    /**
+     * Pesada de hoy con el peso actual de la oveja.
+     *
+     * @param oveja oveja con pesoActual informado.
+     * @return pesada o null si la oveja no tiene peso.
+     */
+    public static Pesada deHoy(Oveja oveja) {
+        BigDecimal peso = oveja.getPesoActual();
+        return peso != null ? new Pesada(oveja, LocalDate.now(), aCentesimas(peso)) : null;
+    }
+
+    /**
+     * @param kg peso en kg (DECIMAL(5,2)).
+     * @return peso en centésimas de kg.
+     */
+    public static int aCentesimas(BigDecimal kg) {
+        return kg.movePointRight(2).intValue();
+    }
+
+    // Getters
+    public Integer getId() {
+        return id;
+    }
+
+    public Oveja getOveja() {
+        return oveja;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public int getPesoCentesimas() {
+        return pesoCentesimas;
+    }
+
+    @Override
+    public String toString() {
+        return "Pesada{id=" + id + ", fecha=" + fecha + ", kg=" + pesoCentesimas / 100.0 + "}";
+    }
+}
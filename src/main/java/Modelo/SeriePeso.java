@@ -0,0 +1,211 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+import java.time.LocalDate;
+
+/**
+ * Serie de pesadas de una oveja en dos arrays paralelos de int: día
+ * (LocalDate.toEpochDay) y peso en centésimas de kg, ordenados por día. Unos
+ * 8 bytes por punto, sin un objeto por pesada. Inmutable: {@link #con}
+ * devuelve una serie nueva.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Pesada
+ */
+public final class SeriePeso {
+
+    private final int idOveja;
+
+    private final int[] dias;
+
+    private final int[] centesimas;
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @param dias días (epoch day) en orden no decreciente.
+     * @param centesimas peso de cada día en centésimas de kg.
+     * @throws IllegalArgumentException si los arrays no miden lo mismo.
+     */
+    public SeriePeso(int idOveja, int[] dias, int[] centesimas) {
+        if (dias.length != centesimas.length) {
+            throw new IllegalArgumentException("Días y pesos de distinto tamaño");
+        }
+        this.idOveja = idOveja;
+        this.dias = dias;
+        this.centesimas = centesimas;
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return serie sin pesadas.
+     */
+    public static SeriePeso vacia(int idOveja) {
+        return new SeriePeso(idOveja, new int[0], new int[0]);
+    }
+
+    public int getIdOveja() {
+        return idOveja;
+    }
+
+    /** @return número de pesadas. */
+    public int size() {
+        return dias.length;
+    }
+
+    /** @return día (epoch day) de la pesada i. */
+    public int dia(int i) {
+        return dias[i];
+    }
+
+    /** @return fecha de la pesada i. */
+    public LocalDate fecha(int i) {
+        return LocalDate.ofEpochDay(dias[i]);
+    }
+
+    /** @return peso de la pesada i en centésimas de kg. */
+    public int centesimas(int i) {
+        return centesimas[i];
+    }
+
+    /** @return peso de la pesada i en kg. */
+    public double kg(int i) {
+        return centesimas[i] / 100.0;
+    }
+
+    /**
+     * Añade una pesada en su sitio (tras las del mismo día).
+     *
+     * @param dia día (epoch day).
+     * @param pesoCentesimas peso en centésimas de kg.
+     * @return serie nueva con la pesada.
+     */
+    public SeriePeso con(int dia, int pesoCentesimas) {
+        int n = dias.length;
+        int pos = n;
+        while (pos > 0 && dias[pos - 1] > dia) {
+            pos--;
+        }
+        int[] d = new int[n + 1];
+        int[] c = new int[n + 1];
+        System.arraycopy(dias, 0, d, 0, pos);
+        System.arraycopy(centesimas, 0, c, 0, pos);
+        d[pos] = dia;
+        c[pos] = pesoCentesimas;
+        System.arraycopy(dias, pos, d, pos + 1, n - pos);
+        System.arraycopy(centesimas, pos, c, pos + 1, n - pos);
+        return new SeriePeso(idOveja, d, c);
+    }
+
+    /**
+     * Ganancia media diaria entre la primera y la última pesada.
+     *
+     * @return kg/día o NaN si no hay dos pesadas en días distintos.
+     */
+    public double gananciaMediaDiaria() {
+        int n = dias.length;
+        if (n < 2 || dias[n - 1] == dias[0]) {
+            return Double.NaN;
+        }
+        return (centesimas[n - 1] - centesimas[0]) / 100.0 / (dias[n - 1] - dias[0]);
+    }
+
+    /**
+     * Ganancia media diaria dentro de un periodo (pesadas con fecha en
+     * [desde, hasta]).
+     *
+     * @param desde inicio incluido.
+     * @param hasta fin incluido.
+     * @return kg/día o NaN si no hay dos pesadas en días distintos.
+     */
+    public double gananciaMediaDiaria(LocalDate desde, LocalDate hasta) {
+        int a = primerDiaDesde((int) desde.toEpochDay());
+        int b = primerDiaDesde((int) hasta.toEpochDay() + 1) - 1;
+        if (b - a < 1 || dias[b] == dias[a]) {
+            return Double.NaN;
+        }
+        return (centesimas[b] - centesimas[a]) / 100.0 / (dias[b] - dias[a]);
+    }
+
+    /**
+     * Reduce la serie para dibujarla con el algoritmo
+     * Largest-Triangle-Three-Buckets: conserva la primera y la última
+     * pesada y, de cada tramo, el punto que forma el triángulo mayor con sus
+     * vecinos, de modo que picos y caídas siguen visibles.
+     *
+     * @param maxPuntos puntos a conservar (&gt;= 3).
+     * @return esta serie si ya cabe, si no una serie de maxPuntos puntos.
+     * @throws IllegalArgumentException si maxPuntos &lt; 3.
+     */
+    public SeriePeso reducir(int maxPuntos) {
+        if (maxPuntos < 3) {
+            throw new IllegalArgumentException("maxPuntos debe ser >= 3: " + maxPuntos);
+        }
+        int n = dias.length;
+        if (n <= maxPuntos) {
+            return this;
+        }
+        int[] d = new int[maxPuntos];
+        int[] c = new int[maxPuntos];
+        d[0] = dias[0];
+        c[0] = centesimas[0];
+        double tramo = (double) (n - 2) / (maxPuntos - 2);
+        int elegido = 0;
+        for (int k = 0; k < maxPuntos - 2; k++) {
+            // Media del tramo siguiente como tercer vértice
+            int sigDesde = (int) ((k + 1) * tramo) + 1;
+            int sigHasta = Math.min((int) ((k + 2) * tramo) + 1, n);
+            double mediaDia = 0;
+            double mediaPeso = 0;
+            for (int j = sigDesde; j < sigHasta; j++) {
+                mediaDia += dias[j];
+                mediaPeso += centesimas[j];
+            }
+            int enSiguiente = sigHasta - sigDesde;
+            mediaDia /= enSiguiente;
+            mediaPeso /= enSiguiente;
+
+            int desde = (int) (k * tramo) + 1;
+            int hasta = (int) ((k + 1) * tramo) + 1;
+            double areaMax = -1;
+            int mejor = desde;
+            for (int j = desde; j < hasta; j++) {
+                double area = Math.abs((dias[elegido] - mediaDia) * (centesimas[j] - centesimas[elegido])
+                        - (dias[elegido] - dias[j]) * (mediaPeso - centesimas[elegido]));
+                if (area > areaMax) {
+                    areaMax = area;
+                    mejor = j;
+                }
+            }
+            d[k + 1] = dias[mejor];
+            c[k + 1] = centesimas[mejor];
+            elegido = mejor;
+        }
+        d[maxPuntos - 1] = dias[n - 1];
+        c[maxPuntos - 1] = centesimas[n - 1];
+        return new SeriePeso(idOveja, d, c);
+    }
+
+    /** Primera posición con día &gt;= dia (búsqueda binaria). */
+    private int primerDiaDesde(int dia) {
+        int lo = 0;
+        int hi = dias.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dias[mid] < dia) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public String toString() {
+        return "SeriePeso[oveja=" + idOveja + ", pesadas=" + dias.length + "]";
+    }
+}
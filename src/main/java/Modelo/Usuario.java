@@ -6,6 +6,10 @@ package Modelo;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * Entidad que representa un usuario de la aplicación de gestión ganadera.
@@ -16,12 +20,17 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "usuario")
+// Caché de segundo nivel (regiones configuradas en application.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario")
+@NaturalIdCache(region = "usuario-natural-id")
 public class Usuario {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false, length = 50)
     private String username;
 
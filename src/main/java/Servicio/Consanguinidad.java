@@ -0,0 +1,482 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Coeficiente de consanguinidad de Wright (F) de cada oveja y parentesco
+ * entre parejas, calculados sobre un {@link GrafoGenealogico}.
+ *
+ * En lugar de la recursión ingenua (exponencial en generaciones) o de la
+ * matriz tabular completa (n² entradas) se usa la descomposición A = T·D·T':
+ *
+ * - D[k] es la varianza mendeliana de k: 0,5 - 0,25·(Fm + Fp) con ambos
+ * progenitores, 0,75 - 0,25·F con uno y 1 en fundadoras.
+ * - t_x[k] es la fracción de genes que x recibe de su ancestro k; se
+ * propaga de crías a progenitores (t[madre] += t[k] / 2) en orden
+ * topológico inverso y solo ocupa sus ancestros (vector disperso).
+ * - A(a, b) = Σ t_a[k]·t_b[k]·D[k] sobre los ancestros comunes; el
+ * parentesco (coancestría) es A / 2 y F de una cría es el parentesco de sus
+ * padres.
+ *
+ * F se calcula por generaciones: dentro de una generación ninguna oveja
+ * depende de otra, así que se reparte entre núcleos. Sin padre conocido
+ * F = 0. Las ovejas en ciclos (datos erróneos) se ignoran y se cuentan en
+ * {@link #getEnCiclo()}. Inmutable salvo la memoria de parentescos, que es
+ * concurrente.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Genealogia#consanguinidad()
+ */
+public final class Consanguinidad {
+
+    /** Parentescos recordados; al superarse se vacía la memoria. */
+    public static final int MAX_PARENTESCOS_EN_MEMORIA = 100_000;
+
+    /**
+     * Ovejas máximas en {@link #matriz(int[])}: el triángulo es denso y
+     * crece en n² (500 ovejas = 125.250 valores, ~1 MB). Para rebaños
+     * mayores, {@link #parentescoCandidatos(int, int[])} por hembra.
+     */
+    public static final int MAX_OVEJAS_MATRIZ = 500;
+
+    /**
+     * Parentescos de un conjunto de ovejas, guardados como triángulo
+     * superior con diagonal: n·(n+1)/2 valores.
+     *
+     * @param ids IDs de oveja en el orden pedido.
+     * @param triangulo valores fila a fila (i &lt;= j).
+     */
+    public record MatrizParentesco(int[] ids, double[] triangulo) {
+
+        /**
+         * @param i posición de la primera oveja en ids.
+         * @param j posición de la segunda.
+         * @return parentesco entre ambas (simétrico).
+         */
+        public double get(int i, int j) {
+            if (i > j) {
+                int t = i;
+                i = j;
+                j = t;
+            }
+            int n = ids.length;
+            return triangulo[i * n - i * (i - 1) / 2 + (j - i)];
+        }
+    }
+
+    private final GrafoGenealogico grafo;
+
+    /** Generación topológica de cada nodo (0 = fundadora, -1 = en ciclo). */
+    private final int[] nivel;
+
+    /** F de cada nodo. */
+    private final double[] f;
+
+    /** Varianza mendeliana de cada nodo. */
+    private final double[] d;
+
+    private final int enCiclo;
+
+    private final ConcurrentHashMap<Long, Double> memoria = new ConcurrentHashMap<>();
+
+    private Consanguinidad(GrafoGenealogico grafo, int[] nivel, double[] f, double[] d, int enCiclo) {
+        this.grafo = grafo;
+        this.nivel = nivel;
+        this.f = f;
+        this.d = d;
+        this.enCiclo = enCiclo;
+    }
+
+    /**
+     * Calcula F de todas las ovejas del grafo.
+     *
+     * @param grafo grafo genealógico.
+     * @return coeficientes listos para consultas concurrentes.
+     */
+    public static Consanguinidad calcular(GrafoGenealogico grafo) {
+        int n = grafo.getNumeroOvejas();
+
+        // Kahn: una oveja entra en la generación siguiente a la de su
+        // último progenitor procesado
+        int[] pendientes = new int[n];
+        int[] nivel = new int[n];
+        Arrays.fill(nivel, -1);
+        int[] orden = new int[n];
+        int fin = 0;
+        for (int i = 0; i < n; i++) {
+            pendientes[i] = (grafo.madreIndice(i) >= 0 ? 1 : 0) + (grafo.padreIndice(i) >= 0 ? 1 : 0);
+            if (pendientes[i] == 0) {
+                nivel[i] = 0;
+                orden[fin++] = i;
+            }
+        }
+        for (int cabeza = 0; cabeza < fin; cabeza++) {
+            int p = orden[cabeza];
+            for (int k = 0; k < grafo.criasIndice(p); k++) {
+                int c = grafo.criaIndice(p, k);
+                if (--pendientes[c] == 0) {
+                    nivel[c] = Math.max(nivelDe(grafo.madreIndice(c), nivel),
+                            nivelDe(grafo.padreIndice(c), nivel)) + 1;
+                    orden[fin++] = c;
+                }
+            }
+        }
+        int enCiclo = n - fin;
+
+        // El orden de Kahn ya va por generaciones crecientes
+        double[] f = new double[n];
+        double[] d = new double[n];
+        Consanguinidad c = new Consanguinidad(grafo, nivel, f, d, enCiclo);
+        int desde = 0;
+        while (desde < fin) {
+            int hasta = desde;
+            while (hasta < fin && nivel[orden[hasta]] == nivel[orden[desde]]) {
+                hasta++;
+            }
+            IntStream generacion = IntStream.range(desde, hasta);
+            if (hasta - desde > 64) {
+                generacion = generacion.parallel();
+            }
+            generacion.forEach(k -> c.calcularNodo(orden[k]));
+            desde = hasta;
+        }
+        return c;
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return F de Wright (0 si no consta padre y madre o no está en el
+     * grafo).
+     */
+    public double coeficiente(int idOveja) {
+        int i = grafo.indice(idOveja);
+        return i >= 0 ? f[i] : 0.0;
+    }
+
+    /**
+     * Parentesco (coancestría) entre dos ovejas: F que tendría su cría.
+     *
+     * @param idA ID de la primera oveja.
+     * @param idB ID de la segunda (puede ser la misma).
+     * @return parentesco en [0, 1].
+     */
+    public double parentesco(int idA, int idB) {
+        int a = grafo.indice(idA);
+        int b = grafo.indice(idB);
+        if (a < 0 || b < 0 || nivel[a] < 0 || nivel[b] < 0) {
+            return idA == idB ? 0.5 : 0.0;
+        }
+        if (a == b) {
+            return (1 + f[a]) / 2;
+        }
+        long clave = a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        Double memo = memoria.get(clave);
+        if (memo != null) {
+            return memo;
+        }
+        double valor = relacion(aportes(a), aportes(b)) / 2;
+        if (memoria.size() >= MAX_PARENTESCOS_EN_MEMORIA) {
+            memoria.clear();
+        }
+        memoria.put(clave, valor);
+        return valor;
+    }
+
+    /**
+     * F que tendría la cría de una hembra con cada uno de los machos
+     * candidatos, para elegir el cruce menos consanguíneo. Los aportes de la
+     * hembra se calculan una vez y los machos se reparten entre núcleos.
+     *
+     * @param idHembra ID de la hembra.
+     * @param idsMachos IDs de los machos candidatos.
+     * @return F de la cría para cada candidato, en el mismo orden.
+     */
+    public double[] parentescoCandidatos(int idHembra, int[] idsMachos) {
+        int h = grafo.indice(idHembra);
+        double[] resultado = new double[idsMachos.length];
+        if (h < 0 || nivel[h] < 0) {
+            return resultado;
+        }
+        Aportes aportesHembra = aportes(h);
+        IntStream.range(0, idsMachos.length).parallel().forEach(k -> {
+            int m = grafo.indice(idsMachos[k]);
+            if (m == h) {
+                resultado[k] = (1 + f[h]) / 2;
+            } else if (m >= 0 && nivel[m] >= 0) {
+                resultado[k] = relacion(aportesHembra, aportes(m)) / 2;
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Matriz de parentesco de un conjunto pequeño de ovejas (p. ej.
+     * reproductores de un lote, hasta {@value #MAX_OVEJAS_MATRIZ}). Los aportes de cada oveja se calculan una vez y las
+     * filas se reparten entre núcleos.
+     *
+     * @param idsOveja IDs de las ovejas.
+     * @return matriz simétrica en triángulo superior.
+     * @throws IllegalArgumentException si hay más de
+     * {@value #MAX_OVEJAS_MATRIZ} ovejas.
+     */
+    public MatrizParentesco matriz(int[] idsOveja) {
+        int n = idsOveja.length;
+        if (n > MAX_OVEJAS_MATRIZ) {
+            throw new IllegalArgumentException("Demasiadas ovejas para la matriz: " + n);
+        }
+        Aportes[] vectores = new Aportes[n];
+        int[] indices = new int[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            indices[i] = grafo.indice(idsOveja[i]);
+            if (indices[i] >= 0 && nivel[indices[i]] >= 0) {
+                vectores[i] = aportes(indices[i]);
+            }
+        });
+        double[] triangulo = new double[n * (n + 1) / 2];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int base = i * n - i * (i - 1) / 2 - i;
+            triangulo[base + i] = vectores[i] != null ? (1 + f[indices[i]]) / 2 : 0.5;
+            for (int j = i + 1; j < n; j++) {
+                if (vectores[i] != null && vectores[j] != null) {
+                    triangulo[base + j] = indices[i] == indices[j]
+                            ? (1 + f[indices[i]]) / 2 : relacion(vectores[i], vectores[j]) / 2;
+                } else if (idsOveja[i] == idsOveja[j]) {
+                    triangulo[base + j] = 0.5;
+                }
+            }
+        });
+        return new MatrizParentesco(idsOveja.clone(), triangulo);
+    }
+
+    /** @return ovejas con F &gt; 0. */
+    public int getConsanguineas() {
+        int n = 0;
+        for (double v : f) {
+            if (v > 0) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** @return ovejas descartadas por formar parte de un ciclo. */
+    public int getEnCiclo() {
+        return enCiclo;
+    }
+
+    @Override
+    public String toString() {
+        double max = 0;
+        for (double v : f) {
+            max = Math.max(max, v);
+        }
+        return "Consanguinidad[ovejas=" + f.length + ", consanguineas=" + getConsanguineas()
+                + ", maxF=" + String.format("%.4f", max) + ", enCiclo=" + enCiclo + "]";
+    }
+
+    private static int nivelDe(int i, int[] nivel) {
+        return i >= 0 ? nivel[i] : -1;
+    }
+
+    /**
+     * D y F de un nodo; sus progenitores ya están calculados. Como
+     * A(x, x) = 1 + F(x) = Σ t_x[k]²·D[k], basta recorrer una vez los
+     * ancestros de x (Meuwissen y Luo) en lugar de los de cada progenitor.
+     */
+    private void calcularNodo(int x) {
+        int m = progenitor(grafo.madreIndice(x));
+        int p = progenitor(grafo.padreIndice(x));
+        if (m >= 0 && p >= 0) {
+            d[x] = 0.5 - 0.25 * (f[m] + f[p]);
+            f[x] = Math.max(0.0, relacion(aportes(x), null) - 1);
+        } else if (m >= 0 || p >= 0) {
+            d[x] = 0.75 - 0.25 * f[Math.max(m, p)];
+        } else {
+            d[x] = 1.0;
+        }
+    }
+
+    /** Un progenitor en ciclo cuenta como desconocido. */
+    private int progenitor(int i) {
+        return i >= 0 && nivel[i] >= 0 ? i : -1;
+    }
+
+    /**
+     * Σ t_a[k]·t_b[k]·D[k] recorriendo el vector más corto; con b null,
+     * Σ t_a[k]²·D[k].
+     */
+    private double relacion(Aportes a, Aportes b) {
+        if (b == null) {
+            double suma = 0;
+            for (int s = 0; s < a.claves.length; s++) {
+                if (a.claves[s] >= 0) {
+                    suma += a.valores[s] * a.valores[s] * d[a.claves[s]];
+                }
+            }
+            return suma;
+        }
+        if (a.size > b.size) {
+            Aportes t = a;
+            a = b;
+            b = t;
+        }
+        double suma = 0;
+        for (int s = 0; s < a.claves.length; s++) {
+            int k = a.claves[s];
+            if (k >= 0) {
+                double tb = b.get(k);
+                if (tb != 0) {
+                    suma += a.valores[s] * tb * d[k];
+                }
+            }
+        }
+        return suma;
+    }
+
+    /**
+     * Vector t_x: se parte de t[x] = 1 y se reparte hacia los progenitores
+     * sacando siempre el nodo de mayor generación (montículo), de modo que
+     * cada nodo ha recibido todo su aporte antes de repartirlo.
+     */
+    private Aportes aportes(int x) {
+        Aportes t = new Aportes();
+        long[] monticulo = new long[16];
+        int tam = 0;
+        t.sumar(x, 1.0);
+        monticulo[tam++] = clave(x);
+        while (tam > 0) {
+            long cima = monticulo[0];
+            monticulo[0] = monticulo[--tam];
+            hundir(monticulo, tam);
+            int k = (int) cima;
+            double mitad = t.get(k) / 2;
+            for (int lado = 0; lado < 2; lado++) {
+                int p = progenitor(lado == 0 ? grafo.madreIndice(k) : grafo.padreIndice(k));
+                if (p >= 0 && p != k) {
+                    if (t.sumar(p, mitad)) {
+                        if (tam == monticulo.length) {
+                            monticulo = Arrays.copyOf(monticulo, tam * 2);
+                        }
+                        monticulo[tam] = clave(p);
+                        flotar(monticulo, tam++);
+                    }
+                }
+            }
+        }
+        return t;
+    }
+
+    /** Generación en los 32 bits altos: el máximo es la más reciente. */
+    private long clave(int i) {
+        return ((long) nivel[i] << 32) | i;
+    }
+
+    private static void flotar(long[] m, int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (m[padre] >= m[i]) {
+                break;
+            }
+            long t = m[padre];
+            m[padre] = m[i];
+            m[i] = t;
+            i = padre;
+        }
+    }
+
+    private static void hundir(long[] m, int tam) {
+        int i = 0;
+        while (true) {
+            int mayor = i;
+            int izq = 2 * i + 1;
+            if (izq < tam && m[izq] > m[mayor]) {
+                mayor = izq;
+            }
+            if (izq + 1 < tam && m[izq + 1] > m[mayor]) {
+                mayor = izq + 1;
+            }
+            if (mayor == i) {
+                return;
+            }
+            long t = m[mayor];
+            m[mayor] = m[i];
+            m[i] = t;
+            i = mayor;
+        }
+    }
+
+    /**
+     * Mapa int → double con direccionamiento abierto: el vector disperso de
+     * aportes sin Integer ni Double por ancestro.
+     */
+    private static final class Aportes {
+
+        private int[] claves = vacias(16);
+        private double[] valores = new double[16];
+        private int size;
+
+        private static int[] vacias(int n) {
+            int[] c = new int[n];
+            Arrays.fill(c, -1);
+            return c;
+        }
+
+        double get(int k) {
+            int mascara = claves.length - 1;
+            for (int s = mezclar(k) & mascara; claves[s] != -1; s = (s + 1) & mascara) {
+                if (claves[s] == k) {
+                    return valores[s];
+                }
+            }
+            return 0.0;
+        }
+
+        /** @return true si la clave es nueva. */
+        boolean sumar(int k, double v) {
+            int mascara = claves.length - 1;
+            int s = mezclar(k) & mascara;
+            for (; claves[s] != -1; s = (s + 1) & mascara) {
+                if (claves[s] == k) {
+                    valores[s] += v;
+                    return false;
+                }
+            }
+            claves[s] = k;
+            valores[s] = v;
+            if (++size * 2 > claves.length) {
+                crecer();
+            }
+            return true;
+        }
+
+        private void crecer() {
+            int[] viejasClaves = claves;
+            double[] viejosValores = valores;
+            claves = vacias(viejasClaves.length * 2);
+            valores = new double[viejasClaves.length * 2];
+            int mascara = claves.length - 1;
+            for (int s = 0; s < viejasClaves.length; s++) {
+                if (viejasClaves[s] != -1) {
+                    int n = mezclar(viejasClaves[s]) & mascara;
+                    while (claves[n] != -1) {
+                        n = (n + 1) & mascara;
+                    }
+                    claves[n] = viejasClaves[s];
+                    valores[n] = viejosValores[s];
+                }
+            }
+        }
+
+        private static int mezclar(int k) {
+            int h = k * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
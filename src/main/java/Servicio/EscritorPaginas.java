@@ -0,0 +1,219 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * Escritura de texto en flujo para secciones de informe: lleva la posición
+ * vertical, parte líneas largas y abre página nueva (con cabecera y número)
+ * cuando se llena la actual. Cada página se cierra en cuanto se abre la
+ * siguiente, así PDFBox puede pasar su contenido al fichero temporal.
+ *
+ * Las fuentes estándar (Helvetica) solo cubren WinAnsi; los caracteres
+ * fuera de ese juego se sustituyen por '?'.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see MotorInformePdf
+ */
+public class EscritorPaginas implements Closeable {
+
+    private static final PDRectangle TAMANIO = PDRectangle.A4;
+
+    private static final float MARGEN = 50;
+
+    private static final PDFont NORMAL = PDType1Font.HELVETICA;
+
+    private static final PDFont NEGRITA = PDType1Font.HELVETICA_BOLD;
+
+    private final PDDocument doc;
+
+    private final String cabecera;
+
+    private PDPageContentStream cs;
+
+    private float y;
+
+    private int paginas;
+
+    /**
+     * @param doc documento destino.
+     * @param cabecera texto pequeño en lo alto de cada página.
+     */
+    public EscritorPaginas(PDDocument doc, String cabecera) {
+        this.doc = doc;
+        this.cabecera = cabecera;
+    }
+
+    /**
+     * Cierra la página actual y empieza otra.
+     *
+     * @throws IOException si falla PDFBox.
+     */
+    public void nuevaPagina() throws IOException {
+        cerrarPagina();
+        PDPage page = new PDPage(TAMANIO);
+        doc.addPage(page);
+        cs = new PDPageContentStream(doc, page);
+        paginas++;
+        float alto = TAMANIO.getHeight();
+        escribir(NORMAL, 8, MARGEN, alto - 30, limpiar(cabecera));
+        escribir(NORMAL, 8, TAMANIO.getWidth() - MARGEN - 30, 25, String.valueOf(paginas));
+        y = alto - MARGEN - 10;
+    }
+
+    /**
+     * @param texto título de bloque (negrita 14).
+     * @throws IOException si falla PDFBox.
+     */
+    public void titulo(String texto) throws IOException {
+        linea(NEGRITA, 14, texto, 20);
+    }
+
+    /**
+     * @param texto subtítulo (negrita 11).
+     * @throws IOException si falla PDFBox.
+     */
+    public void subtitulo(String texto) throws IOException {
+        linea(NEGRITA, 11, texto, 16);
+    }
+
+    /**
+     * Par etiqueta: valor en una línea.
+     *
+     * @param etiqueta texto en negrita.
+     * @param valor valor (null = "-").
+     * @throws IOException si falla PDFBox.
+     */
+    public void campo(String etiqueta, Object valor) throws IOException {
+        asegurarEspacio(14);
+        String e = limpiar(etiqueta) + " ";
+        escribir(NEGRITA, 10, MARGEN, y, e);
+        float ancho = NEGRITA.getStringWidth(e) / 1000 * 10;
+        escribir(NORMAL, 10, MARGEN + ancho, y, limpiar(valor != null ? valor.toString() : "-"));
+        y -= 14;
+    }
+
+    /**
+     * Texto normal partido en varias líneas si no cabe en el ancho útil.
+     *
+     * @param texto párrafo.
+     * @param sangria desplazamiento a la derecha del margen.
+     * @throws IOException si falla PDFBox.
+     */
+    public void parrafo(String texto, float sangria) throws IOException {
+        for (String l : partir(limpiar(texto), NORMAL, 10, TAMANIO.getWidth() - 2 * MARGEN - sangria)) {
+            asegurarEspacio(13);
+            escribir(NORMAL, 10, MARGEN + sangria, y, l);
+            y -= 13;
+        }
+    }
+
+    /**
+     * @param puntos espacio vertical en blanco.
+     */
+    public void espacio(float puntos) {
+        y -= puntos;
+    }
+
+    /**
+     * @return páginas escritas por este escritor.
+     */
+    public int getPaginas() {
+        return paginas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cerrarPagina();
+    }
+
+    private void linea(PDFont fuente, float tamanio, String texto, float alto) throws IOException {
+        asegurarEspacio(alto);
+        escribir(fuente, tamanio, MARGEN, y, limpiar(texto));
+        y -= alto;
+    }
+
+    private void asegurarEspacio(float alto) throws IOException {
+        if (cs == null || y - alto < MARGEN) {
+            nuevaPagina();
+        }
+    }
+
+    private void escribir(PDFont fuente, float tamanio, float x, float yy, String texto) throws IOException {
+        cs.beginText();
+        cs.setFont(fuente, tamanio);
+        cs.newLineAtOffset(x, yy);
+        cs.showText(texto);
+        cs.endText();
+    }
+
+    private void cerrarPagina() throws IOException {
+        if (cs != null) {
+            cs.close();
+            cs = null;
+        }
+    }
+
+    /** Corta por palabras (o a la fuerza si una palabra no cabe). */
+    private static List<String> partir(String texto, PDFont fuente, float tamanio, float ancho) throws IOException {
+        List<String> lineas = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        for (String palabra : texto.split(" ")) {
+            String prueba = actual.isEmpty() ? palabra : actual + " " + palabra;
+            if (fuente.getStringWidth(prueba) / 1000 * tamanio <= ancho) {
+                actual.setLength(0);
+                actual.append(prueba);
+                continue;
+            }
+            if (!actual.isEmpty()) {
+                lineas.add(actual.toString());
+                actual.setLength(0);
+            }
+            while (fuente.getStringWidth(palabra) / 1000 * tamanio > ancho && palabra.length() > 1) {
+                int corte = palabra.length() - 1;
+                while (corte > 1 && fuente.getStringWidth(palabra.substring(0, corte)) / 1000 * tamanio > ancho) {
+                    corte--;
+                }
+                lineas.add(palabra.substring(0, corte));
+                palabra = palabra.substring(corte);
+            }
+            actual.append(palabra);
+        }
+        if (!actual.isEmpty() || lineas.isEmpty()) {
+            lineas.add(actual.toString());
+        }
+        return lineas;
+    }
+
+    /** Deja solo caracteres que Helvetica (WinAnsi) puede pintar. */
+    private static String limpiar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\t') {
+                sb.append(' ');
+            } else if (c < 0x20 || (c > 0xFF && c != '€')) {
+                sb.append('?');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
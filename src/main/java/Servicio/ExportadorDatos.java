@@ -0,0 +1,270 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import Modelo.Oveja;
+import Util.HibernateUtil;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.LongConsumer;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+/**
+ * Exportación en streaming del censo (Oveja) y del histórico de eventos a
+ * CSV o JSON Lines.
+ *
+ * Las filas se recorren con un cursor ScrollableResults FORWARD_ONLY y
+ * fetch size {@link Integer#MIN_VALUE}, que hace que Connector/J las envíe
+ * de una en una en lugar de cargar el ResultSet completo. La Session es de
+ * solo lectura, no toca la caché de segundo nivel y se vacía cada
+ * {@value #LIMPIAR_CADA} filas, así que el heap usado no depende del número
+ * de filas. La salida va a un FileChannel a través de un buffer de 64 KB.
+ *
+ * El CSV usa las mismas columnas que {@link ImportadorCsv}, de modo que un
+ * fichero exportado se puede volver a importar.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+public class ExportadorDatos {
+
+    /** Formato de salida. */
+    public enum Formato {
+        /** Separado por ';' con cabecera (Excel en español). */
+        CSV,
+        /** Un objeto JSON por línea. */
+        JSONL;
+
+        /**
+         * Formato según la extensión del fichero (.jsonl/.json → JSONL).
+         *
+         * @param fichero destino.
+         * @return formato deducido, CSV por defecto.
+         */
+        public static Formato desde(Path fichero) {
+            String nombre = fichero.getFileName().toString().toLowerCase(Locale.ROOT);
+            return nombre.endsWith(".jsonl") || nombre.endsWith(".json") ? JSONL : CSV;
+        }
+    }
+
+    /** Filas entre cada session.clear() (y aviso de progreso). */
+    private static final int LIMPIAR_CADA = 1000;
+
+    /** Buffer de escritura sobre el canal. */
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    /**
+     * Fetch size especial de MySQL Connector/J: resultado en streaming fila
+     * a fila (una sola consulta abierta por conexión mientras dura).
+     */
+    private static final int FETCH_STREAMING = Integer.MIN_VALUE;
+
+    static final String[] COLUMNAS_OVEJA = {
+        "id", "numeroIdentificacion", "raza", "fechaNacimiento", "sexo", "pesoActual", "estadoSalud", "activo"
+    };
+
+    static final String[] COLUMNAS_EVENTO = {
+        "id", "numeroOveja", "tipoEvento", "fechaEvento", "observaciones", "numeroMadre", "activo", "numeroPadre"
+    };
+
+    /**
+     * Exporta todas las ovejas (activas y de baja) ordenadas por ID.
+     *
+     * @param destino fichero de salida (se sobrescribe).
+     * @param formato CSV o JSONL.
+     * @param progreso recibe las filas escritas cada {@value #LIMPIAR_CADA}
+     * (puede ser null).
+     * @return resumen de la exportación.
+     * @throws IOException si falla la escritura o se cancela (interrupción).
+     */
+    public ResultadoExportacion exportarOvejas(Path destino, Formato formato, LongConsumer progreso)
+            throws IOException {
+        long inicio = System.nanoTime();
+        long filas = 0;
+        try (Session session = abrirSesion();
+                Writer out = abrirSalida(destino)) {
+            cabecera(out, formato, COLUMNAS_OVEJA);
+            try (ScrollableResults<Oveja> cursor = session.createQuery(
+                    "FROM Oveja o ORDER BY o.id", Oveja.class)
+                    .setFetchSize(FETCH_STREAMING)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (cursor.next()) {
+                    Oveja o = cursor.get();
+                    fila(out, formato, COLUMNAS_OVEJA, o.getId(), o.getNumeroIdentificacion(), o.getRaza(),
+                            o.getFechaNacimiento(), o.getSexo(), o.getPesoActual(), o.getEstadoSalud(),
+                            o.isActivo());
+                    if (++filas % LIMPIAR_CADA == 0) {
+                        avanzar(session, progreso, filas);
+                    }
+                }
+            }
+        }
+        return terminar(destino, filas, inicio);
+    }
+
+    /**
+     * Exporta todos los eventos ordenados por ID. Se leen como proyección
+     * (números de oveja y madre por JOIN), sin cargar entidades.
+     *
+     * @param destino fichero de salida (se sobrescribe).
+     * @param formato CSV o JSONL.
+     * @param progreso recibe las filas escritas cada {@value #LIMPIAR_CADA}
+     * (puede ser null).
+     * @return resumen de la exportación.
+     * @throws IOException si falla la escritura o se cancela (interrupción).
+     */
+    public ResultadoExportacion exportarEventos(Path destino, Formato formato, LongConsumer progreso)
+            throws IOException {
+        long inicio = System.nanoTime();
+        long filas = 0;
+        try (Session session = abrirSesion();
+                Writer out = abrirSalida(destino)) {
+            cabecera(out, formato, COLUMNAS_EVENTO);
+            try (ScrollableResults<Object[]> cursor = session.createQuery(
+                    "SELECT e.id, o.numeroIdentificacion, e.tipoEvento, e.fechaEvento, e.observaciones, "
+                    + "m.numeroIdentificacion, e.activo, p.numeroIdentificacion "
+                    + "FROM Evento e JOIN e.oveja o LEFT JOIN e.ovejaMadre m LEFT JOIN e.ovejaPadre p "
+                    + "ORDER BY e.id", Object[].class)
+                    .setFetchSize(FETCH_STREAMING)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (cursor.next()) {
+                    fila(out, formato, COLUMNAS_EVENTO, cursor.get());
+                    if (++filas % LIMPIAR_CADA == 0) {
+                        avanzar(session, progreso, filas);
+                    }
+                }
+            }
+        }
+        return terminar(destino, filas, inicio);
+    }
+
+    // ==================== SESIÓN / SALIDA ====================
+
+    private static Session abrirSesion() {
+        Session session = HibernateUtil.getSessionFactory().openSession();
+        session.setDefaultReadOnly(true);
+        // Exportar no debe expulsar de la caché lo que usan los paneles
+        session.setCacheMode(CacheMode.IGNORE);
+        return session;
+    }
+
+    private static Writer abrirSalida(Path destino) throws IOException {
+        FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8.newEncoder(), TAMANIO_BUFFER),
+                TAMANIO_BUFFER);
+    }
+
+    /**
+     * Vacía el contexto de persistencia (heap constante), informa del avance
+     * y comprueba si se ha cancelado la exportación.
+     */
+    private static void avanzar(Session session, LongConsumer progreso, long filas) throws IOException {
+        session.clear();
+        if (progreso != null) {
+            progreso.accept(filas);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Exportación cancelada tras " + filas + " filas");
+        }
+    }
+
+    private static ResultadoExportacion terminar(Path destino, long filas, long inicio) throws IOException {
+        return new ResultadoExportacion(filas, Files.size(destino), System.nanoTime() - inicio);
+    }
+
+    // ==================== FORMATO ====================
+
+    static void cabecera(Writer out, Formato formato, String[] columnas) throws IOException {
+        if (formato == Formato.CSV) {
+            out.write(String.join(";", columnas));
+            out.write('\n');
+        }
+    }
+
+    static void fila(Writer out, Formato formato, String[] columnas, Object... valores)
+            throws IOException {
+        if (formato == Formato.CSV) {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    out.write(';');
+                }
+                if (valores[i] != null) {
+                    escribirCsv(out, valores[i].toString());
+                }
+            }
+        } else {
+            out.write('{');
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write('"');
+                out.write(columnas[i]);
+                out.write("\":");
+                escribirJson(out, valores[i]);
+            }
+            out.write('}');
+        }
+        out.write('\n');
+    }
+
+    /** Entre comillas solo si contiene ';', comillas o saltos de línea. */
+    private static void escribirCsv(Writer out, String valor) throws IOException {
+        boolean comillas = valor.indexOf(';') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0;
+        if (!comillas) {
+            out.write(valor);
+            return;
+        }
+        out.write('"');
+        out.write(valor.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /** Números y booleanos tal cual; fechas y textos como cadena JSON. */
+    private static void escribirJson(Writer out, Object valor) throws IOException {
+        if (valor == null) {
+            out.write("null");
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            out.write(valor.toString());
+        } else {
+            String s = valor.toString();
+            out.write('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                    }
+                }
+            }
+            out.write('"');
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import DAO.EventoDAO;
+import Modelo.CambioDominio;
+import Modelo.Linaje;
+import Util.BusCambios;
+
+/**
+ * Consultas de genealogía (ancestros, descendencia y consanguinidad) a partir
+ * de los eventos "Parto" (evento.oveja = hija, evento.ovejaMadre = madre,
+ * evento.ovejaPadre = padre si consta).
+ *
+ * Con rebaños normales se carga una vez el {@link GrafoGenealogico} en
+ * memoria y cada consulta es un recorrido de arrays. Si hay más de
+ * {@value #MAX_PARTOS_EN_MEMORIA} partos se responde con CTE recursivas en
+ * MySQL en lugar de cargar el grafo. El grafo se descarta cuando el
+ * {@link BusCambios} avisa de cambios en eventos y se reconstruye en la
+ * siguiente consulta.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see GrafoGenealogico
+ * @see EventoDAO#descendientesSql(int, int)
+ */
+public final class Genealogia {
+
+    /** Partos a partir de los cuales no se carga el grafo en memoria. */
+    public static final int MAX_PARTOS_EN_MEMORIA = 2_000_000;
+
+    /** Tope de generaciones en las consultas SQL (corta ciclos). */
+    public static final int MAX_GENERACIONES_SQL = 100;
+
+    private static final Genealogia INSTANCIA = new Genealogia(new EventoDAO());
+
+    private final EventoDAO eventoDAO;
+
+    /** Grafo vigente; null = hay que (re)construirlo o se usa SQL. */
+    private volatile GrafoGenealogico grafo;
+
+    /** Consanguinidad del grafo vigente; null = sin calcular. */
+    private volatile Consanguinidad consanguinidad;
+
+    /** Cambios de eventos vistos; un grafo construido durante uno no se guarda. */
+    private volatile int version;
+
+    private Genealogia(EventoDAO eventoDAO) {
+        this.eventoDAO = eventoDAO;
+        BusCambios.getInstancia().suscribir(cambios -> {
+            for (CambioDominio c : cambios) {
+                if (c instanceof CambioDominio.EventoRegistrado || c instanceof CambioDominio.EventoModificado
+                        || c instanceof CambioDominio.EventoEliminado || c instanceof CambioDominio.EventosCargados) {
+                    version++;
+                    grafo = null;
+                    consanguinidad = null;
+                    return;
+                }
+            }
+        }, false);
+    }
+
+    /**
+     * @return servicio único de la aplicación.
+     */
+    public static Genealogia getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return madre, padre, abuelos... por generación.
+     */
+    public Linaje ancestros(int idOveja) {
+        GrafoGenealogico g = grafo();
+        return g != null ? g.ancestros(idOveja) : eventoDAO.ancestrosSql(idOveja, MAX_GENERACIONES_SQL);
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return crías, nietas... por generación.
+     */
+    public Linaje descendientes(int idOveja) {
+        GrafoGenealogico g = grafo();
+        return g != null ? g.descendientes(idOveja) : eventoDAO.descendientesSql(idOveja, MAX_GENERACIONES_SQL);
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return generaciones de ancestros conocidos (0 = fundadora).
+     */
+    public int profundidad(int idOveja) {
+        return ancestros(idOveja).profundidad();
+    }
+
+    /**
+     * Coeficientes de consanguinidad del rebaño, calculados la primera vez
+     * que se piden tras cada cambio de eventos.
+     *
+     * @return cálculo vigente o null si el rebaño supera
+     * {@link #MAX_PARTOS_EN_MEMORIA} (no hay grafo en memoria).
+     */
+    public Consanguinidad consanguinidad() {
+        Consanguinidad c = consanguinidad;
+        if (c != null) {
+            return c;
+        }
+        synchronized (this) {
+            c = consanguinidad;
+            if (c == null) {
+                int versionInicial = version;
+                GrafoGenealogico g = grafo();
+                if (g == null) {
+                    return null;
+                }
+                c = Consanguinidad.calcular(g);
+                if (version == versionInicial) {
+                    consanguinidad = c;
+                }
+            }
+            return c;
+        }
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return F de Wright (0 sin datos o sin grafo en memoria).
+     */
+    public double coeficienteConsanguinidad(int idOveja) {
+        Consanguinidad c = consanguinidad();
+        return c != null ? c.coeficiente(idOveja) : 0.0;
+    }
+
+    /**
+     * Grafo en memoria, construyéndolo si hace falta.
+     *
+     * @return grafo vigente o null si el rebaño supera
+     * {@link #MAX_PARTOS_EN_MEMORIA} (usar SQL).
+     */
+    public GrafoGenealogico grafo() {
+        GrafoGenealogico g = grafo;
+        if (g != null) {
+            return g;
+        }
+        synchronized (this) {
+            g = grafo;
+            if (g == null) {
+                int versionInicial = version;
+                if (eventoDAO.contarPartos() > MAX_PARTOS_EN_MEMORIA) {
+                    return null;
+                }
+                g = GrafoGenealogico.construir(eventoDAO.listarRelacionesParto());
+                if (version == versionInicial) {
+                    grafo = g;
+                }
+            }
+            return g;
+        }
+    }
+}
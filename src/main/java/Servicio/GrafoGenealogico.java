@@ -0,0 +1,281 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import DAO.RelacionesParto;
+import Modelo.Linaje;
+import java.util.Arrays;
+
+/**
+ * Grafo genealógico inmutable en arrays de primitivos. Cada oveja que
+ * aparece en algún parto recibe un índice denso 0..n-1 (búsqueda binaria
+ * sobre los IDs ordenados) y se guardan:
+ *
+ * - madre[i] y padre[i]: índices de los progenitores, -1 si no se conocen.
+ * - crías en formato CSR: las crías de i (como madre o como padre) son
+ * hijas[inicio[i] .. inicio[i+1]).
+ *
+ * Unos 20 bytes por oveja y 4-8 por parto, sin objetos por nodo; las
+ * consultas recorren arrays contiguos. Si una hija tiene varios partos con
+ * madres distintas (error de datos) vale el primero y el resto se cuenta
+ * en {@link #getConflictos()}.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Genealogia
+ */
+public final class GrafoGenealogico {
+
+    /** IDs de oveja ordenados; la posición es el índice denso. */
+    private final int[] ids;
+
+    /** Índice de la madre de cada nodo (-1 = desconocida). */
+    private final int[] madre;
+
+    /** Índice del padre de cada nodo (-1 = desconocido). */
+    private final int[] padre;
+
+    /** CSR: primera cría de cada nodo en {@link #hijas}; tamaño n + 1. */
+    private final int[] inicio;
+
+    /** Índices de crías agrupados por progenitor. */
+    private final int[] hijas;
+
+    private final int numeroPartos;
+
+    private final int conflictos;
+
+    private GrafoGenealogico(int[] ids, int[] madre, int[] padre, int[] inicio, int[] hijas,
+            int numeroPartos, int conflictos) {
+        this.ids = ids;
+        this.madre = madre;
+        this.padre = padre;
+        this.numeroPartos = numeroPartos;
+        this.inicio = inicio;
+        this.hijas = hijas;
+        this.conflictos = conflictos;
+    }
+
+    /**
+     * Construye el grafo en O(p log p) para p partos.
+     *
+     * @param partos relaciones hija → madre/padre.
+     * @return grafo listo para consultas concurrentes (inmutable).
+     */
+    public static GrafoGenealogico construir(RelacionesParto partos) {
+        int p = partos.size();
+        int[] todos = new int[p * 3];
+        System.arraycopy(partos.hijas(), 0, todos, 0, p);
+        System.arraycopy(partos.madres(), 0, todos, p, p);
+        System.arraycopy(partos.padres(), 0, todos, p * 2, p);
+        int[] ids = Arrays.stream(todos).filter(id -> id > 0).sorted().distinct().toArray();
+        int n = ids.length;
+
+        int[] madre = new int[n];
+        int[] padre = new int[n];
+        Arrays.fill(madre, -1);
+        Arrays.fill(padre, -1);
+        int aceptados = 0;
+        int conflictos = 0;
+        int[] numHijas = new int[n + 1];
+        for (int e = 0; e < p; e++) {
+            int h = Arrays.binarySearch(ids, partos.hijas()[e]);
+            int m = Arrays.binarySearch(ids, partos.madres()[e]);
+            if (madre[h] == -1) {
+                madre[h] = m;
+                numHijas[m + 1]++;
+                aceptados++;
+                int idPadre = partos.padres()[e];
+                if (idPadre > 0 && idPadre != partos.hijas()[e] && idPadre != partos.madres()[e]) {
+                    padre[h] = Arrays.binarySearch(ids, idPadre);
+                    numHijas[padre[h] + 1]++;
+                }
+            } else if (madre[h] != m) {
+                conflictos++;
+            }
+        }
+
+        // Suma prefija: inicio[i] = crías de los nodos anteriores a i
+        int[] inicio = numHijas;
+        for (int i = 0; i < n; i++) {
+            inicio[i + 1] += inicio[i];
+        }
+        int[] hijas = new int[inicio[n]];
+        int[] cursor = Arrays.copyOf(inicio, n);
+        for (int h = 0; h < n; h++) {
+            if (madre[h] >= 0) {
+                hijas[cursor[madre[h]]++] = h;
+            }
+            if (padre[h] >= 0) {
+                hijas[cursor[padre[h]]++] = h;
+            }
+        }
+        return new GrafoGenealogico(ids, madre, padre, inicio, hijas, aceptados, conflictos);
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return ID de la madre o null si no consta.
+     */
+    public Integer madreDe(int idOveja) {
+        int i = Arrays.binarySearch(ids, idOveja);
+        return i >= 0 && madre[i] >= 0 ? ids[madre[i]] : null;
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return ID del padre o null si no consta.
+     */
+    public Integer padreDe(int idOveja) {
+        int i = Arrays.binarySearch(ids, idOveja);
+        return i >= 0 && padre[i] >= 0 ? ids[padre[i]] : null;
+    }
+
+    /**
+     * Ancestros por ambas líneas (madre, padre, abuelos...) recorridos en
+     * anchura. Un ancestro que aparece por varios caminos se da una vez, en
+     * la generación más cercana.
+     *
+     * @param idOveja ID de la oveja.
+     * @return ancestros ordenados por generación e ID.
+     */
+    public Linaje ancestros(int idOveja) {
+        return recorrer(idOveja, true);
+    }
+
+    /**
+     * Crías, nietas... recorridas en anchura (BFS) sobre el CSR.
+     *
+     * @param idOveja ID de la oveja.
+     * @return descendientes ordenados por generación e ID.
+     */
+    public Linaje descendientes(int idOveja) {
+        return recorrer(idOveja, false);
+    }
+
+    /**
+     * BFS hacia los progenitores (arriba) o hacia las crías (abajo). La
+     * marca de visitados corta también ciclos por datos erróneos.
+     */
+    private Linaje recorrer(int idOveja, boolean arriba) {
+        int raiz = Arrays.binarySearch(ids, idOveja);
+        if (raiz < 0) {
+            return Linaje.vacio(idOveja);
+        }
+        int[] cola = new int[16];
+        int[] generacion = new int[16];
+        boolean[] visto = new boolean[ids.length];
+        visto[raiz] = true;
+        int cabeza = 0;
+        int fin = 0;
+        int actual = raiz;
+        int genActual = 0;
+        while (true) {
+            int desde = arriba ? 0 : inicio[actual];
+            int hasta = arriba ? 2 : inicio[actual + 1];
+            for (int k = desde; k < hasta; k++) {
+                int v = arriba ? (k == 0 ? madre[actual] : padre[actual]) : hijas[k];
+                if (v < 0 || visto[v]) {
+                    continue;
+                }
+                visto[v] = true;
+                if (fin == cola.length) {
+                    cola = Arrays.copyOf(cola, fin * 2);
+                    generacion = Arrays.copyOf(generacion, fin * 2);
+                }
+                cola[fin] = v;
+                generacion[fin++] = genActual + 1;
+            }
+            if (cabeza == fin) {
+                break;
+            }
+            actual = cola[cabeza];
+            genActual = generacion[cabeza++];
+        }
+
+        // BFS ya sale por generación; dentro de cada una se ordena por ID
+        int[] resultado = new int[fin];
+        for (int k = 0; k < fin; k++) {
+            resultado[k] = ids[cola[k]];
+        }
+        int desde = 0;
+        for (int k = 1; k <= fin; k++) {
+            if (k == fin || generacion[k] != generacion[desde]) {
+                Arrays.sort(resultado, desde, k);
+                desde = k;
+            }
+        }
+        return new Linaje(idOveja, resultado, Arrays.copyOf(generacion, fin));
+    }
+
+    /**
+     * @param idOveja ID de la oveja.
+     * @return generaciones de ancestros conocidos (0 = fundadora o sin
+     * datos).
+     */
+    public int profundidad(int idOveja) {
+        return ancestros(idOveja).profundidad();
+    }
+
+    /** @return ovejas que aparecen en algún parto. */
+    public int getNumeroOvejas() {
+        return ids.length;
+    }
+
+    /** @return partos aceptados (uno por hija). */
+    public int getNumeroPartos() {
+        return numeroPartos;
+    }
+
+    /** @return partos descartados por dar otra madre a una hija ya enlazada. */
+    public int getConflictos() {
+        return conflictos;
+    }
+
+    /**
+     * Índice denso de una oveja (para cálculos que indexan arrays por
+     * nodo, como la consanguinidad).
+     *
+     * @param idOveja ID de la oveja.
+     * @return índice 0..n-1 o negativo si no está en el grafo.
+     */
+    int indice(int idOveja) {
+        return Arrays.binarySearch(ids, idOveja);
+    }
+
+    /** @return ID de la oveja con índice denso i. */
+    int id(int i) {
+        return ids[i];
+    }
+
+    /** @return índice de la madre del nodo i, -1 si no consta. */
+    int madreIndice(int i) {
+        return madre[i];
+    }
+
+    /** @return índice del padre del nodo i, -1 si no consta. */
+    int padreIndice(int i) {
+        return padre[i];
+    }
+
+    /**
+     * @param i índice denso.
+     * @return número de crías de i.
+     */
+    int criasIndice(int i) {
+        return inicio[i + 1] - inicio[i];
+    }
+
+    /** @return k-ésima cría del nodo i (0 &lt;= k &lt; criasIndice(i)). */
+    int criaIndice(int i, int k) {
+        return hijas[inicio[i] + k];
+    }
+
+    @Override
+    public String toString() {
+        return "GrafoGenealogico[ovejas=" + ids.length + ", partos=" + numeroPartos
+                + ", conflictos=" + conflictos + "]";
+    }
+}
@@ -0,0 +1,470 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import DAO.AgregadorRebano;
+import Modelo.CambioDominio;
+import Modelo.Evento;
+import Modelo.Oveja;
+import Modelo.Pesada;
+import Servicio.ResultadoImportacion.ErrorFila;
+import Util.BusCambios;
+import Util.Catalogo;
+import Util.HibernateUtil;
+import Util.LectorCsv;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+/**
+ * Importación masiva de ovejas y eventos desde CSV en streaming.
+ *
+ * El fichero se lee registro a registro ({@link LectorCsv}), cada fila se
+ * valida con las mismas reglas que el formulario de OvejaPanel y las filas
+ * válidas se escriben por lotes con una StatelessSession (sin contexto de
+ * persistencia ni caché), una transacción por lote. La memoria usada depende
+ * del tamaño de lote, no del fichero: un CSV de 1M de filas se importa igual
+ * que uno de 100.
+ *
+ * Formato (cabecera obligatoria, separador ';' o ',', fechas yyyy-MM-dd o
+ * dd/MM/yyyy):
+ *
+ * Ovejas: numeroIdentificacion;raza;fechaNacimiento;sexo;pesoActual;estadoSalud
+ *
+ * Eventos: numeroOveja;tipoEvento;fechaEvento;observaciones;numeroMadre;numeroPadre
+ *
+ * Las filas erróneas no detienen la importación: se cuentan y se guarda su
+ * detalle (hasta {@value #MAX_ERRORES_DETALLE}) en el
+ * {@link ResultadoImportacion}.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+public class ImportadorCsv {
+
+    /** Filas por transacción si no se indica otro tamaño. */
+    public static final int TAMANIO_LOTE_DEFECTO = 500;
+
+    /** Filas rechazadas cuyo detalle se conserva en el resultado. */
+    public static final int MAX_ERRORES_DETALLE = 1000;
+
+    /** Peso máximo que admite la columna DECIMAL(5,2). */
+    private static final BigDecimal PESO_MAXIMO = new BigDecimal("999.99");
+
+    /** Estricto: 31/02 es un error, no el último día de febrero. */
+    private static final DateTimeFormatter FECHA_ES = DateTimeFormatter.ofPattern("d/M/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    static final String[] COLUMNAS_OVEJA = {
+        "numeroIdentificacion", "raza", "fechaNacimiento", "sexo", "pesoActual", "estadoSalud"
+    };
+
+    static final String[] COLUMNAS_EVENTO = {
+        "numeroOveja", "tipoEvento", "fechaEvento", "observaciones", "numeroMadre", "numeroPadre"
+    };
+
+    /**
+     * Recibe el avance tras confirmar cada lote (se invoca en el hilo que
+     * importa, no en el EDT).
+     */
+    @FunctionalInterface
+    public interface Progreso {
+
+        /**
+         * @param leidas registros leídos hasta ahora.
+         * @param importadas filas escritas en BD hasta ahora.
+         * @param erroneas filas rechazadas hasta ahora.
+         */
+        void alCompletarLote(long leidas, long importadas, long erroneas);
+    }
+
+    private final int tamanioLote;
+
+    public ImportadorCsv() {
+        this(TAMANIO_LOTE_DEFECTO);
+    }
+
+    /**
+     * @param tamanioLote filas por transacción (&gt; 0).
+     * @throws IllegalArgumentException si el tamaño no es positivo.
+     */
+    public ImportadorCsv(int tamanioLote) {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("Tamaño de lote debe ser > 0: " + tamanioLote);
+        }
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Importa ovejas. Se rechazan números duplicados (en el fichero o ya en
+     * BD), sexo distinto de H/M, peso no positivo o fuera de rango y campos
+     * obligatorios vacíos.
+     *
+     * @param origen CSV con cabecera (no se cierra).
+     * @param progreso avance por lote (puede ser null).
+     * @return resumen con filas rechazadas.
+     * @throws IOException si falla la lectura o se cancela (interrupción).
+     * @throws IllegalArgumentException si faltan columnas obligatorias.
+     */
+    public ResultadoImportacion importarOvejas(Reader origen, Progreso progreso) throws IOException {
+        return importar(origen, COLUMNAS_OVEJA, 5, progreso, ImportadorCsv::leerOveja, ImportadorCsv::filtrarOvejas,
+                CambioDominio.OvejasCargadas::new);
+    }
+
+    /**
+     * Importa eventos. Se rechazan filas cuya oveja (o madre o padre) no
+     * existe, con tipo/fecha vacíos o textos más largos que la columna. En los
+     * partos sin numeroMadre la madre es la propia oveja, como en EventoPanel;
+     * por eso un parto con numeroPadre exige numeroMadre (si no, el padre
+     * quedaría fuera de la genealogía). numeroPadre solo se guarda en partos.
+     *
+     * @param origen CSV con cabecera (no se cierra).
+     * @param progreso avance por lote (puede ser null).
+     * @return resumen con filas rechazadas.
+     * @throws IOException si falla la lectura o se cancela (interrupción).
+     * @throws IllegalArgumentException si faltan columnas obligatorias.
+     */
+    public ResultadoImportacion importarEventos(Reader origen, Progreso progreso) throws IOException {
+        return importar(origen, COLUMNAS_EVENTO, 3, progreso, ImportadorCsv::leerEvento, ImportadorCsv::filtrarEventos,
+                CambioDominio.EventosCargados::new);
+    }
+
+    // ==================== PIPELINE ====================
+
+    /** Fila validada pendiente de escribir. */
+    private record Fila<T>(long linea, String clave, T entidad, String[] campos) {
+    }
+
+    /** Convierte un registro en entidad o lanza IllegalArgumentException con el motivo. */
+    @FunctionalInterface
+    private interface Lector<T> {
+
+        T leer(String[] campos, int[] indices);
+    }
+
+    /** Comprobaciones contra BD de un lote; devuelve las filas a insertar. */
+    @FunctionalInterface
+    private interface Filtro<T> {
+
+        List<Fila<T>> filtrar(StatelessSession session, List<Fila<T>> lote, int[] indices, Acumulador acc);
+    }
+
+    /** Contadores y detalle acotado de errores. */
+    private static final class Acumulador {
+
+        long leidas;
+        long importadas;
+        long erroneas;
+        final List<ErrorFila> errores = new ArrayList<>();
+
+        void rechazar(long linea, String clave, String motivo) {
+            erroneas++;
+            if (errores.size() < MAX_ERRORES_DETALLE) {
+                errores.add(new ErrorFila(linea, clave, motivo));
+            }
+        }
+    }
+
+    private <T> ResultadoImportacion importar(Reader origen, String[] columnas, int obligatorias,
+            Progreso progreso, Lector<T> lector, Filtro<T> filtro, IntFunction<CambioDominio> aviso)
+            throws IOException {
+        long inicio = System.nanoTime();
+        LectorCsv csv = new LectorCsv(origen);
+        int[] indices = leerCabecera(csv.siguiente(), columnas, obligatorias);
+
+        Acumulador acc = new Acumulador();
+        List<Fila<T>> lote = new ArrayList<>(tamanioLote);
+        try (StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession()) {
+            String[] campos;
+            while ((campos = csv.siguiente()) != null) {
+                acc.leidas++;
+                String clave = texto(campos, indices[0]);
+                try {
+                    lote.add(new Fila<>(csv.getLinea(), clave, lector.leer(campos, indices), campos));
+                } catch (IllegalArgumentException ex) {
+                    acc.rechazar(csv.getLinea(), clave, ex.getMessage());
+                }
+                if (lote.size() == tamanioLote) {
+                    escribirLote(session, lote, indices, filtro, acc, progreso);
+                }
+            }
+            if (!lote.isEmpty()) {
+                escribirLote(session, lote, indices, filtro, acc, progreso);
+            }
+        } finally {
+            // La StatelessSession no pasa por la caché: los recuentos
+            // cacheados de oveja/evento ya no son válidos
+            if (acc.importadas > 0 && HibernateUtil.isAvailable()) {
+                HibernateUtil.getSessionFactory().getCache().evictQueryRegions();
+                AgregadorRebano.getInstancia().invalidar();
+                BusCambios.getInstancia().publicar(aviso.apply((int) acc.importadas));
+            }
+        }
+
+        return new ResultadoImportacion(acc.leidas, acc.importadas,
+                acc.erroneas, acc.errores, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Inserta un lote en su propia transacción. Si el lote falla se deshace
+     * entero y todas sus filas se marcan como rechazadas.
+     */
+    private <T> void escribirLote(StatelessSession session, List<Fila<T>> lote, int[] indices,
+            Filtro<T> filtro, Acumulador acc, Progreso progreso) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Importación cancelada tras " + acc.importadas + " filas");
+        }
+        List<Fila<T>> validas = filtro.filtrar(session, lote, indices, acc);
+        Transaction tx = null;
+        try {
+            tx = session.beginTransaction();
+            for (Fila<T> fila : validas) {
+                session.insert(fila.entidad());
+                // Ovejas con peso: primera pesada del historial
+                if (fila.entidad() instanceof Oveja oveja && oveja.getPesoActual() != null) {
+                    session.insert(Pesada.deHoy(oveja));
+                }
+            }
+            tx.commit();
+            acc.importadas += validas.size();
+        } catch (Exception e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            e.printStackTrace();
+            for (Fila<T> fila : validas) {
+                acc.rechazar(fila.linea(), fila.clave(), "Lote rechazado por la BD: " + e.getMessage());
+            }
+        }
+        lote.clear();
+        if (progreso != null) {
+            progreso.alCompletarLote(acc.leidas, acc.importadas, acc.erroneas);
+        }
+    }
+
+    /**
+     * Localiza cada columna esperada en la cabecera. Se ignoran mayúsculas,
+     * espacios y '_' (numero_identificacion = numeroIdentificacion).
+     *
+     * @return índice de cada columna o -1 si es opcional y no está.
+     */
+    static int[] leerCabecera(String[] cabecera, String[] columnas, int obligatorias) {
+        if (cabecera == null) {
+            throw new IllegalArgumentException("El fichero CSV está vacío");
+        }
+        Map<String, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < cabecera.length; i++) {
+            posiciones.putIfAbsent(normalizar(cabecera[i]), i);
+        }
+        int[] indices = new int[columnas.length];
+        List<String> faltan = new ArrayList<>();
+        for (int i = 0; i < columnas.length; i++) {
+            indices[i] = posiciones.getOrDefault(normalizar(columnas[i]), -1);
+            if (indices[i] < 0 && i < obligatorias) {
+                faltan.add(columnas[i]);
+            }
+        }
+        if (!faltan.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en la cabecera: " + String.join(", ", faltan));
+        }
+        return indices;
+    }
+
+    private static String normalizar(String columna) {
+        return columna.trim().replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    // ==================== OVEJAS ====================
+
+    /**
+     * Mismas reglas que OvejaPanel.guardarOveja, más las longitudes de
+     * columna que el formulario no comprueba.
+     */
+    static Oveja leerOveja(String[] campos, int[] idx) {
+        String numero = texto(campos, idx[0]);
+        String raza = texto(campos, idx[1]);
+        String fecha = texto(campos, idx[2]);
+        String sexo = texto(campos, idx[3]).toUpperCase(Locale.ROOT);
+        String pesoStr = texto(campos, idx[4]).replace(',', '.');
+        String estadoSalud = texto(campos, idx[5]);
+
+        if (numero.isEmpty() || raza.isEmpty() || pesoStr.isEmpty() || fecha.isEmpty()) {
+            throw new IllegalArgumentException("Campos obligatorios vacíos");
+        }
+        longitudMaxima(numero, 20, "numeroIdentificacion");
+        longitudMaxima(raza, 50, "raza");
+        longitudMaxima(estadoSalud, 50, "estadoSalud");
+        if (!"H".equals(sexo) && !"M".equals(sexo)) {
+            throw new IllegalArgumentException("Sexo debe ser H o M: " + sexo);
+        }
+        BigDecimal peso;
+        try {
+            peso = new BigDecimal(pesoStr);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Peso inválido: " + pesoStr);
+        }
+        if (peso.compareTo(BigDecimal.ZERO) <= 0 || peso.compareTo(PESO_MAXIMO) > 0) {
+            throw new IllegalArgumentException("Peso fuera de rango (0, " + PESO_MAXIMO + "]: " + pesoStr);
+        }
+
+        return new Oveja(numero, raza, fecha(fecha), sexo, peso, estadoSalud.isEmpty() ? null : estadoSalud);
+    }
+
+    /**
+     * Rechaza números repetidos dentro del lote o ya registrados (activas o
+     * de baja: la columna es UNIQUE). Los lotes anteriores ya están
+     * confirmados, así que también se detectan duplicados entre lotes.
+     */
+    private static List<Fila<Oveja>> filtrarOvejas(StatelessSession session, List<Fila<Oveja>> lote,
+            int[] indices, Acumulador acc) {
+        Set<String> numeros = new HashSet<>();
+        for (Fila<Oveja> fila : lote) {
+            numeros.add(fila.clave());
+        }
+        Set<String> existentes = new HashSet<>(session.createQuery(
+                "SELECT o.numeroIdentificacion FROM Oveja o WHERE o.numeroIdentificacion IN (:nums)", String.class)
+                .setParameter("nums", numeros)
+                .list());
+
+        List<Fila<Oveja>> validas = new ArrayList<>(lote.size());
+        Set<String> vistos = new HashSet<>();
+        for (Fila<Oveja> fila : lote) {
+            if (existentes.contains(fila.clave())) {
+                acc.rechazar(fila.linea(), fila.clave(), "Ya existe oveja con número: " + fila.clave());
+            } else if (!vistos.add(fila.clave())) {
+                acc.rechazar(fila.linea(), fila.clave(), "Número repetido en el fichero: " + fila.clave());
+            } else {
+                try {
+                    // Razas y estados nuevos, antes de la transacción del lote
+                    Catalogo.registrarValores(fila.entidad());
+                    validas.add(fila);
+                } catch (RuntimeException e) {
+                    acc.rechazar(fila.linea(), fila.clave(), "No se pudo dar de alta en el catálogo: " + e.getMessage());
+                }
+            }
+        }
+        return validas;
+    }
+
+    // ==================== EVENTOS ====================
+
+    static Evento leerEvento(String[] campos, int[] idx) {
+        String numeroOveja = texto(campos, idx[0]);
+        String tipo = texto(campos, idx[1]);
+        String fecha = texto(campos, idx[2]);
+        String observaciones = texto(campos, idx[3]);
+
+        if (numeroOveja.isEmpty() || tipo.isEmpty() || fecha.isEmpty()) {
+            throw new IllegalArgumentException("Campos obligatorios vacíos");
+        }
+        longitudMaxima(tipo, 30, "tipoEvento");
+        longitudMaxima(observaciones, 200, "observaciones");
+
+        // La oveja se resuelve por lotes en filtrarEventos
+        return new Evento(null, tipo, fecha(fecha), observaciones.isEmpty() ? null : observaciones);
+    }
+
+    /**
+     * Resuelve número → id de oveja y madre con una sola consulta IN por
+     * lote, y enlaza cada evento con referencias por id (sin cargar ovejas).
+     */
+    private static List<Fila<Evento>> filtrarEventos(StatelessSession session, List<Fila<Evento>> lote,
+            int[] indices, Acumulador acc) {
+        Set<String> numeros = new HashSet<>();
+        for (Fila<Evento> fila : lote) {
+            numeros.add(fila.clave());
+            for (int c = 4; c <= 5; c++) {
+                String progenitor = texto(fila.campos(), indices[c]);
+                if (!progenitor.isEmpty()) {
+                    numeros.add(progenitor);
+                }
+            }
+        }
+        Map<String, Integer> ids = new HashMap<>();
+        for (Object[] r : session.createQuery(
+                "SELECT o.numeroIdentificacion, o.id FROM Oveja o WHERE o.numeroIdentificacion IN (:nums)", Object[].class)
+                .setParameter("nums", numeros)
+                .list()) {
+            ids.put((String) r[0], (Integer) r[1]);
+        }
+
+        List<Fila<Evento>> validas = new ArrayList<>(lote.size());
+        for (Fila<Evento> fila : lote) {
+            Integer idOveja = ids.get(fila.clave());
+            String numeroMadre = texto(fila.campos(), indices[4]);
+            Integer idMadre = numeroMadre.isEmpty() ? null : ids.get(numeroMadre);
+            if (idOveja == null) {
+                acc.rechazar(fila.linea(), fila.clave(), "No existe oveja con número: " + fila.clave());
+                continue;
+            }
+            if (!numeroMadre.isEmpty() && idMadre == null) {
+                acc.rechazar(fila.linea(), fila.clave(), "No existe oveja madre con número: " + numeroMadre);
+                continue;
+            }
+            String numeroPadre = texto(fila.campos(), indices[5]);
+            Integer idPadre = numeroPadre.isEmpty() ? null : ids.get(numeroPadre);
+            if (!numeroPadre.isEmpty() && idPadre == null) {
+                acc.rechazar(fila.linea(), fila.clave(), "No existe oveja padre con número: " + numeroPadre);
+                continue;
+            }
+            Evento evento = fila.entidad();
+            if (idPadre != null && idMadre == null && "Parto".equals(evento.getTipoEvento())) {
+                acc.rechazar(fila.linea(), fila.clave(), "Parto con padre sin numeroMadre: " + numeroPadre);
+                continue;
+            }
+            evento.setOveja(referencia(idOveja));
+            if (idMadre != null) {
+                evento.setOvejaMadre(referencia(idMadre));
+            } else if ("Parto".equals(evento.getTipoEvento())) {
+                evento.setOvejaMadre(evento.getOveja());
+            }
+            if (idPadre != null && "Parto".equals(evento.getTipoEvento())) {
+                evento.setOvejaPadre(referencia(idPadre));
+            }
+            validas.add(fila);
+        }
+        return validas;
+    }
+
+    /** Oveja con solo el id: basta para escribir la clave ajena. */
+    private static Oveja referencia(Integer id) {
+        Oveja oveja = new Oveja();
+        oveja.setId(id);
+        return oveja;
+    }
+
+    // ==================== CAMPOS ====================
+
+    static String texto(String[] campos, int indice) {
+        return indice >= 0 && indice < campos.length ? campos[indice].trim() : "";
+    }
+
+    private static void longitudMaxima(String valor, int maximo, String columna) {
+        if (valor.length() > maximo) {
+            throw new IllegalArgumentException(columna + " supera " + maximo + " caracteres");
+        }
+    }
+
+    private static LocalDate fecha(String valor) {
+        try {
+            return valor.indexOf('/') >= 0 ? LocalDate.parse(valor, FECHA_ES) : LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha inválida: " + valor);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import Modelo.EstadisticasRebano;
+import Util.I18nUtil;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.general.DefaultPieDataset;
+
+/**
+ * Informe PDF de 3 páginas con los KPIs y gráficos del rebaño (antes
+ * EstadisticasPanel.generarPDF). Se puede generar solo o como sección de un
+ * informe mayor ({@link #comoSeccion}, plantillas de {@link PlantillaInforme}).
+ *
+ * Parte de una única instantánea {@link EstadisticasRebano} ya calculada y
+ * renderiza los tres gráficos en paralelo en un pool de hilos de CPU. Las
+ * imágenes quedan en una caché LRU indexada por instantánea (el record
+ * compara por valor: mismos datos = misma versión), idioma y codificación,
+ * así que exportar dos veces sin cambios en el rebaño no vuelve a dibujar ni
+ * a comprimir nada.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+public class InformeEstadisticasPdf {
+
+    /** Codificación de las imágenes dentro del PDF. */
+    public enum Codificacion {
+        /** Flate sin pérdida (LosslessFactory): nítido pero lento y pesado. */
+        SIN_PERDIDA,
+        /**
+         * JPEG calidad {@value InformeEstadisticasPdf#CALIDAD_JPEG}: se
+         * comprime una vez y se incrusta tal cual (DCTDecode), sin volver a
+         * codificar en cada exportación.
+         */
+        JPEG
+    }
+
+    /** Gráficos del informe, uno por página. */
+    private enum Grafico {
+        SEXO, RAZAS, ESTADO
+    }
+
+    /** Clave de la caché de imágenes. */
+    private record ClaveImagen(EstadisticasRebano stats, Grafico grafico, Locale idioma, Codificacion codificacion) {
+    }
+
+    /** Imagen renderizada; jpeg es null en SIN_PERDIDA. */
+    private record Imagen(BufferedImage pixeles, byte[] jpeg) {
+    }
+
+    private static final int ANCHO = 380;
+
+    private static final int ALTO = 300;
+
+    private static final float CALIDAD_JPEG = 0.9f;
+
+    /** Imágenes retenidas (3 por instantánea/idioma). */
+    private static final int MAX_IMAGENES = 12;
+
+    private static final Map<ClaveImagen, Imagen> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClaveImagen, Imagen> eldest) {
+            return size() > MAX_IMAGENES;
+        }
+    });
+
+    /**
+     * Render y compresión son CPU puro: hilos de plataforma (daemon), como
+     * mucho uno por gráfico.
+     */
+    private static final ExecutorService RENDER = Executors.newFixedThreadPool(
+            Math.min(Grafico.values().length, Runtime.getRuntime().availableProcessors()), r -> {
+        Thread t = new Thread(r, "pdf-render");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Codificacion codificacion;
+
+    public InformeEstadisticasPdf() {
+        this(Codificacion.JPEG);
+    }
+
+    /**
+     * @param codificacion formato de las imágenes incrustadas.
+     */
+    public InformeEstadisticasPdf(Codificacion codificacion) {
+        this.codificacion = codificacion;
+    }
+
+    /**
+     * Genera el PDF en disco a partir de la instantánea dada (no consulta la
+     * BD).
+     *
+     * @param stats instantánea de KPIs ya calculada.
+     * @param destino fichero .pdf (se sobrescribe).
+     * @param progreso avance 0-100.
+     * @throws IOException si falla el render o la escritura.
+     */
+    public void generar(EstadisticasRebano stats, Path destino, IntConsumer progreso) throws IOException {
+        new MotorInformePdf().agregar(comoSeccion(stats)).generar(destino, progreso);
+    }
+
+    /**
+     * Las tres páginas de KPIs y gráficos como sección de un informe mayor.
+     *
+     * @param stats instantánea de KPIs ya calculada.
+     * @return sección para {@link MotorInformePdf#agregar}.
+     */
+    public SeccionInforme comoSeccion(EstadisticasRebano stats) {
+        return (doc, progreso, cancelado) -> escribir(doc, stats, progreso);
+    }
+
+    private void escribir(PDDocument doc, EstadisticasRebano stats, IntConsumer progreso) throws IOException {
+        Locale idioma = I18nUtil.getLocale();
+        Map<Grafico, Imagen> imagenes = renderizar(stats, idioma, progreso);
+
+        long total = stats.total();
+        long activas = stats.activas();
+        double pctAct = total > 0 ? activas * 100.0 / total : 0;
+        double pctInact = total > 0 ? 100.0 - pctAct : 0;
+
+        // PÁGINA 1: KPIs + SEXO
+        try (PDPageContentStream cs = nuevaPagina(doc)) {
+            texto(cs, PDType1Font.HELVETICA_BOLD, 16, 50, 780, I18nUtil.get("estadistica.pdf.header1"));
+            texto(cs, PDType1Font.HELVETICA, 10, 50, 760, I18nUtil.get("estadistica.pdf.fecha") + ": "
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
+            texto(cs, PDType1Font.HELVETICA_BOLD, 11, 50, 740, MessageFormat.format(
+                    I18nUtil.get("estadistica.pdf.kpis"), total, activas, Math.round(pctAct),
+                    stats.hembras(), String.format("%.1f", stats.pesoMedio()), stats.eventosMes()));
+            texto(cs, PDType1Font.HELVETICA_BOLD, 14, 200, 680, I18nUtil.get("estadistica.grafico.sexo.title"));
+            cs.drawImage(incrustar(doc, imagenes.get(Grafico.SEXO)), 100, 350, ANCHO, ALTO);
+        }
+
+        // PÁGINA 2: RAZAS
+        try (PDPageContentStream cs = nuevaPagina(doc)) {
+            texto(cs, PDType1Font.HELVETICA_BOLD, 16, 50, 780, I18nUtil.get("estadistica.pdf.header2"));
+            texto(cs, PDType1Font.HELVETICA_BOLD, 14, 200, 680, I18nUtil.get("estadistica.grafico.razas.title"));
+            cs.drawImage(incrustar(doc, imagenes.get(Grafico.RAZAS)), 100, 350, ANCHO, ALTO);
+        }
+
+        // PÁGINA 3: ESTADO
+        try (PDPageContentStream cs = nuevaPagina(doc)) {
+            texto(cs, PDType1Font.HELVETICA_BOLD, 16, 50, 780, I18nUtil.get("estadistica.pdf.header3"));
+            texto(cs, PDType1Font.HELVETICA_BOLD, 12, 50, 740, MessageFormat.format(
+                    I18nUtil.get("estadistica.pdf.estado.kpis"), activas, Math.round(pctAct),
+                    stats.inactivas(), Math.round(pctInact)));
+            texto(cs, PDType1Font.HELVETICA_BOLD, 14, 200, 680, I18nUtil.get("estadistica.grafico.activas.title"));
+            cs.drawImage(incrustar(doc, imagenes.get(Grafico.ESTADO)), 100, 350, ANCHO, ALTO);
+        }
+        progreso.accept(100);
+    }
+
+    /**
+     * Obtiene las tres imágenes: de la caché o renderizadas en paralelo.
+     * Avance: 0-90 repartido entre los gráficos según terminan.
+     */
+    private Map<Grafico, Imagen> renderizar(EstadisticasRebano stats, Locale idioma, IntConsumer progreso)
+            throws IOException {
+        Grafico[] graficos = Grafico.values();
+        AtomicInteger hechos = new AtomicInteger();
+        Map<Grafico, CompletableFuture<Imagen>> tareas = new EnumMap<>(Grafico.class);
+        for (Grafico g : graficos) {
+            ClaveImagen clave = new ClaveImagen(stats, g, idioma, codificacion);
+            Imagen enCache = CACHE.get(clave);
+            CompletableFuture<Imagen> tarea = enCache != null
+                    ? CompletableFuture.completedFuture(enCache)
+                    : CompletableFuture.supplyAsync(() -> {
+                        Imagen img = dibujar(clave);
+                        CACHE.put(clave, img);
+                        return img;
+                    }, RENDER);
+            tareas.put(g, tarea.whenComplete((img, ex)
+                    -> progreso.accept(hechos.incrementAndGet() * 90 / graficos.length)));
+        }
+
+        Map<Grafico, Imagen> imagenes = new EnumMap<>(Grafico.class);
+        try {
+            for (Map.Entry<Grafico, CompletableFuture<Imagen>> e : tareas.entrySet()) {
+                imagenes.put(e.getKey(), e.getValue().join());
+            }
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw ex;
+        }
+        return imagenes;
+    }
+
+    /**
+     * Dibuja un gráfico (hilo del pool). Se pinta en RGB sin alfa: el JPEG no
+     * admite transparencia y en Flate evita la máscara SMask.
+     */
+    private static Imagen dibujar(ClaveImagen clave) {
+        EstadisticasRebano stats = clave.stats();
+        JFreeChart chart = switch (clave.grafico()) {
+            case SEXO -> {
+                DefaultPieDataset<String> datos = new DefaultPieDataset<>();
+                datos.setValue(I18nUtil.get("estadistica.grafico.sexo.hembras"), stats.hembras());
+                datos.setValue(I18nUtil.get("estadistica.grafico.sexo.machos"), stats.machos());
+                yield ChartFactory.createPieChart(I18nUtil.get("estadistica.grafico.sexo.title"),
+                        datos, false, false, false);
+            }
+            case RAZAS -> {
+                DefaultCategoryDataset datos = new DefaultCategoryDataset();
+                String serie = I18nUtil.get("estadistica.grafico.razas.ovejas");
+                stats.porRaza().forEach((r, c) -> datos.addValue(c, serie, r));
+                yield ChartFactory.createBarChart(I18nUtil.get("estadistica.grafico.razas.title"),
+                        I18nUtil.get("estadistica.grafico.razas.raza"),
+                        I18nUtil.get("estadistica.grafico.razas.cantidad"),
+                        datos, PlotOrientation.VERTICAL, false, false, false);
+            }
+            case ESTADO -> {
+                DefaultPieDataset<String> datos = new DefaultPieDataset<>();
+                datos.setValue(I18nUtil.get("estadistica.grafico.activas.label.activas"), stats.activas());
+                datos.setValue(I18nUtil.get("estadistica.grafico.activas.label.inactivas"), stats.inactivas());
+                yield ChartFactory.createPieChart(I18nUtil.get("estadistica.grafico.activas.title"),
+                        datos, false, false, false);
+            }
+        };
+        BufferedImage pixeles = chart.createBufferedImage(ANCHO, ALTO, BufferedImage.TYPE_INT_RGB, null);
+        try {
+            return new Imagen(pixeles, clave.codificacion() == Codificacion.JPEG ? comprimirJpeg(pixeles) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] comprimirJpeg(BufferedImage imagen) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * 1024);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(CALIDAD_JPEG);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(imagen, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PDImageXObject incrustar(PDDocument doc, Imagen imagen) throws IOException {
+        return imagen.jpeg() != null
+                ? JPEGFactory.createFromByteArray(doc, imagen.jpeg())
+                : LosslessFactory.createFromImage(doc, imagen.pixeles());
+    }
+
+    private static PDPageContentStream nuevaPagina(PDDocument doc) throws IOException {
+        PDPage page = new PDPage(PDRectangle.A4);
+        doc.addPage(page);
+        return new PDPageContentStream(doc, page);
+    }
+
+    private static void texto(PDPageContentStream cs, PDFont fuente, float tamanio, float x, float y, String texto)
+            throws IOException {
+        cs.beginText();
+        cs.setFont(fuente, tamanio);
+        cs.newLineAtOffset(x, y);
+        cs.showText(texto);
+        cs.endText();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * Motor de informes PDF por secciones. Construye el documento con un
+ * {@link MemoryUsageSetting} mixto: hasta {@value #MEMORIA_DEFECTO_MB} MB
+ * en memoria y el resto en un fichero temporal, así que un informe de miles
+ * de páginas (fichas de todo el censo) no necesita caber en el heap.
+ *
+ * El PDF se guarda en un temporal junto al destino y se mueve al final: si
+ * se cancela o falla a medias, el destino no queda truncado.
+ *
+ * Uso:
+ *
+ * new MotorInformePdf().agregar(seccion1).agregar(seccion2).generar(ruta, progreso);
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see SeccionInforme
+ * @see PlantillaInforme
+ */
+public class MotorInformePdf {
+
+    /** Memoria principal por documento antes de pasar a fichero temporal. */
+    public static final int MEMORIA_DEFECTO_MB = 32;
+
+    private final List<SeccionInforme> secciones = new ArrayList<>();
+
+    private final long memoriaMaxima;
+
+    public MotorInformePdf() {
+        this(MEMORIA_DEFECTO_MB * 1024L * 1024L);
+    }
+
+    /**
+     * @param memoriaMaxima bytes en memoria antes de usar el fichero temporal
+     * (&gt; 0).
+     * @throws IllegalArgumentException si no es positiva.
+     */
+    public MotorInformePdf(long memoriaMaxima) {
+        if (memoriaMaxima <= 0) {
+            throw new IllegalArgumentException("Memoria máxima debe ser > 0: " + memoriaMaxima);
+        }
+        this.memoriaMaxima = memoriaMaxima;
+    }
+
+    /**
+     * Añade una sección al final del informe.
+     *
+     * @param seccion sección a añadir (no null).
+     * @return este motor, para encadenar.
+     */
+    public MotorInformePdf agregar(SeccionInforme seccion) {
+        if (seccion == null) throw new IllegalArgumentException("Sección no puede ser null");
+        secciones.add(seccion);
+        return this;
+    }
+
+    /**
+     * Escribe todas las secciones y guarda el PDF (sin cancelación).
+     *
+     * @param destino fichero .pdf (se sobrescribe).
+     * @param progreso avance global 0-100 (95-100 = guardado).
+     * @throws IOException si falla alguna sección o la escritura.
+     */
+    public void generar(Path destino, IntConsumer progreso) throws IOException {
+        generar(destino, progreso, () -> false);
+    }
+
+    /**
+     * Escribe todas las secciones y guarda el PDF.
+     *
+     * @param destino fichero .pdf (se sobrescribe).
+     * @param progreso avance global 0-100 (95-100 = guardado).
+     * @param cancelado consultado entre secciones y dentro de ellas.
+     * @throws IOException si falla alguna sección o la escritura, o se
+     * cancela (el destino queda como estaba).
+     */
+    public void generar(Path destino, IntConsumer progreso, BooleanSupplier cancelado) throws IOException {
+        if (secciones.isEmpty()) {
+            throw new IllegalStateException("El informe no tiene secciones");
+        }
+        try (PDDocument doc = new PDDocument(MemoryUsageSetting.setupMixed(memoriaMaxima))) {
+            int n = secciones.size();
+            for (int i = 0; i < n; i++) {
+                final int base = i * 95 / n;
+                final int tramo = 95 / n;
+                secciones.get(i).escribir(doc, pct -> progreso.accept(base + pct * tramo / 100), cancelado);
+                if (cancelado.getAsBoolean()) {
+                    throw new IOException("Informe cancelado");
+                }
+            }
+            progreso.accept(95);
+            Path directorio = destino.toAbsolutePath().getParent();
+            Path temporal = Files.createTempFile(directorio, ".informe", ".pdf.tmp");
+            try {
+                doc.save(temporal.toFile());
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        }
+        progreso.accept(100);
+    }
+}
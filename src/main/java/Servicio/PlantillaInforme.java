@@ -0,0 +1,70 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import DAO.EventoDAO;
+import DAO.OvejaDAO;
+import Modelo.EstadisticasRebano;
+import Util.I18nUtil;
+
+/**
+ * Plantillas de informe PDF disponibles desde EstadisticasPanel. Cada una
+ * decide qué secciones encadena el {@link MotorInformePdf}.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+public enum PlantillaInforme {
+
+    /** Las tres páginas de KPIs y gráficos. */
+    ESTADISTICAS("informe.plantilla.estadisticas"),
+    /** Una ficha por oveja activa con su historial de eventos. */
+    FICHAS("informe.plantilla.fichas"),
+    /** Fichas de las ovejas dadas de baja. */
+    FICHAS_BAJAS("informe.plantilla.fichasBajas"),
+    /** Estadísticas seguidas de las fichas del censo activo. */
+    COMPLETO("informe.plantilla.completo");
+
+    private final String clave;
+
+    PlantillaInforme(String clave) {
+        this.clave = clave;
+    }
+
+    /**
+     * Monta el motor con las secciones de la plantilla.
+     *
+     * @param stats instantánea de KPIs (solo se usa si hay estadísticas).
+     * @param estadisticas generador de las páginas de gráficos.
+     * @param ovejaDAO origen de las fichas.
+     * @param eventoDAO origen de los historiales.
+     * @return motor listo para generar.
+     */
+    public MotorInformePdf crearMotor(EstadisticasRebano stats, InformeEstadisticasPdf estadisticas,
+            OvejaDAO ovejaDAO, EventoDAO eventoDAO) {
+        MotorInformePdf motor = new MotorInformePdf();
+        switch (this) {
+            case ESTADISTICAS -> motor.agregar(estadisticas.comoSeccion(stats));
+            case FICHAS -> motor.agregar(new SeccionFichasOveja(ovejaDAO, eventoDAO, true));
+            case FICHAS_BAJAS -> motor.agregar(new SeccionFichasOveja(ovejaDAO, eventoDAO, false));
+            case COMPLETO -> motor.agregar(estadisticas.comoSeccion(stats))
+                    .agregar(new SeccionFichasOveja(ovejaDAO, eventoDAO, true));
+        }
+        return motor;
+    }
+
+    /**
+     * @return true si la plantilla incluye las páginas de gráficos.
+     */
+    public boolean usaEstadisticas() {
+        return this == ESTADISTICAS || this == COMPLETO;
+    }
+
+    /** Nombre traducido para el selector. */
+    @Override
+    public String toString() {
+        return I18nUtil.get(clave);
+    }
+}
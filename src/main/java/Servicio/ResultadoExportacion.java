@@ -0,0 +1,32 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+/**
+ * Resumen de una exportación: filas y bytes escritos y tiempo empleado.
+ *
+ * @param filas registros exportados (sin cabecera).
+ * @param bytes tamaño final del fichero.
+ * @param duracionNanos tiempo total de la exportación.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see ExportadorDatos
+ */
+public record ResultadoExportacion(long filas, long bytes, long duracionNanos) {
+
+    /**
+     * @return filas escritas por segundo.
+     */
+    public double filasPorSegundo() {
+        return duracionNanos <= 0 ? 0.0 : filas * 1_000_000_000.0 / duracionNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Exportación[%d filas, %.1f MB, %.1f s, %.0f filas/s]",
+                filas, bytes / (1024.0 * 1024.0), duracionNanos / 1_000_000_000.0, filasPorSegundo());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Resumen de una importación CSV: filas leídas, importadas, rechazadas y el
+ * detalle de las primeras filas rechazadas (acotado para no crecer con el
+ * tamaño del fichero).
+ *
+ * @param leidas registros de datos leídos (sin cabecera).
+ * @param importadas filas escritas en BD.
+ * @param erroneas filas rechazadas (validación o fallo del lote).
+ * @param errores detalle de las primeras
+ * {@value ImportadorCsv#MAX_ERRORES_DETALLE} filas rechazadas.
+ * @param duracionNanos tiempo total de la importación.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see ImportadorCsv
+ */
+public record ResultadoImportacion(long leidas, long importadas, long erroneas,
+        List<ErrorFila> errores, long duracionNanos) {
+
+    /**
+     * Fila rechazada.
+     *
+     * @param linea línea del fichero donde empieza el registro.
+     * @param clave identificador de la fila (número de oveja) o vacío.
+     * @param motivo causa del rechazo.
+     */
+    public record ErrorFila(long linea, String clave, String motivo) {
+    }
+
+    public ResultadoImportacion {
+        errores = List.copyOf(errores);
+    }
+
+    /**
+     * @return true si hay más filas rechazadas que detalle guardado.
+     */
+    public boolean erroresTruncados() {
+        return erroneas > errores.size();
+    }
+
+    /**
+     * @return filas procesadas por segundo.
+     */
+    public double filasPorSegundo() {
+        return duracionNanos <= 0 ? 0.0 : leidas * 1_000_000_000.0 / duracionNanos;
+    }
+
+    /**
+     * Escribe el informe de filas rechazadas en CSV (linea;clave;motivo).
+     *
+     * @param destino writer, StringBuilder...
+     * @throws IOException si falla la escritura.
+     */
+    public void escribirInforme(Appendable destino) throws IOException {
+        destino.append("linea;clave;motivo\n");
+        for (ErrorFila e : errores) {
+            destino.append(Long.toString(e.linea())).append(';')
+                    .append(e.clave()).append(';')
+                    .append(e.motivo().replace(';', ',').replace('\n', ' ')).append('\n');
+        }
+        if (erroresTruncados()) {
+            destino.append("...;;").append(Long.toString(erroneas - errores.size()))
+                    .append(" filas rechazadas más\n");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Importación[leídas=%d, importadas=%d, rechazadas=%d, %.1f s, %.0f filas/s]",
+                leidas, importadas, erroneas, duracionNanos / 1_000_000_000.0, filasPorSegundo());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import DAO.EventoDAO;
+import DAO.OvejaDAO;
+import DAO.Pagina;
+import Modelo.EventoFila;
+import Modelo.Linaje;
+import Modelo.Oveja;
+import Util.I18nUtil;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * Sección de fichas individuales: una ficha por oveja con sus datos y el
+ * historial de eventos. Recorre el censo por páginas keyset de
+ * {@value #TAMANIO_PAGINA} ovejas y trae los eventos de cada página en una
+ * sola consulta, así en memoria solo hay una página de ovejas a la vez; las
+ * páginas PDF ya escritas se quedan en el fichero temporal del motor. La
+ * genealogía de cada ficha sale de {@link Genealogia}.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see MotorInformePdf
+ */
+public class SeccionFichasOveja implements SeccionInforme {
+
+    private static final int TAMANIO_PAGINA = 100;
+
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final OvejaDAO ovejaDAO;
+
+    private final EventoDAO eventoDAO;
+
+    private final boolean soloActivas;
+
+    private final Genealogia genealogia = Genealogia.getInstancia();
+
+    /**
+     * @param ovejaDAO origen de las ovejas.
+     * @param eventoDAO origen de los historiales.
+     * @param soloActivas true = censo activo, false = bajas.
+     */
+    public SeccionFichasOveja(OvejaDAO ovejaDAO, EventoDAO eventoDAO, boolean soloActivas) {
+        this.ovejaDAO = ovejaDAO;
+        this.eventoDAO = eventoDAO;
+        this.soloActivas = soloActivas;
+    }
+
+    @Override
+    public void escribir(PDDocument doc, IntConsumer progreso, BooleanSupplier cancelado) throws IOException {
+        long activas = ovejaDAO.contarActivas();
+        long total = soloActivas ? activas : ovejaDAO.contarTotal() - activas;
+        long hechas = 0;
+        Consanguinidad consanguinidad = genealogia.consanguinidad();
+
+        try (EscritorPaginas pag = new EscritorPaginas(doc, I18nUtil.get("informe.fichas.cabecera"))) {
+            if (total == 0) {
+                pag.titulo(I18nUtil.get("informe.fichas.vacio"));
+            }
+            Integer cursor = null;
+            do {
+                Pagina<Oveja> pagina = ovejaDAO.listarPagina(soloActivas, cursor, TAMANIO_PAGINA);
+                Map<String, List<EventoFila>> historiales = historiales(pagina.elementos());
+                for (Oveja o : pagina.elementos()) {
+                    escribirFicha(pag, o, historiales.getOrDefault(o.getNumeroIdentificacion(), List.of()));
+                    escribirGenealogia(pag, o, consanguinidad);
+                    hechas++;
+                }
+                if (total > 0) {
+                    progreso.accept((int) Math.min(100, hechas * 100 / total));
+                }
+                if (cancelado.getAsBoolean()) {
+                    throw new IOException("Informe cancelado");
+                }
+                cursor = pagina.siguienteCursor();
+            } while (cursor != null);
+        }
+        progreso.accept(100);
+    }
+
+    /** Eventos de la página agrupados por número de oveja. */
+    private Map<String, List<EventoFila>> historiales(List<Oveja> ovejas) {
+        List<Integer> ids = new ArrayList<>(ovejas.size());
+        for (Oveja o : ovejas) {
+            ids.add(o.getId());
+        }
+        Map<String, List<EventoFila>> porOveja = new HashMap<>();
+        for (EventoFila e : eventoDAO.listarFilasPorOvejas(ids)) {
+            porOveja.computeIfAbsent(e.numeroOveja(), k -> new ArrayList<>()).add(e);
+        }
+        return porOveja;
+    }
+
+    /** Una ficha empieza siempre en página nueva. */
+    private static void escribirFicha(EscritorPaginas pag, Oveja o, List<EventoFila> eventos) throws IOException {
+        pag.nuevaPagina();
+        pag.titulo(MessageFormat.format(I18nUtil.get("informe.fichas.titulo"), o.getNumeroIdentificacion()));
+        pag.campo(I18nUtil.get("oveja.form.raza"), o.getRaza());
+        pag.campo(I18nUtil.get("oveja.form.sexo"), o.getSexo());
+        pag.campo(I18nUtil.get("oveja.form.nacimiento") + ":",
+                o.getFechaNacimiento() != null ? o.getFechaNacimiento().format(FECHA) : null);
+        pag.campo(I18nUtil.get("oveja.form.peso"), o.getPesoActual());
+        pag.campo(I18nUtil.get("oveja.form.estado"), o.getEstadoSalud());
+        pag.espacio(10);
+
+        pag.subtitulo(MessageFormat.format(I18nUtil.get("informe.fichas.historial"), eventos.size()));
+        if (eventos.isEmpty()) {
+            pag.parrafo(I18nUtil.get("informe.fichas.sinEventos"), 10);
+        }
+        for (EventoFila e : eventos) {
+            String obs = e.observaciones() != null && !e.observaciones().isBlank() ? " - " + e.observaciones() : "";
+            pag.parrafo(e.fechaEvento().format(FECHA) + "  " + e.tipoEvento() + obs, 10);
+        }
+    }
+
+    /**
+     * Generaciones conocidas, descendencia y F de Wright; F solo si el
+     * rebaño cabe en memoria (consanguinidad != null).
+     */
+    private void escribirGenealogia(EscritorPaginas pag, Oveja o, Consanguinidad consanguinidad) throws IOException {
+        Linaje ancestros = genealogia.ancestros(o.getId());
+        Linaje descendientes = genealogia.descendientes(o.getId());
+        pag.espacio(10);
+        pag.subtitulo(I18nUtil.get("informe.fichas.genealogia"));
+        pag.campo(I18nUtil.get("informe.fichas.generaciones"), ancestros.profundidad());
+        pag.campo(I18nUtil.get("informe.fichas.descendientes"), descendientes.size());
+        if (consanguinidad != null) {
+            pag.campo(I18nUtil.get("informe.fichas.consanguinidad"),
+                    String.format("%.4f", consanguinidad.coeficiente(o.getId())));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * Bloque de páginas de un informe PDF (gráficos de estadísticas, fichas por
+ * oveja...). {@link MotorInformePdf} encadena secciones en un único
+ * documento; cada sección añade sus páginas y cierra sus content streams
+ * antes de terminar, para que PDFBox pueda volcarlas al fichero temporal.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see MotorInformePdf
+ */
+@FunctionalInterface
+public interface SeccionInforme {
+
+    /**
+     * Añade las páginas de la sección al documento.
+     *
+     * @param doc documento en construcción.
+     * @param progreso avance de esta sección 0-100.
+     * @param cancelado consultado entre bloques de páginas; si devuelve true
+     * la sección abandona.
+     * @throws IOException si falla la escritura o se cancela.
+     */
+    void escribir(PDDocument doc, IntConsumer progreso, BooleanSupplier cancelado) throws IOException;
+}
@@ -4,10 +4,18 @@
  */
 package Servicio;
 
+import DAO.SesionesUsuario;
+import DAO.UltimasConexiones;
 import DAO.UsuarioDAO;
 import Modelo.Usuario;
+import Util.HashCredenciales;
+import Util.LimitadorLogin;
 import Util.PasswordEncoderUtil;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Servicio de negocio para operaciones de usuarios. Implementa inyección de
@@ -19,6 +27,14 @@ import java.time.LocalDateTime;
  */
 public class UsuarioService {
 
+    /**
+     * Consultas a BD de las operaciones asíncronas: hilos virtuales, para no
+     * ocupar con esperas de JDBC los hilos del pool de hash.
+     */
+    private static final ExecutorService BD = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LimitadorLogin limitador = LimitadorLogin.getInstancia();
+
     private final UsuarioDAO dao;
     private final PasswordEncoderUtil passwordEncoder;
 
@@ -29,32 +45,150 @@ public class UsuarioService {
 
     /**
      * Registra nuevo usuario validando duplicados y encriptando.
+     *
+     * @return usuario creado o null si el username ya existe.
      */
     public Usuario registrar(String username, String password, String email,
             String nombre, String apellidos) {
-        if (dao.findByUsername(username) != null) {
-            return null;
-        }
-        String passHash = passwordEncoder.encode(password);
-        Usuario nuevo = new Usuario(username, passHash, email, nombre, apellidos);
-        dao.insertar(nuevo); 
-        return nuevo;
+        return esperar(registrarAsync(username, password, email, nombre, apellidos));
+    }
+
+    /**
+     * Como {@link #registrar} sin bloquear: las consultas van en un hilo
+     * virtual y el hash en el pool de {@link Util.HashCredenciales}.
+     *
+     * @return futuro con el usuario creado o null si el username ya existe.
+     */
+    public CompletableFuture<Usuario> registrarAsync(String username, String password, String email,
+            String nombre, String apellidos) {
+        return CompletableFuture.supplyAsync(() -> dao.findByUsername(username) != null, BD)
+                .thenCompose(duplicado -> duplicado
+                        ? CompletableFuture.completedFuture(null)
+                        : passwordEncoder.encodeAsync(password).thenApplyAsync(passHash -> {
+                            Usuario nuevo = new Usuario(username, passHash, email, nombre, apellidos);
+                            dao.insertar(nuevo);
+                            return nuevo;
+                        }, BD));
     }
 
     /**
      * Login con actualización de última conexión.
+     *
+     * @return usuario autenticado o null.
      */
     public Usuario login(String username, String password) {
-        Usuario usuario = dao.findByUsername(username);
-        if (usuario != null && passwordEncoder.matches(password, usuario.getPassword())) {
-            usuario.setUltimaConexion(LocalDateTime.now());
-            dao.actualizar(usuario);  
-            return usuario;
+        return esperar(loginAsync(username, password));
+    }
+
+    /**
+     * Como {@link #login} sin bloquear (p.ej. desde el EDT). El limitador
+     * se consulta antes de la consulta a BD y del hash; solo los fallos de
+     * credenciales consumen intentos.
+     *
+     * @return futuro con el usuario autenticado o null; falla con
+     * RejectedExecutionException si el servicio de hash está saturado o
+     * IntentosExcedidosException si se superó el límite de fallos.
+     */
+    public CompletableFuture<Usuario> loginAsync(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> {
+                    limitador.adquirir(username);
+                    return dao.findByUsername(username);
+                }, BD)
+                .thenCompose(usuario -> usuario == null
+                        ? CompletableFuture.completedFuture(null)
+                        : passwordEncoder.matchesAsync(password, usuario.getPassword())
+                                .thenCompose(ok -> !ok
+                                        ? CompletableFuture.completedFuture(null)
+                                        : rehashSiProcede(usuario, password)
+                                                .thenApplyAsync(rehecho -> iniciarSesion(usuario, rehecho), BD)))
+                .whenComplete((usuario, ex) -> {
+                    // Correcto o error ajeno a las credenciales: el intento no cuenta
+                    if (usuario != null
+                            || (ex != null && !(causa(ex) instanceof LimitadorLogin.IntentosExcedidosException))) {
+                        limitador.exito(username);
+                    }
+                });
+    }
+
+    /**
+     * Tras un login correcto, si el hash guardado tiene menos coste que el
+     * vigente, lo rehace con la contraseña recién verificada. Si el servicio
+     * de hash está saturado se deja para el siguiente login: el acceso no
+     * falla por esto.
+     *
+     * @return futuro con true si el usuario tiene un hash nuevo sin guardar.
+     */
+    private CompletableFuture<Boolean> rehashSiProcede(Usuario usuario, String password) {
+        String anterior = usuario.getPassword();
+        if (!passwordEncoder.needsRehash(anterior)) {
+            return CompletableFuture.completedFuture(false);
         }
-        return null;
+        return passwordEncoder.encodeAsync(password)
+                .handle((nuevo, ex) -> {
+                    if (ex != null) {
+                        return false;
+                    }
+                    usuario.setPassword(nuevo);
+                    HashCredenciales.getInstancia().rehashRealizado();
+                    return true;
+                });
     }
 
+    /**
+     * Login correcto: la última conexión se anota para el volcado diferido
+     * (solo se hace merge si además cambió el hash) y el usuario queda en
+     * {@link SesionesUsuario}.
+     */
+    private Usuario iniciarSesion(Usuario usuario, boolean hashNuevo) {
+        UltimasConexiones.getInstancia().registrar(usuario, LocalDateTime.now());
+        if (hashNuevo) {
+            dao.actualizar(usuario);
+        }
+        SesionesUsuario.getInstancia().registrar(usuario);
+        return usuario;
+    }
+
+    /**
+     * Guarda cambios de perfil; la sesión en memoria se descarta y la
+     * siguiente lectura vuelve a BD.
+     *
+     * @param usuario usuario con ID y datos modificados.
+     */
+    public void actualizar(Usuario usuario) {
+        dao.actualizar(usuario);
+    }
+
+    /**
+     * @param id ID del usuario.
+     * @return usuario de la sesión en memoria o, si no está, de BD (y queda
+     * en memoria); null si no existe.
+     */
     public Usuario findById(Integer id) {
-        return dao.findById(id);
+        if (id == null) {
+            return null;
+        }
+        SesionesUsuario sesiones = SesionesUsuario.getInstancia();
+        Usuario usuario = sesiones.get(id);
+        if (usuario == null) {
+            usuario = dao.findById(id);
+            sesiones.registrar(usuario);
+        }
+        return usuario;
+    }
+
+    /** Espera el futuro y relanza la causa original (no CompletionException). */
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable causa(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
     }
 }
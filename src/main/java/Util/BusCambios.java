@@ -0,0 +1,156 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import Modelo.CambioDominio;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Bus publicación/suscripción en proceso para {@link CambioDominio}. Los DAO
+ * publican tras tx.commit() y los paneles abiertos refrescan solo las filas
+ * afectadas en lugar de recargar la tabla entera.
+ *
+ * Sin cerrojos: publicar es encolar en una {@link ConcurrentLinkedQueue} y,
+ * si no hay entrega programada, programar una tras
+ * {@value #VENTANA_MS} ms. Todo lo que llega en esa ventana (un alta masiva,
+ * varios clics seguidos) se entrega como un único lote sin duplicados, así
+ * que cada suscriptor repinta una vez por ráfaga.
+ *
+ * Uso:
+ *
+ * Suscripcion s = BusCambios.getInstancia().suscribir(cambios -&gt; ..., true);
+ * s.cancelar();
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see CambioDominio
+ */
+public final class BusCambios {
+
+    /** Ventana de agrupación de cambios antes de entregarlos. */
+    public static final long VENTANA_MS = 50;
+
+    /** Baja de un suscriptor. */
+    @FunctionalInterface
+    public interface Suscripcion {
+
+        void cancelar();
+    }
+
+    private record Suscriptor(Consumer<List<CambioDominio>> oyente, boolean enEdt) {
+    }
+
+    private static final BusCambios INSTANCIA = new BusCambios();
+
+    private final ConcurrentLinkedQueue<CambioDominio> pendientes = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean programado = new AtomicBoolean();
+
+    private final CopyOnWriteArrayList<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    private final LongAdder publicados = new LongAdder();
+
+    private final LongAdder lotes = new LongAdder();
+
+    /** Un único hilo daemon: entrega los lotes en orden. */
+    private final ScheduledExecutorService despachador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "bus-cambios");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private BusCambios() {
+    }
+
+    /**
+     * @return bus único de la aplicación.
+     */
+    public static BusCambios getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Publica un cambio ya confirmado. No bloquea ni lanza excepciones de
+     * los suscriptores.
+     *
+     * @param cambio cambio a notificar (no null).
+     */
+    public void publicar(CambioDominio cambio) {
+        if (cambio == null) throw new IllegalArgumentException("Cambio no puede ser null");
+        pendientes.offer(cambio);
+        publicados.increment();
+        if (programado.compareAndSet(false, true)) {
+            despachador.schedule(this::despachar, VENTANA_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Registra un oyente de lotes de cambios.
+     *
+     * @param oyente recibe cada lote (sin duplicados, en orden de llegada).
+     * @param enEdt true = se invoca en el EDT (paneles Swing).
+     * @return suscripción para darse de baja.
+     */
+    public Suscripcion suscribir(Consumer<List<CambioDominio>> oyente, boolean enEdt) {
+        if (oyente == null) throw new IllegalArgumentException("Oyente no puede ser null");
+        Suscriptor s = new Suscriptor(oyente, enEdt);
+        suscriptores.add(s);
+        return () -> suscriptores.remove(s);
+    }
+
+    /**
+     * @return cambios publicados y lotes entregados desde el arranque.
+     */
+    @Override
+    public String toString() {
+        return "BusCambios[publicados=" + publicados.sum() + ", lotes=" + lotes.sum()
+                + ", suscriptores=" + suscriptores.size() + "]";
+    }
+
+    /**
+     * Vacía la cola y entrega. Se libera la marca antes de vaciar: un cambio
+     * que llegue mientras tanto programa la siguiente entrega.
+     */
+    private void despachar() {
+        programado.set(false);
+        Set<CambioDominio> unicos = new LinkedHashSet<>();
+        CambioDominio c;
+        while ((c = pendientes.poll()) != null) {
+            unicos.add(c);
+        }
+        if (unicos.isEmpty()) {
+            return;
+        }
+        List<CambioDominio> lote = List.copyOf(unicos);
+        lotes.increment();
+        for (Suscriptor s : suscriptores) {
+            if (s.enEdt()) {
+                SwingUtilities.invokeLater(() -> entregar(s, lote));
+            } else {
+                entregar(s, lote);
+            }
+        }
+    }
+
+    private static void entregar(Suscriptor s, List<CambioDominio> lote) {
+        try {
+            s.oyente().accept(lote);
+        } catch (Exception e) {
+            System.err.println("Error en suscriptor de cambios: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Capa de carga asíncrona para los paneles Swing. Ejecuta consultas DAO en
+ * hilos virtuales (nunca en el EDT) y publica resultado, error y progreso de
+ * vuelta en el EDT.
+ *
+ * Cada instancia es un "canal": lanzar una carga nueva cancela la anterior y
+ * descarta su resultado aunque termine después (p.ej. dos clics seguidos en
+ * Recargar). Cancelar no interrumpe el hilo: una interrupción en plena
+ * lectura JDBC cierra el socket y estropea la conexión del pool. Los
+ * trabajos largos consultan {@link Avance#cancelado()} y abandonan por su
+ * cuenta. Para cargas independientes que no deben cancelarse entre sí se
+ * usa {@link #ejecutar(Trabajo, Consumer, Consumer)}.
+ *
+ * Uso:
+ *
+ * cargador.cargar(p -&gt; dao.listarTodas(), lista -&gt; pintar(lista), this::mostrarError);
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+public class CargadorAsincrono {
+
+    /**
+     * Informe de avance de un trabajo y aviso de cancelación.
+     */
+    public interface Avance extends IntConsumer {
+
+        /**
+         * @return true si la carga ya no es la vigente del canal: su
+         * resultado se descartará y conviene dejar de trabajar.
+         */
+        boolean cancelado();
+    }
+
+    /**
+     * Trabajo a ejecutar fuera del EDT.
+     *
+     * @param <T> tipo de resultado.
+     */
+    @FunctionalInterface
+    public interface Trabajo<T> {
+
+        /**
+         * @param progreso permite informar avance 0-100 (se publica en EDT)
+         * y consultar si se ha cancelado.
+         * @return resultado entregado en el EDT.
+         * @throws Exception cualquier fallo del DAO.
+         */
+        T ejecutar(Avance progreso) throws Exception;
+    }
+
+    /**
+     * Hilos virtuales: cada consulta bloqueante en JDBC cuesta muy poco y el
+     * límite real de concurrencia lo pone el pool de conexiones.
+     */
+    private static final ExecutorService EJECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Generación de la carga vigente; las anteriores se descartan. */
+    private final AtomicLong generacion = new AtomicLong();
+
+    /** Carga en curso (para cancelarla). */
+    private volatile Future<?> actual;
+
+    /**
+     * Lanza una carga cancelando la anterior de este canal.
+     *
+     * @param <T> tipo de resultado.
+     * @param trabajo consulta a ejecutar en segundo plano.
+     * @param alTerminar recibe el resultado en el EDT.
+     * @param alFallar recibe la excepción en el EDT (un Error llega envuelto
+     * en ExecutionException).
+     */
+    public <T> void cargar(Trabajo<T> trabajo, Consumer<T> alTerminar, Consumer<Exception> alFallar) {
+        cargar(trabajo, alTerminar, alFallar, p -> { });
+    }
+
+    /**
+     * Lanza una carga con informe de progreso, cancelando la anterior.
+     *
+     * @param <T> tipo de resultado.
+     * @param trabajo consulta a ejecutar en segundo plano.
+     * @param alTerminar recibe el resultado en el EDT.
+     * @param alFallar recibe la excepción en el EDT (un Error llega envuelto
+     * en ExecutionException).
+     * @param alProgresar recibe el porcentaje (0-100) en el EDT.
+     */
+    public <T> void cargar(Trabajo<T> trabajo, Consumer<T> alTerminar, Consumer<Exception> alFallar,
+            IntConsumer alProgresar) {
+        long gen = generacion.incrementAndGet();
+        Future<?> anterior = actual;
+        if (anterior != null) {
+            anterior.cancel(false);
+        }
+        Avance avance = new Avance() {
+            @Override
+            public void accept(int pct) {
+                enEdt(gen, () -> alProgresar.accept(pct));
+            }
+
+            @Override
+            public boolean cancelado() {
+                return gen != generacion.get();
+            }
+        };
+        actual = EJECUTOR.submit(() -> {
+            try {
+                T resultado = trabajo.ejecutar(avance);
+                enEdt(gen, () -> alTerminar.accept(resultado));
+            } catch (Throwable t) {
+                Exception ex = comoExcepcion(t);
+                enEdt(gen, () -> alFallar.accept(ex));
+            }
+        });
+    }
+
+    /**
+     * Cancela la carga en curso; su resultado ya no se entregará. El hilo
+     * no se interrumpe: el trabajo lo ve en {@link Avance#cancelado()}.
+     */
+    public void cancelar() {
+        generacion.incrementAndGet();
+        Future<?> anterior = actual;
+        if (anterior != null) {
+            anterior.cancel(false);
+        }
+    }
+
+    /**
+     * Ejecuta un trabajo suelto en segundo plano sin cancelación (cargas
+     * paralelas independientes, p.ej. bloques de una tabla).
+     *
+     * @param <T> tipo de resultado.
+     * @param trabajo consulta a ejecutar en segundo plano.
+     * @param alTerminar recibe el resultado en el EDT.
+     * @param alFallar recibe la excepción en el EDT (un Error llega envuelto
+     * en ExecutionException).
+     */
+    public static <T> void ejecutar(Trabajo<T> trabajo, Consumer<T> alTerminar, Consumer<Exception> alFallar) {
+        Avance sinCancelar = new Avance() {
+            @Override
+            public void accept(int pct) {
+            }
+
+            @Override
+            public boolean cancelado() {
+                return false;
+            }
+        };
+        EJECUTOR.submit(() -> {
+            try {
+                T resultado = trabajo.ejecutar(sinCancelar);
+                SwingUtilities.invokeLater(() -> alTerminar.accept(resultado));
+            } catch (Throwable t) {
+                Exception ex = comoExcepcion(t);
+                SwingUtilities.invokeLater(() -> alFallar.accept(ex));
+            }
+        });
+    }
+
+    /**
+     * Los Error (p.ej. ExceptionInInitializerError de HibernateUtil) también
+     * deben llegar a alFallar: si no, los botones que la acción deshabilitó
+     * se quedan así.
+     */
+    private static Exception comoExcepcion(Throwable t) {
+        return t instanceof Exception ex ? ex : new ExecutionException(t.toString(), t);
+    }
+
+    /**
+     * Publica en el EDT solo si la carga sigue siendo la vigente.
+     */
+    private void enEdt(long gen, Runnable accion) {
+        if (gen != generacion.get()) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (gen == generacion.get()) {
+                accion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import Modelo.Oveja;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+/**
+ * Catálogo de textos repetidos (razas, estados de salud) codificados como
+ * SMALLINT. Cada catálogo es una tabla (id, nombre) y oveja solo guarda el
+ * código: la fila es más estrecha y agrupar o filtrar por raza compara
+ * enteros.
+ *
+ * En memoria se mantiene un diccionario bidireccional (nombre → código en
+ * un mapa concurrente, código → nombre en un array) cargado al arrancar
+ * Hibernate. Los textos nuevos los da de alta el DAO con
+ * {@link #registrar(String)} antes de abrir su transacción. Los nombres se
+ * comparan como en MySQL (sin distinguir mayúsculas ni acentos): "merina"
+ * se guarda como la "Merina" existente. El código 0 es "sin valor" (NULL).
+ *
+ * Oveja sigue exponiendo String: los {@link Converter} de esta clase
+ * traducen al leer y escribir y solo consultan el diccionario; nunca abren
+ * conexiones ni insertan desde dentro de un flush.
+ *
+ * El paso de las antiguas columnas de texto a códigos se hace una vez con
+ * migracion_v2_catalogos.sql; al arrancar solo se comprueba
+ * ({@link #comprobar}).
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HibernateUtil
+ */
+public final class Catalogo {
+
+    /** Longitud máxima de un nombre (columna VARCHAR). */
+    public static final int LONGITUD_MAXIMA = 50;
+
+    /** Razas (tabla raza, columna oveja.id_raza). */
+    public static final Catalogo RAZAS = new Catalogo("raza");
+
+    /** Estados de salud (tabla estado_salud, columna oveja.id_estado_salud). */
+    public static final Catalogo ESTADOS_SALUD = new Catalogo("estado_salud");
+
+    /** Traduce Oveja.raza ⇄ oveja.id_raza. */
+    @Converter
+    public static class ConversorRaza implements AttributeConverter<String, Short> {
+
+        @Override
+        public Short convertToDatabaseColumn(String nombre) {
+            return RAZAS.codigoRegistrado(nombre);
+        }
+
+        @Override
+        public String convertToEntityAttribute(Short codigo) {
+            return codigo != null ? RAZAS.nombre(codigo) : null;
+        }
+    }
+
+    /** Traduce Oveja.estadoSalud ⇄ oveja.id_estado_salud. */
+    @Converter
+    public static class ConversorEstadoSalud implements AttributeConverter<String, Short> {
+
+        @Override
+        public Short convertToDatabaseColumn(String nombre) {
+            return ESTADOS_SALUD.codigoRegistrado(nombre);
+        }
+
+        @Override
+        public String convertToEntityAttribute(Short codigo) {
+            return codigo != null ? ESTADOS_SALUD.nombre(codigo) : null;
+        }
+    }
+
+    private final String tabla;
+
+    private final ConcurrentHashMap<String, Short> codigos = new ConcurrentHashMap<>();
+
+    /** Nombre de cada código; posición 0 = sin valor. Se sustituye al crecer. */
+    private volatile String[] nombres = new String[1];
+
+    private Catalogo(String tabla) {
+        this.tabla = tabla;
+    }
+
+    /**
+     * Código de un nombre, dándolo de alta si es nuevo. Abre su propia
+     * sesión: llamarlo antes de la transacción que guarda la oveja, nunca
+     * desde dentro.
+     *
+     * @param nombre texto (null o vacío = sin valor).
+     * @return código (0 = sin valor).
+     * @throws IllegalArgumentException si supera {@value #LONGITUD_MAXIMA}
+     * caracteres.
+     */
+    public short registrar(String nombre) {
+        String limpio = limpiar(nombre);
+        if (limpio == null) {
+            return 0;
+        }
+        Short codigo = codigos.get(limpio);
+        return codigo != null ? codigo : insertar(limpio);
+    }
+
+    /**
+     * Código de un nombre sin darlo de alta.
+     *
+     * @param nombre texto (null o vacío = sin valor).
+     * @return código, 0 si es sin valor o -1 si no está en el catálogo.
+     */
+    public int buscar(String nombre) {
+        String limpio = limpiar(nombre);
+        if (limpio == null) {
+            return 0;
+        }
+        Short codigo = codigos.get(limpio);
+        return codigo != null ? codigo : -1;
+    }
+
+    /**
+     * Da de alta la raza y el estado de salud de una oveja antes de
+     * guardarla.
+     *
+     * @param oveja oveja a insertar o actualizar.
+     * @throws IllegalArgumentException si algún texto es demasiado largo.
+     */
+    public static void registrarValores(Oveja oveja) {
+        RAZAS.registrar(oveja.getRaza());
+        ESTADOS_SALUD.registrar(oveja.getEstadoSalud());
+    }
+
+    /** Valor de columna para los Converter: solo consulta el diccionario. */
+    private Short codigoRegistrado(String nombre) {
+        int codigo = buscar(nombre);
+        if (codigo < 0) {
+            throw new IllegalStateException("Valor sin dar de alta en " + tabla + ": " + nombre);
+        }
+        return codigo != 0 ? (short) codigo : null;
+    }
+
+    /**
+     * @param codigo código del catálogo.
+     * @return nombre o null si es 0.
+     */
+    public String nombre(int codigo) {
+        if (codigo == 0) {
+            return null;
+        }
+        String[] n = nombres;
+        if (codigo < 0 || codigo >= n.length || n[codigo] == null) {
+            // Alta hecha por otra instancia de la aplicación
+            recargar();
+            n = nombres;
+            if (codigo < 0 || codigo >= n.length || n[codigo] == null) {
+                throw new IllegalStateException("Código desconocido en " + tabla + ": " + codigo);
+            }
+        }
+        return n[codigo];
+    }
+
+    /**
+     * @return nombres indexados por código (posición 0 = null); copia.
+     */
+    public String[] nombres() {
+        return nombres.clone();
+    }
+
+    /**
+     * Crea la tabla si falta (BD creada solo por hbm2ddl) y comprueba que
+     * oveja no tiene valores de texto antiguos sin pasar a código. No
+     * modifica datos: la columna de texto, si sigue, se deja como está.
+     *
+     * @param session sesión abierta.
+     * @param columnaTexto columna VARCHAR antigua de oveja.
+     * @param columnaCodigo columna SMALLINT de oveja (la crea hbm2ddl).
+     * @throws IllegalStateException si hay ovejas con texto y sin código:
+     * falta ejecutar migracion_v2_catalogos.sql.
+     */
+    void comprobar(Session session, String columnaTexto, String columnaCodigo) {
+        session.doWork(con -> {
+            try (Statement st = con.createStatement()) {
+                st.executeUpdate("CREATE TABLE IF NOT EXISTS " + tabla + " ("
+                        + "id SMALLINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                        + "nombre VARCHAR(" + LONGITUD_MAXIMA + ") NOT NULL, "
+                        + "UNIQUE KEY uk_" + tabla + "_nombre (nombre))");
+                boolean antigua;
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM information_schema.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'oveja' "
+                        + "AND COLUMN_NAME = '" + columnaTexto + "'")) {
+                    antigua = rs.next() && rs.getInt(1) > 0;
+                }
+                if (!antigua) {
+                    return;
+                }
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM oveja WHERE " + columnaCodigo
+                        + " IS NULL AND TRIM(" + columnaTexto + ") <> ''")) {
+                    long pendientes = rs.next() ? rs.getLong(1) : 0;
+                    if (pendientes > 0) {
+                        throw new IllegalStateException(pendientes + " ovejas con oveja." + columnaTexto
+                                + " sin pasar a " + tabla + ": ejecutar migracion_v2_catalogos.sql");
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Carga el diccionario completo.
+     *
+     * @param session sesión abierta.
+     */
+    synchronized void cargar(Session session) {
+        session.doWork(con -> {
+            String[] n = new String[1];
+            try (Statement st = con.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT id, nombre FROM " + tabla)) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    if (id >= n.length) {
+                        n = Arrays.copyOf(n, Math.max(id + 1, n.length * 2));
+                    }
+                    n[id] = rs.getString(2);
+                    codigos.put(n[id], (short) id);
+                }
+            }
+            nombres = n;
+        });
+    }
+
+    private void recargar() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            cargar(session);
+        }
+    }
+
+    /**
+     * Alta de un nombre nuevo en su propia transacción. INSERT IGNORE +
+     * SELECT: si otro proceso (o una variante con otras mayúsculas) ya lo dio
+     * de alta se reutiliza su código.
+     */
+    private synchronized short insertar(String nombre) {
+        Short existente = codigos.get(nombre);
+        if (existente != null) {
+            return existente;
+        }
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            Transaction tx = session.beginTransaction();
+            String[] guardado = new String[1];
+            short codigo;
+            try {
+                codigo = session.doReturningWork(con -> {
+                    try (PreparedStatement ins = con.prepareStatement(
+                            "INSERT IGNORE INTO " + tabla + " (nombre) VALUES (?)")) {
+                        ins.setString(1, nombre);
+                        ins.executeUpdate();
+                    }
+                    try (PreparedStatement sel = con.prepareStatement(
+                            "SELECT id, nombre FROM " + tabla + " WHERE nombre = ?")) {
+                        sel.setString(1, nombre);
+                        try (ResultSet rs = sel.executeQuery()) {
+                            if (!rs.next()) {
+                                throw new IllegalStateException("No se pudo dar de alta en " + tabla + ": " + nombre);
+                            }
+                            guardado[0] = rs.getString(2);
+                            return rs.getShort(1);
+                        }
+                    }
+                });
+                tx.commit();
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+            // El diccionario solo cambia con el alta ya confirmada
+            String[] n = nombres;
+            n = codigo >= n.length ? Arrays.copyOf(n, Math.max(codigo + 1, n.length * 2)) : n.clone();
+            n[codigo] = guardado[0];
+            nombres = n;
+            codigos.put(nombre, codigo);
+            return codigo;
+        }
+    }
+
+    /** Recorta espacios; vacío = null. */
+    private static String limpiar(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        String limpio = nombre.trim();
+        if (limpio.length() > LONGITUD_MAXIMA) {
+            throw new IllegalArgumentException("Texto de más de " + LONGITUD_MAXIMA + " caracteres: " + limpio);
+        }
+        return limpio.isEmpty() ? null : limpio;
+    }
+
+    @Override
+    public String toString() {
+        return "Catalogo[" + tabla + ", valores=" + codigos.size() + "]";
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+/**
+ * Instantánea inmutable del arranque de Hibernate: cuánto tardó cada fase,
+ * en el orden en que se ejecutan, y si terminó bien.
+ *
+ * @param poolMs creación del pool HikariCP y primera conexión a MySQL (ms).
+ * @param metadatosMs lectura de hibernate.cfg.xml y de las anotaciones de
+ * las entidades (ms).
+ * @param esquemaMs actualización/validación del esquema (hbm2ddl, ms).
+ * @param factoriaMs construcción de la SessionFactory y la caché L2 (ms).
+ * @param migracionesMs generadores de IDs y catálogos (ms).
+ * @param totalMs arranque completo, incluida cualquier fase que fallase
+ * (ms).
+ * @param esperaMs mayor tiempo que un hilo estuvo bloqueado en
+ * getSessionFactory() esperando a que terminase el arranque (ms; 0 si nadie
+ * llegó antes de tiempo).
+ * @param correcto true si la SessionFactory quedó disponible.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HibernateUtil#getEstadisticasArranque()
+ */
+public record EstadisticasArranque(double poolMs, double metadatosMs, double esquemaMs,
+        double factoriaMs, double migracionesMs, double totalMs, double esperaMs, boolean correcto) {
+
+    /** Estado devuelto mientras el arranque no ha terminado. */
+    public static final EstadisticasArranque VACIO = new EstadisticasArranque(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0,
+            false);
+
+    /**
+     * @param esperaMs espera máxima medida hasta ahora (ms).
+     * @return copia con esa espera.
+     */
+    public EstadisticasArranque conEspera(double esperaMs) {
+        return new EstadisticasArranque(poolMs, metadatosMs, esquemaMs, factoriaMs, migracionesMs, totalMs,
+                esperaMs, correcto);
+    }
+
+    @Override
+    public String toString() {
+        if (this == VACIO) {
+            return "Arranque[pendiente]";
+        }
+        return String.format("Arranque[%s en %.0fms: pool=%.0fms, metadatos=%.0fms, esquema=%.0fms, "
+                + "factoría=%.0fms, migraciones=%.0fms, espera=%.0fms]",
+                correcto ? "correcto" : "fallido", totalMs,
+                poolMs, metadatosMs, esquemaMs, factoriaMs, migracionesMs, esperaMs);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+/**
+ * Instantánea inmutable de aciertos/fallos de la caché de segundo nivel de
+ * Hibernate desde el arranque: entidades por id, búsquedas por id natural
+ * (numeroIdentificacion, username) y caché de consultas.
+ *
+ * @param aciertos entidades servidas desde caché.
+ * @param fallos entidades que hubo que leer de BD.
+ * @param escrituras entidades guardadas en caché.
+ * @param aciertosNaturalId ids naturales resueltos desde caché.
+ * @param fallosNaturalId ids naturales resueltos en BD.
+ * @param aciertosConsultas consultas cacheables servidas desde caché.
+ * @param fallosConsultas consultas cacheables ejecutadas en BD.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HibernateUtil#getEstadisticasCache()
+ */
+public record EstadisticasCache(long aciertos, long fallos, long escrituras,
+        long aciertosNaturalId, long fallosNaturalId,
+        long aciertosConsultas, long fallosConsultas) {
+
+    /** Estado devuelto cuando Hibernate no está inicializado. */
+    public static final EstadisticasCache VACIO = new EstadisticasCache(0, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * @return porcentaje de aciertos de entidades (0-100).
+     */
+    public double tasaAciertos() {
+        long consultas = aciertos + fallos;
+        return consultas == 0 ? 0.0 : aciertos * 100.0 / consultas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Caché[entidades=%d/%d (%.1f%%), escrituras=%d, "
+                + "id natural=%d/%d, consultas=%d/%d]",
+                aciertos, aciertos + fallos, tasaAciertos(), escrituras,
+                aciertosNaturalId, aciertosNaturalId + fallosNaturalId,
+                aciertosConsultas, aciertosConsultas + fallosConsultas);
+    }
+}
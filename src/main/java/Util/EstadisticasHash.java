@@ -0,0 +1,55 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+/**
+ * Instantánea inmutable del servicio de hash de contraseñas: coste vigente,
+ * latencias (desde que se pide hasta que hay resultado, cola incluida) y
+ * peticiones rechazadas desde el arranque.
+ *
+ * @param coste coste BCrypt de los hashes nuevos.
+ * @param calibrado true si el coste salió de la calibración de arranque.
+ * @param verificaciones latencias de verificar (una por intento de login).
+ * @param codificaciones latencias de codificar (registro, cambio de
+ * contraseña, rehash).
+ * @param rehashes hashes actualizados al coste vigente tras un login.
+ * @param rechazadas peticiones rechazadas por cola llena.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HashCredenciales#getEstadisticas()
+ */
+public record EstadisticasHash(int coste, boolean calibrado, Latencias verificaciones,
+        Latencias codificaciones, long rehashes, long rechazadas) {
+
+    /**
+     * Resumen de un histograma de latencias.
+     *
+     * @param total operaciones registradas.
+     * @param mediaMs media (ms).
+     * @param p50Ms mediana (ms, límite de cubeta).
+     * @param p95Ms percentil 95 (ms, límite de cubeta).
+     * @param p99Ms percentil 99 (ms, límite de cubeta).
+     * @param maximaMs peor latencia observada (ms).
+     * @param cubetas operaciones por cubeta: 0 = &lt;1 ms, i = [2^(i-1), 2^i)
+     * ms.
+     */
+    public record Latencias(long total, double mediaMs, double p50Ms, double p95Ms,
+            double p99Ms, double maximaMs, long[] cubetas) {
+
+        @Override
+        public String toString() {
+            return String.format("n=%d, media=%.1fms, p50=%.0fms, p95=%.0fms, p99=%.0fms, máx=%.1fms",
+                    total, mediaMs, p50Ms, p95Ms, p99Ms, maximaMs);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Hash[coste=" + coste + (calibrado ? " (calibrado)" : "")
+                + ", verificar{" + verificaciones + "}, codificar{" + codificaciones + "}"
+                + ", rehashes=" + rehashes + ", rechazadas=" + rechazadas + "]";
+    }
+}
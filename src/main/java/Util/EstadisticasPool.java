@@ -0,0 +1,42 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+/**
+ * Instantánea inmutable del estado del pool de conexiones MySQL. Pensada para
+ * paneles de monitorización: ocupación actual + tiempos de espera acumulados
+ * desde el arranque.
+ *
+ * @param activas conexiones prestadas ahora mismo.
+ * @param inactivas conexiones libres en el pool.
+ * @param totales activas + inactivas.
+ * @param hilosEsperando hilos bloqueados esperando conexión.
+ * @param maximo tamaño máximo configurado (maximumPoolSize).
+ * @param minimoInactivas mínimo de conexiones libres (minimumIdle).
+ * @param adquisiciones conexiones entregadas desde el arranque.
+ * @param esperaMediaMs espera media para obtener conexión (ms).
+ * @param esperaMaximaMs peor espera observada (ms).
+ * @param usoMedioMs tiempo medio que una conexión permanece prestada (ms).
+ * @param timeouts peticiones que agotaron connectionTimeout.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HibernateUtil#getEstadisticasPool()
+ */
+public record EstadisticasPool(int activas, int inactivas, int totales, int hilosEsperando,
+        int maximo, int minimoInactivas, long adquisiciones, double esperaMediaMs,
+        double esperaMaximaMs, double usoMedioMs, long timeouts) {
+
+    /** Estado devuelto cuando el pool no está inicializado. */
+    public static final EstadisticasPool VACIO = new EstadisticasPool(0, 0, 0, 0, 0, 0, 0, 0.0, 0.0, 0.0, 0);
+
+    @Override
+    public String toString() {
+        return String.format("Pool[activas=%d, inactivas=%d, total=%d/%d, esperando=%d, "
+                + "espera media=%.2fms, máx=%.2fms, uso medio=%.2fms, timeouts=%d]",
+                activas, inactivas, totales, maximo, hilosEsperando,
+                esperaMediaMs, esperaMaximaMs, usoMedioMs, timeouts);
+    }
+}
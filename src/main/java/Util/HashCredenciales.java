@@ -0,0 +1,335 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Servicio único de hash de contraseñas (BCrypt). Todo el cálculo, tanto al
+ * registrar como al verificar un login, pasa por un pool fijo de un hilo por
+ * núcleo: una ráfaga de logins en los terminales compartidos no satura la
+ * CPU ni bloquea el EDT.
+ *
+ * La cola es acotada ({@value #TAREAS_POR_HILO} tareas por hilo). Si se
+ * llena, la petición se rechaza al momento (futuro fallido con
+ * {@link RejectedExecutionException}) en lugar de acumular esperas de varios
+ * segundos: la interfaz avisa de que se reintente.
+ *
+ * El coste (log2 de las rondas) es el mismo para toda la aplicación. Se
+ * fija con la propiedad de sistema {@value #PROPIEDAD_COSTE} o, si no se
+ * indica, {@link #calibrarAsync()} lo ajusta al arrancar: el mayor coste
+ * cuyo hash tarda como mucho {@value #PROPIEDAD_OBJETIVO} ms (por defecto
+ * {@value #OBJETIVO_POR_DEFECTO_MS}) en este equipo, nunca por debajo de
+ * {@value #COSTE_POR_DEFECTO}. Los hashes guardados con otro coste se siguen
+ * verificando (el coste va dentro del hash); los de coste menor
+ * UsuarioService los rehace al coste vigente en el siguiente login correcto
+ * ({@link #necesitaRehash}).
+ *
+ * Cada operación registra su latencia (cola incluida) en un histograma:
+ * {@link #getEstadisticas()}.
+ *
+ * Uso:
+ *
+ * HashCredenciales.getInstancia().verificar(password, usuario.getPassword())
+ *         .thenAccept(ok -&gt; ...);
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see PasswordEncoderUtil
+ */
+public final class HashCredenciales {
+
+    /** Propiedad de sistema con el coste BCrypt (-Dganaderia.bcrypt.coste=12). */
+    public static final String PROPIEDAD_COSTE = "ganaderia.bcrypt.coste";
+
+    /** Propiedad de sistema con la latencia objetivo de la calibración (ms). */
+    public static final String PROPIEDAD_OBJETIVO = "ganaderia.bcrypt.objetivoMs";
+
+    /** Coste mientras no hay calibración, y mínimo que puede elegir. */
+    public static final int COSTE_POR_DEFECTO = 10;
+
+    /** Máximo que puede elegir la calibración. */
+    public static final int COSTE_MAXIMO_CALIBRADO = 16;
+
+    public static final long OBJETIVO_POR_DEFECTO_MS = 250;
+
+    /** Coste con el que se mide: rápido pero lejos del ruido del temporizador. */
+    private static final int COSTE_MEDICION = 8;
+
+    /** Límites que admite BCrypt. */
+    public static final int COSTE_MINIMO = 4;
+    public static final int COSTE_MAXIMO = 31;
+
+    /** Tareas en cola por hilo antes de rechazar. */
+    private static final int TAREAS_POR_HILO = 16;
+
+    private static final HashCredenciales INSTANCIA = new HashCredenciales(
+            Runtime.getRuntime().availableProcessors(), leerCoste());
+
+    private final ThreadPoolExecutor pool;
+
+    /** Fijado por propiedad: la calibración no lo cambia. */
+    private final boolean costeFijo;
+
+    private volatile int coste;
+
+    private volatile boolean calibrado;
+
+    private final AtomicLong rechazadas = new AtomicLong();
+
+    private final AtomicLong rehashes = new AtomicLong();
+
+    private final HistogramaLatencia latenciaVerificar = new HistogramaLatencia();
+
+    private final HistogramaLatencia latenciaCodificar = new HistogramaLatencia();
+
+    /** Solo para pruebas; la aplicación usa {@link #getInstancia()}. */
+    HashCredenciales(int hilos, int coste) {
+        this.costeFijo = coste > 0;
+        this.coste = costeFijo ? coste : COSTE_POR_DEFECTO;
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hilos * TAREAS_POR_HILO),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @return servicio único de la aplicación.
+     */
+    public static HashCredenciales getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * @return coste BCrypt usado para los hashes nuevos.
+     */
+    public int getCoste() {
+        return coste;
+    }
+
+    /**
+     * @return tareas esperando en la cola.
+     */
+    public int getEnCola() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * @return peticiones rechazadas por cola llena desde el arranque.
+     */
+    public long getRechazadas() {
+        return rechazadas.get();
+    }
+
+    /**
+     * @return coste, latencias y contadores desde el arranque.
+     */
+    public EstadisticasHash getEstadisticas() {
+        return new EstadisticasHash(coste, calibrado, latenciaVerificar.instantanea(),
+                latenciaCodificar.instantanea(), rehashes.get(), rechazadas.get());
+    }
+
+    /**
+     * Lanza {@link #calibrar(long)} en un hilo aparte con el objetivo de
+     * {@value #PROPIEDAD_OBJETIVO}. Hasta que termina se usa
+     * {@value #COSTE_POR_DEFECTO}. No hace nada si el coste está fijado.
+     */
+    public void calibrarAsync() {
+        if (costeFijo) {
+            return;
+        }
+        Thread t = new Thread(() -> calibrar(leerObjetivo()), "bcrypt-calibracion");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    /**
+     * Mide BCrypt en este equipo y elige el mayor coste (entre
+     * {@value #COSTE_POR_DEFECTO} y {@value #COSTE_MAXIMO_CALIBRADO}) cuyo
+     * hash no pasa del objetivo. Cada punto de coste duplica el tiempo, así
+     * que basta medir un coste bajo y extrapolar; el elegido se mide una vez
+     * para confirmarlo.
+     *
+     * @param objetivoMs latencia objetivo de un hash (ms, &gt; 0).
+     * @return coste vigente tras calibrar (el fijado si hay propiedad).
+     */
+    public synchronized int calibrar(long objetivoMs) {
+        if (costeFijo) {
+            return coste;
+        }
+        if (objetivoMs <= 0) {
+            throw new IllegalArgumentException("Objetivo debe ser > 0: " + objetivoMs);
+        }
+        String sal = BCrypt.gensalt(COSTE_MINIMO);
+        BCrypt.hashpw("calentamiento", sal);  // JIT
+        BCrypt.hashpw("calentamiento", sal);
+        long[] muestras = new long[3];
+        for (int i = 0; i < muestras.length; i++) {
+            muestras[i] = medir(COSTE_MEDICION);
+        }
+        Arrays.sort(muestras);
+        double nanosBase = muestras[1];  // Mediana
+        long objetivoNanos = objetivoMs * 1_000_000;
+
+        int elegido = COSTE_POR_DEFECTO;
+        while (elegido < COSTE_MAXIMO_CALIBRADO
+                && nanosBase * (1L << (elegido + 1 - COSTE_MEDICION)) <= objetivoNanos) {
+            elegido++;
+        }
+        long real = medir(elegido);
+        if (elegido > COSTE_POR_DEFECTO && real > objetivoNanos * 3 / 2) {
+            elegido--;  // La extrapolación se quedó corta
+        }
+        coste = elegido;
+        calibrado = true;
+        return elegido;
+    }
+
+    /**
+     * @param hash hash almacenado.
+     * @return true si es BCrypt con un coste menor que el vigente (o no es
+     * BCrypt). Un hash más fuerte se conserva: nunca se rebaja el coste.
+     * Siempre false mientras la calibración no ha terminado, para no rehacer
+     * hashes a un coste provisional.
+     */
+    public boolean necesitaRehash(String hash) {
+        return (costeFijo || calibrado) && costeDe(hash) < coste;
+    }
+
+    /**
+     * @param hash hash BCrypt ($2a$NN$...).
+     * @return coste codificado en el hash o -1 si no tiene ese formato.
+     */
+    public static int costeDe(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$'
+                || hash.charAt(6) != '$') {
+            return -1;
+        }
+        char d = hash.charAt(4);
+        char u = hash.charAt(5);
+        if (d < '0' || d > '9' || u < '0' || u > '9') {
+            return -1;
+        }
+        return (d - '0') * 10 + (u - '0');
+    }
+
+    /**
+     * Cuenta un hash rehecho al coste vigente (UsuarioService).
+     */
+    public void rehashRealizado() {
+        rehashes.incrementAndGet();
+    }
+
+    /**
+     * Calcula el hash de una contraseña con salt aleatorio.
+     *
+     * @param password contraseña en texto plano (no vacía).
+     * @return futuro con el hash ($2a$, 60 caracteres); falla con
+     * IllegalArgumentException si está vacía o RejectedExecutionException si
+     * la cola está llena.
+     */
+    public CompletableFuture<String> codificar(String password) {
+        if (password == null || password.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Contraseña no puede ser null o vacía"));
+        }
+        int c = coste;
+        return enviar(() -> BCrypt.hashpw(password, BCrypt.gensalt(c)), latenciaCodificar);
+    }
+
+    /**
+     * Comprueba una contraseña contra un hash guardado.
+     *
+     * @param password contraseña candidata.
+     * @param hash hash BCrypt almacenado.
+     * @return futuro con true si coinciden (false también si el hash no es
+     * BCrypt); falla con IllegalArgumentException si algún parámetro es null
+     * o RejectedExecutionException si la cola está llena.
+     */
+    public CompletableFuture<Boolean> verificar(String password, String hash) {
+        if (password == null || hash == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Parámetros no pueden ser null"));
+        }
+        return enviar(() -> {
+            try {
+                return BCrypt.checkpw(password, hash);
+            } catch (IllegalArgumentException e) {
+                return false;  // Hash con formato no BCrypt
+            }
+        }, latenciaVerificar);
+    }
+
+    private <T> CompletableFuture<T> enviar(Supplier<T> tarea, HistogramaLatencia latencia) {
+        long inicio = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                T resultado = tarea.get();
+                latencia.registrar(System.nanoTime() - inicio);
+                return resultado;
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            rechazadas.incrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static long medir(int coste) {
+        String sal = BCrypt.gensalt(coste);
+        long t = System.nanoTime();
+        BCrypt.hashpw("calibracion", sal);
+        return System.nanoTime() - t;
+    }
+
+    /** @return coste de la propiedad o 0 si no está (se calibra). */
+    private static int leerCoste() {
+        String valor = System.getProperty(PROPIEDAD_COSTE);
+        if (valor == null) {
+            return 0;
+        }
+        try {
+            int coste = Integer.parseInt(valor.trim());
+            if (coste >= COSTE_MINIMO && coste <= COSTE_MAXIMO) {
+                return coste;
+            }
+        } catch (NumberFormatException e) {
+            // Se avisa abajo
+        }
+        System.err.println("Coste BCrypt no válido en " + PROPIEDAD_COSTE + ": " + valor
+                + " (se calibra)");
+        return 0;
+    }
+
+    private static long leerObjetivo() {
+        String valor = System.getProperty(PROPIEDAD_OBJETIVO);
+        if (valor != null) {
+            try {
+                long ms = Long.parseLong(valor.trim());
+                if (ms > 0) {
+                    return ms;
+                }
+            } catch (NumberFormatException e) {
+                // Se avisa abajo
+            }
+            System.err.println("Objetivo BCrypt no válido en " + PROPIEDAD_OBJETIVO + ": " + valor);
+        }
+        return OBJETIVO_POR_DEFECTO_MS;
+    }
+}
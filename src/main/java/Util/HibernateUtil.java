@@ -6,49 +6,344 @@ package Util;
 
 import Modelo.Evento;
 import Modelo.Oveja;
+import Modelo.Pesada;
 import Modelo.Usuario;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.cfg.Configuration;
+import org.hibernate.Transaction;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.stat.Statistics;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
 
 /**
  * Factory Singleton Hibernate 5.x con inicialización tolerante a fallos.
- * Static block try-catch: NO falla la app si hibernate.cfg.xml/DB cae. DAOs
- * detectan sessionFactory=null y manejan graceful degradation. 
+ * NO falla la app si hibernate.cfg.xml/DB cae. DAOs detectan
+ * sessionFactory=null y manejan graceful degradation.
+ *
+ * El arranque es perezoso y en segundo plano: App.main lo lanza con
+ * {@link #iniciarAsync()} y muestra el login sin esperar; solo se bloquea
+ * el primer {@link #getSessionFactory()} que llegue antes de que termine.
+ * Los tiempos por fase quedan en {@link #getEstadisticasArranque()}.
+ *
+ * Las conexiones salen de un pool HikariCP acotado (propiedades
+ * {@code hibernate.hikari.*} de hibernate.cfg.xml) en lugar del DriverManager
+ * interno de Hibernate, que no está pensado para producción.
  *
  * @author Elena González
- * @version 1.0
+ * @version 1.2
  */
 public class HibernateUtil {
 
     /**
-     * SessionFactory única (nullable si falla inicialización). Static block
-     * try-catch permite app continuar sin Hibernate.
+     * Prefijo de las propiedades del pool en hibernate.cfg.xml. Lo que va
+     * detrás es el nombre de la propiedad HikariCP (maximumPoolSize,
+     * idleTimeout, leakDetectionThreshold...).
+     */
+    private static final String PREFIJO_POOL = "hibernate.hikari.";
+
+    /**
+     * Entrega a Hibernate las conexiones del pool. El proveedor de
+     * DataSource de Hibernate pide getConnection(usuario, password) cuando
+     * hay credenciales en la configuración, y HikariCP no lo admite: las
+     * credenciales ya van en el pool.
+     */
+    private static final class ConexionesPool implements ConnectionProvider {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient HikariDataSource pool;
+
+        ConexionesPool(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return pool.getConnection();
+        }
+
+        @Override
+        public void closeConnection(Connection conexion) throws SQLException {
+            conexion.close();
+        }
+
+        @Override
+        public boolean supportsAggressiveRelease() {
+            return false;
+        }
+
+        @Override
+        public boolean isUnwrappableAs(Class<?> tipo) {
+            return tipo.isInstance(this) || tipo.isInstance(pool);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T unwrap(Class<T> tipo) {
+            if (tipo.isInstance(pool)) {
+                return (T) pool;
+            }
+            if (tipo.isInstance(this)) {
+                return (T) this;
+            }
+            throw new IllegalArgumentException("No se puede desenvolver como " + tipo.getName());
+        }
+    }
+
+    /**
+     * SessionFactory única (null mientras arranca o si falla la
+     * inicialización: la app continúa sin Hibernate).
+     */
+    private static volatile SessionFactory sessionFactory;
+
+    /**
+     * Pool de conexiones compartido por todas las Session (nullable si falla).
+     */
+    private static volatile HikariDataSource dataSource;
+
+    /**
+     * Métricas de espera/uso del pool alimentadas por HikariCP.
+     */
+    private static final MetricasPool metricasPool = new MetricasPool();
+
+    /** Tareas de {@link #alCerrar(Runnable)}. */
+    private static final List<Runnable> tareasAlCerrar = new CopyOnWriteArrayList<>();
+
+    /**
+     * Arranque en curso o terminado (null hasta el primer
+     * {@link #iniciarAsync()}).
      */
-    private static SessionFactory sessionFactory;
+    private static volatile CompletableFuture<Void> arranque;
+
+    /** Tiempos del último arranque terminado. */
+    private static volatile EstadisticasArranque estadisticasArranque = EstadisticasArranque.VACIO;
+
+    /** Mayor espera de un hilo en {@link #esperarArranque()} (ns). */
+    private static final AtomicLong esperaMaxima = new AtomicLong();
+
+    /**
+     * Lanza el arranque de Hibernate en un hilo propio y vuelve enseguida;
+     * App.main lo llama antes de mostrar el login para que schema update y
+     * metadatos corran mientras el usuario teclea. Llamarlo otra vez
+     * devuelve el mismo arranque. Si nadie lo llama, el primer
+     * {@link #getSessionFactory()} lo lanza.
+     *
+     * Tolerante como siempre: un fallo se registra en consola y deja
+     * sessionFactory a null, nunca se propaga al futuro.
+     *
+     * @return futuro que termina cuando el arranque acaba (bien o mal).
+     */
+    public static CompletableFuture<Void> iniciarAsync() {
+        CompletableFuture<Void> a = arranque;
+        if (a == null) {
+            synchronized (HibernateUtil.class) {
+                a = arranque;
+                if (a == null) {
+                    a = CompletableFuture.runAsync(HibernateUtil::arrancar, r -> {
+                        Thread t = new Thread(r, "hibernate-arranque");
+                        t.setDaemon(true);
+                        t.start();
+                    });
+                    arranque = a;
+                }
+            }
+        }
+        return a;
+    }
 
     /**
-     * Static initializer tolerante: construye SessionFactory o null. NO
-     * lanza ExceptionInInitializerError → app sobrevive. Loggea error
-     * console, DAOs manejan null graceful.
+     * Construye pool + SessionFactory o deja null, midiendo cada fase. Usa
+     * el bootstrap nativo en lugar de Configuration para separar metadatos,
+     * esquema y factoría: hbm2ddl update/validate se quita de la
+     * configuración y se ejecuta aparte, antes de construir la factoría.
      */
-    static {
+    private static void arrancar() {
+        long inicio = System.nanoTime();
+        long[] fases = new long[5];
+        long t = inicio;
+        int fase = 0;
+        StandardServiceRegistry registro = null;
+        SessionFactory factoria = null;
         try {
-            sessionFactory = new Configuration()
-                    // Carga hibernate.cfg.xml)
-                    .configure()
-                    // 3 entidades JPA 2.2 javax.persistence
+            // Carga hibernate.cfg.xml
+            StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder().configure();
+            Properties props = new Properties();
+            props.putAll(builder.getSettings());
+
+            // Pool propio: Hibernate recibe el DataSource ya arrancado
+            dataSource = crearPool(props);
+            fases[fase++] = System.nanoTime() - t;
+            t = System.nanoTime();
+
+            String hbm2ddl = String.valueOf(props.getOrDefault(AvailableSettings.HBM2DDL_AUTO, "none")).trim();
+            boolean esquemaAparte = "update".equalsIgnoreCase(hbm2ddl) || "validate".equalsIgnoreCase(hbm2ddl);
+            builder.applySetting(AvailableSettings.CONNECTION_PROVIDER, new ConexionesPool(dataSource));
+            if (esquemaAparte) {
+                builder.applySetting(AvailableSettings.HBM2DDL_AUTO, "none");
+            }
+            registro = builder.build();
+            Metadata metadata = new MetadataSources(registro)
+                    // 4 entidades JPA
                     .addAnnotatedClass(Usuario.class) // tabla usuario
                     .addAnnotatedClass(Oveja.class) // tabla oveja
                     .addAnnotatedClass(Evento.class) // tabla evento
-                    .buildSessionFactory();
+                    .addAnnotatedClass(Pesada.class) // tabla pesada
+                    .buildMetadata();
+            fases[fase++] = System.nanoTime() - t;
+            t = System.nanoTime();
+
+            if (esquemaAparte) {
+                Map<String, Object> ajustes = new HashMap<>(builder.getSettings());
+                ajustes.put(AvailableSettings.HBM2DDL_AUTO, hbm2ddl);
+                SchemaManagementToolCoordinator.process(metadata, registro, ajustes, accion -> {
+                });
+            }
+            fases[fase++] = System.nanoTime() - t;
+            t = System.nanoTime();
+
+            // Otros valores de hbm2ddl (create...) los aplica la factoría
+            factoria = metadata.buildSessionFactory();
+            fases[fase++] = System.nanoTime() - t;
+            t = System.nanoTime();
 
-            System.out.println("Hibernate inicializado correctamente");
+            // Migraciones con la factoría aún privada: nadie la ve a medias
+            sincronizarGenerador(factoria, Oveja.GENERADOR_ID, "oveja");
+            sincronizarGenerador(factoria, Evento.GENERADOR_ID, "evento");
+            sincronizarGenerador(factoria, Pesada.GENERADOR_ID, "pesada");
+            comprobarCatalogos(factoria);
+            sessionFactory = factoria;
+            fases[fase++] = System.nanoTime() - t;
+            Runtime.getRuntime().addShutdownHook(new Thread(HibernateUtil::shutdown, "hibernate-shutdown"));
+
+            estadisticasArranque = estadisticas(fases, inicio, true);
+            System.out.println("Hibernate inicializado correctamente (" + dataSource.getPoolName() + ")");
+            System.out.println(estadisticasArranque);
 
         } catch (Throwable ex) {
             // Loggea pero NO falla app (desarrollo-friendly)
-            System.err.println("Hibernate FALLÓ en static block:");
+            if (fase < fases.length) {
+                fases[fase] = System.nanoTime() - t;
+            }
+            System.err.println("Hibernate FALLÓ al arrancar:");
             System.err.println("   " + ex.getClass().getSimpleName() + ": " + ex.getMessage());
             sessionFactory = null;  // DAO detecta y maneja
+            if (factoria != null) {
+                factoria.close();
+            }
+            if (registro != null) {
+                StandardServiceRegistryBuilder.destroy(registro);
+            }
+            if (dataSource != null) {
+                dataSource.close();
+                dataSource = null;
+            }
+            estadisticasArranque = estadisticas(fases, inicio, false);
+            System.err.println("   " + estadisticasArranque);
+        }
+    }
+
+    private static EstadisticasArranque estadisticas(long[] fases, long inicio, boolean correcto) {
+        return new EstadisticasArranque(fases[0] / 1e6, fases[1] / 1e6, fases[2] / 1e6, fases[3] / 1e6,
+                fases[4] / 1e6, (System.nanoTime() - inicio) / 1e6, 0.0, correcto);
+    }
+
+    /**
+     * Construye el pool HikariCP a partir de las propiedades de Hibernate.
+     * URL, driver y credenciales se reutilizan de
+     * {@code jakarta.persistence.jdbc.*}; el resto se toma de
+     * {@code hibernate.hikari.*}.
+     *
+     * @param props propiedades cargadas de hibernate.cfg.xml.
+     * @return pool arrancado (ya ha validado una conexión contra MySQL).
+     */
+    private static HikariDataSource crearPool(Properties props) {
+        Properties hikari = new Properties();
+        for (String clave : props.stringPropertyNames()) {
+            if (clave.startsWith(PREFIJO_POOL)) {
+                hikari.setProperty(clave.substring(PREFIJO_POOL.length()), props.getProperty(clave));
+            }
+        }
+
+        HikariConfig config = new HikariConfig(hikari);
+        config.setDriverClassName(props.getProperty(JdbcSettings.JAKARTA_JDBC_DRIVER));
+        config.setJdbcUrl(props.getProperty(JdbcSettings.JAKARTA_JDBC_URL));
+        config.setUsername(props.getProperty(JdbcSettings.JAKARTA_JDBC_USER));
+        config.setPassword(props.getProperty(JdbcSettings.JAKARTA_JDBC_PASSWORD));
+        config.setMetricsTrackerFactory(metricasPool);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Ajusta una tabla generadora de IDs para que el siguiente bloque empiece
+     * por encima del MAX(id) existente. Necesario al migrar desde IDENTITY
+     * (filas con AUTO_INCREMENT) y en BDs donde hbm2ddl acaba de crear la
+     * tabla con el valor inicial. Solo sube el contador, nunca lo baja, así
+     * que es seguro en cada arranque. Con el contador sin ajustar cada alta
+     * chocaría con ids existentes, así que un fallo aquí detiene el arranque.
+     *
+     * @param factoria factoría en construcción (aún sin publicar).
+     * @param generador tabla generadora (Oveja.GENERADOR_ID...).
+     * @param tabla tabla de la entidad; también es la clave en el generador.
+     * @throws IllegalStateException si no se pudo ajustar el contador.
+     */
+    private static void sincronizarGenerador(SessionFactory factoria, String generador, String tabla) {
+        try (Session session = factoria.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                session.createNativeMutationQuery(
+                        "INSERT INTO " + generador + " (entidad, siguiente_id) "
+                        + "SELECT '" + tabla + "', COALESCE(MAX(id), 0) + 1 FROM " + tabla + " "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM " + generador + " WHERE entidad = '" + tabla + "')")
+                        .executeUpdate();
+                session.createNativeMutationQuery(
+                        "UPDATE " + generador + " g JOIN (SELECT COALESCE(MAX(id), 0) + 1 AS siguiente FROM "
+                        + tabla + ") m SET g.siguiente_id = m.siguiente "
+                        + "WHERE g.entidad = '" + tabla + "' AND g.siguiente_id < m.siguiente")
+                        .executeUpdate();
+                tx.commit();
+            } catch (Exception ex) {
+                tx.rollback();
+                throw ex;
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("No se pudo sincronizar " + generador + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Crea las tablas de catálogo si faltan, comprueba que no quedan
+     * valores de texto antiguos (raza, estadoSalud) sin pasar a código y
+     * carga los diccionarios en memoria. Sin diccionario las ovejas no se
+     * pueden leer ni guardar, así que un fallo aquí detiene el arranque.
+     *
+     * @param factoria factoría en construcción (aún sin publicar).
+     * @throws IllegalStateException si falta ejecutar
+     * migracion_v2_catalogos.sql.
+     */
+    private static void comprobarCatalogos(SessionFactory factoria) {
+        try (Session session = factoria.openSession()) {
+            Catalogo.RAZAS.comprobar(session, "raza", "id_raza");
+            Catalogo.ESTADOS_SALUD.comprobar(session, "estadoSalud", "id_estado_salud");
+            Catalogo.RAZAS.cargar(session);
+            Catalogo.ESTADOS_SALUD.cargar(session);
         }
     }
 
@@ -60,6 +355,7 @@ public class HibernateUtil {
      * @throws IllegalStateException si hibernate.cfg.xml/DB/entidades fallan.
      */
     public static SessionFactory getSessionFactory() {
+        esperarArranque();
         if (sessionFactory == null) {
             throw new IllegalStateException(
                     "Hibernate no inicializado. Revisar console:\n"
@@ -72,22 +368,146 @@ public class HibernateUtil {
     }
 
     /**
-     * Cierra SessionFactory graceful (solo si inicializada). Libera pool
+     * Bloquea hasta que termine el arranque (lanzándolo si nadie lo hizo).
+     * Solo espera el primer acceso que llegue antes de tiempo; después es
+     * una lectura volatile. La espera más larga queda en
+     * {@link EstadisticasArranque#esperaMs()}.
+     */
+    private static void esperarArranque() {
+        CompletableFuture<Void> a = iniciarAsync();
+        if (!a.isDone()) {
+            long t = System.nanoTime();
+            a.join();
+            esperaMaxima.accumulateAndGet(System.nanoTime() - t, Math::max);
+        }
+    }
+
+    /**
+     * Tiempos por fase del arranque (pool, metadatos, esquema, factoría,
+     * migraciones) y mayor espera de un hilo al arranque. No espera.
+     *
+     * @return tiempos del arranque o {@link EstadisticasArranque#VACIO} si
+     * aún no ha terminado.
+     */
+    public static EstadisticasArranque getEstadisticasArranque() {
+        EstadisticasArranque e = estadisticasArranque;
+        return e == EstadisticasArranque.VACIO ? e : e.conEspera(esperaMaxima.get() / 1e6);
+    }
+
+    /**
+     * Instantánea del pool para monitorización (conexiones activas, hilos en
+     * espera, tiempos medios de adquisición...).
+     *
+     * @return estadísticas actuales o {@link EstadisticasPool#VACIO} si el
+     * pool no está disponible.
+     */
+    public static EstadisticasPool getEstadisticasPool() {
+        HikariDataSource ds = dataSource;
+        if (ds == null || ds.isClosed()) {
+            return EstadisticasPool.VACIO;
+        }
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        return new EstadisticasPool(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(),
+                ds.getMaximumPoolSize(),
+                ds.getMinimumIdle(),
+                metricasPool.getAdquisiciones(),
+                metricasPool.getEsperaMediaMs(),
+                metricasPool.getEsperaMaximaMs(),
+                metricasPool.getUsoMedioMs(),
+                metricasPool.getTimeouts());
+    }
+
+    /**
+     * Aciertos/fallos de la caché de segundo nivel desde el arranque
+     * (requiere hibernate.generate_statistics = true).
+     *
+     * @return estadísticas actuales o {@link EstadisticasCache#VACIO} si
+     * Hibernate no está disponible.
+     */
+    public static EstadisticasCache getEstadisticasCache() {
+        if (!isAvailable()) {
+            return EstadisticasCache.VACIO;
+        }
+        Statistics stats = sessionFactory.getStatistics();
+        return new EstadisticasCache(
+                stats.getSecondLevelCacheHitCount(),
+                stats.getSecondLevelCacheMissCount(),
+                stats.getSecondLevelCachePutCount(),
+                stats.getNaturalIdCacheHitCount(),
+                stats.getNaturalIdCacheMissCount(),
+                stats.getQueryCacheHitCount(),
+                stats.getQueryCacheMissCount());
+    }
+
+    /**
+     * Expulsa de la caché de segundo nivel una entidad y las resoluciones de
+     * id natural de su tipo. Los DAOs lo llaman cuando una escritura falla
+     * (o se hace fuera de una Session normal) para no servir datos que no
+     * coinciden con la BD.
+     *
+     * @param entidad clase cacheada (Oveja, Usuario).
+     * @param id clave primaria; null expulsa todas las entidades del tipo.
+     */
+    public static void evictarCache(Class<?> entidad, Object id) {
+        if (!isAvailable()) {
+            return;
+        }
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        if (id != null) {
+            cache.evictEntityData(entidad, id);
+        } else {
+            cache.evictEntityData(entidad);
+        }
+        cache.evictNaturalIdData(entidad);
+    }
+
+    /**
+     * Registra una tarea a ejecutar en {@link #shutdown()} antes de cerrar
+     * la SessionFactory (p.ej. volcar escrituras diferidas). Los shutdown
+     * hooks de Java no tienen orden, así que quien necesite BD al cerrar se
+     * engancha aquí en vez de registrar su propio hook.
+     *
+     * @param tarea trabajo que aún puede abrir sesiones.
+     */
+    public static void alCerrar(Runnable tarea) {
+        tareasAlCerrar.add(tarea);
+    }
+
+    /**
+     * Cierra SessionFactory y pool graceful (solo si inicializados). Libera
      * conexiones MySQL, previene "Too many connections".
      */
-    public static void shutdown() {
+    public static synchronized void shutdown() {
+        for (Runnable tarea : tareasAlCerrar) {
+            try {
+                tarea.run();
+            } catch (Exception ex) {
+                System.err.println("Error en tarea de cierre: " + ex.getMessage());
+            }
+        }
+        tareasAlCerrar.clear();
         if (sessionFactory != null && !sessionFactory.isClosed()) {
             try {
+                System.out.println("Cerrando caché: " + getEstadisticasCache());
                 sessionFactory.close();
                 System.out.println("Hibernate SessionFactory cerrada");
             } catch (Exception ex) {
                 System.err.println("Error shutdown: " + ex.getMessage());
             }
         }
+        if (dataSource != null && !dataSource.isClosed()) {
+            System.out.println("Cerrando pool: " + getEstadisticasPool());
+            dataSource.close();
+        }
     }
 
     /**
-     * Estado diagnóstico (debug desarrollo).
+     * Estado diagnóstico (debug desarrollo). No espera al arranque: mientras
+     * dura devuelve false.
      *
      * @return true si Hibernate listo para DAOs.
      */
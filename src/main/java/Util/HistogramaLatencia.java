@@ -0,0 +1,82 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin bloqueo: cubetas de potencias de dos en
+ * milisegundos (cubeta 0 = menos de 1 ms, cubeta i = [2^(i-1), 2^i) ms, la
+ * última sin límite superior), cada una un LongAdder. Registrar es O(1) y no
+ * compite entre hilos; los percentiles son el límite superior de la cubeta
+ * (error máximo x2, suficiente para ver si BCrypt tarda 100 ms o 1 s).
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HashCredenciales#getEstadisticas()
+ */
+final class HistogramaLatencia {
+
+    /** Cubetas: la última recoge todo lo que pase de 2^(CUBETAS-2) ms (~16 s). */
+    static final int CUBETAS = 16;
+
+    private final LongAdder[] cubetas = new LongAdder[CUBETAS];
+
+    private final LongAdder sumaNanos = new LongAdder();
+
+    private final LongAccumulator maximaNanos = new LongAccumulator(Math::max, 0);
+
+    HistogramaLatencia() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cubetas[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos duración de una operación.
+     */
+    void registrar(long nanos) {
+        long ms = nanos / 1_000_000;
+        int cubeta = ms == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(ms), CUBETAS - 1);
+        cubetas[cubeta].increment();
+        sumaNanos.add(nanos);
+        maximaNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return instantánea de las latencias registradas.
+     */
+    EstadisticasHash.Latencias instantanea() {
+        long[] n = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            n[i] = cubetas[i].sum();
+            total += n[i];
+        }
+        double media = total == 0 ? 0.0 : sumaNanos.sum() / (total * 1_000_000.0);
+        double maxima = maximaNanos.get() / 1_000_000.0;
+        return new EstadisticasHash.Latencias(total, media,
+                percentil(n, total, 0.50, maxima), percentil(n, total, 0.95, maxima),
+                percentil(n, total, 0.99, maxima), maxima, n);
+    }
+
+    /** Límite superior (ms) de la cubeta donde cae el percentil. */
+    private static double percentil(long[] n, long total, double p, double maxima) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long objetivo = (long) Math.ceil(p * total);
+        long acumulado = 0;
+        for (int i = 0; i < n.length; i++) {
+            acumulado += n[i];
+            if (acumulado >= objetivo) {
+                // No dar un límite mayor que el máximo observado
+                return i == n.length - 1 ? maxima : Math.min(1L << i, maxima);
+            }
+        }
+        return maxima;
+    }
+}
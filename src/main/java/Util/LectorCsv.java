@@ -0,0 +1,154 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV en streaming: devuelve un registro cada vez sin cargar el
+ * fichero en memoria, así que sirve igual para 100 que para 1M de filas.
+ *
+ * Soporta campos entre comillas dobles (con separadores, saltos de línea y
+ * comillas escapadas como ""), BOM UTF-8 inicial y separador ';' o ','
+ * (Excel en español exporta con ';').
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+public class LectorCsv implements Closeable {
+
+    private final BufferedReader lector;
+
+    /** Separador de campos; 0 = se detecta en la primera línea. */
+    private char separador;
+
+    /** Línea física donde empieza el último registro leído (1 = primera). */
+    private long linea;
+
+    /** Líneas físicas consumidas hasta ahora. */
+    private long lineasLeidas;
+
+    /**
+     * Lector con separador detectado en la primera línea (cabecera).
+     *
+     * @param lector origen de datos.
+     */
+    public LectorCsv(Reader lector) {
+        this(lector, (char) 0);
+    }
+
+    /**
+     * @param lector origen de datos (se envuelve en BufferedReader si hace
+     * falta).
+     * @param separador separador de campos (';' o ',').
+     */
+    public LectorCsv(Reader lector, char separador) {
+        this.lector = lector instanceof BufferedReader br ? br : new BufferedReader(lector, 64 * 1024);
+        this.separador = separador;
+    }
+
+    /**
+     * Elige ';' si aparece en la cabecera y ',' en caso contrario.
+     *
+     * @param cabecera primera línea del fichero.
+     * @return separador detectado.
+     */
+    private static char detectarSeparador(String cabecera) {
+        return cabecera != null && cabecera.indexOf(';') >= 0 ? ';' : ',';
+    }
+
+    /**
+     * Lee el siguiente registro. Las líneas en blanco se saltan.
+     *
+     * @return campos del registro (sin recortar) o null al final del
+     * fichero.
+     * @throws IOException si falla la lectura o hay comillas sin cerrar.
+     */
+    public String[] siguiente() throws IOException {
+        String actual = leerLinea();
+        while (actual != null && actual.isBlank()) {
+            actual = leerLinea();
+        }
+        if (actual == null) {
+            return null;
+        }
+        linea = lineasLeidas;
+        if (separador == 0) {
+            separador = detectarSeparador(actual);
+        }
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        int i = 0;
+        while (true) {
+            if (i == actual.length()) {
+                if (!entreComillas) {
+                    break;
+                }
+                // Campo entre comillas que continúa en la línea siguiente
+                String resto = leerLinea();
+                if (resto == null) {
+                    throw new IOException("Comillas sin cerrar en el registro de la línea " + linea);
+                }
+                campo.append('\n');
+                actual = resto;
+                i = 0;
+                continue;
+            }
+            char c = actual.charAt(i++);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i < actual.length() && actual.charAt(i) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * @return línea física (1 = primera) donde empieza el último registro
+     * devuelto por {@link #siguiente()}.
+     */
+    public long getLinea() {
+        return linea;
+    }
+
+    private String leerLinea() throws IOException {
+        String l = lector.readLine();
+        if (l != null) {
+            if (lineasLeidas == 0 && !l.isEmpty() && l.charAt(0) == '\uFEFF') {
+                l = l.substring(1);
+            }
+            lineasLeidas++;
+        }
+        return l;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lector.close();
+    }
+}
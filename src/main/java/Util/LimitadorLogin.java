@@ -0,0 +1,143 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de intentos de login fallidos por usuario:
+ * {@value #LIMITE_USUARIO} fallos cada {@value #VENTANA_USUARIO_MS} ms. Se
+ * consulta antes de ir a BD y de calcular BCrypt: un script de fuerza bruta
+ * se corta sin gastar CPU ni conexiones.
+ *
+ * No hay límite por equipo: en la aplicación de escritorio todos los logins
+ * salen del mismo puesto, y un contador común dejaría que unos pocos fallos
+ * con nombres inventados bloquearan a todos los usuarios de ese puesto.
+ *
+ * Cada intento reserva una unidad con {@link #adquirir}; si el login es
+ * correcto {@link #exito} la devuelve, así que solo cuentan los fallos y
+ * nunca se bloquea a quien acierta. El contador es una
+ * {@link VentanaDeslizante} de memoria fija: no crece con el número de
+ * usuarios probados.
+ *
+ * Uso:
+ *
+ * limitador.adquirir(username);  // lanza IntentosExcedidosException
+ * ... if (ok) limitador.exito(username);
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see Servicio.UsuarioService#loginAsync(String, String)
+ */
+public final class LimitadorLogin {
+
+    /**
+     * Intento rechazado por el limitador, antes de consultar BD.
+     */
+    public static class IntentosExcedidosException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long segundosEspera;
+
+        public IntentosExcedidosException(String mensaje, long segundosEspera) {
+            super(mensaje);
+            this.segundosEspera = segundosEspera;
+        }
+
+        /**
+         * @return segundos aproximados hasta poder reintentar.
+         */
+        public long getSegundosEspera() {
+            return segundosEspera;
+        }
+    }
+
+    public static final int LIMITE_USUARIO = 5;
+    public static final long VENTANA_USUARIO_MS = 5 * 60_000L;
+
+    /** Celdas por fila: 2 filas x 4096 longs = 64 KB. */
+    private static final int CELDAS = 4096;
+
+    private static final LimitadorLogin INSTANCIA = new LimitadorLogin(VENTANA_USUARIO_MS, LIMITE_USUARIO);
+
+    private final VentanaDeslizante porUsuario;
+
+    private final LongAdder admitidos = new LongAdder();
+
+    private final LongAdder rechazados = new LongAdder();
+
+    /** Solo para pruebas; la aplicación usa {@link #getInstancia()}. */
+    LimitadorLogin(long ventanaMs, int limite) {
+        this.porUsuario = new VentanaDeslizante(CELDAS, ventanaMs, limite);
+    }
+
+    /**
+     * @return limitador único de la aplicación.
+     */
+    public static LimitadorLogin getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Reserva un intento para el usuario.
+     *
+     * @param username usuario tecleado (sin distinguir mayúsculas).
+     * @throws IntentosExcedidosException si supera su límite (el intento no
+     * cuenta).
+     */
+    public void adquirir(String username) {
+        adquirir(username, System.currentTimeMillis());
+    }
+
+    void adquirir(String username, long ahora) {
+        String usuario = normalizar(username);
+        if (!porUsuario.adquirir(usuario, ahora)) {
+            rechazados.increment();
+            throw new IntentosExcedidosException("Demasiados intentos para " + usuario,
+                    segundos(porUsuario.msHastaSiguienteVentana(ahora)));
+        }
+        admitidos.increment();
+    }
+
+    /**
+     * Devuelve la reserva de un intento que no debe contar (login correcto o
+     * error ajeno a las credenciales).
+     *
+     * @param username usuario de {@link #adquirir}.
+     */
+    public void exito(String username) {
+        exito(username, System.currentTimeMillis());
+    }
+
+    void exito(String username, long ahora) {
+        porUsuario.liberar(normalizar(username), ahora);
+    }
+
+    /** @return intentos admitidos desde el arranque. */
+    public long getAdmitidos() {
+        return admitidos.sum();
+    }
+
+    /** @return intentos rechazados por el límite de usuario. */
+    public long getRechazados() {
+        return rechazados.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "LimitadorLogin[admitidos=" + getAdmitidos() + ", rechazados=" + getRechazados() + "]";
+    }
+
+    /** MySQL compara usernames sin distinguir mayúsculas: "Ana" y "ana" son el mismo. */
+    private static String normalizar(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long segundos(long ms) {
+        return (ms + 999) / 1000;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acumulador de métricas del pool HikariCP. Hikari invoca el tracker en cada
+ * préstamo/devolución de conexión; aquí solo se suman contadores sin bloqueo
+ * (LongAdder) para no penalizar el camino caliente.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see HibernateUtil#getEstadisticasPool()
+ */
+final class MetricasPool implements MetricsTrackerFactory {
+
+    /** Conexiones entregadas por el pool. */
+    private final LongAdder adquisiciones = new LongAdder();
+
+    /** Suma de nanosegundos esperando conexión. */
+    private final LongAdder esperaTotalNanos = new LongAdder();
+
+    /** Peor espera observada (nanosegundos). */
+    private final LongAccumulator esperaMaximaNanos = new LongAccumulator(Math::max, 0);
+
+    /** Conexiones devueltas al pool. */
+    private final LongAdder usos = new LongAdder();
+
+    /** Suma de milisegundos que las conexiones estuvieron prestadas. */
+    private final LongAdder usoTotalMillis = new LongAdder();
+
+    /** Peticiones que agotaron connectionTimeout sin obtener conexión. */
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                adquisiciones.increment();
+                esperaTotalNanos.add(elapsedAcquiredNanos);
+                esperaMaximaNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usos.increment();
+                usoTotalMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    long getAdquisiciones() {
+        return adquisiciones.sum();
+    }
+
+    double getEsperaMediaMs() {
+        long n = adquisiciones.sum();
+        return n == 0 ? 0.0 : esperaTotalNanos.sum() / (n * 1_000_000.0);
+    }
+
+    double getEsperaMaximaMs() {
+        return esperaMaximaNanos.get() / 1_000_000.0;
+    }
+
+    double getUsoMedioMs() {
+        long n = usos.sum();
+        return n == 0 ? 0.0 : (double) usoTotalMillis.sum() / n;
+    }
+
+    long getTimeouts() {
+        return timeouts.sum();
+    }
+}
@@ -4,45 +4,54 @@
  */
 package Util;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
- * Utilidad singleton para encriptación/verificación segura de contraseñas. Usa
- * BCrypt (OWASP recomendado) con salt automático strength=10. Cumple
- * requisitos: "contraseña encriptada" tabla usuarios.
+ * Utilidad para encriptación/verificación segura de contraseñas. Usa
+ * BCrypt (OWASP recomendado) con salt automático. Cumple requisitos:
+ * "contraseña encriptada" tabla usuarios.
+ *
+ * El cálculo lo hace {@link HashCredenciales} (pool acotado, coste único
+ * configurable); los métodos síncronos esperan su resultado y los *Async
+ * devuelven el futuro para no bloquear al llamante.
  *
  * @author Elena González
  * @version 1.0
  */
 public class PasswordEncoderUtil {
 
-    /**
-     * Encoder BCrypt configurado con strength=10 (balance
-     * seguridad/rendimiento).
-     */
-    private final BCryptPasswordEncoder encoder;
+    private final HashCredenciales hash;
 
     /**
-     * Constructor privado inicializa encoder estándar. Strength 10: ~100ms hash
-     * (seguro para web/desktop).
+     * Constructor estándar sobre el servicio de hash de la aplicación.
      */
     public PasswordEncoderUtil() {
-        this.encoder = new BCryptPasswordEncoder(10);
+        this.hash = HashCredenciales.getInstancia();
     }
 
     /**
-     * Encripta contraseña plana generando salt único. Formato: $2a$10$hash+salt
-     * (60 chars).
+     * Encripta contraseña plana generando salt único. Formato:
+     * $2a$coste$hash+salt (60 chars).
      *
      * @param rawPassword contraseña texto plano (UTF-8).
      * @return hash BCrypt irreversible.
      * @throws IllegalArgumentException si null/vacía.
+     * @throws java.util.concurrent.RejectedExecutionException si el servicio
+     * de hash está saturado.
      */
     public String encode(String rawPassword) {
-        if (rawPassword == null || rawPassword.trim().isEmpty()) {
-            throw new IllegalArgumentException("Contraseña no puede ser null o vacía");
-        }
-        return encoder.encode(rawPassword);
+        return esperar(encodeAsync(rawPassword));
+    }
+
+    /**
+     * Como {@link #encode(String)} sin bloquear.
+     *
+     * @param rawPassword contraseña texto plano.
+     * @return futuro con el hash.
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return hash.codificar(rawPassword);
     }
 
     /**
@@ -55,10 +64,29 @@ public class PasswordEncoderUtil {
      * @throws IllegalArgumentException si parámetros inválidos.
      */
     public boolean matches(String rawPassword, String encodedPassword) {
-        if (rawPassword == null || encodedPassword == null) {
-            throw new IllegalArgumentException("Parámetros no pueden ser null");
-        }
-        return encoder.matches(rawPassword, encodedPassword);
+        return esperar(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Como {@link #matches(String, String)} sin bloquear.
+     *
+     * @param rawPassword candidata (texto plano).
+     * @param encodedPassword hash BCrypt almacenado.
+     * @return futuro con true si coinciden.
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        return hash.verificar(rawPassword, encodedPassword);
+    }
+
+    /**
+     * Indica si un hash válido se debería rehacer (coste menor que el
+     * vigente) aprovechando que se conoce la contraseña tras un login.
+     *
+     * @param encodedPassword hash BCrypt almacenado.
+     * @return true si conviene volver a codificar.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return hash.necesitaRehash(encodedPassword);
     }
 
     /**
@@ -70,4 +98,16 @@ public class PasswordEncoderUtil {
     public boolean isValidHash(String hash) {
         return hash != null && hash.matches("^\\$2[ayb]?\\$\\d{2}\\$[\\./A-Za-z0-9]{53}");
     }
+
+    /** Espera el futuro y relanza la causa original (no CompletionException). */
+    private static <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
 }
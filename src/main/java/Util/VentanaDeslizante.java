@@ -0,0 +1,169 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de ventana deslizante por clave, sin cerrojos y con memoria fija.
+ *
+ * Cada clave cae en una celda de cada una de {@value #FILAS} filas (hash con
+ * semilla aleatoria por proceso, para que no se puedan fabricar colisiones
+ * contra un usuario concreto) y su cuenta es la menor de sus celdas, como en
+ * un count-min sketch: dos claves solo se suman si chocan en todas las
+ * filas. Cada celda es un long en un AtomicLongArray que empaqueta (índice
+ * de ventana, cuenta de la ventana anterior, cuenta de la actual) y se
+ * actualiza con CAS.
+ *
+ * La ventana deslizante se aproxima con las dos ventanas fijas: cuenta =
+ * actual + anterior * (parte de la ventana anterior que aún se solapa). Las
+ * celdas de ventanas viejas valen 0 al leerlas, así que no hay que purgar
+ * nada.
+ *
+ * Sin cerrojos el límite es aproximado: con varios intentos simultáneos de
+ * la misma clave puede admitirse alguno de más (como mucho uno por hilo
+ * concurrente), nunca de menos.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see LimitadorLogin
+ */
+final class VentanaDeslizante {
+
+    private static final int FILAS = 2;
+
+    private static final int MAXIMO_CUENTA = 0xFFFF;
+
+    private final AtomicLongArray celdas;
+
+    private final int celdasPorFila;
+
+    private final long ventanaMs;
+
+    private final int limite;
+
+    private final long semilla = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * @param celdasPorFila potencia de dos.
+     * @param ventanaMs duración de la ventana (&gt;= 1 s).
+     * @param limite intentos admitidos por ventana.
+     */
+    VentanaDeslizante(int celdasPorFila, long ventanaMs, int limite) {
+        if (Integer.bitCount(celdasPorFila) != 1 || ventanaMs < 1000 || limite < 1) {
+            throw new IllegalArgumentException("Configuración de ventana no válida");
+        }
+        this.celdas = new AtomicLongArray(FILAS * celdasPorFila);
+        this.celdasPorFila = celdasPorFila;
+        this.ventanaMs = ventanaMs;
+        this.limite = limite;
+    }
+
+    long getVentanaMs() {
+        return ventanaMs;
+    }
+
+    int getLimite() {
+        return limite;
+    }
+
+    /**
+     * Suma un intento a la clave si no supera el límite.
+     *
+     * @param clave clave normalizada.
+     * @param ahora instante en ms.
+     * @return true si se admite (y queda contado); false si se rechaza (no
+     * cuenta).
+     */
+    boolean adquirir(String clave, long ahora) {
+        long h = hash(clave);
+        int a = (int) h & (celdasPorFila - 1);
+        int b = celdasPorFila + ((int) (h >>> 32) & (celdasPorFila - 1));
+        int ventana = (int) (ahora / ventanaMs);
+        double solape = 1.0 - (double) (ahora % ventanaMs) / ventanaMs;
+        double cuenta = Math.min(incrementar(a, ventana, solape), incrementar(b, ventana, solape));
+        if (cuenta > limite) {
+            decrementar(a, ventana);
+            decrementar(b, ventana);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Descuenta un intento admitido (p.ej. login correcto). Si la ventana ya
+     * cambió no hace nada: el intento se queda en la ventana anterior.
+     *
+     * @param clave clave normalizada.
+     * @param ahora instante en ms.
+     */
+    void liberar(String clave, long ahora) {
+        long h = hash(clave);
+        int ventana = (int) (ahora / ventanaMs);
+        decrementar((int) h & (celdasPorFila - 1), ventana);
+        decrementar(celdasPorFila + ((int) (h >>> 32) & (celdasPorFila - 1)), ventana);
+    }
+
+    /**
+     * @param ahora instante en ms.
+     * @return ms hasta que empiece la siguiente ventana.
+     */
+    long msHastaSiguienteVentana(long ahora) {
+        return ventanaMs - ahora % ventanaMs;
+    }
+
+    /** @return cuenta estimada tras sumar uno en la celda i. */
+    private double incrementar(int i, int ventana, double solape) {
+        while (true) {
+            long v = celdas.get(i);
+            int w = (int) (v >>> 32);
+            int anterior;
+            int actual;
+            if (w == ventana) {
+                anterior = (int) (v >>> 16) & MAXIMO_CUENTA;
+                actual = (int) v & MAXIMO_CUENTA;
+            } else if (w == ventana - 1) {
+                anterior = (int) v & MAXIMO_CUENTA;
+                actual = 0;
+            } else {
+                anterior = 0;
+                actual = 0;
+            }
+            actual = Math.min(actual + 1, MAXIMO_CUENTA);
+            long nuevo = ((long) ventana << 32) | ((long) anterior << 16) | actual;
+            if (celdas.compareAndSet(i, v, nuevo)) {
+                return actual + anterior * solape;
+            }
+        }
+    }
+
+    private void decrementar(int i, int ventana) {
+        while (true) {
+            long v = celdas.get(i);
+            if ((int) (v >>> 32) != ventana || ((int) v & MAXIMO_CUENTA) == 0) {
+                return;
+            }
+            if (celdas.compareAndSet(i, v, v - 1)) {
+                return;
+            }
+        }
+    }
+
+    /** FNV-1a de 64 bits con semilla + mezcla final de MurmurHash3. */
+    private long hash(String clave) {
+        long h = semilla;
+        for (int i = 0; i < clave.length(); i++) {
+            h ^= clave.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
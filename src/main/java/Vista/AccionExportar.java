@@ -0,0 +1,97 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Vista;
+
+import Servicio.ExportadorDatos;
+import Servicio.ExportadorDatos.Formato;
+import Servicio.ResultadoExportacion;
+import Util.CargadorAsincrono;
+import Util.I18nUtil;
+import java.awt.Component;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.function.LongConsumer;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/**
+ * Botón "Exportar" compartido por OvejaPanel y EventoPanel: elige fichero y
+ * formato (CSV o JSON Lines según el filtro elegido) y exporta en segundo
+ * plano mostrando las filas escritas en el propio botón.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see ExportadorDatos
+ */
+final class AccionExportar {
+
+    /**
+     * Exportación concreta (ovejas o eventos).
+     */
+    @FunctionalInterface
+    interface Exportacion {
+
+        ResultadoExportacion exportar(Path destino, Formato formato, LongConsumer progreso) throws IOException;
+    }
+
+    private AccionExportar() {
+    }
+
+    /**
+     * Pide el fichero destino y exporta en segundo plano.
+     *
+     * @param padre componente para los diálogos.
+     * @param boton botón que lanza la acción (se deshabilita mientras dura).
+     * @param nombreBase nombre sugerido sin extensión.
+     * @param exportacion método del exportador a usar.
+     */
+    static void ejecutar(Component padre, JButton boton, String nombreBase, Exportacion exportacion) {
+        FileNameExtensionFilter csv = new FileNameExtensionFilter("CSV (;)", "csv");
+        FileNameExtensionFilter jsonl = new FileNameExtensionFilter("JSON Lines", "jsonl");
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(I18nUtil.get("exportar.chooser.title"));
+        chooser.addChoosableFileFilter(csv);
+        chooser.addChoosableFileFilter(jsonl);
+        chooser.setFileFilter(csv);
+        chooser.setSelectedFile(new File(nombreBase + ".csv"));
+        if (chooser.showSaveDialog(padre) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        // La extensión manda; si no hay, se añade la del filtro elegido
+        File elegido = chooser.getSelectedFile();
+        String nombre = elegido.getName();
+        if (!nombre.contains(".")) {
+            elegido = new File(elegido.getParentFile(), nombre + (chooser.getFileFilter() == jsonl ? ".jsonl" : ".csv"));
+        }
+        Path destino = elegido.toPath();
+        Formato formato = Formato.desde(destino);
+
+        String textoBoton = boton.getText();
+        boton.setEnabled(false);
+        CargadorAsincrono.ejecutar(p -> exportacion.exportar(destino, formato, filas
+                -> SwingUtilities.invokeLater(() -> boton.setText(
+                        MessageFormat.format(I18nUtil.get("exportar.progreso"), filas)))),
+                resultado -> {
+                    boton.setText(textoBoton);
+                    boton.setEnabled(true);
+                    JOptionPane.showMessageDialog(padre,
+                            MessageFormat.format(I18nUtil.get("exportar.success"), resultado.filas(), destino),
+                            I18nUtil.get("exportar.title"), JOptionPane.INFORMATION_MESSAGE);
+                }, e -> {
+                    boton.setText(textoBoton);
+                    boton.setEnabled(true);
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(padre,
+                            MessageFormat.format(I18nUtil.get("exportar.error"), e.getMessage()),
+                            I18nUtil.get("exportar.title"), JOptionPane.ERROR_MESSAGE);
+                });
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Vista;
+
+import Servicio.ImportadorCsv;
+import Servicio.ResultadoImportacion;
+import Util.CargadorAsincrono;
+import Util.I18nUtil;
+import java.awt.Component;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/**
+ * Botón "Importar CSV" compartido por OvejaPanel y EventoPanel: elige el
+ * fichero, lanza la importación en segundo plano, muestra el avance en el
+ * propio botón y al final un resumen con las primeras filas rechazadas, que
+ * se puede guardar como informe CSV.
+ *
+ * @author Elena González
+ * @version 1.0
+ * @see ImportadorCsv
+ */
+final class AccionImportarCsv {
+
+    /** Filas rechazadas que se listan en el diálogo de resumen. */
+    private static final int ERRORES_EN_DIALOGO = 15;
+
+    /**
+     * Importación concreta (ovejas o eventos).
+     */
+    @FunctionalInterface
+    interface Importacion {
+
+        ResultadoImportacion importar(Reader origen, ImportadorCsv.Progreso progreso) throws IOException;
+    }
+
+    private AccionImportarCsv() {
+    }
+
+    /**
+     * Pide el fichero e importa en segundo plano.
+     *
+     * @param padre componente para los diálogos.
+     * @param boton botón que lanza la acción (se deshabilita mientras dura).
+     * @param importacion método del importador a usar (las tablas se
+     * refrescan solas con el aviso que publica en {@link Util.BusCambios}).
+     */
+    static void ejecutar(Component padre, JButton boton, Importacion importacion) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(I18nUtil.get("importar.chooser.title"));
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV", "csv", "txt"));
+        if (chooser.showOpenDialog(padre) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path fichero = chooser.getSelectedFile().toPath();
+        String textoBoton = boton.getText();
+        boton.setEnabled(false);
+
+        CargadorAsincrono.ejecutar(p -> {
+            try (Reader lector = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+                return importacion.importar(lector, (leidas, importadas, erroneas)
+                        -> SwingUtilities.invokeLater(() -> boton.setText(
+                                MessageFormat.format(I18nUtil.get("importar.progreso"), leidas))));
+            }
+        }, resultado -> {
+            boton.setText(textoBoton);
+            boton.setEnabled(true);
+            mostrarResumen(padre, resultado);
+        }, e -> {
+            boton.setText(textoBoton);
+            boton.setEnabled(true);
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(padre,
+                    MessageFormat.format(I18nUtil.get("importar.error"), e.getMessage()),
+                    I18nUtil.get("importar.title"), JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    /**
+     * Resumen final; si hubo rechazos ofrece guardar el informe.
+     */
+    private static void mostrarResumen(Component padre, ResultadoImportacion resultado) {
+        if (resultado.erroneas() == 0) {
+            JOptionPane.showMessageDialog(padre, resumen(resultado), I18nUtil.get("importar.title"),
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        Object[] opciones = {I18nUtil.get("importar.informe.guardar"), UIManager.getString("OptionPane.okButtonText")};
+        int opcion = JOptionPane.showOptionDialog(padre, resumen(resultado), I18nUtil.get("importar.title"),
+                JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, opciones, opciones[1]);
+        if (opcion == 0) {
+            guardarInforme(padre, resultado);
+        }
+    }
+
+    /**
+     * Guarda las filas rechazadas en CSV (linea;clave;motivo).
+     */
+    private static void guardarInforme(Component padre, ResultadoImportacion resultado) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(I18nUtil.get("importar.informe.guardar"));
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV", "csv"));
+        if (chooser.showSaveDialog(padre) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path destino = chooser.getSelectedFile().toPath();
+        if (!destino.getFileName().toString().contains(".")) {
+            destino = destino.resolveSibling(destino.getFileName() + ".csv");
+        }
+        Path fichero = destino;
+        CargadorAsincrono.ejecutar(p -> {
+            try (Writer escritor = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8)) {
+                resultado.escribirInforme(escritor);
+            }
+            return fichero;
+        }, f -> JOptionPane.showMessageDialog(padre,
+                MessageFormat.format(I18nUtil.get("importar.informe.guardado"), f),
+                I18nUtil.get("importar.title"), JOptionPane.INFORMATION_MESSAGE),
+                e -> JOptionPane.showMessageDialog(padre,
+                        MessageFormat.format(I18nUtil.get("importar.error"), e.getMessage()),
+                        I18nUtil.get("importar.title"), JOptionPane.ERROR_MESSAGE));
+    }
+
+    private static String resumen(ResultadoImportacion r) {
+        StringBuilder sb = new StringBuilder(MessageFormat.format(I18nUtil.get("importar.resumen"),
+                r.leidas(), r.importadas(), r.erroneas()));
+        if (!r.errores().isEmpty()) {
+            sb.append("\n\n").append(I18nUtil.get("importar.errores"));
+            r.errores().stream().limit(ERRORES_EN_DIALOGO).forEach(e -> sb.append("\n  ")
+                    .append(e.linea()).append(": ").append(e.clave()).append(" - ").append(e.motivo()));
+            if (r.erroneas() > ERRORES_EN_DIALOGO) {
+                sb.append("\n  ...");
+            }
+        }
+        return sb.toString();
+    }
+}
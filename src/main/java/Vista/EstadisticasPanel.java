@@ -4,37 +4,31 @@
  */
 package Vista;
 
+import DAO.AgregadorRebano;
 import DAO.OvejaDAO;
 import DAO.EventoDAO;
-import Modelo.Oveja;
+import Modelo.CensoColumnar;
+import Modelo.EstadisticasRebano;
+import Servicio.InformeEstadisticasPdf;
+import Servicio.PlantillaInforme;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
-import org.jfree.chart.ChartUtils;
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
-import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
 import java.time.format.DateTimeFormatter;
-import org.jfree.chart.plot.PlotOrientation;
+import Util.BusCambios;
+import Util.CargadorAsincrono;
 import Util.I18nUtil;
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -55,6 +49,11 @@ import java.text.MessageFormat;
  */
 public class EstadisticasPanel extends JPanel {
     
+    /**
+     * Tramos del histograma de pesos.
+     */
+    private static final int CUBETAS_PESO = 10;
+
     /**
      * Contenedor principal para los paneles de gráficos JFreeChart.
      */
@@ -64,6 +63,11 @@ public class EstadisticasPanel extends JPanel {
      * DAO para acceso a datos de ovejas.
      */
     private final OvejaDAO ovejaDAO = new OvejaDAO();
+
+    /**
+     * DAO de eventos (historiales de las fichas del informe).
+     */
+    private final EventoDAO eventoDAO = new EventoDAO();
     
     /**
      * Panel que contiene los 4 KPIs principales en layout 2x2.
@@ -76,18 +80,103 @@ public class EstadisticasPanel extends JPanel {
     private JLabel[] kpiLabels;
     
     private ResourceBundle bundle;
+
+    /**
+     * Canal de carga de KPIs: un refresco nuevo descarta el anterior.
+     */
+    private final CargadorAsincrono cargador = new CargadorAsincrono();
+
+    /**
+     * Canal de exportación PDF (consulta + render fuera del EDT).
+     */
+    private final CargadorAsincrono cargadorPdf = new CargadorAsincrono();
+
+    /**
+     * Generador del informe PDF (gráficos en paralelo + caché de imágenes).
+     */
+    private final InformeEstadisticasPdf informePdf = new InformeEstadisticasPdf();
+
+    /**
+     * Última instantánea mostrada; el PDF se genera con ella.
+     */
+    private EstadisticasRebano ultimasEstadisticas;
+
+    /**
+     * Barra de progreso de cargas/exportación (oculta en reposo).
+     */
+    private JProgressBar barraProgreso;
+
+    /**
+     * Hubo cambios con el panel oculto: se refresca al volver a mostrarlo.
+     */
+    private boolean kpisDesactualizados;
+
+    /**
+     * Suscripción al bus de cambios mientras el panel está en pantalla.
+     */
+    private BusCambios.Suscripcion suscripcion;
+
+    /**
+     * Censo columnar del gráfico de pesos (solo EDT). Cargarlo recorre toda
+     * la tabla oveja, así que solo se hace al crear el panel y con el botón
+     * Actualizar, no con cada ráfaga del bus.
+     */
+    private CensoColumnar censo;
+
+    /**
+     * Hay una recarga del censo pedida y aún sin entregar: si otro refresco
+     * la sustituye en el canal, ese refresco la hereda.
+     */
+    private boolean censoPendiente;
+
+    /** Resultado de una carga: KPIs y, si hizo falta recargarlo, el censo. */
+    private record Datos(EstadisticasRebano stats, CensoColumnar censo) {
+    }
     
     /**
      * Constructor principal del panel de estadísticas.
      * 
      * Inicializa la interfaz gráfica con GridBagLayout, crea título,
      * panel de KPIs, botones de acción y contenedor de gráficos.
-     * Llama a {@link #actualizarEstadisticas()} para carga inicial de datos.
+     * Llama a {@link #actualizarEstadisticas(boolean)} para carga inicial de datos
+     * (asíncrona: el constructor no espera a la BD).
      */
     public EstadisticasPanel() {
         bundle = ResourceBundle.getBundle("messages", Locale.forLanguageTag("es"));
         initComponents();
-        actualizarEstadisticas();
+        actualizarEstadisticas(true);
+        addAncestorListener(new AncestorListener() {
+            @Override
+            public void ancestorAdded(AncestorEvent event) {
+                if (kpisDesactualizados) {
+                    actualizarEstadisticas(false);
+                }
+            }
+            @Override public void ancestorRemoved(AncestorEvent event) {}
+            @Override public void ancestorMoved(AncestorEvent event) {}
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        // KPIs en memoria (AgregadorRebano): refrescar por cada ráfaga es barato
+        suscripcion = BusCambios.getInstancia().suscribir(cambios -> {
+            if (isShowing()) {
+                actualizarEstadisticas(false);
+            } else {
+                kpisDesactualizados = true;
+            }
+        }, true);
+    }
+
+    @Override
+    public void removeNotify() {
+        if (suscripcion != null) {
+            suscripcion.cancelar();
+            suscripcion = null;
+        }
+        super.removeNotify();
     }
 
     /**
@@ -97,7 +186,7 @@ public class EstadisticasPanel extends JPanel {
      * -Título principal centrado.
      * -Panel de 4 KPIs con GridLayout 2x2.
      * -Botones "Actualizar" y "PDF Exportar" con mnemonics.
-     * -Contenedor para dos gráficos (sexo y razas).
+     * -Contenedor 2x2 para los gráficos (sexo, razas, activas y pesos).
      * Usa GridBagLayout para responsive design.
      */
     private void initComponents() {
@@ -135,7 +224,7 @@ public class EstadisticasPanel extends JPanel {
         JPanel botonesPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 5));
         JButton btnActualizar = new JButton(I18nUtil.get("estadistica.btn.actualizar"));
         btnActualizar.setMnemonic('A');
-        btnActualizar.addActionListener(e -> actualizarEstadisticas());
+        btnActualizar.addActionListener(e -> actualizarEstadisticas(true));
         
         // Botón exportar a PDF
         JButton btnPDF = new JButton(I18nUtil.get("estadistica.btn.pdf"));
@@ -145,50 +234,89 @@ public class EstadisticasPanel extends JPanel {
         botonesPanel.add(btnActualizar);
         botonesPanel.add(btnPDF);
 
+        barraProgreso = new JProgressBar(0, 100);
+        barraProgreso.setVisible(false);
+        botonesPanel.add(barraProgreso);
+
         kpiContainer.add(kpiPanel, BorderLayout.CENTER);
         kpiContainer.add(botonesPanel, BorderLayout.SOUTH);
         add(kpiContainer, c);
         
         // Contenedor de gráficos
         c.gridy = 2; c.gridwidth = 2; c.weightx = 1.0; c.weighty = 1.0;
-        chartPanelContainer = new JPanel(new GridLayout(1, 3, 10, 10));  
+        chartPanelContainer = new JPanel(new GridLayout(2, 2, 10, 10));
         chartPanelContainer.setBorder(BorderFactory.createTitledBorder(I18nUtil.get("estadistica.border.graficos")));
         add(chartPanelContainer, c);
     }
 
     /**
-     * Actualiza todos los KPIs y gráficos con datos frescos de la BD.
+     * Actualiza todos los KPIs y gráficos.
      * 
-     * - Carga lista completa de ovejas.
-     * - Actualiza los 4 labels de KPIs.
-     * - Regenera y reemplaza gráficos de sexo y razas.
-     * - Refresca UI con revalidate/repaint.
+     * - Obtiene la instantánea de {@link AgregadorRebano} (en memoria; solo
+     *   la primera vez consulta la BD) en segundo plano vía
+     *   {@link CargadorAsincrono}.
+     * - Si se pide, recarga también el {@link CensoColumnar} del gráfico de
+     *   pesos (consulta a toda la tabla oveja).
+     * - Al terminar, {@link #mostrarEstadisticas} actualiza KPIs y gráficos.
+     *
+     * @param recargarCenso true al crear el panel y con el botón Actualizar.
+     */
+    private void actualizarEstadisticas(boolean recargarCenso) {
+        kpisDesactualizados = false;
+        censoPendiente |= recargarCenso;
+        final boolean conCenso = censoPendiente;
+        barraProgreso.setIndeterminate(true);
+        barraProgreso.setVisible(true);
+        cargador.cargar(p -> new Datos(AgregadorRebano.getInstancia().instantanea(),
+                conCenso ? ovejaDAO.cargarCensoColumnar() : null), datos -> {
+            barraProgreso.setVisible(false);
+            if (datos.censo() != null) {
+                censo = datos.censo();
+                censoPendiente = false;
+            }
+            mostrarEstadisticas(datos.stats());
+        }, e -> {
+            barraProgreso.setVisible(false);
+            censoPendiente = false;
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this,
+                    String.format(I18nUtil.get("estadistica.stats.error"), e.getMessage()),
+                    I18nUtil.get("estadistica.stats.error"), JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    /**
+     * Pinta KPIs y gráficos a partir de la instantánea (en el EDT).
+     *
+     * @param stats estadísticas recién cargadas.
      */
-    private void actualizarEstadisticas() {
+    private void mostrarEstadisticas(EstadisticasRebano stats) {
+        ultimasEstadisticas = stats;
         try {
-            List<Oveja> ovejas = ovejaDAO.listarTodas();
-           
             // Actualizar KPIs usando acceso directo a componentes
             MessageFormat fmtTotal = new MessageFormat(I18nUtil.get("estadistica.kpi.total"));
-            kpiLabels[0].setText(fmtTotal.format(new Object[]{contarTotal()}));
+            kpiLabels[0].setText(fmtTotal.format(new Object[]{stats.total()}));
             
             MessageFormat fmtEventos = new MessageFormat(I18nUtil.get("estadistica.kpi.eventos"));
-            kpiLabels[1].setText(fmtEventos.format(new Object[]{calcularEventosMes()}));
+            kpiLabels[1].setText(fmtEventos.format(new Object[]{stats.eventosMes()}));
 
             MessageFormat fmtPeso = new MessageFormat(I18nUtil.get("estadistica.kpi.peso"));
-            kpiLabels[2].setText(fmtPeso.format(new Object[]{calcularPesoMedio(ovejas)}));
+            kpiLabels[2].setText(fmtPeso.format(new Object[]{stats.pesoMedio()}));
 
             MessageFormat fmtHembras = new MessageFormat(I18nUtil.get("estadistica.kpi.hembras"));
-            kpiLabels[3].setText(fmtHembras.format(new Object[]{contarHembras(ovejas)}));
+            kpiLabels[3].setText(fmtHembras.format(new Object[]{stats.hembras()}));
 
             MessageFormat fmtActivas = new MessageFormat(I18nUtil.get("estadistica.kpi.activas"));
-            kpiLabels[4].setText(fmtActivas.format(new Object[]{contarActivas(), contarTotal()}));
+            kpiLabels[4].setText(fmtActivas.format(new Object[]{stats.activas(), stats.total()}));
 
             // Actualizar Gráficos
             chartPanelContainer.removeAll();
-            chartPanelContainer.add(crearGraficoSexo(ovejas));        
-            chartPanelContainer.add(crearGraficoRazas(ovejas));       
-            chartPanelContainer.add(crearGraficoActivas());            
+            chartPanelContainer.add(crearGraficoSexo(stats));        
+            chartPanelContainer.add(crearGraficoRazas(stats));       
+            chartPanelContainer.add(crearGraficoActivas(stats));
+            if (censo != null) {
+                chartPanelContainer.add(crearGraficoPesos(censo));
+            }
 
             chartPanelContainer.revalidate();
             chartPanelContainer.repaint();
@@ -201,38 +329,16 @@ public class EstadisticasPanel extends JPanel {
         }
     }
 
-    /**
-     * Calcula el peso medio actual de todas las ovejas del rebaño.
-     * 
-     * @param ovejas lista completa de ovejas cargadas de BD
-     * @return peso medio en kg (0.0 si lista vacía o error)
-     */
-    private double calcularPesoMedio(List<Oveja> ovejas) {
-        return ovejas.stream()
-                .mapToDouble(o -> o.getPesoActual().doubleValue())
-                .average().orElse(0.0);
-    }
-
-    /**
-     * Cuenta el número total de ovejas hembras en el rebaño.
-     * 
-     * @param ovejas lista completa de ovejas
-     * @return cantidad de ovejas con sexo "H"
-     */
-    private long contarHembras(List<Oveja> ovejas) {
-        return ovejas.stream().filter(o -> "H".equals(o.getSexo())).count();
-    }
-
     /**
      * Crea gráfico circular (PieChart) de distribución por sexo.
      * 
-     * @param ovejas lista de ovejas para contar hembras/machos
+     * @param stats instantánea con hembras/machos activos
      * @return ChartPanel listo para añadir al contenedor
      */
-    private ChartPanel crearGraficoSexo(List<Oveja> ovejas) {
-        DefaultPieDataset dataset = new DefaultPieDataset();
-        long hembras = ovejas.stream().filter(o -> "H".equals(o.getSexo())).count();
-        long machos = ovejas.size() - hembras;
+    private ChartPanel crearGraficoSexo(EstadisticasRebano stats) {
+        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
+        long hembras = stats.hembras();
+        long machos = stats.machos();
 
         dataset.setValue(I18nUtil.get("estadistica.grafico.sexo.hembras") + " (" + hembras + ")", hembras);
         dataset.setValue(I18nUtil.get("estadistica.grafico.sexo.machos") + " (" + machos + ")", machos);
@@ -243,29 +349,14 @@ public class EstadisticasPanel extends JPanel {
     }
 
     /**
-     * Crea gráfico de barras de ovejas agrupadas por raza.
+     * Crea gráfico de barras de ovejas activas agrupadas por raza.
      * 
-     * @param ovejas lista de ovejas para agrupar por raza
+     * @param stats instantánea con el conteo por raza (GROUP BY en BD)
      * @return ChartPanel listo para añadir al contenedor
      */
-    private ChartPanel crearGraficoRazas(List<Oveja> ovejas) {
+    private ChartPanel crearGraficoRazas(EstadisticasRebano stats) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        List<Oveja> ovejasActivas = ovejas.stream()
-                .filter(o -> o != null && o.isActivo()) // Null-safe + activas
-                .collect(Collectors.toList());
-
-        // Agrupamos por raza y contamos
-        Map<String, Long> conteoRazas = ovejasActivas.stream()
-                .filter(o -> o.getRaza() != null) 
-                .collect(Collectors.groupingBy(Oveja::getRaza, Collectors.counting()));
-       
-        long sinRaza = ovejasActivas.stream().filter(o -> o.getRaza() == null).count();
-        if (sinRaza > 0) {
-            conteoRazas.put("Sin raza", sinRaza);
-        }
-        
-        conteoRazas.forEach((raza, cantidad)
+        stats.porRaza().forEach((raza, cantidad)
                 -> dataset.addValue(cantidad, "Cantidad", raza));
 
         JFreeChart chart = ChartFactory.createBarChart(
@@ -278,75 +369,76 @@ public class EstadisticasPanel extends JPanel {
 
     /**
      * Crea gráfico circular (PieChart) de distribución ovejas por estado
-     * activo/inactivo.
-     *
-     * Consulta directamente los métodos {@link #contarActivas()} y
-     * {@link #contarTotal()} del DAO para obtener conteos optimizados (COUNT
-     * SQL). Las inactivas se calculan como diferencia del total. Colores
-     * automáticos JFreeChart.
+     * activo/inactivo. Las inactivas se calculan como diferencia del total.
+     * Colores automáticos JFreeChart.
      *
+     * @param stats instantánea con total y activas
      * @return ChartPanel listo para añadir a contenedor Swing con resize
      * automático
-     * @see OvejaDAO#contarActivas()
-     * @see OvejaDAO#contarTotal()
+     * @see EstadisticasRebano#inactivas()
      * @see DefaultPieDataset
-     * @see ChartFactory#createPieChart(String, PieDataset, boolean, boolean,
-     * boolean)
      */
-    private ChartPanel crearGraficoActivas() {  
-        DefaultPieDataset dataset = new DefaultPieDataset();
-        long activas = contarActivas();
-        long total = contarTotal();
+    private ChartPanel crearGraficoActivas(EstadisticasRebano stats) {  
+        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
+        long activas = stats.activas();
+        long inactivas = stats.inactivas();
         dataset.setValue(I18nUtil.get("estadistica.grafico.activas.label.activas") + " (" + activas + ")", activas);
-        dataset.setValue(I18nUtil.get("estadistica.grafico.activas.label.inactivas") + " (" + (total - activas) + ")", total - activas);
+        dataset.setValue(I18nUtil.get("estadistica.grafico.activas.label.inactivas") + " (" + inactivas + ")", inactivas);
 
         return new ChartPanel(ChartFactory.createPieChart(I18nUtil.get("estadistica.grafico.activas.title"), 
                 dataset, true, true, false));
     }
 
     /**
-     * Cuenta eventos del mes actual (filtrado por fecha).
-     * 
-     * @return número de eventos en el mes/año actual (0 si error)
+     * Crea gráfico de barras con la distribución de pesos de las activas,
+     * por sexo, en {@value #CUBETAS_PESO} tramos. Se calcula recorriendo las
+     * columnas del censo, sin objetos por oveja. Refleja el censo de la
+     * última carga (ver {@link #censo}), no cada cambio posterior.
+     *
+     * @param censo censo columnar cargado
+     * @return ChartPanel listo para añadir al contenedor
      */
-    private long calcularEventosMes() {
-        try {
-            EventoDAO dao = new EventoDAO();
-            LocalDate ahora = LocalDate.now();
-            int mesActual = ahora.getMonthValue();
-            int anioActual = ahora.getYear();
-
-            return dao.listarTodos().stream()
-                    .filter(e -> e.getFechaEvento().getMonthValue() == mesActual
-                        && e.getFechaEvento().getYear() == anioActual)
-                    .count();
-        } catch (Exception e) {
-            return 0;
-        }
-    }
+    private ChartPanel crearGraficoPesos(CensoColumnar censo) {
+        // Tramos de 5 kg en 5 kg hasta cubrir el peso máximo
+        float maximo = censo.pesoMaximo(censo::activo);
+        float ancho = Math.max(5f, (float) Math.ceil(maximo / CUBETAS_PESO / 5f) * 5f);
+        long[] hembras = censo.histogramaPeso(ancho, CUBETAS_PESO,
+                i -> censo.activo(i) && censo.sexo(i) == CensoColumnar.HEMBRA);
+        long[] machos = censo.histogramaPeso(ancho, CUBETAS_PESO,
+                i -> censo.activo(i) && censo.sexo(i) == CensoColumnar.MACHO);
 
-    /**
-     * Retorna conteo activas directo de BD (rápido para KPIs).
-     */
-    private long contarActivas() {
-        return ovejaDAO.contarActivas(); 
-    }
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (int k = 0; k < CUBETAS_PESO; k++) {
+            String tramo = k < CUBETAS_PESO - 1
+                    ? String.format("%.0f-%.0f", k * ancho, (k + 1) * ancho)
+                    : String.format("%.0f+", k * ancho);
+            dataset.addValue(hembras[k], I18nUtil.get("estadistica.grafico.pesos.hembras"), tramo);
+            dataset.addValue(machos[k], I18nUtil.get("estadistica.grafico.pesos.machos"), tramo);
+        }
 
-    /**
-     * Retorna total ovejas (activas + inactivas) de BD.
-     */
-    private long contarTotal() {
-        return ovejaDAO.contarTotal();
+        JFreeChart chart = ChartFactory.createBarChart(
+                I18nUtil.get("estadistica.grafico.pesos.title"),
+                I18nUtil.get("estadistica.grafico.pesos.tramo"),
+                I18nUtil.get("estadistica.grafico.razas.cantidad"),
+                dataset);
+        return new ChartPanel(chart);
     }
 
     /**
-     * Exporta estadísticas a PDF 3 páginas (apilado vertical - todos visibles).
-     *
-     * PÁGINA 1: Header, KPIs, Grafico SEXO (centrado) PÁGINA 2: Grafico RAZAS
-     * (centrado) PÁGINA 3: Grafico ESTADO (centrado)
+     * Exporta un informe PDF según la plantilla elegida: las 3 páginas de
+     * estadísticas, fichas por oveja o ambas.
      *
+     * @see PlantillaInforme
+     * @see InformeEstadisticasPdf
      */
     private void exportarPDF() {
+        PlantillaInforme plantilla = (PlantillaInforme) JOptionPane.showInputDialog(this,
+                I18nUtil.get("informe.plantilla.pregunta"), I18nUtil.get("informe.plantilla.title"),
+                JOptionPane.QUESTION_MESSAGE, null, PlantillaInforme.values(), PlantillaInforme.ESTADISTICAS);
+        if (plantilla == null) {
+            return;
+        }
+
         JFileChooser chooser = new JFileChooser();
         chooser.setDialogTitle(I18nUtil.get("estadistica.chooser.title"));
         chooser.setSelectedFile(new File(String.format(I18nUtil.get("estadistica.chooser.filename"),
@@ -357,128 +449,33 @@ public class EstadisticasPanel extends JPanel {
         }
 
         String ruta = chooser.getSelectedFile().getAbsolutePath();
-        if (!ruta.toLowerCase().endsWith(".pdf")) {
-            ruta += ".pdf";
-        }
-
-        try (PDDocument doc = new PDDocument()) {
-            List<Oveja> ovejas = ovejaDAO.listarTodas();
-            long total = contarTotal();
-            long activas = contarActivas();
-
-            // PÁGINA 1: KPIs + SEXO
-            PDPage page1 = new PDPage(PDRectangle.A4);
-            doc.addPage(page1);
-            try (PDPageContentStream cs1 = new PDPageContentStream(doc, page1)) {
-                // HEADER
-                cs1.beginText();
-                cs1.setFont(PDType1Font.HELVETICA_BOLD, 16);
-                cs1.newLineAtOffset(50, 780);
-                cs1.showText(I18nUtil.get("estadistica.pdf.header1"));
-                cs1.endText();
-
-                // FECHA
-                cs1.beginText();
-                cs1.setFont(PDType1Font.HELVETICA, 10);
-                cs1.newLineAtOffset(50, 760);
-                cs1.showText(I18nUtil.get("estadistica.pdf.fecha") + ": "
-                        + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
-                cs1.endText(); 
-
-                // KPIs
-                cs1.beginText();
-                cs1.setFont(PDType1Font.HELVETICA_BOLD, 11);
-                cs1.newLineAtOffset(50, 740);
-                cs1.showText(I18nUtil.get("estadistica.pdf.kpis"));
-                cs1.endText(); 
-
-                // TÍTULO GRÁFICO
-                cs1.beginText();
-                cs1.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                cs1.newLineAtOffset(200, 680);
-                cs1.showText(I18nUtil.get("estadistica.grafico.sexo.title"));
-                cs1.endText();
-
-                // GRÁFICO SEXO
-                DefaultPieDataset sexoData = new DefaultPieDataset();
-                sexoData.setValue(I18nUtil.get("estadistica.grafico.sexo.hembras"), contarHembras(ovejas));
-                sexoData.setValue(I18nUtil.get("estadistica.grafico.sexo.machos"), total - contarHembras(ovejas));
-                BufferedImage imgSexo = ChartFactory.createPieChart(I18nUtil.get("estadistica.grafico.sexo.title"), 
-                        sexoData, false, false, false)
-                        .createBufferedImage(380, 300);
-                cs1.drawImage(LosslessFactory.createFromImage(doc, imgSexo), 100, 350, 380, 300);
-            }
-
-            // PÁGINA 2: RAZAS 
-            PDPage page2 = new PDPage(PDRectangle.A4);
-            doc.addPage(page2);
-            try (PDPageContentStream cs2 = new PDPageContentStream(doc, page2)) {
-                cs2.beginText();
-                cs2.setFont(PDType1Font.HELVETICA_BOLD, 16);
-                cs2.newLineAtOffset(50, 780);
-                cs2.showText(I18nUtil.get("estadistica.pdf.header2"));
-                cs2.endText();
-
-                cs2.beginText();
-                cs2.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                cs2.newLineAtOffset(200, 680);
-                cs2.showText(I18nUtil.get("estadistica.grafico.razas.title"));
-                cs2.endText();
-
-                DefaultCategoryDataset razasData = new DefaultCategoryDataset();
-                ovejas.stream().collect(Collectors.groupingBy(Oveja::getRaza, Collectors.counting()))
-                        .forEach((r, c) -> razasData.addValue(c, I18nUtil.get("estadistica.grafico.razas.ovejas"), r));
-                BufferedImage imgRazas = ChartFactory.createBarChart(I18nUtil.get("estadistica.grafico.razas.title"),
-                        I18nUtil.get("estadistica.grafico.razas.raza"),
-                        I18nUtil.get("estadistica.grafico.razas.cantidad"),
-                        razasData,
-                        PlotOrientation.VERTICAL, false, false, false).createBufferedImage(380, 300);
-                cs2.drawImage(LosslessFactory.createFromImage(doc, imgRazas), 100, 350, 380, 300);
-            }
-
-            // PÁGINA 3: ESTADO
-            PDPage page3 = new PDPage(PDRectangle.A4);
-            doc.addPage(page3);
-            try (PDPageContentStream cs3 = new PDPageContentStream(doc, page3)) {
-                cs3.beginText();
-                cs3.setFont(PDType1Font.HELVETICA_BOLD, 16);
-                cs3.newLineAtOffset(50, 780);
-                cs3.showText(I18nUtil.get("estadistica.pdf.header3"));
-                cs3.endText();
-
-                // KPIs ESTADO
-                cs3.beginText();
-                cs3.setFont(PDType1Font.HELVETICA_BOLD, 12);
-                cs3.newLineAtOffset(50, 740);
-                double pctAct = total > 0 ? activas * 100.0 / total : 0;
-                cs3.showText(I18nUtil.get("estadistica.pdf.estado.kpis"));
-                cs3.endText();
-
-                cs3.beginText();
-                cs3.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                cs3.newLineAtOffset(200, 680);
-                cs3.showText(I18nUtil.get("estadistica.grafico.activas.title"));
-                cs3.endText();
-
-                DefaultPieDataset estadoData = new DefaultPieDataset();
-                estadoData.setValue(I18nUtil.get("estadistica.grafico.activas.label.activas"), activas);
-                estadoData.setValue(I18nUtil.get("estadistica.grafico.activas.label.inactivas"), total - activas);
-                BufferedImage imgEstado = ChartFactory.createPieChart((I18nUtil.get("estadistica.grafico.activas.title")), estadoData, false, false, false)
-                        .createBufferedImage(380, 300);
-                cs3.drawImage(LosslessFactory.createFromImage(doc, imgEstado), 100, 350, 380, 300);
+        final String rutaPdf = ruta.toLowerCase().endsWith(".pdf") ? ruta : ruta + ".pdf";
+
+        // Consulta + render + escritura fuera del EDT, con barra de progreso
+        barraProgreso.setIndeterminate(false);
+        barraProgreso.setValue(0);
+        barraProgreso.setVisible(true);
+        final EstadisticasRebano mostradas = ultimasEstadisticas;
+        cargadorPdf.cargar(progreso -> {
+            // Mismos datos que ve el usuario; solo se consulta si aún no hay
+            EstadisticasRebano stats = !plantilla.usaEstadisticas() || mostradas != null
+                    ? mostradas : AgregadorRebano.getInstancia().instantanea();
+            plantilla.crearMotor(stats, informePdf, ovejaDAO, eventoDAO).generar(Path.of(rutaPdf), progreso,
+                    progreso::cancelado);
+            return rutaPdf;
+        }, r -> {
+            barraProgreso.setVisible(false);
+            JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("estadistica.pdf.success"), r));
+        }, e -> {
+            barraProgreso.setVisible(false);
+            if (e instanceof IOException) {
+                JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("estadistica.pdf.error.io"), e.getMessage()));
+            } else {
+                JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("estadistica.stats.error"), e.getMessage()));
             }
-
-            // GUARDAR
-            doc.save(ruta);
-            JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("estadistica.pdf.success"), ruta));
-
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("estadistica.pdf.error.io"), e.getMessage()));
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("estadistica.stats.error"), e.getMessage()));
-        }
+        }, barraProgreso::setValue);
     }
-    
+
     /**
      * Actualiza TODOS los textos i18n del panel según locale actual. 
      *
@@ -523,7 +520,7 @@ public class EstadisticasPanel extends JPanel {
             );
         }
 
-        actualizarEstadisticas();  
+        actualizarEstadisticas(false);
         
         revalidate();
         repaint();
@@ -6,15 +6,22 @@ package Vista;
 
 import DAO.EventoDAO;
 import DAO.OvejaDAO;
+import DAO.Pagina;
+import Modelo.CambioDominio;
 import Modelo.Evento;
+import Modelo.EventoFila;
 import Modelo.Oveja;
 import Modelo.Usuario;
+import Servicio.ExportadorDatos;
+import Servicio.ImportadorCsv;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import com.toedter.calendar.JDateChooser;
+import Util.BusCambios;
+import Util.CargadorAsincrono;
 import Util.I18nUtil;
 
 /**
@@ -45,8 +52,14 @@ public class EventoPanel extends JPanel {
     /** Tabla principal con lista de eventos registrados */
     private JTable tblEventos;
     
-    /** Modelo de datos editable de la tabla */
-    private DefaultTableModel model;
+    /** Modelo virtualizado de la tabla (bloques de EventoFila bajo demanda) */
+    private ModeloTablaPaginado<EventoFila> model;
+
+    /** Filas por bloque cargado del DAO */
+    private static final int TAMANIO_BLOQUE = 200;
+
+    /** Bloques retenidos en memoria por la tabla */
+    private static final int MAX_BLOQUES = 50;
     
     // Campos del formulario
     /** Combo selector de ovejas del rebaño activo */
@@ -60,6 +73,21 @@ public class EventoPanel extends JPanel {
     
     /** Campo libre para detalles del evento */
     private JTextField txtObservaciones;
+
+    /** Importación CSV (deshabilitado y con el avance mientras importa) */
+    private JButton btnImportar;
+
+    /** Exportación (deshabilitado y con el avance mientras exporta) */
+    private JButton btnExportar;
+
+    /** Canal de carga del combo de ovejas (una recarga cancela la anterior) */
+    private final CargadorAsincrono cargadorCombo = new CargadorAsincrono();
+
+    /** Hubo cambios de ovejas con la pestaña oculta (EDT) */
+    private boolean comboDesactualizado;
+
+    /** Suscripción al bus de cambios mientras el panel está en pantalla */
+    private BusCambios.Suscripcion suscripcion;
     
     /**
      * Constructor principal. Inicializa UI completa, carga datos iniciales
@@ -135,6 +163,16 @@ public class EventoPanel extends JPanel {
         pnlBotones.add(new JLabel(I18nUtil.get("evento.lbl.buscar")));
         txtBuscarOveja.setToolTipText(I18nUtil.get("evento.tooltip.buscar"));
         pnlBotones.add(txtBuscarOveja);
+
+        btnImportar = new JButton(I18nUtil.get("importar.btn"));
+        btnImportar.addActionListener(e -> AccionImportarCsv.ejecutar(this, btnImportar,
+                new ImportadorCsv()::importarEventos));
+        pnlBotones.add(btnImportar);
+
+        btnExportar = new JButton(I18nUtil.get("exportar.btn"));
+        btnExportar.addActionListener(e -> AccionExportar.ejecutar(this, btnExportar, "eventos",
+                new ExportadorDatos()::exportarEventos));
+        pnlBotones.add(btnExportar);
         
         add(pnlBotones, BorderLayout.NORTH);
         // getRootPane().setDefaultButton(btnGuardar); // Enter = Guardar
@@ -182,7 +220,34 @@ public class EventoPanel extends JPanel {
             I18nUtil.get("evento.col.fecha"),
             I18nUtil.get("evento.col.obs")
         };
-        model = new DefaultTableModel(columnas, 0);
+        model = new ModeloTablaPaginado<>(columnas, TAMANIO_BLOQUE, MAX_BLOQUES) {
+            @Override
+            protected int[] cargarIds() {
+                return eventoDAO.listarIdsActivos();
+            }
+
+            @Override
+            protected Pagina<EventoFila> cargarPagina(Integer despuesDeId, int tamanio) {
+                return eventoDAO.listarFilasPagina(despuesDeId, tamanio);
+            }
+
+            @Override
+            protected Object valorColumna(EventoFila e, int columna) {
+                return switch (columna) {
+                    case 0 -> e.id();
+                    case 1 -> e.numeroOveja();
+                    case 2 -> e.tipoEvento();
+                    case 3 -> e.fechaEvento();
+                    default -> e.observaciones();
+                };
+            }
+
+            @Override
+            protected void alFallar(Exception ex) {
+                JOptionPane.showMessageDialog(EventoPanel.this,
+                        String.format(I18nUtil.get("evento.error.eventos"), ex.getMessage()));
+            }
+        };
         tblEventos = new JTable(model);
         tblEventos.setToolTipText(I18nUtil.get("evento.tooltip.tabla"));
         add(new JScrollPane(tblEventos), BorderLayout.CENTER);
@@ -241,45 +306,82 @@ public class EventoPanel extends JPanel {
     
     /**
      * Carga ovejas activas en combo. Formato: "NUMERO - RAZA".
-     * Se llama al entrar en pestaña y tras recargas.
+     * Se llama al entrar en pestaña y tras recargas. La consulta corre en
+     * segundo plano y el combo se rellena de una vez en el EDT.
      */
     public void cargarOvejasCombo() {
-        try {
-            if (ovejaDAO == null) ovejaDAO = new OvejaDAO();
-            cmbOveja.removeAllItems();
-            List<Oveja> ovejas = ovejaDAO.listarTodas();
-            for (Oveja o : ovejas) {
-                cmbOveja.addItem(o.getNumeroIdentificacion() + " - " + o.getRaza());
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    String.format(I18nUtil.get("evento.error.ovejas"), e.getMessage()));
-        }
+        if (ovejaDAO == null) ovejaDAO = new OvejaDAO();
+        comboDesactualizado = false;
+        cargadorCombo.cargar(p -> ovejaDAO.listarTodas().stream()
+                .map(o -> o.getNumeroIdentificacion() + " - " + o.getRaza())
+                .toArray(String[]::new), items -> {
+            cmbOveja.setModel(new DefaultComboBoxModel<>(items));
+        }, e -> JOptionPane.showMessageDialog(this,
+                String.format(I18nUtil.get("evento.error.ovejas"), e.getMessage())));
     }
     
     /**
-     * Recarga tabla completa de eventos desde base de datos.
+     * Recarga tabla de eventos desde base de datos. Solo se recargan los IDs;
+     * las filas ({@link EventoFila}) se piden por bloques al hacer scroll.
      */
     private void cargarEventos() {
-        try {
-            if (eventoDAO == null) eventoDAO = new EventoDAO();
-            List<Evento> eventos = eventoDAO.listarTodos();
-            model.setRowCount(0);
-            for (Evento e : eventos) {
-                model.addRow(new Object[]{
-                    e.getId(),
-                    e.getOveja().getNumeroIdentificacion(),
-                    e.getTipoEvento(),
-                    e.getFechaEvento(),
-                    e.getObservaciones()
-                });
+        if (eventoDAO == null) eventoDAO = new EventoDAO();
+        model.recargar();
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        suscripcion = BusCambios.getInstancia().suscribir(this::aplicarCambios, true);
+    }
+
+    @Override
+    public void removeNotify() {
+        if (suscripcion != null) {
+            suscripcion.cancelar();
+            suscripcion = null;
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * Refleja los cambios confirmados (EDT): eventos nuevos al final,
+     * borrados fuera y modificados releyendo solo su bloque. Los cambios de
+     * ovejas solo afectan al combo, que se recarga ahora si la pestaña está
+     * visible o al volver a ella.
+     *
+     * @param cambios lote del {@link BusCambios}.
+     */
+    private void aplicarCambios(List<CambioDominio> cambios) {
+        List<Integer> anadidos = new ArrayList<>();
+        List<Integer> quitados = new ArrayList<>();
+        List<Integer> modificados = new ArrayList<>();
+        boolean recargar = false;
+        boolean ovejas = false;
+        for (CambioDominio cambio : cambios) {
+            switch (cambio) {
+                case CambioDominio.EventoRegistrado c -> anadidos.add(c.id());
+                case CambioDominio.EventoModificado c -> modificados.add(c.id());
+                case CambioDominio.EventoEliminado c -> quitados.add(c.id());
+                case CambioDominio.EventosCargados c -> recargar = true;
+                default -> ovejas = true;
+            }
+        }
+        if (recargar) {
+            model.recargar();
+        } else {
+            model.quitarFilas(quitados);
+            model.anadirFilas(anadidos);
+            model.actualizarFilas(modificados);
+        }
+        if (ovejas) {
+            comboDesactualizado = true;
+            if (isShowing()) {
+                cargarOvejasCombo();
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this,
-                    String.format(I18nUtil.get("evento.error.eventos"), ex.getMessage()));
         }
     }
-    
+
     /**
      * Refresca todos los datos: tabla + combos.
      */
@@ -293,7 +395,9 @@ public class EventoPanel extends JPanel {
      * Fecha actual por defecto, foco en combo oveja.
      */
     private void nuevoEvento() {
-        cmbOveja.setSelectedIndex(0);
+        if (cmbOveja.getItemCount() > 0) {
+            cmbOveja.setSelectedIndex(0);
+        }
         cmbTipo.setSelectedIndex(0);
         jdFecha.setDate(new java.util.Date());
         ovejaSeleccionada = null;  // Reset para Parto
@@ -316,7 +420,6 @@ public class EventoPanel extends JPanel {
             
             Evento evento = new Evento();
             String ovejaTexto = cmbOveja.getSelectedItem().toString().split(" - ")[0];
-            evento.setOveja(ovejaDAO.buscarPorNumero(ovejaTexto));
             evento.setTipoEvento((String) cmbTipo.getSelectedItem());
             
             java.util.Date date = jdFecha.getDate();
@@ -328,18 +431,24 @@ public class EventoPanel extends JPanel {
             evento.setFechaEvento(localDate);
             evento.setObservaciones(txtObservaciones.getText());
 
-            if ("Parto".equals(evento.getTipoEvento())) {
-                // Usa la misma oveja del combo principal como madre (o agrega otro combo)
-                ovejaSeleccionada = evento.getOveja();  // O implementa selección separada
-                evento.setOvejaMadre(ovejaSeleccionada);
-            } else {
-                evento.setOvejaMadre(null);
-            }
-            
-            eventoDAO.insertar(evento);
-            JOptionPane.showMessageDialog(this, I18nUtil.get("evento.success.registrar"));
-            recargarTodo();
-            nuevoEvento();
+            // Búsqueda de la oveja + INSERT fuera del EDT
+            CargadorAsincrono.ejecutar(p -> {
+                evento.setOveja(ovejaDAO.buscarPorNumero(ovejaTexto));
+                if ("Parto".equals(evento.getTipoEvento())) {
+                    // Usa la misma oveja del combo principal como madre (o agrega otro combo)
+                    evento.setOvejaMadre(evento.getOveja());  // O implementa selección separada
+                } else {
+                    evento.setOvejaMadre(null);
+                }
+                eventoDAO.insertar(evento);
+                return evento;
+            }, guardado -> {
+                ovejaSeleccionada = guardado.getOvejaMadre();
+                JOptionPane.showMessageDialog(this, I18nUtil.get("evento.success.registrar"));
+                nuevoEvento();
+            }, e -> JOptionPane.showMessageDialog(this,
+                    String.format(I18nUtil.get("evento.error.guardar"), e.getMessage()),
+                    I18nUtil.get("evento.error.guardar"), JOptionPane.ERROR_MESSAGE));
 
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this,
@@ -359,32 +468,37 @@ public class EventoPanel extends JPanel {
             return;
         }
      
-        int id = (Integer) model.getValueAt(fila, 0);
+        model.conFila(fila, this::eliminarEvento);
+    }
+
+    private void eliminarEvento(EventoFila seleccionado) {
+        int id = seleccionado.id();
         int confirm = JOptionPane.showConfirmDialog(this,
                 String.format(I18nUtil.get("evento.confirm.eliminar"), id),
                 I18nUtil.get("evento.confirm.eliminar.title"), JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
+            CargadorAsincrono.ejecutar(p -> {
                 eventoDAO.eliminar(id);
-                cargarEventos();
+                return id;
+            }, r -> {
                 JOptionPane.showMessageDialog(this, I18nUtil.get("evento.success.eliminar"));
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                        String.format(I18nUtil.get("evento.error.eliminar"), e.getMessage()));
-            }
+            }, e -> JOptionPane.showMessageDialog(this,
+                    String.format(I18nUtil.get("evento.error.eliminar"), e.getMessage())));
         }
     }
     
     /**
-     * Configura listener de pestaña para recarga automática al activar.
-     * Garantiza datos frescos cada visita.
+     * Configura listener de pestaña: el combo de ovejas solo se recarga al
+     * volver a la pestaña si hubo cambios de ovejas mientras estaba oculta.
      */
     private void configurarListenersPestana() {
         addAncestorListener(new javax.swing.event.AncestorListener() {
             @Override
             public void ancestorAdded(javax.swing.event.AncestorEvent event) {
-                cargarOvejasCombo();
+                if (comboDesactualizado) {
+                    cargarOvejasCombo();
+                }
             }
             @Override public void ancestorRemoved(javax.swing.event.AncestorEvent event) {}
             @Override public void ancestorMoved(javax.swing.event.AncestorEvent event) {}
@@ -412,10 +526,17 @@ public class EventoPanel extends JPanel {
                 ((JLabel) botones[4]).setText(I18nUtil.get("evento.lbl.buscar"));
             }
         }
+        // Deshabilitados = mostrando el avance; recuperan su texto al acabar
+        if (btnImportar.isEnabled()) {
+            btnImportar.setText(I18nUtil.get("importar.btn"));
+        }
+        if (btnExportar.isEnabled()) {
+            btnExportar.setText(I18nUtil.get("exportar.btn"));
+        }
 
         // Tabla columnas
         if (model != null) {
-            model.setColumnIdentifiers(new String[]{
+            model.setColumnas(new String[]{
                 I18nUtil.get("evento.col.id"), I18nUtil.get("evento.col.oveja"),
                 I18nUtil.get("evento.col.tipo"), I18nUtil.get("evento.col.fecha"),
                 I18nUtil.get("evento.col.obs")
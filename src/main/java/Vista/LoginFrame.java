@@ -7,6 +7,7 @@ package Vista;
 import DAO.UsuarioDAO;
 import Modelo.Usuario;
 import Servicio.UsuarioService;
+import Util.LimitadorLogin;
 import Util.PasswordEncoderUtil;
 import javax.swing.*;
 import java.awt.*;
@@ -14,6 +15,8 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import Util.I18nUtil;
 import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Ventana principal de login de la aplicación de gestión ganadera.
@@ -49,7 +52,7 @@ public class LoginFrame extends JFrame {
         this.usuarioService = new UsuarioService(new UsuarioDAO(), new PasswordEncoderUtil());
      
         // Español por defecto
-        java.util.Locale.setDefault(new java.util.Locale("es", "ES"));
+        java.util.Locale.setDefault(java.util.Locale.of("es", "ES"));
 
         setTitle(I18nUtil.get("login.title"));
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -190,7 +193,31 @@ public class LoginFrame extends JFrame {
             return;
         }
 
-        Usuario usuario = usuarioService.login(username, password);
+        // BCrypt fuera del EDT; el botón queda desactivado mientras tanto
+        btnAcceso.setEnabled(false);
+        usuarioService.loginAsync(username, password).whenComplete((usuario, ex) ->
+                SwingUtilities.invokeLater(() -> terminarLogin(usuario, ex)));
+    }
+
+    /**
+     * Resultado del login, en el EDT.
+     */
+    private void terminarLogin(Usuario usuario, Throwable ex) {
+        btnAcceso.setEnabled(true);
+        if (ex != null) {
+            Throwable causa = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (causa instanceof LimitadorLogin.IntentosExcedidosException bloqueo) {
+                JOptionPane.showMessageDialog(this,
+                        I18nUtil.get("login.error.bloqueado")
+                                .replace("{0}", String.valueOf(bloqueo.getSegundosEspera())));
+                txtPassword.setText("");
+                return;
+            }
+            JOptionPane.showMessageDialog(this, causa instanceof RejectedExecutionException
+                    ? I18nUtil.get("login.error.ocupado")
+                    : I18nUtil.get("login.error.database").replace("{0}", String.valueOf(causa.getMessage())));
+            return;
+        }
         if (usuario != null) {
             String mensaje = I18nUtil.get("login.success").replace("{0}", usuario.getNombre());
             JOptionPane.showMessageDialog(this, mensaje);
@@ -0,0 +1,374 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Vista;
+
+import DAO.Pagina;
+import Util.CargadorAsincrono;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * TableModel virtualizado para tablas grandes (ovejas, eventos). Solo guarda
+ * en memoria los IDs ordenados (int[]) y un LRU acotado de bloques de filas;
+ * cada bloque se pide al DAO con paginación keyset cuando JTable lo pinta.
+ *
+ * Las cargas se hacen en segundo plano y notifican un único evento por
+ * bloque ({@code fireTableRowsUpdated}) o por recarga
+ * ({@code fireTableDataChanged}), nunca uno por fila. Los cambios que llegan
+ * por {@link Util.BusCambios} se aplican solo a las filas afectadas
+ * ({@link #actualizarFilas}, {@link #anadirFilas}, {@link #quitarFilas}).
+ * Todo el estado se toca solo desde el EDT, por lo que no necesita
+ * sincronización.
+ *
+ * Las acciones sobre una fila (editar, borrar...) pasan por
+ * {@link #conFila}: si su bloque aún no ha llegado se ejecutan cuando llegue.
+ *
+ * @param <T> tipo de fila (entidad o proyección).
+ * @author Elena González
+ * @version 1.0
+ * @see Pagina
+ * @see CargadorAsincrono
+ */
+public abstract class ModeloTablaPaginado<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Filas por bloque (una consulta por bloque). */
+    private final int tamanioBloque;
+
+    /** Bloques máximos en memoria antes de expulsar el menos usado. */
+    private final int maxBloques;
+
+    /** Cabeceras de columna (i18n, se pueden cambiar en caliente). */
+    private String[] columnas;
+
+    /** IDs de todas las filas en orden; define getRowCount(). */
+    private int[] ids = new int[0];
+
+    /** LRU bloque → filas (accessOrder = true). */
+    private final transient Map<Integer, List<T>> bloques;
+
+    /** Bloques con carga en curso (evita pedir dos veces el mismo). */
+    private final transient Set<Integer> pendientes = new HashSet<>();
+
+    /** Acciones de {@link #conFila} esperando su bloque, por ID de fila. */
+    private final transient Map<Integer, List<Consumer<? super T>>> acciones = new HashMap<>();
+
+    /** Generación actual: descarta bloques pedidos antes de una recarga. */
+    private int generacion;
+
+    /** Canal de recarga de IDs: una recarga nueva cancela la anterior. */
+    private final transient CargadorAsincrono cargadorIds = new CargadorAsincrono();
+
+    /**
+     * @param columnas cabeceras iniciales.
+     * @param tamanioBloque filas por consulta.
+     * @param maxBloques bloques retenidos en memoria.
+     */
+    protected ModeloTablaPaginado(String[] columnas, int tamanioBloque, int maxBloques) {
+        this.columnas = columnas.clone();
+        this.tamanioBloque = tamanioBloque;
+        this.maxBloques = maxBloques;
+        this.bloques = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > ModeloTablaPaginado.this.maxBloques;
+            }
+        };
+    }
+
+    /**
+     * Carga los IDs ordenados de todas las filas (hilo de fondo).
+     *
+     * @return IDs en el mismo orden que usa {@link #cargarPagina}.
+     */
+    protected abstract int[] cargarIds();
+
+    /**
+     * Carga una página keyset (hilo de fondo).
+     *
+     * @param despuesDeId último ID del bloque anterior (null = inicio).
+     * @param tamanio filas a cargar.
+     * @return página de filas.
+     */
+    protected abstract Pagina<T> cargarPagina(Integer despuesDeId, int tamanio);
+
+    /**
+     * Valor de una celda para una fila ya cargada.
+     *
+     * @param fila objeto de la fila.
+     * @param columna índice de columna.
+     * @return valor a mostrar.
+     */
+    protected abstract Object valorColumna(T fila, int columna);
+
+    /**
+     * Notifica un fallo de carga (por defecto lo imprime). Se invoca en el
+     * EDT, así que las subclases pueden mostrar diálogos.
+     *
+     * @param e excepción del DAO.
+     */
+    protected void alFallar(Exception e) {
+        e.printStackTrace();
+    }
+
+    /**
+     * Recarga los IDs en segundo plano y vacía la caché de bloques. Emite un
+     * único fireTableDataChanged al terminar.
+     */
+    public void recargar() {
+        cargadorIds.cargar(p -> cargarIds(), nuevosIds -> {
+            // Los bloques pedidos con los IDs anteriores quedan obsoletos
+            generacion++;
+            pendientes.clear();
+            ids = nuevosIds;
+            bloques.clear();
+            fireTableDataChanged();
+            solicitarAcciones();
+        }, this::alFallar);
+    }
+
+    /**
+     * Vuelve a leer los bloques en memoria que contienen alguno de los IDs
+     * (una consulta por bloque). Mientras llega se sigue mostrando el bloque
+     * anterior; los IDs que no están en la tabla se ignoran.
+     *
+     * @param idsCambiados IDs de filas modificadas.
+     */
+    public void actualizarFilas(Collection<Integer> idsCambiados) {
+        Set<Integer> afectados = new TreeSet<>();
+        for (int id : idsCambiados) {
+            int fila = Arrays.binarySearch(ids, id);
+            if (fila >= 0 && bloques.containsKey(fila / tamanioBloque)) {
+                afectados.add(fila / tamanioBloque);
+            }
+        }
+        for (int bloque : afectados) {
+            pendientes.remove(bloque);
+            solicitarBloque(bloque);
+        }
+    }
+
+    /**
+     * Añade filas nuevas. Si todos los IDs son mayores que el último (altas
+     * normales, IDs crecientes) se añaden al final sin tocar el resto; si no,
+     * se recarga.
+     *
+     * @param idsNuevos IDs de las filas añadidas.
+     */
+    public void anadirFilas(Collection<Integer> idsNuevos) {
+        int[] nuevos = idsNuevos.stream().mapToInt(Integer::intValue)
+                .filter(id -> Arrays.binarySearch(ids, id) < 0).sorted().distinct().toArray();
+        if (nuevos.length == 0) {
+            return;
+        }
+        if (ids.length > 0 && nuevos[0] < ids[ids.length - 1]) {
+            recargar();
+            return;
+        }
+        int inicio = ids.length;
+        int[] todos = Arrays.copyOf(ids, inicio + nuevos.length);
+        System.arraycopy(nuevos, 0, todos, inicio, nuevos.length);
+        generacion++;
+        pendientes.clear();
+        ids = todos;
+        // El último bloque incompleto debe releerse para incluir las nuevas
+        bloques.remove(inicio / tamanioBloque);
+        fireTableRowsInserted(inicio, ids.length - 1);
+        solicitarAcciones();
+    }
+
+    /**
+     * Quita filas. Los bloques anteriores a la primera fila quitada siguen
+     * siendo válidos; los posteriores se descartan (cambia su cursor).
+     *
+     * @param idsQuitados IDs de las filas a quitar.
+     */
+    public void quitarFilas(Collection<Integer> idsQuitados) {
+        int[] filas = idsQuitados.stream().mapToInt(id -> Arrays.binarySearch(ids, id))
+                .filter(f -> f >= 0).sorted().distinct().toArray();
+        if (filas.length == 0) {
+            return;
+        }
+        int[] restantes = new int[ids.length - filas.length];
+        int j = 0;
+        int k = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (k < filas.length && filas[k] == i) {
+                k++;
+            } else {
+                restantes[j++] = ids[i];
+            }
+        }
+        generacion++;
+        pendientes.clear();
+        ids = restantes;
+        int primerBloque = filas[0] / tamanioBloque;
+        bloques.keySet().removeIf(b -> b >= primerBloque);
+        for (int i = filas.length - 1; i >= 0; i--) {
+            fireTableRowsDeleted(filas[i], filas[i]);
+        }
+        solicitarAcciones();
+    }
+
+    /**
+     * Devuelve el objeto de una fila si su bloque está en memoria.
+     *
+     * @param fila índice de fila del modelo.
+     * @return objeto o null si aún no está cargado (se solicita la carga).
+     */
+    public T getFila(int fila) {
+        if (fila < 0 || fila >= ids.length) {
+            return null;
+        }
+        int bloque = fila / tamanioBloque;
+        List<T> filas = bloques.get(bloque);
+        if (filas == null) {
+            solicitarBloque(bloque);
+            return null;
+        }
+        int offset = fila % tamanioBloque;
+        return offset < filas.size() ? filas.get(offset) : null;
+    }
+
+    /**
+     * Ejecuta una acción sobre una fila: enseguida si su bloque está en
+     * memoria o, si no, cuando llegue (en el EDT). Se sigue la fila por su
+     * ID, así que una recarga entre medias no la cambia por otra; si la fila
+     * desaparece la acción se descarta.
+     *
+     * @param fila índice de fila del modelo.
+     * @param accion recibe el objeto de la fila.
+     */
+    public void conFila(int fila, Consumer<? super T> accion) {
+        if (fila < 0 || fila >= ids.length) {
+            return;
+        }
+        T objeto = getFila(fila);
+        if (objeto != null) {
+            accion.accept(objeto);
+            return;
+        }
+        acciones.computeIfAbsent(ids[fila], id -> new ArrayList<>()).add(accion);
+    }
+
+    /**
+     * Cambia las cabeceras (cambio de idioma).
+     *
+     * @param columnas nuevas cabeceras, mismo número de columnas.
+     */
+    public void setColumnas(String[] columnas) {
+        this.columnas = columnas.clone();
+        fireTableStructureChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return ids.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return columnas[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        T objeto = getFila(fila);
+        return objeto != null ? valorColumna(objeto, columna) : null;
+    }
+
+    /**
+     * Lanza la carga de un bloque en segundo plano si no está ya pedida. El
+     * cursor keyset es el último ID del bloque anterior.
+     */
+    private void solicitarBloque(int bloque) {
+        if (!pendientes.add(bloque)) {
+            return;
+        }
+        final int gen = generacion;
+        final int inicio = bloque * tamanioBloque;
+        final Integer cursor = inicio == 0 ? null : ids[inicio - 1];
+        CargadorAsincrono.ejecutar(p -> cargarPagina(cursor, tamanioBloque), pagina -> {
+            if (gen != generacion) {
+                return;
+            }
+            pendientes.remove(bloque);
+            bloques.put(bloque, pagina.elementos());
+            int fin = Math.min(inicio + tamanioBloque, ids.length) - 1;
+            if (fin >= inicio) {
+                fireTableRowsUpdated(inicio, fin);
+            }
+            ejecutarAcciones(bloque);
+        }, ex -> {
+            if (gen == generacion) {
+                pendientes.remove(bloque);
+                // Sin bloque no hay fila: las acciones que lo esperaban se pierden
+                acciones.keySet().removeIf(id -> bloqueDe(id) == bloque);
+                alFallar(ex);
+            }
+        });
+    }
+
+    /** Ejecuta las acciones cuyas filas están en el bloque recién cargado. */
+    private void ejecutarAcciones(int bloque) {
+        if (acciones.isEmpty()) {
+            return;
+        }
+        List<Integer> listos = new ArrayList<>();
+        for (Integer id : acciones.keySet()) {
+            if (bloqueDe(id) == bloque) {
+                listos.add(id);
+            }
+        }
+        List<T> filas = bloques.get(bloque);
+        for (Integer id : listos) {
+            List<Consumer<? super T>> esperando = acciones.remove(id);
+            int offset = Arrays.binarySearch(ids, id) % tamanioBloque;
+            T objeto = filas != null && offset < filas.size() ? filas.get(offset) : null;
+            if (objeto != null) {
+                esperando.forEach(a -> a.accept(objeto));
+            }
+        }
+    }
+
+    /**
+     * Tras cambiar los IDs: descarta las acciones de filas que ya no están y
+     * vuelve a pedir los bloques del resto (los pedidos anteriores se
+     * descartaron con la generación).
+     */
+    private void solicitarAcciones() {
+        acciones.keySet().removeIf(id -> Arrays.binarySearch(ids, id) < 0);
+        for (Integer id : new ArrayList<>(acciones.keySet())) {
+            int bloque = bloqueDe(id);
+            if (bloques.containsKey(bloque)) {
+                ejecutarAcciones(bloque);
+            } else {
+                solicitarBloque(bloque);
+            }
+        }
+    }
+
+    /** @return bloque de la fila con ese ID, o -1 si no está. */
+    private int bloqueDe(int id) {
+        int fila = Arrays.binarySearch(ids, id);
+        return fila >= 0 ? fila / tamanioBloque : -1;
+    }
+}
@@ -6,23 +6,26 @@ package Vista;
 
 import DAO.OvejaDAO;
 import DAO.EventoDAO;
+import DAO.Pagina;
+import Modelo.CambioDominio;
 import Modelo.Oveja;
 import Modelo.Usuario;
 import Modelo.Evento;
-import Util.HibernateUtil;
+import Servicio.ExportadorDatos;
+import Servicio.ImportadorCsv;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.List;
 import java.math.BigDecimal;
 import com.toedter.calendar.JDateChooser;
 import java.time.LocalDate;
+import Util.BusCambios;
+import Util.CargadorAsincrono;
 import Util.I18nUtil;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
+import java.util.List;
 
 /**
  * Panel CRUD completo para gestión de ovejas.
@@ -39,6 +42,12 @@ public class OvejaPanel extends JPanel{
     
     /** DAO para operaciones CRUD de ovejas */
     private OvejaDAO ovejaDAO;
+
+    /** DAO del evento de parto (mantiene los KPIs en memoria al día) */
+    private final EventoDAO eventoDAO = new EventoDAO();
+
+    /** Suscripción al bus de cambios mientras el panel está en pantalla */
+    private BusCambios.Suscripcion suscripcion;
     
     /** Tabla principal con datos de ovejas */
     private JTable tblOveja;
@@ -61,8 +70,17 @@ public class OvejaPanel extends JPanel{
     /** Botón para registrar parto en oveja seleccionada (solo hembras adultas) */
     private JButton btnParto;
     
-    /** Modelo de datos de la tabla */
-    private DefaultTableModel model;
+    /** Modelo virtualizado de la tabla (bloques bajo demanda) */
+    private ModeloTablaPaginado<Oveja> model;
+
+    /** Filas por bloque cargado del DAO */
+    private static final int TAMANIO_BLOQUE = 200;
+
+    /** Bloques retenidos en memoria por la tabla */
+    private static final int MAX_BLOQUES = 50;
+
+    /** Filtro vigente de la tabla (lo leen las cargas en segundo plano) */
+    private volatile boolean verActivas = true;
     
     /** ID de la oveja seleccionada para edición */
     private Integer idSeleccionado = null;
@@ -82,6 +100,12 @@ public class OvejaPanel extends JPanel{
     /** Botón que recarga los datos desde la base o refresca la vista actual. */
     private JButton btnRecargar;
 
+    /** Botón de importación masiva de ovejas desde CSV. */
+    private JButton btnImportar;
+
+    /** Botón de exportación del censo completo (CSV / JSON Lines). */
+    private JButton btnExportar;
+
     /** Panel que contiene el conjunto de botones de acción. */
     private JPanel pnlBotones;
 
@@ -154,6 +178,14 @@ public class OvejaPanel extends JPanel{
         btnParto.setEnabled(false);
         btnParto.addActionListener(e -> registrarParto());
 
+        btnImportar = new JButton(I18nUtil.get("importar.btn"));
+        btnImportar.addActionListener(e -> AccionImportarCsv.ejecutar(this, btnImportar,
+                new ImportadorCsv()::importarOvejas));
+
+        btnExportar = new JButton(I18nUtil.get("exportar.btn"));
+        btnExportar.addActionListener(e -> AccionExportar.ejecutar(this, btnExportar, "ovejas",
+                new ExportadorDatos()::exportarOvejas));
+
         pnlBotones.add(btnNuevo);
         pnlBotones.add(btnGuardar);
         pnlBotones.add(btnEliminar);
@@ -161,6 +193,8 @@ public class OvejaPanel extends JPanel{
         pnlBotones.add(chkMostrarBajas);
         pnlBotones.add(btnReincorporar);
         pnlBotones.add(btnParto); 
+        pnlBotones.add(btnImportar);
+        pnlBotones.add(btnExportar);
         btnReincorporar.setVisible(false);
         add(pnlBotones, BorderLayout.NORTH);
         
@@ -174,7 +208,36 @@ public class OvejaPanel extends JPanel{
             I18nUtil.get("oveja.col.nacimiento"),
             I18nUtil.get("oveja.col.estado")
         };
-        model = new DefaultTableModel(columnas, 0);
+        model = new ModeloTablaPaginado<>(columnas, TAMANIO_BLOQUE, MAX_BLOQUES) {
+            @Override
+            protected int[] cargarIds() {
+                return ovejaDAO.listarIds(verActivas);
+            }
+
+            @Override
+            protected Pagina<Oveja> cargarPagina(Integer despuesDeId, int tamanio) {
+                return ovejaDAO.listarPagina(verActivas, despuesDeId, tamanio);
+            }
+
+            @Override
+            protected Object valorColumna(Oveja o, int columna) {
+                return switch (columna) {
+                    case 0 -> o.getId();
+                    case 1 -> o.getNumeroIdentificacion();
+                    case 2 -> o.getPesoActual();
+                    case 3 -> o.getRaza();
+                    case 4 -> o.getSexo();
+                    case 5 -> o.getFechaNacimiento();
+                    default -> o.getEstadoSalud();
+                };
+            }
+
+            @Override
+            protected void alFallar(Exception e) {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(OvejaPanel.this, I18nUtil.get("oveja.error.load"));
+            }
+        };
         tblOveja = new JTable(model);
         tblOveja.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -254,28 +317,61 @@ public class OvejaPanel extends JPanel{
 
     /**
      * Carga la lista de ovejas en la tabla según filtro activo/bajas.
-     * Limpia modelo y carga datos del DAO.
+     * Solo recarga los IDs; las filas visibles se piden por bloques al hacer
+     * scroll (ver {@link ModeloTablaPaginado}).
      */
     private void cargarOvejas() {
-        try {
-            boolean verActivas = !chkMostrarBajas.isSelected();
-
-            List<Oveja> ovejas = ovejaDAO.listarSegunEstado(verActivas);
-            model.setRowCount(0);
-            for (Oveja o : ovejas) {
-                model.addRow(new Object[]{
-                    o.getId(),
-                    o.getNumeroIdentificacion(),
-                    o.getPesoActual(),
-                    o.getRaza(),
-                    o.getSexo(),
-                    o.getFechaNacimiento(),
-                    o.getEstadoSalud(),
-                });
+        verActivas = !chkMostrarBajas.isSelected();
+        model.recargar();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        suscripcion = BusCambios.getInstancia().suscribir(this::aplicarCambios, true);
+    }
+
+    @Override
+    public void removeNotify() {
+        if (suscripcion != null) {
+            suscripcion.cancelar();
+            suscripcion = null;
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * Refleja en la tabla los cambios confirmados (EDT): altas al final,
+     * bajas/reincorporaciones según la vista activa/bajas y modificaciones
+     * releyendo solo su bloque. Una carga masiva recarga los IDs.
+     *
+     * @param cambios lote del {@link BusCambios}.
+     */
+    private void aplicarCambios(List<CambioDominio> cambios) {
+        List<Integer> anadidas = new ArrayList<>();
+        List<Integer> quitadas = new ArrayList<>();
+        List<Integer> modificadas = new ArrayList<>();
+        boolean recargar = false;
+        for (CambioDominio cambio : cambios) {
+            switch (cambio) {
+                case CambioDominio.OvejaCreada c -> {
+                    if (verActivas) anadidas.add(c.id());
+                }
+                case CambioDominio.OvejaModificada c -> modificadas.add(c.id());
+                case CambioDominio.OvejaDadaDeBaja c -> (verActivas ? quitadas : anadidas).add(c.id());
+                case CambioDominio.OvejaReincorporada c -> (verActivas ? anadidas : quitadas).add(c.id());
+                case CambioDominio.OvejasCargadas c -> recargar = true;
+                default -> {
+                }
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.error.load"));
         }
+        if (recargar) {
+            model.recargar();
+            return;
+        }
+        model.quitarFilas(quitadas);
+        model.anadirFilas(anadidas);
+        model.actualizarFilas(modificadas);
     }
 
     /**
@@ -320,19 +416,6 @@ public class OvejaPanel extends JPanel{
                 return;
             }
 
-            // VALIDACIÓN DUPLICADO (solo INSERT)
-            if (idSeleccionado == null) {
-                Oveja existente = ovejaDAO.buscarPorNumero(numero);
-                if (existente != null) {
-                    JOptionPane.showMessageDialog(this,
-                            String.format(I18nUtil.get("oveja.error.duplicate"), numero),
-                            String.format(I18nUtil.get("oveja.error.duplicate"), numero),
-                            JOptionPane.WARNING_MESSAGE);
-                    txtNumero.requestFocus();
-                    return;
-                }
-            }
-
             // VALIDACIÓN PESO
             BigDecimal peso;
             try {
@@ -363,16 +446,35 @@ public class OvejaPanel extends JPanel{
             oveja.setEstadoSalud(estadoSalud);
             oveja.setActivo(true);
 
-            // GUARDAR EN BD
-            if (idSeleccionado == null) {
-                ovejaDAO.insertar(oveja);
-                JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.success.insert"));
-            } else {
-                ovejaDAO.actualizar(oveja);
-                JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.success.update"));
-            }
-            cargarOvejas();
-            nuevaOveja();
+            // VALIDACIÓN DUPLICADO (solo INSERT) + GUARDAR EN BD, fuera del EDT
+            final boolean esNueva = idSeleccionado == null;
+            CargadorAsincrono.ejecutar(p -> {
+                if (esNueva && ovejaDAO.buscarPorNumero(numero) != null) {
+                    return false;
+                }
+                if (esNueva) {
+                    ovejaDAO.insertar(oveja);
+                } else {
+                    ovejaDAO.actualizar(oveja);
+                }
+                return true;
+            }, guardada -> {
+                if (!guardada) {
+                    JOptionPane.showMessageDialog(this,
+                            String.format(I18nUtil.get("oveja.error.duplicate"), numero),
+                            String.format(I18nUtil.get("oveja.error.duplicate"), numero),
+                            JOptionPane.WARNING_MESSAGE);
+                    txtNumero.requestFocus();
+                    return;
+                }
+                JOptionPane.showMessageDialog(this,
+                        I18nUtil.get(esNueva ? "oveja.success.insert" : "oveja.success.update"));
+                nuevaOveja();
+            }, e -> {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this,
+                        I18nUtil.get("oveja.error.dao") + ": " + e.getMessage());
+            });
 
         } catch (Exception e) {  
             e.printStackTrace();
@@ -392,25 +494,29 @@ public class OvejaPanel extends JPanel{
             return;
         }
 
-        int id = (Integer) model.getValueAt(fila, 0);
-        String numero = model.getValueAt(fila, 1).toString();
+        model.conFila(fila, this::eliminarOveja);
+    }
+
+    private void eliminarOveja(Oveja seleccionada) {
+        int id = seleccionada.getId();
+        String numero = seleccionada.getNumeroIdentificacion();
 
         int confirm = JOptionPane.showConfirmDialog(this,
                 String.format(I18nUtil.get("oveja.confirm.delete"), numero),
                 I18nUtil.get("oveja.confirm.delete"), JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
+            CargadorAsincrono.ejecutar(p -> {
                 ovejaDAO.eliminar(id);
-                cargarOvejas();
+                return id;
+            }, r -> {
                 nuevaOveja();
-
                 JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.success.delete"));
-            } catch (Exception e) {
+            }, e -> {
                 e.printStackTrace();
                 JOptionPane.showMessageDialog(this,
                         String.format(I18nUtil.get("oveja.error.delete"), e.getMessage()));
-            }
+            });
         }
     }
 
@@ -424,34 +530,27 @@ public class OvejaPanel extends JPanel{
         if (fila == -1) {
             return;
         }
+        model.conFila(fila, this::editarSeleccionada);
+    }
 
+    private void editarSeleccionada(Oveja o) {
         // UI baja/reincorporar
         btnReincorporar.setEnabled(chkMostrarBajas.isSelected());
 
         // Cargar datos fila → UI
-        idSeleccionado = (Integer) model.getValueAt(fila, 0);
-        txtNumero.setText(model.getValueAt(fila, 1).toString());
-        txtPeso.setText(model.getValueAt(fila, 2).toString());
-        txtRaza.setText(model.getValueAt(fila, 3).toString());
-
-        String sexo = model.getValueAt(fila, 4).toString();
-        cbSexo.setSelectedItem(sexo);
+        idSeleccionado = o.getId();
+        txtNumero.setText(o.getNumeroIdentificacion());
+        txtPeso.setText(o.getPesoActual() != null ? o.getPesoActual().toString() : "");
+        txtRaza.setText(o.getRaza() != null ? o.getRaza() : "");
+        cbSexo.setSelectedItem(o.getSexo());
 
         // Fecha: LocalDate → Date (JDateChooser)
-        Object fechaObj = model.getValueAt(fila, 5);
-        if (fechaObj instanceof LocalDate ld) {
+        LocalDate ld = o.getFechaNacimiento();
+        if (ld != null) {
             jdFechaNacimiento.setDate(Date.from(ld.atStartOfDay(ZoneId.systemDefault()).toInstant()));
-        } else if (fechaObj != null) {
-            try {
-                LocalDate ld = LocalDate.parse(fechaObj.toString());
-                jdFechaNacimiento.setDate(Date.from(ld.atStartOfDay(ZoneId.systemDefault()).toInstant()));
-            } catch (Exception e) {
-                System.err.println("Error parse fecha: " + e.getMessage());
-            }
         }
 
-        txtEstadoSalud.setText(model.getValueAt(fila, 6) != null
-                ? model.getValueAt(fila, 6).toString() : "");
+        txtEstadoSalud.setText(o.getEstadoSalud() != null ? o.getEstadoSalud() : "");
 
         System.out.println("EDITAR: Cargada ID=" + idSeleccionado);
     }
@@ -468,21 +567,24 @@ public class OvejaPanel extends JPanel{
             return;
         }
 
-        int id = (Integer) model.getValueAt(fila, 0);
-        String numero = model.getValueAt(fila, 1).toString();
+        model.conFila(fila, this::reincorporarOveja);
+    }
+
+    private void reincorporarOveja(Oveja seleccionada) {
+        int id = seleccionada.getId();
+        String numero = seleccionada.getNumeroIdentificacion();
 
         int confirm = JOptionPane.showConfirmDialog(this,
                 String.format(I18nUtil.get("oveja.confirm.reincorporar"), numero),
                 I18nUtil.get("oveja.confirm.reincorporar.title"),
                 JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
+            CargadorAsincrono.ejecutar(p -> {
                 ovejaDAO.reincorporar(id);
-                cargarOvejas();
+                return id;
+            }, r -> {
                 JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.success.reincorporar"));
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.error.reincorporar"));
-            }
+            }, e -> JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.error.reincorporar")));
         }
                 
     }
@@ -490,10 +592,9 @@ public class OvejaPanel extends JPanel{
     /**
      * Registra parto completo para oveja madre seleccionada. 1. Valida hembra
      * adulta activa (>30kg) 2. Crea nueva oveja hija con ID ingresada 3. Guarda
-     * hija (OvejaDAO) + evento parto (EventoDAO) 4. Recarga tabla y confirma
+     * hija + evento parto en una transacción 4. Recarga tabla y confirma
      *
-     * @see OvejaDAO#insertar(Oveja)
-     * @see EventoDAO#insertar(Evento)
+     * @see EventoDAO#insertarParto(Oveja, Evento)
      */
     private void registrarParto() {
         int fila = tblOveja.getSelectedRow();
@@ -502,12 +603,10 @@ public class OvejaPanel extends JPanel{
             return;
         }
 
-        Oveja madre = obtenerOvejaPorFila(fila);
-
-        // DEBUG: Verifica madre
-        System.out.println("DEBUG Parto - Madre: " + madre.getNumeroIdentificacion()
-                + " | Raza: '" + madre.getRaza() + "' | Sexo: " + madre.getSexo());
+        model.conFila(fila, this::registrarParto);
+    }
 
+    private void registrarParto(Oveja madre) {
         if (!"H".equals(madre.getSexo()) || !madre.isActivo()
                 || (madre.getPesoActual() != null && madre.getPesoActual().compareTo(new BigDecimal("30")) < 0)) {
             JOptionPane.showMessageDialog(this,
@@ -515,9 +614,16 @@ public class OvejaPanel extends JPanel{
             return;
         }
 
-        // ID sugerencia
-        long total = ovejaDAO.contarActivas();
-        int sugerencia = (int) Math.min(total + 1, Integer.MAX_VALUE);
+        // ID sugerencia: la tabla puede estar filtrada, se pide al DAO
+        CargadorAsincrono.ejecutar(p -> ovejaDAO.siguienteNumero(), sugerencia -> pedirHija(madre, sugerencia),
+                ex -> JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.error.dao") + ": " + ex.getMessage()));
+    }
+
+    /**
+     * Pide el número de la cría (sugiriendo el siguiente) y guarda el parto
+     * en segundo plano.
+     */
+    private void pedirHija(Oveja madre, long sugerencia) {
         String numHija = JOptionPane.showInputDialog(this,
                 String.format(I18nUtil.get("oveja.parto.id"), sugerencia),
                 String.format(I18nUtil.get("oveja.parto.dialog.title"), madre.getNumeroIdentificacion()),
@@ -525,84 +631,57 @@ public class OvejaPanel extends JPanel{
 
         if (numHija != null && !numHija.trim().isEmpty()) {
             String idHija = numHija.trim().toUpperCase();
-            try {
-                if (ovejaDAO.buscarPorNumero(idHija) != null) {
+            CargadorAsincrono.ejecutar(p -> guardarParto(madre, idHija), guardado -> {
+                if (!guardado) {
                     JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("oveja.parto.duplicate"), idHija));
                     return;
                 }
-
-                String razaMadre = madre.getRaza() != null ? madre.getRaza() : "Sin raza";
-
-                Session session = HibernateUtil.getSessionFactory().openSession();
-                Transaction tx = null;
-
-                try {
-                    tx = session.beginTransaction();
-
-                    // HIJA: copia raza madre (null-safe)
-                    Oveja hija = new Oveja();
-                    hija.setNumeroIdentificacion(idHija);
-                    hija.setRaza(razaMadre);
-                    hija.setSexo("H");
-                    hija.setPesoActual(new BigDecimal("3.5"));
-                    hija.setFechaNacimiento(LocalDate.now());
-                    hija.setEstadoSalud("Sana - Recién nacida");
-                    hija.setActivo(true);
-
-                    ovejaDAO.insertar(hija);
-                    System.out.println("DEBUG Parto - Hija guardada: " + idHija
-                            + " | Raza: '" + hija.getRaza() + "'");
-
-                    // Evento parto MADRE
-                    EventoDAO eventoDAO = new EventoDAO();
-                    Evento parto = new Evento();
-                    parto.setTipoEvento("Parto");
-                    parto.setFechaEvento(LocalDate.now());
-                    parto.setOveja(madre);
-                    parto.setOvejaMadre(madre);  // Madre misma
-                    session.persist(parto);
-
-                    tx.commit();
-
-                    System.out.println("PARTO OK: Hija ID=" + hija.getId() + " Evento OK");
-
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.error.parto") + ": " + ex.getMessage());
-                    ex.printStackTrace();
-                    return;
-                }
-
-                cargarOvejas();
                 JOptionPane.showMessageDialog(this, String.format(I18nUtil.get("oveja.parto.success"),
                         madre.getNumeroIdentificacion(), idHija, "nuevo"));
-
-            } catch (Exception ex) {
+            }, ex -> {
                 JOptionPane.showMessageDialog(this, I18nUtil.get("oveja.error.parto") + ": " + ex.getMessage());
                 ex.printStackTrace();
-            }
+            });
         }
     }
 
     /**
-     * Obtiene Oveja completa por fila de tabla (llamado desde registrarParto).
-     * Usa ID para consulta completa en DAO.
+     * Persiste hija + evento parto (hilo de fondo, llamado desde
+     * registrarParto).
      *
-     * @param fila índice de fila seleccionada
-     * @return Oveja completa con todos los datos
+     * @param madre oveja madre validada.
+     * @param idHija número de identificación de la cría.
+     * @return false si el número ya existe (no se guarda nada).
+     * @throws RuntimeException si falla la BD (tampoco se guarda nada).
      */
-    private Oveja obtenerOvejaPorFila(int fila) {
-        Oveja m = new Oveja();
-        m.setId((Integer) tblOveja.getValueAt(fila, 0));
-        m.setNumeroIdentificacion((String) tblOveja.getValueAt(fila, 1));
-
-        String pesoStr = tblOveja.getValueAt(fila, 2).toString().trim();
-        m.setPesoActual(new BigDecimal(pesoStr.replace(",", ".")));
+    private boolean guardarParto(Oveja madre, String idHija) {
+        if (ovejaDAO.buscarPorNumero(idHija) != null) {
+            return false;
+        }
 
-        m.setSexo((String) tblOveja.getValueAt(fila, 4));
-        m.setActivo(!chkMostrarBajas.isSelected());
-        return m;
+        String razaMadre = madre.getRaza() != null ? madre.getRaza() : "Sin raza";
+
+        // HIJA: copia raza madre (null-safe)
+        Oveja hija = new Oveja();
+        hija.setNumeroIdentificacion(idHija);
+        hija.setRaza(razaMadre);
+        hija.setSexo("H");
+        hija.setPesoActual(new BigDecimal("3.5"));
+        hija.setFechaNacimiento(LocalDate.now());
+        hija.setEstadoSalud("Sana - Recién nacida");
+        hija.setActivo(true);
+
+        // Evento parto: oveja = hija, ovejaMadre = madre (enlace genealógico)
+        Evento parto = new Evento();
+        parto.setTipoEvento("Parto");
+        parto.setFechaEvento(LocalDate.now());
+        parto.setOvejaMadre(madre);
+
+        // Hija + parto en una transacción; un fallo llega a registrarParto
+        eventoDAO.insertarParto(hija, parto);
+        return true;
     }
-    
+
     /**
      * Actualiza textos i18n del panel según locale actual.
      */
@@ -617,12 +696,19 @@ public class OvejaPanel extends JPanel{
         btnRecargar.setText(I18nUtil.get("oveja.btn.recargar"));
         btnReincorporar.setText(I18nUtil.get("oveja.btn.reincorporar"));
         btnParto.setText(I18nUtil.get("oveja.btn.parto"));
+        // Deshabilitados = mostrando el avance; recuperan su texto al acabar
+        if (btnImportar.isEnabled()) {
+            btnImportar.setText(I18nUtil.get("importar.btn"));
+        }
+        if (btnExportar.isEnabled()) {
+            btnExportar.setText(I18nUtil.get("exportar.btn"));
+        }
 
         // Checkbox
         chkMostrarBajas.setText(I18nUtil.get("oveja.chk.bajas"));
 
         // Tabla columnas
-        model.setColumnIdentifiers(new String[]{
+        model.setColumnas(new String[]{
             I18nUtil.get("oveja.col.id"),
             I18nUtil.get("oveja.col.numero"),
             I18nUtil.get("oveja.col.peso"),
@@ -6,6 +6,7 @@ package Vista;
 
 import DAO.UsuarioDAO;
 import Modelo.Usuario;
+import Util.CargadorAsincrono;
 import Util.PasswordEncoderUtil;
 import Servicio.UsuarioService;
 import javax.swing.*;
@@ -180,39 +181,59 @@ public class PerfilPanel extends JPanel {
             return;
         }
 
-        try {
-            // Inyectar Service (MVC: Panel→Service→DAO)
-            UsuarioDAO dao = new UsuarioDAO();
-            PasswordEncoderUtil encoder = new PasswordEncoderUtil();
-            usuarioService = new UsuarioService(dao, encoder);
-
-            // Actualizar campos básicos
-            usuario.setNombre(nombre);
-            usuario.setApellidos(apellidos);
-            usuario.setEmail(email);
-
-            // Contraseña opcional + limpieza memoria
-            char[] passChars = txtPassword.getPassword();
-            if (passChars.length > 5) {  // Mínimo 6
-                String passPlana = new String(passChars);
-                usuario.setPassword(encoder.encode(passPlana));
+        // Inyectar Service (MVC: Panel→Service→DAO)
+        UsuarioDAO dao = new UsuarioDAO();
+        PasswordEncoderUtil encoder = new PasswordEncoderUtil();
+        usuarioService = new UsuarioService(dao, encoder);
+
+        // Contraseña opcional (se lee en EDT, se hashea fuera)
+        char[] passChars = txtPassword.getPassword();
+        txtPassword.setText("");  // Limpiar UI
+
+        // El hilo de fondo trabaja sobre una copia; usuario solo se toca en
+        // el EDT, al terminar
+        Usuario cambios = copiar(usuario);
+        cambios.setNombre(nombre);
+        cambios.setApellidos(apellidos);
+        cambios.setEmail(email);
+
+        // BCrypt + UPDATE en segundo plano
+        CargadorAsincrono.ejecutar(p -> {
+            try {
+                if (passChars.length > 5) {  // Mínimo 6
+                    cambios.setPassword(encoder.encode(new String(passChars)));
+                }
+            } finally {
                 Arrays.fill(passChars, '0');  // Memoria a 0
             }
-
-            // Persistir cambios
-            dao.actualizar(usuario);
+            // Persistir cambios (descarta la sesión en memoria)
+            usuarioService.actualizar(cambios);
+            return cambios;
+        }, u -> {
+            usuario.setNombre(u.getNombre());
+            usuario.setApellidos(u.getApellidos());
+            usuario.setEmail(u.getEmail());
+            usuario.setPassword(u.getPassword());
             JOptionPane.showMessageDialog(this,
                     I18nUtil.get("perfil.success"),
                     I18nUtil.get("perfil.success"), JOptionPane.INFORMATION_MESSAGE);
-
-            txtPassword.setText("");  // Limpiar UI
             txtNombre.requestFocus();
+        }, e -> JOptionPane.showMessageDialog(this,
+                String.format(I18nUtil.get("perfil.error.save"), e.getMessage()),
+                I18nUtil.get("perfil.validation.title"), JOptionPane.ERROR_MESSAGE));
+    }
 
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    String.format(I18nUtil.get("perfil.error.save"), e.getMessage()),
-                    I18nUtil.get("perfil.validation.title"), JOptionPane.ERROR_MESSAGE);
-        }
+    /**
+     * Copia de los campos persistentes del usuario (para modificarla fuera
+     * del EDT).
+     */
+    private static Usuario copiar(Usuario origen) {
+        Usuario copia = new Usuario(origen.getUsername(), origen.getPassword(), origen.getEmail(),
+                origen.getNombre(), origen.getApellidos());
+        copia.setId(origen.getId());
+        copia.setUltimaConexion(origen.getUltimaConexion());
+        copia.setActivo(origen.isActivo());
+        return copia;
     }
 
     /**
@@ -11,6 +11,8 @@ import Util.PasswordEncoderUtil;
 import javax.swing.*;
 import java.awt.*;
 import Util.I18nUtil;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Ventana de registro de nuevos usuarios para Ganadería App. Implementa
@@ -176,34 +178,48 @@ public class RegistroFrame extends JFrame {
             return;
         }
 
-        try {
-            // Inyección manual Service (MVC: Vista→Service→DAO)
-            UsuarioDAO dao = new UsuarioDAO();
-            PasswordEncoderUtil encoder = new PasswordEncoderUtil();
-            usuarioService = new UsuarioService(dao, encoder);
-
-            // Registrar delega encriptación/validación duplicados
-            Usuario nuevo = usuarioService.registrar(username, password, email, nombre, apellidos);
-            if (nuevo != null) {
-                JOptionPane.showMessageDialog(this,
-                        I18nUtil.get("registro.success"),
-                        I18nUtil.get("registro.success"), JOptionPane.INFORMATION_MESSAGE);
-                // Comunicación padre-hijo: rellenar login
-                parent.getTxtUsername().setText(username);
-                parent.getTxtPassword().requestFocus();
-                dispose();  // Cerrar modal
-            } else {
-                   JOptionPane.showMessageDialog(this,
-                        I18nUtil.get("registro.error.duplicate"),
-                        I18nUtil.get("registro.error.duplicate"), JOptionPane.ERROR_MESSAGE);
-                txtUsername.selectAll();
-                txtUsername.requestFocus();
-            }
-
-        } catch (Exception ex) {
+        // Inyección manual Service (MVC: Vista→Service→DAO)
+        UsuarioDAO dao = new UsuarioDAO();
+        PasswordEncoderUtil encoder = new PasswordEncoderUtil();
+        usuarioService = new UsuarioService(dao, encoder);
+
+        // Registrar delega encriptación/validación duplicados (BCrypt fuera del EDT)
+        JButton btnRegistrar = getRootPane().getDefaultButton();
+        btnRegistrar.setEnabled(false);
+        usuarioService.registrarAsync(username, password, email, nombre, apellidos)
+                .whenComplete((nuevo, ex) -> SwingUtilities.invokeLater(() -> {
+                    btnRegistrar.setEnabled(true);
+                    terminarRegistro(username, nuevo, ex);
+                }));
+    }
+
+    /**
+     * Resultado del registro, en el EDT.
+     */
+    private void terminarRegistro(String username, Usuario nuevo, Throwable ex) {
+        if (ex != null) {
+            Throwable causa = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
             JOptionPane.showMessageDialog(this,
-                    I18nUtil.get("registro.error.database", ex.getMessage()),
+                    causa instanceof RejectedExecutionException
+                            ? I18nUtil.get("login.error.ocupado")
+                            : I18nUtil.get("registro.error.database").replace("{0}", String.valueOf(causa.getMessage())),
                     I18nUtil.get("registro.error.database.title"), JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (nuevo != null) {
+            JOptionPane.showMessageDialog(this,
+                    I18nUtil.get("registro.success"),
+                    I18nUtil.get("registro.success"), JOptionPane.INFORMATION_MESSAGE);
+            // Comunicación padre-hijo: rellenar login
+            parent.getTxtUsername().setText(username);
+            parent.getTxtPassword().requestFocus();
+            dispose();  // Cerrar modal
+        } else {
+               JOptionPane.showMessageDialog(this,
+                    I18nUtil.get("registro.error.duplicate"),
+                    I18nUtil.get("registro.error.duplicate"), JOptionPane.ERROR_MESSAGE);
+            txtUsername.selectAll();
+            txtUsername.requestFocus();
         }
     }
 
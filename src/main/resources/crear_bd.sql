@@ -1,10 +1,12 @@
-/* 
+/*
  * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
  * Click nbfs://nbhost/SystemFileSystem/Templates/Other/SQLTemplate.sql to edit this template
  */
 /**
  * Author:  Elena González
  * Created: 3 ene 2026
+ * Esquema v2 (catálogos, pesadas, padre en partos). Para BDs anteriores:
+ * migracion_v2_catalogos.sql.
  */
 
 CREATE DATABASE IF NOT EXISTS ganaderia_gp;
@@ -22,28 +24,82 @@ CREATE TABLE usuario (
     activo BOOLEAN DEFAULT TRUE
 );
 
--- Tabla oveja
+-- Catálogos (Util.Catalogo): oveja guarda solo el código
+CREATE TABLE raza (
+    id SMALLINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    UNIQUE KEY uk_raza_nombre (nombre)
+);
+
+CREATE TABLE estado_salud (
+    id SMALLINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    UNIQUE KEY uk_estado_salud_nombre (nombre)
+);
+
+-- Tablas generadoras de IDs (pooled-lo); HibernateUtil las ajusta al MAX(id)
+CREATE TABLE oveja_id_gen (
+    entidad VARCHAR(255) NOT NULL PRIMARY KEY,
+    siguiente_id BIGINT
+);
+
+CREATE TABLE evento_id_gen (
+    entidad VARCHAR(255) NOT NULL PRIMARY KEY,
+    siguiente_id BIGINT
+);
+
+CREATE TABLE pesada_id_gen (
+    entidad VARCHAR(255) NOT NULL PRIMARY KEY,
+    siguiente_id BIGINT
+);
+
+-- Tabla oveja (columnas con los nombres que mapea Modelo.Oveja)
 CREATE TABLE oveja (
-    id INT PRIMARY KEY AUTO_INCREMENT,
-    numero_identificacion VARCHAR(20) UNIQUE NOT NULL,
-    raza VARCHAR(50),
+    id INT PRIMARY KEY,
+    numeroIdentificacion VARCHAR(20) UNIQUE NOT NULL,
+    id_raza SMALLINT,
     fecha_nacimiento DATE,
-    sexo CHAR(1),
+    sexo VARCHAR(1) NOT NULL,
     peso_actual DECIMAL(5,2),
-    estado_salud VARCHAR(50)
+    id_estado_salud SMALLINT,
+    activo BOOLEAN NOT NULL DEFAULT TRUE,
+    -- Paginación keyset: WHERE activo = ? AND id > ? ORDER BY id
+    INDEX idx_oveja_activo_id (activo, id),
+    CONSTRAINT fk_oveja_raza FOREIGN KEY (id_raza) REFERENCES raza(id),
+    CONSTRAINT fk_oveja_estado_salud FOREIGN KEY (id_estado_salud) REFERENCES estado_salud(id)
 );
 
--- Tabla evento
+-- Tabla evento (en los partos: id_oveja = cría, madre y padre si constan)
 CREATE TABLE evento (
-    id INT PRIMARY KEY AUTO_INCREMENT,
-    id_oveja INT,
+    id INT PRIMARY KEY,
+    id_oveja INT NOT NULL,
+    id_oveja_madre INT,
+    id_oveja_padre INT,
     tipo_evento VARCHAR(30),
-    fecha DATE,
-    detalles VARCHAR(200),
+    fecha_evento DATE,
+    observaciones VARCHAR(200),
+    activo BOOLEAN NOT NULL DEFAULT TRUE,
+    INDEX idx_evento_fecha_tipo_activo (fecha_evento, tipo_evento, activo),
+    INDEX idx_evento_oveja_fecha (id_oveja, fecha_evento),
+    INDEX idx_evento_activo_id (activo, id),
+    INDEX idx_evento_madre_tipo (id_oveja_madre, tipo_evento),
+    INDEX idx_evento_padre_tipo (id_oveja_padre, tipo_evento),
+    FOREIGN KEY (id_oveja) REFERENCES oveja(id) ON DELETE CASCADE,
+    FOREIGN KEY (id_oveja_madre) REFERENCES oveja(id),
+    FOREIGN KEY (id_oveja_padre) REFERENCES oveja(id)
+);
+
+-- Historial de pesos (solo se añaden filas)
+CREATE TABLE pesada (
+    id INT PRIMARY KEY,
+    id_oveja INT NOT NULL,
+    fecha DATE NOT NULL,
+    peso_centesimas INT NOT NULL,
+    INDEX idx_pesada_oveja_fecha (id_oveja, fecha),
     FOREIGN KEY (id_oveja) REFERENCES oveja(id) ON DELETE CASCADE
 );
 
 -- Datos de prueba (usuario admin)
-INSERT INTO usuario (username, password, email, nombre, apellidos) 
+INSERT INTO usuario (username, password, email, nombre, apellidos)
 VALUES ('admin', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'admin@ganaderia.com', 'Admin', 'Sistema');
 -- Password en texto plano: "password" (encriptada con BCrypt)
@@ -0,0 +1,80 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Other/SQLTemplate.sql to edit this template
+ */
+/**
+ * Author:  Elena González
+ * Migración v2: raza y estado de salud pasan de texto en oveja a códigos de
+ * las tablas de catálogo raza y estado_salud (ver Util.Catalogo).
+ *
+ * Ejecutar UNA vez en BDs creadas antes de la v2 (oveja con columnas raza y
+ * estadoSalud de texto), con la aplicación parada. Se puede repetir sin
+ * efectos: solo rellena códigos que falten. Las columnas de texto NO se
+ * borran; el paso 5 (manual) lo hace tras comprobar el paso 4.
+ * La aplicación no arranca mientras queden ovejas con texto y sin código.
+ */
+
+USE ganaderia_gp;
+
+-- 1. Tablas de catálogo
+CREATE TABLE IF NOT EXISTS raza (
+    id SMALLINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    UNIQUE KEY uk_raza_nombre (nombre)
+);
+
+CREATE TABLE IF NOT EXISTS estado_salud (
+    id SMALLINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    UNIQUE KEY uk_estado_salud_nombre (nombre)
+);
+
+-- 2. Columnas de código (si hbm2ddl aún no las creó)
+SET @falta = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'oveja' AND COLUMN_NAME = 'id_raza');
+SET @sql = IF(@falta, 'ALTER TABLE oveja ADD COLUMN id_raza SMALLINT NULL', 'DO 0');
+PREPARE paso FROM @sql; EXECUTE paso; DEALLOCATE PREPARE paso;
+
+SET @falta = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'oveja' AND COLUMN_NAME = 'id_estado_salud');
+SET @sql = IF(@falta, 'ALTER TABLE oveja ADD COLUMN id_estado_salud SMALLINT NULL', 'DO 0');
+PREPARE paso FROM @sql; EXECUTE paso; DEALLOCATE PREPARE paso;
+
+-- 3. Valores de texto -> catálogo -> código (solo DML: una transacción)
+START TRANSACTION;
+
+INSERT IGNORE INTO raza (nombre)
+SELECT DISTINCT TRIM(raza) FROM oveja WHERE TRIM(raza) <> '';
+
+UPDATE oveja o JOIN raza c ON c.nombre = TRIM(o.raza)
+SET o.id_raza = c.id
+WHERE o.id_raza IS NULL;
+
+INSERT IGNORE INTO estado_salud (nombre)
+SELECT DISTINCT TRIM(estadoSalud) FROM oveja WHERE TRIM(estadoSalud) <> '';
+
+UPDATE oveja o JOIN estado_salud c ON c.nombre = TRIM(o.estadoSalud)
+SET o.id_estado_salud = c.id
+WHERE o.id_estado_salud IS NULL;
+
+COMMIT;
+
+-- Claves ajenas hacia los catálogos
+SET @falta = (SELECT COUNT(*) = 0 FROM information_schema.TABLE_CONSTRAINTS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'oveja' AND CONSTRAINT_NAME = 'fk_oveja_raza');
+SET @sql = IF(@falta, 'ALTER TABLE oveja ADD CONSTRAINT fk_oveja_raza FOREIGN KEY (id_raza) REFERENCES raza (id)', 'DO 0');
+PREPARE paso FROM @sql; EXECUTE paso; DEALLOCATE PREPARE paso;
+
+SET @falta = (SELECT COUNT(*) = 0 FROM information_schema.TABLE_CONSTRAINTS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'oveja' AND CONSTRAINT_NAME = 'fk_oveja_estado_salud');
+SET @sql = IF(@falta, 'ALTER TABLE oveja ADD CONSTRAINT fk_oveja_estado_salud FOREIGN KEY (id_estado_salud) REFERENCES estado_salud (id)', 'DO 0');
+PREPARE paso FROM @sql; EXECUTE paso; DEALLOCATE PREPARE paso;
+
+-- 4. Comprobación: ambas cuentas deben ser 0
+SELECT
+    (SELECT COUNT(*) FROM oveja WHERE id_raza IS NULL AND TRIM(raza) <> '') AS razas_sin_codigo,
+    (SELECT COUNT(*) FROM oveja WHERE id_estado_salud IS NULL AND TRIM(estadoSalud) <> '') AS estados_sin_codigo;
+
+-- 5. (Manual, irreversible) Solo con el paso 4 a 0 y una copia de seguridad:
+-- ALTER TABLE oveja DROP COLUMN raza;
+-- ALTER TABLE oveja DROP COLUMN estadoSalud;
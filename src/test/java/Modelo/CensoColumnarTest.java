@@ -0,0 +1,92 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Filtros y agregados de {@link CensoColumnar}: filas útiles frente al
+ * búfer, pesos ausentes (NaN), diccionarios y cubetas del histograma.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class CensoColumnarTest {
+
+    private static final float SIN_PESO = Float.NaN;
+
+    /**
+     * Cinco ovejas en columnas de 8 (las 3 últimas posiciones son búfer de
+     * carga con basura que nunca debe contarse).
+     */
+    private static CensoColumnar censo() {
+        int[] ids = {1, 2, 3, 4, 5, 99, 99, 99};
+        float[] pesos = {40f, 60f, SIN_PESO, 120f, 20f, 500f, 500f, 500f};
+        byte[] sexos = {CensoColumnar.HEMBRA, CensoColumnar.MACHO, CensoColumnar.HEMBRA,
+            CensoColumnar.HEMBRA, CensoColumnar.OTRO, 0, 0, 0};
+        short[] razas = {1, 2, 1, 0, 1, 2, 2, 2};
+        short[] estados = {1, 1, 0, 1, 1, 1, 1, 1};
+        int[] nacimientos = {19_000, 19_100, CensoColumnar.SIN_FECHA, 18_500, 20_000, 0, 0, 0};
+        boolean[] activos = {true, true, true, false, true, true, true, true};
+        return new CensoColumnar(5, ids, pesos, sexos, razas, estados, nacimientos, activos,
+                new String[]{EstadisticasRebano.SIN_RAZA, "Merina", "Churra"},
+                new String[]{null, "Sana"});
+    }
+
+    @Test
+    void soloCuentanLasFilasUtiles() {
+        CensoColumnar c = censo();
+
+        assertEquals(5, c.size());
+        assertEquals(5, c.contar(CensoColumnar.TODAS));
+        assertEquals(4, c.contar(c::activo));
+        assertEquals(120f, c.pesoMaximo(CensoColumnar.TODAS));
+    }
+
+    @Test
+    void pesoMedioIgnoraLasQueNoTienenPeso() {
+        CensoColumnar c = censo();
+
+        assertEquals(60.0, c.pesoMedio(CensoColumnar.TODAS), 1e-9);
+        assertEquals(40.0, c.pesoMedio(i -> c.activo(i)), 1e-9);
+        assertEquals(40.0, c.pesoMedio(i -> c.sexo(i) == CensoColumnar.HEMBRA && c.activo(i)), 1e-9);
+        assertEquals(0.0, c.pesoMedio(i -> false));
+    }
+
+    @Test
+    void diccionariosTraducenEnAmbosSentidos() {
+        CensoColumnar c = censo();
+
+        assertEquals(1, c.codigoRaza("merina"));
+        assertEquals(-1, c.codigoRaza("Lacha"));
+        assertEquals("Churra", c.nombreRaza(2));
+        assertEquals(EstadisticasRebano.SIN_RAZA, c.nombreRaza(0));
+        assertEquals(1, c.codigoEstadoSalud("Sana"));
+        assertEquals(-1, c.codigoEstadoSalud("Enferma"));
+    }
+
+    @Test
+    void conteosPorCodigo() {
+        CensoColumnar c = censo();
+
+        assertArrayEquals(new long[]{1, 3, 1}, c.contarPorRaza(CensoColumnar.TODAS));
+        assertArrayEquals(new long[]{0, 3, 1}, c.contarPorRaza(c::activo));
+        assertArrayEquals(new long[]{1, 4}, c.contarPorEstadoSalud(CensoColumnar.TODAS));
+    }
+
+    @Test
+    void histogramaAcumulaElExcesoEnLaUltimaCubeta() {
+        CensoColumnar c = censo();
+
+        // 20 -> [0], 40 -> [1], 60 y 120 -> [2] (desborde); NaN se ignora
+        assertArrayEquals(new long[]{1, 1, 2}, c.histogramaPeso(25f, 3, CensoColumnar.TODAS));
+        assertArrayEquals(new long[]{1, 1, 1}, c.histogramaPeso(25f, 3, c::activo));
+        assertThrows(IllegalArgumentException.class, () -> c.histogramaPeso(0f, 3, CensoColumnar.TODAS));
+        assertThrows(IllegalArgumentException.class, () -> c.histogramaPeso(5f, 0, CensoColumnar.TODAS));
+    }
+}
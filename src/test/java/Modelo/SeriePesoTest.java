@@ -0,0 +1,87 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Modelo;
+
+import java.time.LocalDate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reducción LTTB de {@link SeriePeso} para gráficas (extremos, tamaño,
+ * picos visibles) y cálculo de ganancias.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class SeriePesoTest {
+
+    /** Serie diaria plana a 50 kg con un pico y una caída aislados. */
+    private static SeriePeso conPicos(int n, int posPico, int posCaida) {
+        int[] dias = new int[n];
+        int[] pesos = new int[n];
+        for (int i = 0; i < n; i++) {
+            dias[i] = 19_000 + i;
+            pesos[i] = 5_000;
+        }
+        pesos[posPico] = 9_000;
+        pesos[posCaida] = 1_000;
+        return new SeriePeso(1, dias, pesos);
+    }
+
+    @Test
+    void serieQueCabeNoSeCopia() {
+        SeriePeso s = conPicos(10, 3, 6);
+
+        assertSame(s, s.reducir(10));
+        assertThrows(IllegalArgumentException.class, () -> s.reducir(2));
+    }
+
+    @Test
+    void reduccionConservaExtremosYOrden() {
+        SeriePeso s = conPicos(10_000, 4_321, 7_654);
+        SeriePeso r = s.reducir(50);
+
+        assertEquals(50, r.size());
+        assertEquals(s.dia(0), r.dia(0));
+        assertEquals(s.dia(s.size() - 1), r.dia(r.size() - 1));
+        for (int i = 1; i < r.size(); i++) {
+            assertTrue(r.dia(i) > r.dia(i - 1), "días no crecientes en " + i);
+            // Cada punto es una pesada real, no una media
+            assertEquals(s.centesimas(r.dia(i) - 19_000), r.centesimas(i));
+        }
+    }
+
+    @Test
+    void picoYCaidaSiguenVisibles() {
+        SeriePeso r = conPicos(10_000, 4_321, 7_654).reducir(20);
+
+        boolean pico = false;
+        boolean caida = false;
+        for (int i = 0; i < r.size(); i++) {
+            pico |= r.centesimas(i) == 9_000;
+            caida |= r.centesimas(i) == 1_000;
+        }
+        assertTrue(pico, "se perdió el pico");
+        assertTrue(caida, "se perdió la caída");
+    }
+
+    @Test
+    void conInsertaEnOrdenYGananciaPorPeriodo() {
+        LocalDate d0 = LocalDate.of(2024, 1, 1);
+        SeriePeso s = SeriePeso.vacia(1)
+                .con((int) d0.plusDays(10).toEpochDay(), 4_000)
+                .con((int) d0.toEpochDay(), 3_000)
+                .con((int) d0.plusDays(20).toEpochDay(), 6_000);
+
+        assertEquals(d0, s.fecha(0));
+        assertEquals(40.0, s.kg(1));
+        assertEquals(1.5, s.gananciaMediaDiaria(), 1e-9);
+        assertEquals(2.0, s.gananciaMediaDiaria(d0.plusDays(5), d0.plusDays(20)), 1e-9);
+        assertTrue(Double.isNaN(s.gananciaMediaDiaria(d0.plusDays(11), d0.plusDays(19))));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import DAO.RelacionesParto;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * F de Wright y parentescos de {@link Consanguinidad} comparados con los
+ * valores de manual de cruces conocidos.
+ *
+ * Genealogía de prueba (hija ← madre × padre):
+ * 3, 4 ← 2 × 1 (hermanas); 5 ← 4 × 3 (cruce de hermanos, F = 1/4);
+ * 7 ← 2 × 10 (media hermana de 3); 8 ← 7 × 3 (medios hermanos, F = 1/8);
+ * 9 ← 4 × 1 (padre con hija, F = 1/4).
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class ConsanguinidadTest {
+
+    private static final double DELTA = 1e-12;
+
+    private static Consanguinidad calcular(int[] hijas, int[] madres, int[] padres) {
+        return Consanguinidad.calcular(GrafoGenealogico.construir(new RelacionesParto(hijas, madres, padres)));
+    }
+
+    private static Consanguinidad rebano() {
+        return calcular(
+                new int[]{3, 4, 5, 7, 8, 9},
+                new int[]{2, 2, 4, 2, 7, 4},
+                new int[]{1, 1, 3, 10, 3, 1});
+    }
+
+    @Test
+    void coeficientesDeCrucesConocidos() {
+        Consanguinidad c = rebano();
+
+        assertEquals(0.0, c.coeficiente(1), DELTA);
+        assertEquals(0.0, c.coeficiente(3), DELTA);
+        assertEquals(0.25, c.coeficiente(5), DELTA);
+        assertEquals(0.125, c.coeficiente(8), DELTA);
+        assertEquals(0.25, c.coeficiente(9), DELTA);
+        assertEquals(0.0, c.coeficiente(999), DELTA);
+        assertEquals(3, c.getConsanguineas());
+    }
+
+    @Test
+    void parentescoEsLaFDeLaCria() {
+        Consanguinidad c = rebano();
+
+        assertEquals(0.25, c.parentesco(3, 4), DELTA);
+        assertEquals(c.parentesco(3, 4), c.parentesco(4, 3), DELTA);
+        assertEquals(0.125, c.parentesco(3, 7), DELTA);
+        assertEquals(0.0, c.parentesco(1, 2), DELTA);
+        assertEquals(0.5, c.parentesco(1, 1), DELTA);
+        assertEquals((1 + 0.25) / 2, c.parentesco(5, 5), DELTA);
+    }
+
+    @Test
+    void candidatosYMatrizCoincidenConParentesco() {
+        Consanguinidad c = rebano();
+        int[] machos = {1, 3, 10, 999};
+
+        double[] f = c.parentescoCandidatos(4, machos);
+        for (int k = 0; k < machos.length; k++) {
+            assertEquals(c.parentesco(4, machos[k]), f[k], DELTA);
+        }
+
+        int[] ids = {3, 4, 5, 8};
+        Consanguinidad.MatrizParentesco m = c.matriz(ids);
+        assertArrayEquals(ids, m.ids());
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = 0; j < ids.length; j++) {
+                assertEquals(c.parentesco(ids[i], ids[j]), m.get(i, j), DELTA);
+            }
+        }
+    }
+
+    @Test
+    void matrizRechazaConjuntosGrandes() {
+        int[] ids = new int[Consanguinidad.MAX_OVEJAS_MATRIZ + 1];
+
+        assertThrows(IllegalArgumentException.class, () -> rebano().matriz(ids));
+    }
+
+    @Test
+    void ciclosSeIgnoran() {
+        Consanguinidad c = calcular(
+                new int[]{20, 21, 3},
+                new int[]{21, 20, 2},
+                new int[]{0, 0, 1});
+
+        assertEquals(2, c.getEnCiclo());
+        assertEquals(0.0, c.coeficiente(20), DELTA);
+        assertEquals(0.0, c.coeficiente(3), DELTA);
+    }
+}
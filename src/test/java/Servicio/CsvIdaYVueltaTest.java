@@ -0,0 +1,142 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servicio;
+
+import Modelo.Evento;
+import Modelo.Oveja;
+import Util.LectorCsv;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Un CSV escrito por {@link ExportadorDatos} se vuelve a leer con
+ * {@link ImportadorCsv} sin perder datos (textos con ';', comillas y saltos
+ * de línea incluidos), y las reglas de validación del importador. Sin BD:
+ * se prueba el formato, no la escritura de lotes.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class CsvIdaYVueltaTest {
+
+    @Test
+    void ovejaExportadaSeImportaIgual() throws IOException {
+        Oveja original = new Oveja("ES0412345678", "Churra", LocalDate.of(2021, 3, 14), "H",
+                new BigDecimal("47.25"), "Cojera; \"leve\"\nrevisar en mayo");
+        original.setId(7);
+        original.setActivo(true);
+
+        StringWriter csv = new StringWriter();
+        ExportadorDatos.cabecera(csv, ExportadorDatos.Formato.CSV, ExportadorDatos.COLUMNAS_OVEJA);
+        ExportadorDatos.fila(csv, ExportadorDatos.Formato.CSV, ExportadorDatos.COLUMNAS_OVEJA,
+                original.getId(), original.getNumeroIdentificacion(), original.getRaza(),
+                original.getFechaNacimiento(), original.getSexo(), original.getPesoActual(),
+                original.getEstadoSalud(), original.isActivo());
+
+        LectorCsv lector = new LectorCsv(new StringReader(csv.toString()));
+        int[] indices = ImportadorCsv.leerCabecera(lector.siguiente(), ImportadorCsv.COLUMNAS_OVEJA, 5);
+        Oveja leida = ImportadorCsv.leerOveja(lector.siguiente(), indices);
+
+        assertEquals(original.getNumeroIdentificacion(), leida.getNumeroIdentificacion());
+        assertEquals(original.getRaza(), leida.getRaza());
+        assertEquals(original.getFechaNacimiento(), leida.getFechaNacimiento());
+        assertEquals(original.getSexo(), leida.getSexo());
+        assertEquals(0, original.getPesoActual().compareTo(leida.getPesoActual()));
+        assertEquals(original.getEstadoSalud(), leida.getEstadoSalud());
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    void eventoExportadoConservaProgenitores() throws IOException {
+        StringWriter csv = new StringWriter();
+        ExportadorDatos.cabecera(csv, ExportadorDatos.Formato.CSV, ExportadorDatos.COLUMNAS_EVENTO);
+        String[] columnas = ExportadorDatos.COLUMNAS_EVENTO;
+        Object[] valores = new Object[columnas.length];
+        for (int i = 0; i < columnas.length; i++) {
+            valores[i] = switch (columnas[i]) {
+                case "id" -> 31;
+                case "numeroOveja" -> "ES01";
+                case "tipoEvento" -> "Parto";
+                case "fechaEvento" -> LocalDate.of(2024, 2, 29);
+                case "observaciones" -> "Gemelar; \"sin incidencias\"";
+                case "numeroMadre" -> "ES02";
+                case "numeroPadre" -> "ES03";
+                case "activo" -> true;
+                default -> throw new AssertionError("Columna nueva sin cubrir en la prueba: " + columnas[i]);
+            };
+        }
+        ExportadorDatos.fila(csv, ExportadorDatos.Formato.CSV, columnas, valores);
+
+        LectorCsv lector = new LectorCsv(new StringReader(csv.toString()));
+        int[] indices = ImportadorCsv.leerCabecera(lector.siguiente(), ImportadorCsv.COLUMNAS_EVENTO, 3);
+        String[] campos = lector.siguiente();
+        Evento leido = ImportadorCsv.leerEvento(campos, indices);
+
+        assertEquals("Parto", leido.getTipoEvento());
+        assertEquals(LocalDate.of(2024, 2, 29), leido.getFechaEvento());
+        assertEquals("Gemelar; \"sin incidencias\"", leido.getObservaciones());
+        assertEquals("ES01", ImportadorCsv.texto(campos, indices[0]));
+        assertEquals("ES02", ImportadorCsv.texto(campos, indices[4]));
+        assertEquals("ES03", ImportadorCsv.texto(campos, indices[5]));
+    }
+
+    @Test
+    void columnasAnterioresDelEventoNoCambianDeSitio() {
+        assertArrayEquals(new String[]{"id", "numeroOveja", "tipoEvento", "fechaEvento", "observaciones",
+            "numeroMadre", "activo"}, Arrays.copyOf(ExportadorDatos.COLUMNAS_EVENTO, 7));
+    }
+
+    @Test
+    void cabeceraAdmiteVariantesYExigeObligatorias() {
+        int[] indices = ImportadorCsv.leerCabecera(
+                new String[]{"Sexo", "numero_identificacion", "RAZA", "peso actual", "fechaNacimiento"},
+                ImportadorCsv.COLUMNAS_OVEJA, 5);
+        assertArrayEquals(new int[]{1, 2, 4, 0, 3, -1}, indices);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ImportadorCsv.leerCabecera(new String[]{"numeroIdentificacion", "raza"},
+                        ImportadorCsv.COLUMNAS_OVEJA, 5));
+        assertTrue(ex.getMessage().contains("fechaNacimiento"));
+    }
+
+    @Test
+    void rechazaOvejasInvalidas() {
+        int[] indices = {0, 1, 2, 3, 4, 5};
+        assertThrows(IllegalArgumentException.class, () -> ImportadorCsv.leerOveja(
+                new String[]{"ES1", "Churra", "2020-01-01", "X", "40", ""}, indices));
+        assertThrows(IllegalArgumentException.class, () -> ImportadorCsv.leerOveja(
+                new String[]{"ES1", "Churra", "2020-01-01", "H", "1000", ""}, indices));
+        assertThrows(IllegalArgumentException.class, () -> ImportadorCsv.leerOveja(
+                new String[]{"ES1", "Churra", "31/02/2020", "H", "40", ""}, indices));
+        assertThrows(IllegalArgumentException.class, () -> ImportadorCsv.leerOveja(
+                new String[]{"", "Churra", "2020-01-01", "H", "40", ""}, indices));
+
+        // Formato español: fecha d/M/yyyy y coma decimal
+        Oveja o = ImportadorCsv.leerOveja(new String[]{"ES1", "Churra", "5/6/2020", "m", "40,5", ""}, indices);
+        assertEquals(LocalDate.of(2020, 6, 5), o.getFechaNacimiento());
+        assertEquals("M", o.getSexo());
+        assertEquals(new BigDecimal("40.5"), o.getPesoActual());
+        assertNull(o.getEstadoSalud());
+    }
+
+    @Test
+    void lectorDetectaSeparadorYQuitaBom() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader("﻿a,b\n\n1,\"x,y\"\n"));
+        assertArrayEquals(new String[]{"a", "b"}, lector.siguiente());
+        assertArrayEquals(new String[]{"1", "x,y"}, lector.siguiente());
+        assertEquals(3, lector.getLinea());
+        assertNull(lector.siguiente());
+    }
+}
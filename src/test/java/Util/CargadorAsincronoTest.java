@@ -0,0 +1,86 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cancelación sin interrupción y entrega de Error en
+ * {@link CargadorAsincrono}.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class CargadorAsincronoTest {
+
+    private static final long ESPERA_S = 5;
+
+    @Test
+    void cargaSustituidaNoSeInterrumpeYVeLaCancelacion() throws Exception {
+        CargadorAsincrono cargador = new CargadorAsincrono();
+        CountDownLatch empezada = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        CountDownLatch vista = new CountDownLatch(1);
+        AtomicBoolean interrumpida = new AtomicBoolean();
+        AtomicBoolean cancelada = new AtomicBoolean();
+        AtomicBoolean entregada = new AtomicBoolean();
+
+        cargador.cargar(p -> {
+            empezada.countDown();
+            seguir.await();
+            interrumpida.set(Thread.currentThread().isInterrupted());
+            cancelada.set(p.cancelado());
+            vista.countDown();
+            return "vieja";
+        }, r -> entregada.set(true), e -> entregada.set(true));
+        assertTrue(empezada.await(ESPERA_S, TimeUnit.SECONDS));
+
+        CountDownLatch nueva = new CountDownLatch(1);
+        AtomicReference<String> resultado = new AtomicReference<>();
+        cargador.cargar(p -> "nueva", r -> {
+            resultado.set(r);
+            nueva.countDown();
+        }, e -> nueva.countDown());
+        assertTrue(nueva.await(ESPERA_S, TimeUnit.SECONDS));
+        seguir.countDown();
+        assertTrue(vista.await(ESPERA_S, TimeUnit.SECONDS));
+
+        assertEquals("nueva", resultado.get());
+        assertFalse(interrumpida.get());
+        assertTrue(cancelada.get());
+        // La vieja termina después, pero su resultado no llega
+        CountDownLatch vaciado = new CountDownLatch(1);
+        SwingUtilities.invokeLater(vaciado::countDown);
+        assertTrue(vaciado.await(ESPERA_S, TimeUnit.SECONDS));
+        assertFalse(entregada.get());
+    }
+
+    @Test
+    void unErrorLlegaAlFallar() throws Exception {
+        CountDownLatch fallo = new CountDownLatch(1);
+        AtomicReference<Exception> recibido = new AtomicReference<>();
+
+        CargadorAsincrono.ejecutar(p -> {
+            throw new ExceptionInInitializerError("arranque");
+        }, r -> { }, e -> {
+            recibido.set(e);
+            fallo.countDown();
+        });
+
+        assertTrue(fallo.await(ESPERA_S, TimeUnit.SECONDS));
+        assertInstanceOf(ExecutionException.class, recibido.get());
+        assertInstanceOf(ExceptionInInitializerError.class, recibido.get().getCause());
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Los Converter de {@link Catalogo} solo consultan el diccionario: un valor
+ * sin dar de alta falla sin tocar la BD (aquí no hay ninguna).
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class CatalogoTest {
+
+    @Test
+    void conversorNoDaDeAltaValoresNuevos() {
+        Catalogo.ConversorRaza conversor = new Catalogo.ConversorRaza();
+
+        assertThrows(IllegalStateException.class, () -> conversor.convertToDatabaseColumn("Merina"));
+        assertEquals(-1, Catalogo.RAZAS.buscar("Merina"));
+    }
+
+    @Test
+    void vacioEsSinValor() {
+        Catalogo.ConversorEstadoSalud conversor = new Catalogo.ConversorEstadoSalud();
+
+        assertNull(conversor.convertToDatabaseColumn(null));
+        assertNull(conversor.convertToDatabaseColumn("   "));
+        assertNull(conversor.convertToEntityAttribute(null));
+        assertEquals(0, Catalogo.ESTADOS_SALUD.registrar(""));
+    }
+
+    @Test
+    void textoDemasiadoLargoSeRechaza() {
+        String largo = "x".repeat(Catalogo.LONGITUD_MAXIMA + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> Catalogo.RAZAS.buscar(largo));
+        assertThrows(IllegalArgumentException.class, () -> Catalogo.RAZAS.registrar(largo));
+    }
+}
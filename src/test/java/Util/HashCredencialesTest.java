@@ -0,0 +1,64 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cuándo {@link HashCredenciales} pide rehacer un hash: solo para subir el
+ * coste, nunca para bajarlo.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class HashCredencialesTest {
+
+    private static final String COSTE_10 = "$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi";
+
+    private static String conCoste(int coste) {
+        return COSTE_10.substring(0, 4) + String.format("%02d", coste) + COSTE_10.substring(6);
+    }
+
+    @Test
+    void costeSeLeeDelHash() {
+        assertEquals(10, HashCredenciales.costeDe(COSTE_10));
+        assertEquals(12, HashCredenciales.costeDe(conCoste(12)));
+        assertEquals(-1, HashCredenciales.costeDe("password"));
+        assertEquals(-1, HashCredenciales.costeDe(null));
+        assertEquals(-1, HashCredenciales.costeDe("$2a$1x$abc"));
+    }
+
+    @Test
+    void soloSeRehaceHaciaUnCosteMayor() {
+        HashCredenciales hash = new HashCredenciales(1, 11);
+
+        assertTrue(hash.necesitaRehash(COSTE_10));
+        assertFalse(hash.necesitaRehash(conCoste(11)));
+        assertFalse(hash.necesitaRehash(conCoste(12)), "un hash más fuerte no se debilita");
+        assertTrue(hash.necesitaRehash("texto-plano-antiguo"));
+    }
+
+    @Test
+    void sinCalibrarNoSeRehace() {
+        HashCredenciales hash = new HashCredenciales(1, 0);
+
+        assertEquals(HashCredenciales.COSTE_POR_DEFECTO, hash.getCoste());
+        assertFalse(hash.necesitaRehash(conCoste(4)));
+    }
+
+    @Test
+    void hashCodificadoSeVerificaYLlevaElCoste() throws Exception {
+        HashCredenciales hash = new HashCredenciales(1, 4);
+
+        String codificado = hash.codificar("secreto").get();
+        assertEquals(4, HashCredenciales.costeDe(codificado));
+        assertTrue(hash.verificar("secreto", codificado).get());
+        assertFalse(hash.verificar("otro", codificado).get());
+        assertTrue(hash.verificar("password", COSTE_10).get());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Util;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Límite de fallos de {@link LimitadorLogin} y ventana deslizante de
+ * {@link VentanaDeslizante}, con el reloj fijado por la prueba.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class LimitadorLoginTest {
+
+    private static final long MINUTO = 60_000L;
+
+    /** Inicio exacto de una ventana de un minuto. */
+    private static final long T0 = 1_000 * MINUTO;
+
+    @Test
+    void bloqueaAlUsuarioTrasElLimiteSinAfectarAOtros() {
+        LimitadorLogin limitador = new LimitadorLogin(MINUTO, 5);
+        for (int i = 0; i < 5; i++) {
+            limitador.adquirir("ana", T0 + i);
+        }
+
+        LimitadorLogin.IntentosExcedidosException bloqueo = assertThrows(
+                LimitadorLogin.IntentosExcedidosException.class, () -> limitador.adquirir("ana", T0 + 10));
+        assertTrue(bloqueo.getSegundosEspera() > 0 && bloqueo.getSegundosEspera() <= 60);
+        assertDoesNotThrow(() -> limitador.adquirir("luis", T0 + 10));
+        assertEquals(6, limitador.getAdmitidos());
+        assertEquals(1, limitador.getRechazados());
+    }
+
+    @Test
+    void fallosConNombresInventadosNoBloqueanAUnUsuarioReal() {
+        LimitadorLogin limitador = new LimitadorLogin(MINUTO, 5);
+        for (int i = 0; i < 500; i++) {
+            String inventado = "usuario" + i;
+            assertDoesNotThrow(() -> limitador.adquirir(inventado, T0));
+        }
+
+        assertDoesNotThrow(() -> limitador.adquirir("ana", T0));
+    }
+
+    @Test
+    void losAciertosNoConsumenIntentos() {
+        LimitadorLogin limitador = new LimitadorLogin(MINUTO, 5);
+        for (int i = 0; i < 20; i++) {
+            limitador.adquirir("ana", T0 + i);
+            limitador.exito("ana", T0 + i);
+        }
+
+        assertDoesNotThrow(() -> limitador.adquirir("ana", T0 + 100));
+    }
+
+    @Test
+    void usuarioSinDistinguirMayusculasNiEspacios() {
+        LimitadorLogin limitador = new LimitadorLogin(MINUTO, 2);
+        limitador.adquirir("Ana", T0);
+        limitador.adquirir(" ana ", T0);
+
+        assertThrows(LimitadorLogin.IntentosExcedidosException.class, () -> limitador.adquirir("ANA", T0));
+    }
+
+    @Test
+    void laVentanaAnteriorPesaSegunSuSolape() {
+        VentanaDeslizante ventana = new VentanaDeslizante(64, MINUTO, 5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ventana.adquirir("ana", T0));
+        }
+        assertFalse(ventana.adquirir("ana", T0 + MINUTO - 1));
+
+        // Recién empezada la ventana siguiente: 5 anteriores x ~1 + 1 = 6
+        assertFalse(ventana.adquirir("ana", T0 + MINUTO));
+        // A mitad: 5 x 0,5 + 1 = 3,5
+        assertTrue(ventana.adquirir("ana", T0 + MINUTO + MINUTO / 2));
+        // Dos ventanas después no queda nada
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ventana.adquirir("ana", T0 + 3 * MINUTO));
+        }
+    }
+
+    @Test
+    void configuracionNoValida() {
+        assertThrows(IllegalArgumentException.class, () -> new VentanaDeslizante(100, MINUTO, 5));
+        assertThrows(IllegalArgumentException.class, () -> new VentanaDeslizante(64, 10, 5));
+        assertThrows(IllegalArgumentException.class, () -> new VentanaDeslizante(64, MINUTO, 0));
+    }
+}
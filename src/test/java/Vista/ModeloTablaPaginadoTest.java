@@ -0,0 +1,190 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Vista;
+
+import DAO.Pagina;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de {@link ModeloTablaPaginado} con un origen en memoria: carga por
+ * bloques y actualización de filas sueltas sin recargar la tabla.
+ *
+ * @author Elena González
+ * @version 1.0
+ */
+class ModeloTablaPaginadoTest {
+
+    private static final int BLOQUE = 10;
+
+    /** "BD": ID → valor de la fila. */
+    private final ConcurrentSkipListMap<Integer, String> datos = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger paginasPedidas = new AtomicInteger();
+
+    private final List<TableModelEvent> eventos = new ArrayList<>();
+
+    private ModeloTablaPaginado<String> modelo;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        for (int id = 1; id <= 25; id++) {
+            datos.put(id, "oveja-" + id);
+        }
+        enEdt(() -> {
+            modelo = new ModeloTablaPaginado<>(new String[]{"Valor"}, BLOQUE, 4) {
+                @Override
+                protected int[] cargarIds() {
+                    return datos.keySet().stream().mapToInt(Integer::intValue).toArray();
+                }
+
+                @Override
+                protected Pagina<String> cargarPagina(Integer despuesDeId, int tamanio) {
+                    paginasPedidas.incrementAndGet();
+                    TreeMap<Integer, String> resto = new TreeMap<>(despuesDeId == null
+                            ? datos : datos.tailMap(despuesDeId, false));
+                    List<String> filas = new ArrayList<>(resto.values()).subList(0, Math.min(tamanio, resto.size()));
+                    return new Pagina<>(filas, null);
+                }
+
+                @Override
+                protected Object valorColumna(String fila, int columna) {
+                    return fila;
+                }
+            };
+            modelo.addTableModelListener(eventos::add);
+            modelo.recargar();
+        });
+        esperar(() -> modelo.getRowCount() == 25);
+        enEdt(eventos::clear);
+    }
+
+    @Test
+    void cargaCadaBloqueUnaVezConUnSoloEvento() throws Exception {
+        enEdt(() -> {
+            assertNull(modelo.getValueAt(12, 0));
+            // Mismo bloque, ya pedido: no sale otra consulta
+            assertNull(modelo.getValueAt(15, 0));
+        });
+        esperar(() -> modelo.getValueAt(12, 0) != null);
+
+        enEdt(() -> {
+            assertEquals("oveja-13", modelo.getValueAt(12, 0));
+            assertEquals("oveja-20", modelo.getValueAt(19, 0));
+            assertEquals(1, paginasPedidas.get());
+            assertEquals(1, eventos.size());
+            assertEquals(10, eventos.get(0).getFirstRow());
+            assertEquals(19, eventos.get(0).getLastRow());
+        });
+    }
+
+    @Test
+    void actualizarFilasReleeSoloElBloqueAfectado() throws Exception {
+        cargarBloques(0, 10);
+        datos.put(3, "oveja-3 (pesada)");
+        datos.put(14, "oveja-14 (vacunada)");
+        int antes = paginasPedidas.get();
+
+        enEdt(() -> modelo.actualizarFilas(Set.of(3)));
+        esperar(() -> "oveja-3 (pesada)".equals(modelo.getValueAt(2, 0)));
+
+        enEdt(() -> {
+            assertEquals(antes + 1, paginasPedidas.get());
+            // El bloque 1 sigue en memoria con el valor anterior
+            assertEquals("oveja-14", modelo.getValueAt(13, 0));
+        });
+    }
+
+    @Test
+    void anadirFilasAlFinalNoRecargaLaTabla() throws Exception {
+        cargarBloques(0);
+        datos.put(26, "oveja-26");
+        datos.put(27, "oveja-27");
+        enEdt(() -> {
+            eventos.clear();
+            modelo.anadirFilas(List.of(27, 26));
+            assertEquals(27, modelo.getRowCount());
+            assertEquals(1, eventos.size());
+            assertEquals(TableModelEvent.INSERT, eventos.get(0).getType());
+            assertEquals(25, eventos.get(0).getFirstRow());
+            assertEquals(26, eventos.get(0).getLastRow());
+            // El primer bloque no se ha tocado
+            assertEquals("oveja-1", modelo.getValueAt(0, 0));
+        });
+        esperar(() -> "oveja-27".equals(modelo.getValueAt(26, 0)));
+    }
+
+    @Test
+    void quitarFilasDesplazaLasSiguientes() throws Exception {
+        cargarBloques(0, 10);
+        datos.remove(12);
+        enEdt(() -> {
+            eventos.clear();
+            modelo.quitarFilas(List.of(12, 999));
+            assertEquals(24, modelo.getRowCount());
+            assertEquals(1, eventos.size());
+            assertEquals(TableModelEvent.DELETE, eventos.get(0).getType());
+            assertEquals(11, eventos.get(0).getFirstRow());
+            // Bloque anterior a la fila quitada: sigue en memoria
+            assertEquals("oveja-1", modelo.getValueAt(0, 0));
+        });
+        esperar(() -> "oveja-13".equals(modelo.getValueAt(11, 0)));
+    }
+
+    @Test
+    void conFilaEsperaAQueLlegueElBloque() throws Exception {
+        List<String> recibidas = new ArrayList<>();
+        enEdt(() -> {
+            modelo.conFila(21, recibidas::add);
+            assertTrue(recibidas.isEmpty());
+        });
+        esperar(() -> !recibidas.isEmpty());
+        enEdt(() -> {
+            assertEquals(List.of("oveja-22"), recibidas);
+            // Con el bloque en memoria se ejecuta al momento
+            modelo.conFila(20, recibidas::add);
+            assertEquals(List.of("oveja-22", "oveja-21"), recibidas);
+        });
+    }
+
+    /** Pide y espera los bloques que contienen esas filas. */
+    private void cargarBloques(int... filas) throws Exception {
+        for (int fila : filas) {
+            enEdt(() -> modelo.getFila(fila));
+            esperar(() -> modelo.getFila(fila) != null);
+        }
+    }
+
+    private static void enEdt(Runnable accion) throws Exception {
+        SwingUtilities.invokeAndWait(accion);
+    }
+
+    /** Comprueba la condición en el EDT hasta que se cumpla (máx. 5 s). */
+    private static void esperar(BooleanSupplier condicion) throws Exception {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        boolean[] ok = new boolean[1];
+        while (System.nanoTime() < limite) {
+            enEdt(() -> ok[0] = condicion.getAsBoolean());
+            if (ok[0]) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Condición no cumplida en 5 s");
+    }
+}